@@ -0,0 +1,90 @@
+/*
+ * BSD 3-Clause License
+ *
+ * Copyright (c) 2018, Grum Ltd (Romain Gallet)
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ *
+ * Neither the name of Geocalc nor the names of its
+ * contributors may be used to endorse or promote products derived from
+ * this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.grum.geocalc.benchmark;
+
+import com.grum.geocalc.EarthCalc;
+import com.grum.geocalc.Point;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One stand point against all the fore points of a {@link Scenario}, given as columns of degrees.
+ * Scores are per batch of {@link Scenario#SIZE} distances.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class BatchDistanceBenchmark {
+
+    @Param({"SHORT_HOP", "CONTINENTAL"})
+    public Scenario scenario;
+
+    private Point standPoint;
+    private double[] latitudes, longitudes, distances;
+
+    @Setup
+    public void setUp() {
+        Point[][] pairs = scenario.pairs();
+        standPoint = pairs[0][0];
+
+        latitudes = new double[Scenario.SIZE];
+        longitudes = new double[Scenario.SIZE];
+        distances = new double[Scenario.SIZE];
+        for (int i = 0; i < Scenario.SIZE; i++) {
+            latitudes[i] = pairs[1][i].latitude;
+            longitudes[i] = pairs[1][i].longitude;
+        }
+    }
+
+    @Benchmark
+    public double[] gcdDistances() {
+        EarthCalc.gcd.distances(standPoint, latitudes, longitudes, distances);
+        return distances;
+    }
+
+    @Benchmark
+    public double[] haversineDistances() {
+        EarthCalc.haversine.distances(standPoint, latitudes, longitudes, distances);
+        return distances;
+    }
+
+    @Benchmark
+    public double[] vincentyDistances() {
+        EarthCalc.vincenty.distances(standPoint, latitudes, longitudes, distances);
+        return distances;
+    }
+}
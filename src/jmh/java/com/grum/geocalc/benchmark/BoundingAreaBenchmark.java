@@ -0,0 +1,103 @@
+/*
+ * BSD 3-Clause License
+ *
+ * Copyright (c) 2018, Grum Ltd (Romain Gallet)
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ *
+ * Neither the name of Geocalc nor the names of its
+ * contributors may be used to endorse or promote products derived from
+ * this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.grum.geocalc.benchmark;
+
+import com.grum.geocalc.BoundingArea;
+import com.grum.geocalc.EarthCalc;
+import com.grum.geocalc.Point;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures BoundingArea.contains, with the area being built around the stand points of a {@link Scenario}
+ * and the fore points being tested against it.
+ * <p>
+ * Antimeridian areas exercise the "back of the Earth" branch of contains.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class BoundingAreaBenchmark {
+
+    @Param
+    public Scenario scenario;
+
+    private BoundingArea[] areas;
+    private Point[] points;
+    private double[] latitudes, longitudes;
+    private long[] bits;
+    private int i;
+
+    @Setup
+    public void setUp() {
+        Point[][] pairs = scenario.pairs();
+        points = pairs[1];
+
+        areas = new BoundingArea[Scenario.SIZE];
+        for (int j = 0; j < Scenario.SIZE; j++) {
+            //roughly half the points end up inside their area
+            double distance = EarthCalc.gcd.distance(pairs[0][j], points[j]) * (j % 2 == 0 ? 2 : .5);
+            areas[j] = EarthCalc.gcd.around(pairs[0][j], distance);
+        }
+
+        latitudes = new double[Scenario.SIZE];
+        longitudes = new double[Scenario.SIZE];
+        bits = new long[Scenario.SIZE / 64];
+        for (int j = 0; j < Scenario.SIZE; j++) {
+            latitudes[j] = points[j].latitude;
+            longitudes[j] = points[j].longitude;
+        }
+    }
+
+    @Benchmark
+    public boolean contains() {
+        int j = i = (i + 1) & (Scenario.SIZE - 1);
+        return areas[j].contains(points[j]);
+    }
+
+    /**
+     * All the fore points of the scenario against one area at a time, to be compared with
+     * {@link #contains()} times {@link Scenario#SIZE}.
+     */
+    @Benchmark
+    @OperationsPerInvocation(Scenario.SIZE)
+    public long[] containsColumns() {
+        int j = i = (i + 1) & (Scenario.SIZE - 1);
+        areas[j].contains(latitudes, longitudes, bits);
+        return bits;
+    }
+}
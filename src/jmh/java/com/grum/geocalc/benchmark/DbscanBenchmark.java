@@ -0,0 +1,78 @@
+/*
+ * BSD 3-Clause License
+ *
+ * Copyright (c) 2018, Grum Ltd (Romain Gallet)
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ *
+ * Neither the name of Geocalc nor the names of its
+ * contributors may be used to endorse or promote products derived from
+ * this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.grum.geocalc.benchmark;
+
+import com.grum.geocalc.Dbscan;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Clustering of a million pickup-like locations over a city: dense blobs plus uniform noise.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DbscanBenchmark {
+
+    @Param({"25", "100"})
+    public double epsilon;
+
+    private double[] latitudes, longitudes;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        latitudes = new double[1_000_000];
+        longitudes = new double[1_000_000];
+        for (int i = 0; i < latitudes.length; i++) {
+            if (i % 5 == 0) {
+                latitudes[i] = 51.3 + random.nextDouble() * 0.4;
+                longitudes[i] = -0.5 + random.nextDouble() * 0.7;
+            } else {
+                int blob = i % 2_000;
+                latitudes[i] = 51.3 + (blob % 40) * 0.01 + random.nextGaussian() * 0.0005;
+                longitudes[i] = -0.5 + (blob / 40) * 0.014 + random.nextGaussian() * 0.0008;
+            }
+        }
+    }
+
+    @Benchmark
+    public int[] cluster() {
+        return Dbscan.cluster(latitudes, longitudes, epsilon, 10);
+    }
+}
@@ -0,0 +1,265 @@
+/*
+ * BSD 3-Clause License
+ *
+ * Copyright (c) 2018, Grum Ltd (Romain Gallet)
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ *
+ * Neither the name of Geocalc nor the names of its
+ * contributors may be used to endorse or promote products derived from
+ * this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.grum.geocalc.benchmark;
+
+import com.grum.geocalc.BoundingArea;
+import com.grum.geocalc.EarthCalc;
+import com.grum.geocalc.Point;
+import com.grum.geocalc.PreparedPoint;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures every EarthCalc formula over the point pairs of a {@link Scenario}.
+ * <p>
+ * Run with {@code java -jar target/benchmarks.jar -prof gc} to get the allocation rate next to ns/op.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class EarthCalcBenchmark {
+
+    @Param
+    public Scenario scenario;
+
+    private Point[] standPoints, forePoints;
+    private PreparedPoint[] preparedPoints;
+    private double[] bearings, distances;
+    private final double[] into = new double[4];
+    private int i;
+
+    @Setup
+    public void setUp() {
+        Point[][] pairs = scenario.pairs();
+        standPoints = pairs[0];
+        forePoints = pairs[1];
+
+        preparedPoints = new PreparedPoint[Scenario.SIZE];
+        bearings = new double[Scenario.SIZE];
+        distances = new double[Scenario.SIZE];
+        for (int j = 0; j < Scenario.SIZE; j++) {
+            preparedPoints[j] = EarthCalc.prepare(standPoints[j]);
+            bearings[j] = EarthCalc.gcd.bearing(standPoints[j], forePoints[j]);
+            distances[j] = EarthCalc.gcd.distance(standPoints[j], forePoints[j]);
+        }
+    }
+
+    private int next() {
+        return i = (i + 1) & (Scenario.SIZE - 1);
+    }
+
+    @Benchmark
+    public double gcdDistance() {
+        int j = next();
+        return EarthCalc.gcd.distance(standPoints[j], forePoints[j]);
+    }
+
+    @Benchmark
+    public double gcdBearing() {
+        int j = next();
+        return EarthCalc.gcd.bearing(standPoints[j], forePoints[j]);
+    }
+
+    @Benchmark
+    public Point gcdMidPoint() {
+        int j = next();
+        return EarthCalc.gcd.midPoint(standPoints[j], forePoints[j]);
+    }
+
+    @Benchmark
+    public Point gcdPointAt() {
+        int j = next();
+        return EarthCalc.gcd.pointAt(standPoints[j], bearings[j], distances[j]);
+    }
+
+    @Benchmark
+    public BoundingArea gcdAround() {
+        int j = next();
+        return EarthCalc.gcd.around(standPoints[j], distances[j]);
+    }
+
+    /*
+     * Decimal degrees in, caller-owned array out: -prof gc should report no allocation at all.
+     */
+
+    @Benchmark
+    public double[] gcdPointAtInto() {
+        int j = next();
+        EarthCalc.gcd.pointAt(standPoints[j].latitude, standPoints[j].longitude, bearings[j], distances[j], into);
+        return into;
+    }
+
+    @Benchmark
+    public double[] gcdAroundInto() {
+        int j = next();
+        EarthCalc.gcd.around(standPoints[j].latitude, standPoints[j].longitude, distances[j], into);
+        return into;
+    }
+
+    @Benchmark
+    public double haversineDistance() {
+        int j = next();
+        return EarthCalc.haversine.distance(standPoints[j], forePoints[j]);
+    }
+
+    @Benchmark
+    public double equirectangularDistance() {
+        int j = next();
+        return EarthCalc.equirectangular.distance(standPoints[j], forePoints[j]);
+    }
+
+    /*
+     * Vincenty gives up on some near-antipodal pairs; the time spent before giving up is part of the measure.
+     */
+
+    @Benchmark
+    public double vincentyDistance() {
+        int j = next();
+        try {
+            return EarthCalc.vincenty.distance(standPoints[j], forePoints[j]);
+        } catch (IllegalStateException e) {
+            return Double.NaN;
+        }
+    }
+
+    @Benchmark
+    public double vincentyInverseInto() {
+        int j = next();
+        try {
+            return EarthCalc.vincenty.inverse(standPoints[j].latitude, standPoints[j].longitude,
+                    forePoints[j].latitude, forePoints[j].longitude, into);
+        } catch (IllegalStateException e) {
+            return Double.NaN;
+        }
+    }
+
+    @Benchmark
+    public double vincentyBearing() {
+        int j = next();
+        try {
+            return EarthCalc.vincenty.bearing(standPoints[j], forePoints[j]);
+        } catch (IllegalStateException e) {
+            return Double.NaN;
+        }
+    }
+
+    @Benchmark
+    public double vincentyFinalBearing() {
+        int j = next();
+        try {
+            return EarthCalc.vincenty.finalBearing(standPoints[j], forePoints[j]);
+        } catch (IllegalStateException e) {
+            return Double.NaN;
+        }
+    }
+
+    @Benchmark
+    public EarthCalc.vincenty.Vincenty vincentyInverse() {
+        int j = next();
+        try {
+            return EarthCalc.vincenty.inverse(standPoints[j], forePoints[j]);
+        } catch (IllegalStateException e) {
+            return null;
+        }
+    }
+
+    /*
+     * Karney converges for every pair, the near-antipodal scenario should cost about the same as the others.
+     */
+
+    @Benchmark
+    public double karneyDistance() {
+        int j = next();
+        return EarthCalc.karney.distance(standPoints[j], forePoints[j]);
+    }
+
+    @Benchmark
+    public EarthCalc.karney.Karney karneyInverse() {
+        int j = next();
+        return EarthCalc.karney.inverse(standPoints[j], forePoints[j]);
+    }
+
+    @Benchmark
+    public Point karneyPointAt() {
+        int j = next();
+        return EarthCalc.karney.pointAt(standPoints[j], bearings[j], distances[j]);
+    }
+
+    @Benchmark
+    public Point vincentyPointAt() {
+        int j = next();
+        return EarthCalc.vincenty.pointAt(standPoints[j], bearings[j], distances[j]);
+    }
+
+    @Benchmark
+    public BoundingArea vincentyEnclosing() {
+        int j = next();
+        return EarthCalc.vincenty.enclosing(standPoints[j], distances[j]);
+    }
+
+    /*
+     * Prepared stand points, trigonometry of the stand point is not part of the measure.
+     */
+
+    @Benchmark
+    public double preparedGcdDistance() {
+        int j = next();
+        return preparedPoints[j].gcd.distance(forePoints[j]);
+    }
+
+    @Benchmark
+    public double preparedHaversineDistance() {
+        int j = next();
+        return preparedPoints[j].haversine.distance(forePoints[j]);
+    }
+
+    @Benchmark
+    public boolean preparedHaversineIsWithin() {
+        int j = next();
+        return preparedPoints[j].haversine.isWithin(forePoints[j], distances[(j + 1) & (Scenario.SIZE - 1)]);
+    }
+
+    @Benchmark
+    public double preparedVincentyDistance() {
+        int j = next();
+        try {
+            return preparedPoints[j].vincenty.distance(forePoints[j]);
+        } catch (IllegalStateException e) {
+            return Double.NaN;
+        }
+    }
+}
@@ -0,0 +1,97 @@
+/*
+ * BSD 3-Clause License
+ *
+ * Copyright (c) 2018, Grum Ltd (Romain Gallet)
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ *
+ * Neither the name of Geocalc nor the names of its
+ * contributors may be used to endorse or promote products derived from
+ * this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.grum.geocalc.benchmark;
+
+import com.grum.geocalc.Coordinate;
+import com.grum.geocalc.EarthCalc;
+import com.grum.geocalc.Point;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency distribution of the ellipsoidal inverse problem, over pairs of points spread uniformly over the globe.
+ * <p>
+ * Sampled rather than averaged, so that JMH reports percentiles: Vincenty's tail is made of near-antipodal
+ * pairs, running up to its iteration limit and failing, where Karney's should stay close to its median.
+ */
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class GeodesicTailBenchmark {
+
+    private static final int SIZE = 1 << 16;
+
+    private Point[] standPoints, forePoints;
+    private int i;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        standPoints = new Point[SIZE];
+        forePoints = new Point[SIZE];
+        for (int j = 0; j < SIZE; j++) {
+            standPoints[j] = uniform(random);
+            //one pair in 16 within a degree of antipodal
+            forePoints[j] = j % 16 == 0
+                    ? Point.at(Coordinate.fromDegrees(-standPoints[j].latitude + random.nextDouble() * 2 - 1),
+                    Coordinate.fromDegrees(standPoints[j].longitude - 179.5 + random.nextDouble()))
+                    : uniform(random);
+        }
+    }
+
+    private static Point uniform(Random random) {
+        return Point.at(Coordinate.fromDegrees(Math.toDegrees(Math.asin(2 * random.nextDouble() - 1))),
+                Coordinate.fromDegrees(random.nextDouble() * 360 - 180));
+    }
+
+    @Benchmark
+    public double vincenty() {
+        int j = i = (i + 1) & (SIZE - 1);
+        try {
+            return EarthCalc.vincenty.distance(standPoints[j], forePoints[j]);
+        } catch (IllegalStateException e) {
+            return Double.NaN;
+        }
+    }
+
+    @Benchmark
+    public double karney() {
+        int j = i = (i + 1) & (SIZE - 1);
+        return EarthCalc.karney.distance(standPoints[j], forePoints[j]);
+    }
+}
@@ -0,0 +1,87 @@
+/*
+ * BSD 3-Clause License
+ *
+ * Copyright (c) 2018, Grum Ltd (Romain Gallet)
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ *
+ * Neither the name of Geocalc nor the names of its
+ * contributors may be used to endorse or promote products derived from
+ * this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.grum.geocalc.benchmark;
+
+import com.grum.geocalc.EarthCalc;
+import com.grum.geocalc.GeofenceRegistry;
+import com.grum.geocalc.Point;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Lookups among a hundred thousand fences spread over Europe, half rectangles and half circles.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class GeofenceRegistryBenchmark {
+
+    @Param({"0.01", "0.05", "0.25"})
+    public double cellSize;
+
+    private GeofenceRegistry registry;
+    private double[] latitudes, longitudes;
+    private int i;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        registry = GeofenceRegistry.withCellSize(cellSize);
+        for (int id = 0; id < 100_000; id += 2) {
+            registry.add(id, EarthCalc.gcd.around(randomPoint(random), 200 + random.nextDouble() * 2_000));
+            registry.addCircle(id + 1, randomPoint(random), 200 + random.nextDouble() * 2_000);
+        }
+
+        latitudes = new double[Scenario.SIZE];
+        longitudes = new double[Scenario.SIZE];
+        for (int j = 0; j < Scenario.SIZE; j++) {
+            latitudes[j] = 35 + random.nextDouble() * 35;
+            longitudes[j] = -10 + random.nextDouble() * 40;
+        }
+    }
+
+    private static Point randomPoint(Random random) {
+        return Point.at(35 + random.nextDouble() * 35, -10 + random.nextDouble() * 40);
+    }
+
+    @Benchmark
+    public long[] fencesContaining() {
+        i = (i + 1) & (Scenario.SIZE - 1);
+        return registry.fencesContaining(latitudes[i], longitudes[i]);
+    }
+}
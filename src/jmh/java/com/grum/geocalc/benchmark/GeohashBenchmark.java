@@ -0,0 +1,94 @@
+/*
+ * BSD 3-Clause License
+ *
+ * Copyright (c) 2018, Grum Ltd (Romain Gallet)
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ *
+ * Neither the name of Geocalc nor the names of its
+ * contributors may be used to endorse or promote products derived from
+ * this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.grum.geocalc.benchmark;
+
+import com.grum.geocalc.Geohash;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Geohash encoding and decoding, one point at a time and over columns of {@link Scenario#SIZE} points.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class GeohashBenchmark {
+
+    @Param({"6", "12"})
+    public int precision;
+
+    private final double[] latitudes = new double[Scenario.SIZE], longitudes = new double[Scenario.SIZE];
+    private final long[] hashes = new long[Scenario.SIZE];
+    private int i;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        for (int j = 0; j < Scenario.SIZE; j++) {
+            latitudes[j] = random.nextDouble() * 180 - 90;
+            longitudes[j] = random.nextDouble() * 360 - 180;
+        }
+        Geohash.encode(latitudes, longitudes, precision, hashes);
+    }
+
+    @Benchmark
+    public long encode() {
+        i = (i + 1) & (Scenario.SIZE - 1);
+        return Geohash.encode(latitudes[i], longitudes[i], precision);
+    }
+
+    @Benchmark
+    public String encodeToBase32() {
+        i = (i + 1) & (Scenario.SIZE - 1);
+        return Geohash.toBase32(Geohash.encode(latitudes[i], longitudes[i], precision), precision);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(Scenario.SIZE)
+    public long[] encodeColumns() {
+        Geohash.encode(latitudes, longitudes, precision, hashes);
+        return hashes;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(Scenario.SIZE)
+    public double[] decodeColumns() {
+        Geohash.decode(hashes, precision, latitudes, longitudes);
+        return latitudes;
+    }
+}
@@ -0,0 +1,89 @@
+/*
+ * BSD 3-Clause License
+ *
+ * Copyright (c) 2018, Grum Ltd (Romain Gallet)
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ *
+ * Neither the name of Geocalc nor the names of its
+ * contributors may be used to endorse or promote products derived from
+ * this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.grum.geocalc.benchmark;
+
+import com.grum.geocalc.EarthCalc;
+import com.grum.geocalc.GreatCircleArc;
+import com.grum.geocalc.Point;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Densifying London to New York into 1024 points, per point: filling arrays, going through the spliterator,
+ * or calling {@link EarthCalc.gcd#pointAt} for each of them.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class GreatCircleArcBenchmark {
+
+    private static final int COUNT = 1024;
+
+    private final Point london = Point.at(51.5074, -0.1278);
+    private final Point newYork = Point.at(40.7128, -74.0060);
+    private final double[] latitudes = new double[COUNT], longitudes = new double[COUNT];
+    private GreatCircleArc arc;
+
+    @Setup
+    public void setUp() {
+        arc = GreatCircleArc.between(london, newYork);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(COUNT)
+    public double[] fill() {
+        arc.fill(latitudes, longitudes);
+        return latitudes;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(COUNT)
+    public void spliterator(Blackhole blackhole) {
+        arc.spliterator(COUNT).forEachRemaining(blackhole::consume);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(COUNT)
+    public void pointAt(Blackhole blackhole) {
+        double bearing = EarthCalc.gcd.bearing(london, newYork);
+        double distance = EarthCalc.gcd.distance(london, newYork);
+        for (int i = 0; i < COUNT; i++) {
+            blackhole.consume(EarthCalc.gcd.pointAt(london, bearing, distance * i / (COUNT - 1)));
+        }
+    }
+}
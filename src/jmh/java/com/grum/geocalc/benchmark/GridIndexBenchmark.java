@@ -0,0 +1,94 @@
+/*
+ * BSD 3-Clause License
+ *
+ * Copyright (c) 2018, Grum Ltd (Romain Gallet)
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ *
+ * Neither the name of Geocalc nor the names of its
+ * contributors may be used to endorse or promote products derived from
+ * this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.grum.geocalc.benchmark;
+
+import com.grum.geocalc.BoundingArea;
+import com.grum.geocalc.Coordinate;
+import com.grum.geocalc.EarthCalc;
+import com.grum.geocalc.GridIndex;
+import com.grum.geocalc.Point;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Radius and area searches over a million points spread over Europe.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class GridIndexBenchmark {
+
+    @Param({"0.01", "0.05", "0.25"})
+    public double cellSize;
+
+    @Param({"1000", "5000"})
+    public double radius;
+
+    private GridIndex index;
+    private Point[] centres;
+    private BoundingArea[] areas;
+    private int i;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        index = GridIndex.withCellSize(cellSize);
+        for (int id = 0; id < 1_000_000; id++) {
+            index.add(id, 35 + random.nextDouble() * 35, -10 + random.nextDouble() * 40);
+        }
+
+        centres = new Point[Scenario.SIZE];
+        areas = new BoundingArea[Scenario.SIZE];
+        for (int j = 0; j < Scenario.SIZE; j++) {
+            centres[j] = Point.at(Coordinate.fromDegrees(35 + random.nextDouble() * 35), Coordinate.fromDegrees(-10 + random.nextDouble() * 40));
+            areas[j] = EarthCalc.gcd.around(centres[j], radius);
+        }
+    }
+
+    @Benchmark
+    public long[] withinRadius() {
+        i = (i + 1) & (Scenario.SIZE - 1);
+        return index.withinRadius(centres[i], radius);
+    }
+
+    @Benchmark
+    public long[] query() {
+        i = (i + 1) & (Scenario.SIZE - 1);
+        return index.query(areas[i]);
+    }
+}
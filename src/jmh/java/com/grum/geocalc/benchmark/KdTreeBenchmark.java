@@ -0,0 +1,82 @@
+/*
+ * BSD 3-Clause License
+ *
+ * Copyright (c) 2018, Grum Ltd (Romain Gallet)
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ *
+ * Neither the name of Geocalc nor the names of its
+ * contributors may be used to endorse or promote products derived from
+ * this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.grum.geocalc.benchmark;
+
+import com.grum.geocalc.KdTree;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 10 nearest neighbours among a million points spread over the globe.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class KdTreeBenchmark {
+
+    private KdTree tree;
+    private double[] queryLatitudes, queryLongitudes;
+    private final int[] indices = new int[10];
+    private final double[] distances = new double[10];
+    private int i;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        double[] latitudes = new double[1_000_000];
+        double[] longitudes = new double[latitudes.length];
+        for (int j = 0; j < latitudes.length; j++) {
+            latitudes[j] = Math.toDegrees(Math.asin(2 * random.nextDouble() - 1)); //uniform over the sphere
+            longitudes[j] = random.nextDouble() * 360 - 180;
+        }
+        tree = KdTree.build(latitudes, longitudes);
+
+        queryLatitudes = new double[Scenario.SIZE];
+        queryLongitudes = new double[Scenario.SIZE];
+        for (int j = 0; j < Scenario.SIZE; j++) {
+            queryLatitudes[j] = random.nextDouble() * 180 - 90;
+            queryLongitudes[j] = random.nextDouble() * 360 - 180;
+        }
+    }
+
+    @Benchmark
+    public int nearest() {
+        i = (i + 1) & (Scenario.SIZE - 1);
+        return tree.nearest(queryLatitudes[i], queryLongitudes[i], indices, distances);
+    }
+}
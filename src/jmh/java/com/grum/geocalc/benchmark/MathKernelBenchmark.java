@@ -0,0 +1,114 @@
+/*
+ * BSD 3-Clause License
+ *
+ * Copyright (c) 2018, Grum Ltd (Romain Gallet)
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ *
+ * Neither the name of Geocalc nor the names of its
+ * contributors may be used to endorse or promote products derived from
+ * this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.grum.geocalc.benchmark;
+
+import com.grum.geocalc.EarthCalc;
+import com.grum.geocalc.MathKernel;
+import com.grum.geocalc.Point;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the closed form EarthCalc formulas with each {@link MathKernel}, over continental point pairs.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class MathKernelBenchmark {
+
+    @Param
+    public MathKernel kernel;
+
+    private double[] latitudes1, longitudes1, latitudes2, longitudes2;
+    private double[] bearings, distances;
+    private final double[] into = new double[2];
+    private int i;
+
+    @Setup
+    public void setUp() {
+        Point[][] pairs = Scenario.CONTINENTAL.pairs();
+        latitudes1 = new double[Scenario.SIZE];
+        longitudes1 = new double[Scenario.SIZE];
+        latitudes2 = new double[Scenario.SIZE];
+        longitudes2 = new double[Scenario.SIZE];
+        bearings = new double[Scenario.SIZE];
+        distances = new double[Scenario.SIZE];
+        for (int j = 0; j < Scenario.SIZE; j++) {
+            latitudes1[j] = pairs[0][j].latitude;
+            longitudes1[j] = pairs[0][j].longitude;
+            latitudes2[j] = pairs[1][j].latitude;
+            longitudes2[j] = pairs[1][j].longitude;
+            bearings[j] = EarthCalc.gcd.bearing(pairs[0][j], pairs[1][j]);
+            distances[j] = EarthCalc.gcd.distance(pairs[0][j], pairs[1][j]);
+        }
+    }
+
+    private int next() {
+        return i = (i + 1) & (Scenario.SIZE - 1);
+    }
+
+    @Benchmark
+    public double gcdDistance() {
+        int j = next();
+        return EarthCalc.gcd.distance(kernel, latitudes1[j], longitudes1[j], latitudes2[j], longitudes2[j]);
+    }
+
+    @Benchmark
+    public double gcdBearing() {
+        int j = next();
+        return EarthCalc.gcd.bearing(kernel, latitudes1[j], longitudes1[j], latitudes2[j], longitudes2[j]);
+    }
+
+    @Benchmark
+    public double[] gcdPointAt() {
+        int j = next();
+        EarthCalc.gcd.pointAt(kernel, latitudes1[j], longitudes1[j], bearings[j], distances[j], into);
+        return into;
+    }
+
+    @Benchmark
+    public double haversineDistance() {
+        int j = next();
+        return EarthCalc.haversine.distance(kernel, latitudes1[j], longitudes1[j], latitudes2[j], longitudes2[j]);
+    }
+
+    @Benchmark
+    public double equirectangularDistance() {
+        int j = next();
+        return EarthCalc.equirectangular.distance(kernel, latitudes1[j], longitudes1[j], latitudes2[j], longitudes2[j]);
+    }
+}
@@ -0,0 +1,105 @@
+/*
+ * BSD 3-Clause License
+ *
+ * Copyright (c) 2018, Grum Ltd (Romain Gallet)
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ *
+ * Neither the name of Geocalc nor the names of its
+ * contributors may be used to endorse or promote products derived from
+ * this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.grum.geocalc.benchmark;
+
+import com.grum.geocalc.CountingMetrics;
+import com.grum.geocalc.EarthCalc;
+import com.grum.geocalc.Metrics;
+import com.grum.geocalc.Point;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of reporting to {@link Metrics}, from none installed to every latency measured.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MetricsBenchmark {
+
+    public enum Reporting {
+        NONE, COUNTING, SAMPLING_1000, SAMPLING_1
+    }
+
+    @Param
+    public Reporting reporting;
+
+    private Point[] standPoints, forePoints;
+    private int i;
+
+    @Setup
+    public void setUp() {
+        Point[][] pairs = Scenario.CONTINENTAL.pairs();
+        standPoints = pairs[0];
+        forePoints = pairs[1];
+
+        switch (reporting) {
+            case COUNTING:
+                Metrics.install(CountingMetrics.sampling(Integer.MAX_VALUE));
+                break;
+            case SAMPLING_1000:
+                Metrics.install(CountingMetrics.sampling(1000));
+                break;
+            case SAMPLING_1:
+                Metrics.install(CountingMetrics.sampling(1));
+                break;
+            default:
+                Metrics.install(Metrics.NOOP);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        Metrics.install(Metrics.NOOP);
+    }
+
+    private int next() {
+        return i = (i + 1) & (Scenario.SIZE - 1);
+    }
+
+    @Benchmark
+    public double haversineDistance() {
+        int j = next();
+        return EarthCalc.haversine.distance(standPoints[j], forePoints[j]);
+    }
+
+    @Benchmark
+    public double vincentyDistance() {
+        int j = next();
+        return EarthCalc.vincenty.distance(standPoints[j], forePoints[j]);
+    }
+}
@@ -0,0 +1,134 @@
+/*
+ * BSD 3-Clause License
+ *
+ * Copyright (c) 2018, Grum Ltd (Romain Gallet)
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ *
+ * Neither the name of Geocalc nor the names of its
+ * contributors may be used to endorse or promote products derived from
+ * this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.grum.geocalc.benchmark;
+
+import com.grum.geocalc.EarthCalc;
+import com.grum.geocalc.NVector;
+import com.grum.geocalc.Point;
+import com.grum.geocalc.PreparedPoint;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Every distance between the fore points of a {@link Scenario}, per distance: from vectors converted once,
+ * against prepared stand points at haversine and {@link EarthCalc.gcd} calls. Midpoints of the pairs of the
+ * scenario, per midpoint, against {@link EarthCalc.gcd#midPoint}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class NVectorBenchmark {
+
+    @Param({"SHORT_HOP", "CONTINENTAL"})
+    public Scenario scenario;
+
+    private Point[] points, standPoints;
+    private NVector[] standVectors, foreVectors;
+    private double[] latitudes, longitudes, vectors, distances;
+
+    @Setup
+    public void setUp() {
+        points = scenario.pairs()[1];
+        latitudes = new double[Scenario.SIZE];
+        longitudes = new double[Scenario.SIZE];
+        distances = new double[Scenario.SIZE];
+        for (int i = 0; i < Scenario.SIZE; i++) {
+            latitudes[i] = points[i].latitude;
+            longitudes[i] = points[i].longitude;
+        }
+        vectors = NVector.toVectors(latitudes, longitudes);
+
+        standPoints = scenario.pairs()[0];
+        standVectors = new NVector[Scenario.SIZE];
+        foreVectors = new NVector[Scenario.SIZE];
+        for (int i = 0; i < Scenario.SIZE; i++) {
+            standVectors[i] = NVector.of(standPoints[i]);
+            foreVectors[i] = NVector.of(points[i]);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(Scenario.SIZE)
+    public double midPoint() {
+        double sum = 0;
+        for (int i = 0; i < Scenario.SIZE; i++) {
+            sum += standVectors[i].midPoint(foreVectors[i]).z;
+        }
+        return sum;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(Scenario.SIZE)
+    public double gcdMidPoint() {
+        double sum = 0;
+        for (int i = 0; i < Scenario.SIZE; i++) {
+            sum += EarthCalc.gcd.midPoint(standPoints[i], points[i]).latitude;
+        }
+        return sum;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(Scenario.SIZE * Scenario.SIZE)
+    public double[] nVector() {
+        for (int i = 0; i < Scenario.SIZE; i++) {
+            NVector.distances(vectors, i, distances);
+        }
+        return distances;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(Scenario.SIZE * Scenario.SIZE)
+    public double[] preparedHaversine() {
+        for (int i = 0; i < Scenario.SIZE; i++) {
+            PreparedPoint standPoint = EarthCalc.prepare(points[i]);
+            standPoint.haversine.distances(latitudes, longitudes, distances);
+        }
+        return distances;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(Scenario.SIZE * Scenario.SIZE)
+    public double gcd() {
+        double sum = 0;
+        for (int i = 0; i < Scenario.SIZE; i++) {
+            for (int j = 0; j < Scenario.SIZE; j++) {
+                sum += EarthCalc.gcd.distance(points[i], points[j]);
+            }
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,120 @@
+/*
+ * BSD 3-Clause License
+ *
+ * Copyright (c) 2018, Grum Ltd (Romain Gallet)
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ *
+ * Neither the name of Geocalc nor the names of its
+ * contributors may be used to endorse or promote products derived from
+ * this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.grum.geocalc.benchmark;
+
+import com.grum.geocalc.Point;
+import com.grum.geocalc.PointCodec;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.nio.ByteBuffer;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writing and reading a GPS track of {@link Scenario#SIZE} fixes, against Java serialization of its points.
+ * <p>
+ * Run with {@code -prof gc}. Payload sizes are compared in {@code PointCodecTest#testSizes}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class PointCodecBenchmark {
+
+    private double[] latitudes, longitudes, decodedLatitudes, decodedLongitudes;
+    private Point[] points;
+    private ByteBuffer points16, track;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        latitudes = new double[Scenario.SIZE];
+        longitudes = new double[Scenario.SIZE];
+        points = new Point[Scenario.SIZE];
+        latitudes[0] = 51.4843774;
+        longitudes[0] = -0.2912044;
+        for (int j = 0; j < Scenario.SIZE; j++) {
+            if (j > 0) {
+                latitudes[j] = latitudes[j - 1] + (random.nextDouble() - .5) * 4E-4;
+                longitudes[j] = longitudes[j - 1] + (random.nextDouble() - .5) * 4E-4;
+            }
+            points[j] = Point.at(latitudes[j], longitudes[j]);
+        }
+        decodedLatitudes = new double[Scenario.SIZE];
+        decodedLongitudes = new double[Scenario.SIZE];
+
+        points16 = ByteBuffer.allocate(Scenario.SIZE * PointCodec.POINT_BYTES);
+        track = ByteBuffer.allocate(PointCodec.maxTrackBytes(Scenario.SIZE));
+        PointCodec.writeTrack(track, latitudes, longitudes);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(Scenario.SIZE)
+    public byte[] javaSerialization() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(points);
+        }
+        return bytes.toByteArray();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(Scenario.SIZE)
+    public ByteBuffer writePoints() {
+        points16.clear();
+        for (Point point : points) {
+            PointCodec.writePoint(points16, point);
+        }
+        return points16;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(Scenario.SIZE)
+    public ByteBuffer writeTrack() {
+        track.clear();
+        PointCodec.writeTrack(track, latitudes, longitudes);
+        return track;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(Scenario.SIZE)
+    public int readTrack() {
+        track.rewind();
+        return PointCodec.readTrack(track, decodedLatitudes, decodedLongitudes);
+    }
+}
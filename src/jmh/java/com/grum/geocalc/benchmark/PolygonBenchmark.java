@@ -0,0 +1,116 @@
+/*
+ * BSD 3-Clause License
+ *
+ * Copyright (c) 2018, Grum Ltd (Romain Gallet)
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ *
+ * Neither the name of Geocalc nor the names of its
+ * contributors may be used to endorse or promote products derived from
+ * this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.grum.geocalc.benchmark;
+
+import com.grum.geocalc.EarthCalc;
+import com.grum.geocalc.Polygon;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Points within a wavy zone of about 20 km around London, of more or less vertices, most of them inside,
+ * against ray casting on latitudes and longitudes over every edge.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class PolygonBenchmark {
+
+    @Param({"16", "1024", "65536"})
+    public int vertices;
+
+    private Polygon polygon;
+    private double[] vertexLatitudes, vertexLongitudes;
+    private double[] latitudes, longitudes;
+    private long[] bits;
+    private int i;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        vertexLatitudes = new double[vertices];
+        vertexLongitudes = new double[vertices];
+        double[] into = new double[2];
+        for (int j = 0; j < vertices; j++) {
+            double bearing = j * 360.0 / vertices;
+            double radius = 20_000 * (1 + 0.1 * Math.sin(Math.toRadians(7 * bearing))) + 10 * random.nextDouble();
+            EarthCalc.gcd.pointAt(51.5, -0.1, bearing, radius, into);
+            vertexLatitudes[j] = into[0];
+            vertexLongitudes[j] = into[1];
+        }
+        polygon = Polygon.of(vertexLatitudes, vertexLongitudes);
+
+        latitudes = new double[Scenario.SIZE];
+        longitudes = new double[Scenario.SIZE];
+        bits = new long[Scenario.SIZE / 64];
+        for (int j = 0; j < Scenario.SIZE; j++) {
+            EarthCalc.gcd.pointAt(51.5, -0.1, random.nextDouble() * 360, 24_000 * Math.sqrt(random.nextDouble()), into);
+            latitudes[j] = into[0];
+            longitudes[j] = into[1];
+        }
+    }
+
+    @Benchmark
+    public boolean contains() {
+        i = (i + 1) & (Scenario.SIZE - 1);
+        return polygon.contains(latitudes[i], longitudes[i]);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(Scenario.SIZE)
+    public long[] containsColumns() {
+        polygon.contains(latitudes, longitudes, bits);
+        return bits;
+    }
+
+    @Benchmark
+    public boolean everyEdge() {
+        i = (i + 1) & (Scenario.SIZE - 1);
+        double latitude = latitudes[i];
+        double longitude = longitudes[i];
+        boolean inside = false;
+        for (int j = 0, k = vertices - 1; j < vertices; k = j++) {
+            if ((vertexLatitudes[j] > latitude) != (vertexLatitudes[k] > latitude)
+                    && longitude < (vertexLongitudes[k] - vertexLongitudes[j]) * (latitude - vertexLatitudes[j])
+                    / (vertexLatitudes[k] - vertexLatitudes[j]) + vertexLongitudes[j]) {
+                inside = !inside;
+            }
+        }
+        return inside;
+    }
+}
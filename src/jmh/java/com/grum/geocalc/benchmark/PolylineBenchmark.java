@@ -0,0 +1,112 @@
+/*
+ * BSD 3-Clause License
+ *
+ * Copyright (c) 2018, Grum Ltd (Romain Gallet)
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ *
+ * Neither the name of Geocalc nor the names of its
+ * contributors may be used to endorse or promote products derived from
+ * this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.grum.geocalc.benchmark;
+
+import com.grum.geocalc.EarthCalc;
+import com.grum.geocalc.Polyline;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * GPS fixes within 30 meters of a winding road of a hundred thousand vertices, about 6000 km long, snapped with
+ * the polyline index, or checking every segment.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PolylineBenchmark {
+
+    private static final int VERTICES = 100_000;
+
+    @Param({"0.001", "0.01", "0.1"})
+    public double cellSize;
+
+    private Polyline polyline;
+    private double[] vertexLatitudes, vertexLongitudes;
+    private double[] latitudes, longitudes;
+    private final double[] into = new double[4];
+    private int i;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        vertexLatitudes = new double[VERTICES];
+        vertexLongitudes = new double[VERTICES];
+        vertexLatitudes[0] = 40;
+        vertexLongitudes[0] = -10;
+        double heading = 60;
+        for (int j = 1; j < VERTICES; j++) {
+            heading += random.nextGaussian() * 10;
+            EarthCalc.gcd.pointAt(vertexLatitudes[j - 1], vertexLongitudes[j - 1], heading, 20 + random.nextDouble() * 100, into);
+            vertexLatitudes[j] = into[0];
+            vertexLongitudes[j] = into[1];
+        }
+        polyline = Polyline.of(vertexLatitudes, vertexLongitudes, cellSize);
+
+        latitudes = new double[Scenario.SIZE];
+        longitudes = new double[Scenario.SIZE];
+        for (int j = 0; j < Scenario.SIZE; j++) {
+            int vertex = random.nextInt(VERTICES);
+            EarthCalc.gcd.pointAt(vertexLatitudes[vertex], vertexLongitudes[vertex], random.nextDouble() * 360, random.nextDouble() * 30, into);
+            latitudes[j] = into[0];
+            longitudes[j] = into[1];
+        }
+    }
+
+    @Benchmark
+    public int nearestSegment() {
+        i = (i + 1) & (Scenario.SIZE - 1);
+        return polyline.nearestSegment(latitudes[i], longitudes[i], into);
+    }
+
+    @Benchmark
+    public int everySegment() {
+        i = (i + 1) & (Scenario.SIZE - 1);
+        int nearest = -1;
+        double best = Double.POSITIVE_INFINITY;
+        for (int segment = 0; segment + 1 < VERTICES; segment++) {
+            double distance = EarthCalc.gcd.closestPoint(vertexLatitudes[segment], vertexLongitudes[segment],
+                    vertexLatitudes[segment + 1], vertexLongitudes[segment + 1], latitudes[i], longitudes[i], into);
+            if (distance < best) {
+                best = distance;
+                nearest = segment;
+            }
+        }
+        return nearest;
+    }
+}
@@ -0,0 +1,124 @@
+/*
+ * BSD 3-Clause License
+ *
+ * Copyright (c) 2018, Grum Ltd (Romain Gallet)
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ *
+ * Neither the name of Geocalc nor the names of its
+ * contributors may be used to endorse or promote products derived from
+ * this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.grum.geocalc.benchmark;
+
+import com.grum.geocalc.Coordinate;
+import com.grum.geocalc.EarthCalc;
+import com.grum.geocalc.Point;
+
+import java.util.Random;
+
+/**
+ * Realistic point pairs the benchmarks are run against.
+ * <p>
+ * Pairs are generated from a fixed seed so that runs are comparable with each other.
+ */
+public enum Scenario {
+
+    /**
+     * A few meters up to 5 km, eg. consecutive GPS fixes or nearby depots.
+     */
+    SHORT_HOP {
+        @Override
+        Point forePoint(Random random, Point standPoint) {
+            return EarthCalc.gcd.pointAt(standPoint, random.nextDouble() * 360, 10 + random.nextDouble() * 4_990);
+        }
+    },
+
+    /**
+     * 500 km up to 5000 km.
+     */
+    CONTINENTAL {
+        @Override
+        Point forePoint(Random random, Point standPoint) {
+            return EarthCalc.gcd.pointAt(standPoint, random.nextDouble() * 360, 500_000 + random.nextDouble() * 4_500_000);
+        }
+    },
+
+    /**
+     * Within half a degree of the antipode of the stand point, where Vincenty iterates the most.
+     */
+    NEAR_ANTIPODAL {
+        @Override
+        Point forePoint(Random random, Point standPoint) {
+            double latitude = -standPoint.latitude + (random.nextDouble() - .5);
+            double longitude = standPoint.longitude + 180 + (random.nextDouble() - .5);
+            if (longitude > 180) longitude -= 360;
+
+            return point(latitude, longitude);
+        }
+    },
+
+    /**
+     * Short to medium hops going across the 180th meridian.
+     */
+    ANTIMERIDIAN {
+        @Override
+        Point standPoint(Random random) {
+            return point(random.nextDouble() * 120 - 60, 175 + random.nextDouble() * 5);
+        }
+
+        @Override
+        Point forePoint(Random random, Point standPoint) {
+            return point(standPoint.latitude + random.nextDouble() * 2 - 1, -180 + random.nextDouble() * 5);
+        }
+    };
+
+    public static final int SIZE = 1 << 10;
+
+    Point standPoint(Random random) {
+        return point(random.nextDouble() * 140 - 70, random.nextDouble() * 360 - 180);
+    }
+
+    abstract Point forePoint(Random random, Point standPoint);
+
+    /**
+     * @return SIZE stand points, followed by their SIZE fore points
+     */
+    public Point[][] pairs() {
+        Random random = new Random(42);
+        Point[] standPoints = new Point[SIZE];
+        Point[] forePoints = new Point[SIZE];
+
+        for (int i = 0; i < SIZE; i++) {
+            standPoints[i] = standPoint(random);
+            forePoints[i] = forePoint(random, standPoints[i]);
+        }
+
+        return new Point[][]{standPoints, forePoints};
+    }
+
+    private static Point point(double latitude, double longitude) {
+        return Point.at(Coordinate.fromDegrees(latitude), Coordinate.fromDegrees(longitude));
+    }
+}
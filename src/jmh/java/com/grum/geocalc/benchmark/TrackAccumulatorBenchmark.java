@@ -0,0 +1,99 @@
+/*
+ * BSD 3-Clause License
+ *
+ * Copyright (c) 2018, Grum Ltd (Romain Gallet)
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ *
+ * Neither the name of Geocalc nor the names of its
+ * contributors may be used to endorse or promote products derived from
+ * this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.grum.geocalc.benchmark;
+
+import com.grum.geocalc.Coordinate;
+import com.grum.geocalc.EarthCalc;
+import com.grum.geocalc.Point;
+import com.grum.geocalc.TrackAccumulator;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Length of a track of {@link Scenario#SIZE} fixes, one fix at a time, against calling haversine on
+ * consecutive points.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class TrackAccumulatorBenchmark {
+
+    private double[] latitudes, longitudes;
+    private final TrackAccumulator haversine = TrackAccumulator.haversine();
+    private final TrackAccumulator vincenty = TrackAccumulator.vincenty();
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        latitudes = new double[Scenario.SIZE];
+        longitudes = new double[Scenario.SIZE];
+        latitudes[0] = 51.4843774;
+        longitudes[0] = -0.2912044;
+        for (int j = 1; j < Scenario.SIZE; j++) {
+            latitudes[j] = latitudes[j - 1] + random.nextDouble() * .002 - .001;
+            longitudes[j] = longitudes[j - 1] + random.nextDouble() * .002 - .001;
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(Scenario.SIZE)
+    public double consecutivePoints() {
+        double length = 0;
+        Point previous = Point.at(Coordinate.fromDegrees(latitudes[0]), Coordinate.fromDegrees(longitudes[0]));
+        for (int j = 1; j < Scenario.SIZE; j++) {
+            Point point = Point.at(Coordinate.fromDegrees(latitudes[j]), Coordinate.fromDegrees(longitudes[j]));
+            length += EarthCalc.haversine.distance(previous, point);
+            previous = point;
+        }
+        return length;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(Scenario.SIZE)
+    public double haversine() {
+        haversine.reset();
+        return haversine.add(latitudes, longitudes);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(Scenario.SIZE)
+    public double vincenty() {
+        vincenty.reset();
+        return vincenty.add(latitudes, longitudes);
+    }
+}
@@ -0,0 +1,95 @@
+/*
+ * BSD 3-Clause License
+ *
+ * Copyright (c) 2018, Grum Ltd (Romain Gallet)
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ *
+ * Neither the name of Geocalc nor the names of its
+ * contributors may be used to endorse or promote products derived from
+ * this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.grum.geocalc.benchmark;
+
+import com.grum.geocalc.EarthCalc;
+import com.grum.geocalc.Point;
+import com.grum.geocalc.TrackSimplifier;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Simplifying a noisy drive of 65,536 fixes 10 meters apart within 5 meters, per fix: Douglas-Peucker,
+ * Visvalingam-Whyatt at 25 square meters and streaming.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class TrackSimplifierBenchmark {
+
+    private static final int FIXES = 65536;
+
+    private final double[] latitudes = new double[FIXES], longitudes = new double[FIXES];
+    private final long[] kept = new long[1];
+    private final TrackSimplifier simplifier = TrackSimplifier.withTolerance(5, (index, latitude, longitude) -> kept[0]++);
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(17);
+        Point point = Point.at(51.4843774, -0.2912044);
+        double bearing = 80;
+        for (int i = 0; i < FIXES; i++) {
+            bearing += random.nextGaussian() * 2;
+            point = EarthCalc.gcd.pointAt(point, bearing, 10);
+            latitudes[i] = point.latitude + random.nextGaussian() * 2e-6;
+            longitudes[i] = point.longitude + random.nextGaussian() * 2e-6;
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(FIXES)
+    public int[] douglasPeucker() {
+        return TrackSimplifier.douglasPeucker(latitudes, longitudes, 5);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(FIXES)
+    public int[] visvalingam() {
+        return TrackSimplifier.visvalingam(latitudes, longitudes, 25);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(FIXES)
+    public long streaming() {
+        for (int i = 0; i < FIXES; i++) {
+            simplifier.add(latitudes[i], longitudes[i]);
+        }
+        simplifier.finish();
+        return kept[0];
+    }
+}
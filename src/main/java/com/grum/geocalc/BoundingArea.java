@@ -34,6 +34,7 @@ package com.grum.geocalc;
 
 import lombok.EqualsAndHashCode;
 import lombok.val;
+import lombok.var;
 
 /**
  * Represents an area (rectangular shape projected onto Earth), defined by its top left and bottom right
@@ -50,8 +51,8 @@ public class BoundingArea {
         this.northEast = northEast;
         this.southWest = southWest;
 
-        southEast = Point.at(Coordinate.fromDegrees(southWest.latitude), Coordinate.fromDegrees(northEast.longitude));
-        northWest = Point.at(Coordinate.fromDegrees(northEast.latitude), Coordinate.fromDegrees(southWest.longitude));
+        southEast = new Point(southWest.latitude, northEast.longitude);
+        northWest = new Point(northEast.latitude, southWest.longitude);
     }
 
     public static BoundingArea at(Point northEast, Point southWest) {
@@ -77,7 +78,66 @@ public class BoundingArea {
      * @return true if Point point is contained withing this bounding area
      */
     public boolean contains(Point point) {
-        val predicate1 = point.latitude >= this.southWest.latitude && point.latitude <= this.northEast.latitude;
+        return contains(point.latitude, point.longitude);
+    }
+
+    /**
+     * Checks columns of points at once, for instance positions against a viewport.
+     *
+     * @param latitudes  Latitudes of the points, in decimal degrees
+     * @param longitudes Longitudes of the points, in decimal degrees
+     * @return a bitset, where bit {@code i % 64} of word {@code i / 64} is set when point i is contained
+     * within this bounding area, as read by {@link java.util.BitSet#valueOf(long[])}
+     */
+    public long[] contains(double[] latitudes, double[] longitudes) {
+        val bits = new long[(latitudes.length + 63) >>> 6];
+        contains(latitudes, longitudes, bits);
+        return bits;
+    }
+
+    /**
+     * Same as {@link #contains(double[], double[])}, writing into a reusable bitset.
+     *
+     * @param latitudes  Latitudes of the points, in decimal degrees
+     * @param longitudes Longitudes of the points, in decimal degrees
+     * @param bits       Receives the bitset, needs at least {@code (latitudes.length + 63) / 64} words, the
+     *                   following ones are left untouched
+     */
+    public void contains(double[] latitudes, double[] longitudes, long[] bits) {
+        val length = latitudes.length;
+        if (longitudes.length != length || bits.length < (length + 63) >>> 6) {
+            throw new IllegalArgumentException("Expected " + length + " longitudes and " + ((length + 63) >>> 6)
+                    + " words, got " + longitudes.length + " and " + bits.length);
+        }
+
+        val south = southWest.latitude;
+        val north = northEast.latitude;
+
+        //split up front into 2 longitude ranges rather than branching on the antimeridian for every point,
+        //the second range being empty (NaN never compares) when the area does not go across it
+        val acrossAntimeridian = southWest.longitude > northEast.longitude;
+        val west1 = acrossAntimeridian ? -180 : southWest.longitude;
+        val east1 = northEast.longitude;
+        val west2 = acrossAntimeridian ? southWest.longitude : Double.NaN;
+        val east2 = acrossAntimeridian ? 180 : Double.NaN;
+
+        for (int word = 0, from = 0; from < length; word++, from += 64) {
+            val to = Math.min(from + 64, length);
+            var bitset = 0L;
+            for (int i = from; i < to; i++) {
+                val latitude = latitudes[i];
+                val longitude = longitudes[i];
+                //non short-circuit operators, for the loop body to stay free of branches
+                val inside = (latitude >= south) & (latitude <= north)
+                        & ((longitude >= west1) & (longitude <= east1) | (longitude >= west2) & (longitude <= east2));
+                bitset |= (inside ? 1L : 0L) << (i - from);
+            }
+            bits[word] = bitset;
+        }
+    }
+
+    boolean contains(double latitude, double longitude) {
+        val predicate1 = latitude >= this.southWest.latitude && latitude <= this.northEast.latitude;
 
         if (!predicate1) {
             return false;
@@ -87,12 +147,12 @@ public class BoundingArea {
 
         if (southWest.longitude > northEast.longitude) { //area is going across the max/min longitude boundaries (ie. sort of back of the Earth)
             //we "split" the area in 2, longitude-wise, point only needs to be in one or the other.
-            val predicate3 = point.longitude <= northEast.longitude && point.longitude >= -180;
-            val predicate4 = point.longitude >= southWest.longitude && point.longitude <= 180;
+            val predicate3 = longitude <= northEast.longitude && longitude >= -180;
+            val predicate4 = longitude >= southWest.longitude && longitude <= 180;
 
             predicate2 = predicate3 || predicate4;
         } else {
-            predicate2 = point.longitude >= southWest.longitude && point.longitude <= northEast.longitude;
+            predicate2 = longitude >= southWest.longitude && longitude <= northEast.longitude;
         }
 
         return predicate2;
@@ -0,0 +1,211 @@
+/*
+ * BSD 3-Clause License
+ *
+ * Copyright (c) 2018, Grum Ltd (Romain Gallet)
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ *
+ * Neither the name of Geocalc nor the names of its
+ * contributors may be used to endorse or promote products derived from
+ * this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.grum.geocalc;
+
+import lombok.val;
+import lombok.var;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * {@link Metrics} counting calls, Vincenty iterations and failures, and sampled latencies, in
+ * {@link LongAdder}s so that threads do not contend on them.
+ * <p>
+ * Latencies go to histograms of power of 2 buckets: bucket i counts the computations which took less than
+ * 2<sup>i + 1</sup> nanoseconds, and at least 2<sup>i</sup> for i above 0.
+ * Everything is cumulative, from the creation of the metrics on.
+ */
+public class CountingMetrics extends Metrics {
+
+    /**
+     * Number of latency buckets, the last one counting everything from about 4.6 seconds on.
+     */
+    public static final int LATENCY_BUCKETS = 33;
+
+    private static final int MAX_ITERATIONS = 100;
+
+    private final int samplingInterval;
+
+    private final LongAdder[] calls = adders(Operation.values().length);
+    private final LongAdder[][] latencies = new LongAdder[Operation.values().length][];
+    private final LongAdder[] iterations = adders(MAX_ITERATIONS + 1);
+    private final LongAdder failures = new LongAdder();
+
+    private CountingMetrics(int samplingInterval) {
+        this.samplingInterval = samplingInterval;
+        for (int i = 0; i < latencies.length; i++) {
+            latencies[i] = adders(LATENCY_BUCKETS);
+        }
+    }
+
+    /**
+     * @param samplingInterval latency is measured for 1 computation in samplingInterval, picked at random,
+     *                         1 measuring them all
+     * @return new metrics, to {@link Metrics#install(Metrics)}
+     */
+    public static CountingMetrics sampling(int samplingInterval) {
+        if (samplingInterval < 1) {
+            throw new IllegalArgumentException("Sampling interval must be at least 1, got " + samplingInterval);
+        }
+        return new CountingMetrics(samplingInterval);
+    }
+
+    private static LongAdder[] adders(int size) {
+        val adders = new LongAdder[size];
+        for (int i = 0; i < size; i++) {
+            adders[i] = new LongAdder();
+        }
+        return adders;
+    }
+
+    @Override
+    protected void called(Operation operation) {
+        calls[operation.ordinal()].increment();
+    }
+
+    @Override
+    protected boolean sampled(Operation operation) {
+        return samplingInterval == 1 || ThreadLocalRandom.current().nextInt(samplingInterval) == 0;
+    }
+
+    @Override
+    protected void latency(Operation operation, long nanos) {
+        val bucket = Math.min(LATENCY_BUCKETS - 1, 63 - Long.numberOfLeadingZeros(Math.max(nanos, 1)));
+        latencies[operation.ordinal()][bucket].increment();
+    }
+
+    @Override
+    protected void vincentyConverged(int iterations) {
+        this.iterations[Math.min(iterations, MAX_ITERATIONS)].increment();
+    }
+
+    @Override
+    protected void vincentyFailed() {
+        failures.increment();
+    }
+
+    /**
+     * @return number of computations of this kind so far
+     */
+    public long calls(Operation operation) {
+        return calls[operation.ordinal()].sum();
+    }
+
+    /**
+     * @return the latency histogram of this kind of computations, {@link #LATENCY_BUCKETS} counts
+     */
+    public long[] latencies(Operation operation) {
+        return sums(latencies[operation.ordinal()]);
+    }
+
+    /**
+     * @return the number of times Vincenty formula converged after i iterations, at index i
+     */
+    public long[] vincentyIterations() {
+        return sums(iterations);
+    }
+
+    /**
+     * @return the number of times Vincenty formula failed to converge
+     */
+    public long vincentyFailures() {
+        return failures.sum();
+    }
+
+    private static long[] sums(LongAdder[] adders) {
+        val sums = new long[adders.length];
+        for (int i = 0; i < adders.length; i++) {
+            sums[i] = adders[i].sum();
+        }
+        return sums;
+    }
+
+    /**
+     * Hands every count over to an exporter, named after {@link Operation#metricName}:
+     * <ul>
+     * <li>geocalc.[operation].calls, counter</li>
+     * <li>geocalc.[operation].latency, histogram in nanoseconds, only for operations with samples</li>
+     * <li>geocalc.vincenty.iterations, histogram</li>
+     * <li>geocalc.vincenty.failures, counter</li>
+     * </ul>
+     */
+    public void export(Exporter exporter) {
+        val latencyBounds = new long[LATENCY_BUCKETS];
+        for (int i = 0; i < LATENCY_BUCKETS; i++) {
+            latencyBounds[i] = i == LATENCY_BUCKETS - 1 ? Long.MAX_VALUE : (2L << i) - 1;
+        }
+        val iterationBounds = new long[MAX_ITERATIONS + 1];
+        for (int i = 0; i <= MAX_ITERATIONS; i++) {
+            iterationBounds[i] = i;
+        }
+
+        for (val operation : Operation.values()) {
+            exporter.counter("geocalc." + operation.metricName + ".calls", calls(operation));
+
+            val latencies = latencies(operation);
+            var sampled = false;
+            for (val count : latencies) {
+                sampled |= count > 0;
+            }
+            if (sampled) {
+                exporter.histogram("geocalc." + operation.metricName + ".latency", latencyBounds, latencies);
+            }
+        }
+        exporter.histogram("geocalc.vincenty.iterations", iterationBounds, vincentyIterations());
+        exporter.counter("geocalc.vincenty.failures", vincentyFailures());
+    }
+
+    @Override
+    public String toString() {
+        return "CountingMetrics{" + "samplingInterval=" + samplingInterval + ", vincentyFailures=" + failures.sum() + '}';
+    }
+
+    /**
+     * Adapter to a metrics backend.
+     */
+    public interface Exporter {
+        /**
+         * @param name  dotted name of the counter
+         * @param count cumulative count
+         */
+        void counter(String name, long count);
+
+        /**
+         * @param name        dotted name of the histogram
+         * @param upperBounds inclusive upper bound of each bucket, increasing
+         * @param counts      cumulative count of each bucket, not of the buckets below
+         */
+        void histogram(String name, long[] upperBounds, long[] counts);
+    }
+}
@@ -0,0 +1,343 @@
+/*
+ * BSD 3-Clause License
+ *
+ * Copyright (c) 2018, Grum Ltd (Romain Gallet)
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ *
+ * Neither the name of Geocalc nor the names of its
+ * contributors may be used to endorse or promote products derived from
+ * this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.grum.geocalc;
+
+import lombok.val;
+import lombok.var;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import static com.grum.geocalc.EarthCalc.EARTH_RADIUS;
+import static java.lang.Math.*;
+
+/**
+ * Density based clustering (DBSCAN) of points, by great circle distance.
+ * <p>
+ * A point with at least minPoints points within epsilon meters, itself included, is a core point. Core points
+ * within epsilon of each other belong to the same cluster; other points within epsilon of a core point join one of
+ * the clusters of their core neighbours, and the remaining points are noise.
+ * <pre>
+ *     int[] labels = Dbscan.cluster(latitudes, longitudes, 50, 10); //50 meters, 10 points
+ *     int clusters = Arrays.stream(labels).max().orElse(-1) + 1;
+ * </pre>
+ * Points are turned into unit vectors of the 3D space and bucketed in a grid whose cells are epsilon wide, so
+ * neighbours are only looked for in the 27 cells around a point, poles and antimeridian included. Cells are spread
+ * over a {@link ForkJoinPool}, the common one by default, and clusters are merged with a lock free union-find.
+ */
+public final class Dbscan {
+
+    /**
+     * Label of the points belonging to no cluster.
+     */
+    public static final int NOISE = -1;
+
+    //number of cells below which a batch is not split any further
+    private static final int BATCH_SIZE = 256;
+    //cell coordinates are stored on 21 bits each, cells cannot be much smaller than 10 meters
+    private static final int BITS = 21;
+    private static final int OFFSET = 1 << (BITS - 1);
+    private static final double MIN_CELL_SIZE = 1.0 / (1 << (BITS - 2));
+
+    //unit vectors, in cell order
+    private final double[] xs, ys, zs;
+    //position in cell order of each point
+    private final int[] positions;
+    //sorted keys of the non empty cells, and where their points start in cell order
+    private final long[] cells;
+    private final int[] starts;
+
+    private final double cellSize, threshold;
+    private final int minPoints;
+
+    private final boolean[] core;
+    //a core neighbour of each border point, in cell order
+    private final int[] borders;
+    private final UnionFind clusters;
+
+    private Dbscan(double[] latitudes, double[] longitudes, double epsilon, int minPoints) {
+        val n = latitudes.length;
+        val δ = min(epsilon / EARTH_RADIUS, PI);
+        val chord = 2 * sin(δ / 2);
+        this.cellSize = max(chord, MIN_CELL_SIZE);
+        this.threshold = chord * chord;
+        this.minPoints = minPoints;
+
+        val x = new double[n];
+        val y = new double[n];
+        val z = new double[n];
+        val keys = new long[n];
+        for (int i = 0; i < n; i++) {
+            val φ = toRadians(latitudes[i]);
+            val λ = toRadians(longitudes[i]);
+            x[i] = cos(φ) * cos(λ);
+            y[i] = cos(φ) * sin(λ);
+            z[i] = sin(φ);
+            keys[i] = key(cell(x[i]), cell(y[i]), cell(z[i]));
+        }
+
+        val sorted = keys.clone();
+        Arrays.parallelSort(sorted);
+        var count = 0;
+        for (int i = 0; i < n; i++) {
+            if (i == 0 || sorted[i] != sorted[i - 1]) sorted[count++] = sorted[i];
+        }
+        cells = Arrays.copyOf(sorted, count);
+
+        //counting sort of the points by cell
+        starts = new int[count + 1];
+        val cellOf = new int[n];
+        for (int i = 0; i < n; i++) {
+            cellOf[i] = Arrays.binarySearch(cells, keys[i]);
+            starts[cellOf[i] + 1]++;
+        }
+        for (int c = 0; c < count; c++) {
+            starts[c + 1] += starts[c];
+        }
+
+        val next = Arrays.copyOf(starts, count);
+        xs = new double[n];
+        ys = new double[n];
+        zs = new double[n];
+        positions = new int[n];
+        for (int i = 0; i < n; i++) {
+            val position = next[cellOf[i]]++;
+            xs[position] = x[i];
+            ys[position] = y[i];
+            zs[position] = z[i];
+            positions[i] = position;
+        }
+
+        core = new boolean[n];
+        borders = new int[n];
+        clusters = new UnionFind(n);
+    }
+
+    /**
+     * Clusters points using the common {@link ForkJoinPool}.
+     *
+     * @see #cluster(double[], double[], double, int, ForkJoinPool)
+     */
+    public static int[] cluster(double[] latitudes, double[] longitudes, double epsilon, int minPoints) {
+        return cluster(latitudes, longitudes, epsilon, minPoints, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Clusters points, in about O(n log n) when clusters are not much denser than minPoints per epsilon.
+     *
+     * @param latitudes  decimal degrees
+     * @param longitudes decimal degrees
+     * @param epsilon    neighbourhood radius, in meters, along a great circle
+     * @param minPoints  number of neighbours, the point itself included, making a core point
+     * @param pool       pool the work is spread over
+     * @return the cluster of each point, numbered from 0 in the order their first point appears, or {@link #NOISE}
+     */
+    public static int[] cluster(double[] latitudes, double[] longitudes, double epsilon, int minPoints, ForkJoinPool pool) {
+        if (latitudes.length != longitudes.length) {
+            throw new IllegalArgumentException("Expected as many longitudes as latitudes, got "
+                    + longitudes.length + " and " + latitudes.length);
+        }
+        if (!(epsilon > 0)) {
+            throw new IllegalArgumentException("Epsilon must be positive, got " + epsilon);
+        }
+        if (minPoints < 1) {
+            throw new IllegalArgumentException("Min points must be at least 1, got " + minPoints);
+        }
+        return new Dbscan(latitudes, longitudes, epsilon, minPoints).run(pool);
+    }
+
+    private int[] run(ForkJoinPool pool) {
+        pool.invoke(new Batch(0, cells.length, this::markCore));
+        pool.invoke(new Batch(0, cells.length, this::link));
+
+        val n = positions.length;
+        val ids = new int[n];
+        Arrays.fill(ids, NOISE);
+        var count = 0;
+
+        val labels = new int[n];
+        for (int i = 0; i < n; i++) {
+            val position = positions[i];
+            if (!core[position] && borders[position] < 0) {
+                labels[i] = NOISE;
+                continue;
+            }
+
+            val root = clusters.find(core[position] ? position : borders[position]);
+            if (ids[root] == NOISE) ids[root] = count++;
+            labels[i] = ids[root];
+        }
+        return labels;
+    }
+
+    private void markCore(int cell, int[] neighbours, int size) {
+        for (int p = starts[cell]; p < starts[cell + 1]; p++) {
+            var count = 0;
+            search:
+            for (int k = 0; k < size; k++) {
+                val c = neighbours[k];
+                for (int q = starts[c]; q < starts[c + 1]; q++) {
+                    if (isNeighbour(p, q) && ++count >= minPoints) break search;
+                }
+            }
+            core[p] = count >= minPoints;
+        }
+    }
+
+    private void link(int cell, int[] neighbours, int size) {
+        for (int p = starts[cell]; p < starts[cell + 1]; p++) {
+            borders[p] = -1;
+            for (int k = 0; k < size; k++) {
+                val c = neighbours[k];
+                for (int q = starts[c]; q < starts[c + 1]; q++) {
+                    if (!core[q] || !isNeighbour(p, q)) continue;
+
+                    if (core[p]) {
+                        if (q > p) clusters.union(p, q);
+                    } else {
+                        borders[p] = q;
+                        break;
+                    }
+                }
+                if (borders[p] >= 0) break;
+            }
+        }
+    }
+
+    private boolean isNeighbour(int p, int q) {
+        val dx = xs[p] - xs[q];
+        val dy = ys[p] - ys[q];
+        val dz = zs[p] - zs[q];
+        return dx * dx + dy * dy + dz * dz <= threshold;
+    }
+
+    //indices of the non empty cells around a cell, itself included
+    private int neighbours(int cell, int[] neighbours) {
+        val key = cells[cell];
+        val mask = (1L << BITS) - 1;
+        val x = (int) (key >>> 2 * BITS);
+        val y = (int) (key >>> BITS & mask);
+        val z = (int) (key & mask);
+
+        var size = 0;
+        for (int dx = -1; dx <= 1; dx++) {
+            for (int dy = -1; dy <= 1; dy++) {
+                for (int dz = -1; dz <= 1; dz++) {
+                    val c = Arrays.binarySearch(cells, key(x + dx, y + dy, z + dz));
+                    if (c >= 0) neighbours[size++] = c;
+                }
+            }
+        }
+        return size;
+    }
+
+    private int cell(double coordinate) {
+        return (int) floor(coordinate / cellSize) + OFFSET;
+    }
+
+    private static long key(int x, int y, int z) {
+        return (long) x << 2 * BITS | (long) y << BITS | z;
+    }
+
+    private interface CellAction {
+        void apply(int cell, int[] neighbours, int size);
+    }
+
+    private class Batch extends RecursiveAction {
+        final int from, to;
+        final CellAction action;
+
+        Batch(int from, int to, CellAction action) {
+            this.from = from;
+            this.to = to;
+            this.action = action;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > BATCH_SIZE) {
+                val middle = (from + to) >>> 1;
+                invokeAll(new Batch(from, middle, action), new Batch(middle, to, action));
+                return;
+            }
+
+            val neighbours = new int[27];
+            for (int cell = from; cell < to; cell++) {
+                action.apply(cell, neighbours, neighbours(cell, neighbours));
+            }
+        }
+    }
+
+    /**
+     * Disjoint sets, merged from several threads at once: a root only ever gets linked to a smaller root, with a
+     * compare and set, so that concurrent merges cannot make a cycle.
+     */
+    private static class UnionFind {
+        final AtomicIntegerArray parents;
+
+        UnionFind(int size) {
+            parents = new AtomicIntegerArray(size);
+            for (int i = 0; i < size; i++) {
+                parents.set(i, i);
+            }
+        }
+
+        int find(int i) {
+            var parent = parents.get(i);
+            while (parent != i) {
+                val grandParent = parents.get(parent);
+                parents.compareAndSet(i, parent, grandParent); //path halving
+                i = parent;
+                parent = parents.get(i);
+            }
+            return i;
+        }
+
+        void union(int a, int b) {
+            while (true) {
+                a = find(a);
+                b = find(b);
+                if (a == b) return;
+
+                if (a < b) {
+                    val swap = a;
+                    a = b;
+                    b = swap;
+                }
+                if (parents.compareAndSet(a, a, b)) return;
+            }
+        }
+    }
+}
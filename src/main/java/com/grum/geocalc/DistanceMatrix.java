@@ -0,0 +1,255 @@
+/*
+ * BSD 3-Clause License
+ *
+ * Copyright (c) 2018, Grum Ltd (Romain Gallet)
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ *
+ * Neither the name of Geocalc nor the names of its
+ * contributors may be used to endorse or promote products derived from
+ * this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.grum.geocalc;
+
+import lombok.val;
+
+import java.nio.DoubleBuffer;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Distances between every origin and every destination, computed in parallel.
+ * <p>
+ * The matrix is split into tiles that are spread over a {@link ForkJoinPool}, the common one by default.
+ * Results are laid out row by row: the distance from origin i to destination j is at i * columns() + j.
+ * <pre>
+ *     DistanceMatrix matrix = DistanceMatrix.between(vehicleLatitudes, vehicleLongitudes, jobLatitudes, jobLongitudes);
+ *     double[] distances = new double[matrix.rows() * matrix.columns()];
+ *     matrix.compute(DistanceMatrix.Formula.HAVERSINE, distances);
+ * </pre>
+ */
+public class DistanceMatrix {
+
+    //number of cells below which a tile is not split any further
+    private static final int TILE_SIZE = 1 << 14;
+
+    private final double[] originLatitudes, originLongitudes;
+    private final double[] destinationLatitudes, destinationLongitudes;
+
+    private DistanceMatrix(double[] originLatitudes, double[] originLongitudes, double[] destinationLatitudes, double[] destinationLongitudes) {
+        this.originLatitudes = originLatitudes;
+        this.originLongitudes = originLongitudes;
+        this.destinationLatitudes = destinationLatitudes;
+        this.destinationLongitudes = destinationLongitudes;
+    }
+
+    /**
+     * Arrays are not copied, and must not be modified while computing the matrix.
+     *
+     * @param originLatitudes       latitudes of the origins (rows), in decimal degrees
+     * @param originLongitudes      longitudes of the origins (rows), in decimal degrees
+     * @param destinationLatitudes  latitudes of the destinations (columns), in decimal degrees
+     * @param destinationLongitudes longitudes of the destinations (columns), in decimal degrees
+     * @return the matrix, yet to be computed
+     */
+    public static DistanceMatrix between(double[] originLatitudes, double[] originLongitudes,
+                                         double[] destinationLatitudes, double[] destinationLongitudes) {
+        if (originLongitudes.length != originLatitudes.length || destinationLongitudes.length != destinationLatitudes.length) {
+            throw new IllegalArgumentException("Expected as many longitudes as latitudes");
+        }
+        return new DistanceMatrix(originLatitudes, originLongitudes, destinationLatitudes, destinationLongitudes);
+    }
+
+    public int rows() {
+        return originLatitudes.length;
+    }
+
+    public int columns() {
+        return destinationLatitudes.length;
+    }
+
+    public void compute(Formula formula, double[] distances) {
+        compute(formula, distances, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * @param formula   formula to compute distances with
+     * @param distances receives the distances, in meters, row by row
+     * @param pool      pool to compute the tiles in
+     */
+    public void compute(Formula formula, double[] distances, ForkJoinPool pool) {
+        checkCapacity(distances.length);
+        pool.invoke(new Tile(formula, 0, rows(), 0, columns(), (row, column, tile, length) ->
+                System.arraycopy(tile, 0, distances, row * columns() + column, length)));
+    }
+
+    public void compute(Formula formula, float[] distances) {
+        compute(formula, distances, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Halves the memory footprint, at the cost of precision: a float has a 24 bits mantissa, eg. 1m at 10000km.
+     *
+     * @param formula   formula to compute distances with
+     * @param distances receives the distances, in meters, row by row
+     * @param pool      pool to compute the tiles in
+     */
+    public void compute(Formula formula, float[] distances, ForkJoinPool pool) {
+        checkCapacity(distances.length);
+        pool.invoke(new Tile(formula, 0, rows(), 0, columns(), (row, column, tile, length) -> {
+            val offset = row * columns() + column;
+            for (int i = 0; i < length; i++) {
+                distances[offset + i] = (float) tile[i];
+            }
+        }));
+    }
+
+    public void compute(Formula formula, DoubleBuffer distances) {
+        compute(formula, distances, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Writes into a buffer, for instance a view of a {@link java.nio.MappedByteBuffer} for matrices larger than the heap.
+     * Only absolute puts are used, the position of the buffer is left untouched.
+     *
+     * @param formula   formula to compute distances with
+     * @param distances receives the distances, in meters, row by row, from index 0
+     * @param pool      pool to compute the tiles in
+     */
+    public void compute(Formula formula, DoubleBuffer distances, ForkJoinPool pool) {
+        checkCapacity(distances.limit());
+        pool.invoke(new Tile(formula, 0, rows(), 0, columns(), (row, column, tile, length) -> {
+            val offset = row * columns() + column;
+            for (int i = 0; i < length; i++) {
+                distances.put(offset + i, tile[i]);
+            }
+        }));
+    }
+
+    private void checkCapacity(int capacity) {
+        if ((long) rows() * columns() > capacity) {
+            throw new IllegalArgumentException("Expected room for " + rows() + "x" + columns() + " distances, got " + capacity);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "DistanceMatrix{" + "rows=" + rows() + ", columns=" + columns() + '}';
+    }
+
+    /**
+     * Formulas a matrix can be computed with, see {@link EarthCalc}.
+     */
+    public enum Formula {
+        GCD {
+            @Override
+            void distances(PreparedPoint origin, double[] latitudes, double[] longitudes, int from, int to, double[] distances) {
+                origin.gcd.distances(latitudes, longitudes, from, to, distances, 0);
+            }
+        },
+        HAVERSINE {
+            @Override
+            void distances(PreparedPoint origin, double[] latitudes, double[] longitudes, int from, int to, double[] distances) {
+                origin.haversine.distances(latitudes, longitudes, from, to, distances, 0);
+            }
+        },
+        /**
+         * Approximation within 0.05% up to 100 km, see {@link EarthCalc.equirectangular}.
+         */
+        EQUIRECTANGULAR {
+            @Override
+            void distances(PreparedPoint origin, double[] latitudes, double[] longitudes, int from, int to, double[] distances) {
+                EarthCalc.equirectangular.distances(origin.point.latitude, origin.point.longitude, latitudes, longitudes, from, to, distances, 0);
+            }
+        },
+        /**
+         * Fails with an {@link IllegalStateException} if the formula does not converge for a pair of points.
+         */
+        VINCENTY {
+            @Override
+            void distances(PreparedPoint origin, double[] latitudes, double[] longitudes, int from, int to, double[] distances) {
+                origin.vincenty.distances(latitudes, longitudes, from, to, distances, 0);
+            }
+        },
+        /**
+         * As accurate as Vincenty, without ever failing, see {@link EarthCalc.karney}.
+         */
+        KARNEY {
+            @Override
+            void distances(PreparedPoint origin, double[] latitudes, double[] longitudes, int from, int to, double[] distances) {
+                EarthCalc.karney.distances(origin.point.latitude, origin.point.longitude, latitudes, longitudes, from, to, distances, 0);
+            }
+        };
+
+        abstract void distances(PreparedPoint origin, double[] latitudes, double[] longitudes, int from, int to, double[] distances);
+    }
+
+    private interface Sink {
+        void write(int row, int column, double[] tile, int length);
+    }
+
+    private class Tile extends RecursiveAction {
+        final Formula formula;
+        final int firstRow, lastRow, firstColumn, lastColumn; //exclusive upper bounds
+        final Sink sink;
+
+        Tile(Formula formula, int firstRow, int lastRow, int firstColumn, int lastColumn, Sink sink) {
+            this.formula = formula;
+            this.firstRow = firstRow;
+            this.lastRow = lastRow;
+            this.firstColumn = firstColumn;
+            this.lastColumn = lastColumn;
+            this.sink = sink;
+        }
+
+        @Override
+        protected void compute() {
+            val rows = lastRow - firstRow;
+            val columns = lastColumn - firstColumn;
+
+            if ((long) rows * columns <= TILE_SIZE) {
+                computeDirectly();
+            } else if (rows >= columns || columns <= TILE_SIZE) { //keeps rows whole when possible, for the destinations to stay in cache
+                val middle = (firstRow + lastRow) >>> 1;
+                invokeAll(new Tile(formula, firstRow, middle, firstColumn, lastColumn, sink),
+                        new Tile(formula, middle, lastRow, firstColumn, lastColumn, sink));
+            } else {
+                val middle = (firstColumn + lastColumn) >>> 1;
+                invokeAll(new Tile(formula, firstRow, lastRow, firstColumn, middle, sink),
+                        new Tile(formula, firstRow, lastRow, middle, lastColumn, sink));
+            }
+        }
+
+        private void computeDirectly() {
+            val length = lastColumn - firstColumn;
+            val tile = new double[length];
+
+            for (int row = firstRow; row < lastRow; row++) {
+                val origin = EarthCalc.prepare(new Point(originLatitudes[row], originLongitudes[row]));
+                formula.distances(origin, destinationLatitudes, destinationLongitudes, firstColumn, lastColumn, tile);
+                sink.write(row, firstColumn, tile, length);
+            }
+        }
+    }
+}
@@ -32,6 +32,7 @@
 
 package com.grum.geocalc;
 
+import lombok.AccessLevel;
 import lombok.AllArgsConstructor;
 import lombok.val;
 import lombok.var;
@@ -45,6 +46,22 @@ public class EarthCalc {
 
     public static final double EARTH_RADIUS = 6_356_752.314245D; // radius at the poles, meters
 
+    /**
+     * Computes once the trigonometry of standPoint, for one-to-many calculations.
+     *
+     * @param standPoint The stand point
+     * @return standPoint, prepared for every formula
+     */
+    public static PreparedPoint prepare(Point standPoint) {
+        return new PreparedPoint(standPoint);
+    }
+
+    /**
+     * Spherical law of cosines.
+     * <p>
+     * Every method taking points also takes their decimal degrees, and those returning points can write
+     * their decimal degrees into a caller-owned array instead, for loops which must not create any object.
+     */
     public static class gcd {
         /**
          * This is the half-way point along a great circle path between the two points.
@@ -55,11 +72,26 @@ public class EarthCalc {
          * @see <a href="http://www.movable-type.co.uk/scripts/latlong.html"></a>
          */
         public static Point midPoint(Point standPoint, Point forePoint) {
-            val λ1 = toRadians(standPoint.longitude);
-            val λ2 = toRadians(forePoint.longitude);
+            val into = new double[2];
+            midPoint(standPoint.latitude, standPoint.longitude, forePoint.latitude, forePoint.longitude, into);
+
+            return new Point(into[0], into[1]);
+        }
+
+        /**
+         * Same as {@link #midPoint(Point, Point)}, in decimal degrees.
+         *
+         * @param into receives the latitude and longitude of the mid point, at index 0 and 1
+         */
+        public static void midPoint(double latitude1, double longitude1, double latitude2, double longitude2, double[] into) {
+            val metrics = Metrics.installed();
+            val start = metrics.start(Metrics.Operation.GCD_MID_POINT);
+
+            val λ1 = toRadians(longitude1);
+            val λ2 = toRadians(longitude2);
 
-            val φ1 = toRadians(standPoint.latitude);
-            val φ2 = toRadians(forePoint.latitude);
+            val φ1 = toRadians(latitude1);
+            val φ2 = toRadians(latitude2);
 
             val Bx = cos(φ2) * cos(λ2 - λ1);
             val By = cos(φ2) * sin(λ2 - λ1);
@@ -67,7 +99,9 @@ public class EarthCalc {
             val φ3 = atan2(sin(φ1) + sin(φ2), sqrt((cos(φ1) + Bx) * (cos(φ1) + Bx) + By * By));
             val λ3 = λ1 + atan2(By, cos(φ1) + Bx);
 
-            return Point.at(Coordinate.fromRadians(φ3), Coordinate.fromRadians(λ3));
+            into[0] = toDegrees(φ3);
+            into[1] = toDegrees(λ3);
+            metrics.stop(Metrics.Operation.GCD_MID_POINT, start);
         }
 
         /**
@@ -78,18 +112,57 @@ public class EarthCalc {
          * @return The distance, in meters
          */
         public static double distance(Point standPoint, Point forePoint) {
+            return distance(standPoint.latitude, standPoint.longitude, forePoint.latitude, forePoint.longitude);
+        }
+
+        /**
+         * Same as {@link #distance(Point, Point)}, in decimal degrees.
+         */
+        public static double distance(double latitude1, double longitude1, double latitude2, double longitude2) {
+            return distance(MathKernel.DEFAULT, latitude1, longitude1, latitude2, longitude2);
+        }
+
+        /**
+         * Same as {@link #distance(Point, Point)}, computed with the given trigonometric functions.
+         */
+        public static double distance(MathKernel math, Point standPoint, Point forePoint) {
+            return distance(math, standPoint.latitude, standPoint.longitude, forePoint.latitude, forePoint.longitude);
+        }
 
-            val Δλ = toRadians(abs(forePoint.longitude - standPoint.longitude));
-            val φ1 = toRadians(standPoint.latitude);
-            val φ2 = toRadians(forePoint.latitude);
+        /**
+         * Same as {@link #distance(double, double, double, double)}, computed with the given trigonometric functions.
+         */
+        public static double distance(MathKernel math, double latitude1, double longitude1, double latitude2, double longitude2) {
+            val metrics = Metrics.installed();
+            val start = metrics.start(Metrics.Operation.GCD_DISTANCE);
+
+            val Δλ = toRadians(abs(longitude2 - longitude1));
+            val φ1 = toRadians(latitude1);
+            val φ2 = toRadians(latitude2);
 
             //spherical law of cosines
-            val sphereCos = (sin(φ1) * sin(φ2)) + (cos(φ1) * cos(φ2) * cos(Δλ));
-            val c = acos(max(min(sphereCos, 1d), -1d));
+            val sphereCos = (math.sin(φ1) * math.sin(φ2)) + (math.cos(φ1) * math.cos(φ2) * math.cos(Δλ));
+            val c = math.acos(max(min(sphereCos, 1d), -1d));
 
+            metrics.stop(Metrics.Operation.GCD_DISTANCE, start);
             return EARTH_RADIUS * c;
         }
 
+        /**
+         * Computes the distances between standPoint and each of the fore points, at spherical law of cosines.
+         * <p>
+         * Fore points are given as columns of decimal degrees, distances[i] being the distance to
+         * (latitudes[i], longitudes[i]). No object is created along the way.
+         *
+         * @param standPoint The stand point
+         * @param latitudes  Latitudes of the fore points
+         * @param longitudes Longitudes of the fore points
+         * @param distances  Receives the distances, in meters
+         */
+        public static void distances(Point standPoint, double[] latitudes, double[] longitudes, double[] distances) {
+            prepare(standPoint).gcd.distances(latitudes, longitudes, distances);
+        }
+
         /**
          * Returns the coordinates of a point which is "distance" away
          * from standPoint in the direction of "bearing"
@@ -103,6 +176,30 @@ public class EarthCalc {
          * @see <a href="http://www.movable-type.co.uk/scripts/latlong.html"></a>
          */
         public static Point pointAt(Point standPoint, double bearing, double distance) {
+            val into = new double[2];
+            pointAt(standPoint.latitude, standPoint.longitude, bearing, distance, into);
+
+            return new Point(into[0], into[1]);
+        }
+
+        /**
+         * Same as {@link #pointAt(Point, double, double)}, in decimal degrees.
+         *
+         * @param into receives the latitude and longitude of the fore point, at index 0 and 1
+         */
+        public static void pointAt(double latitude, double longitude, double bearing, double distance, double[] into) {
+            pointAt(MathKernel.DEFAULT, latitude, longitude, bearing, distance, into, 0);
+        }
+
+        /**
+         * Same as {@link #pointAt(double, double, double, double, double[])}, computed with the given trigonometric
+         * functions.
+         */
+        public static void pointAt(MathKernel math, double latitude, double longitude, double bearing, double distance, double[] into) {
+            pointAt(math, latitude, longitude, bearing, distance, into, 0);
+        }
+
+        private static void pointAt(MathKernel math, double latitude, double longitude, double bearing, double distance, double[] into, int offset) {
         /*
          φ2 = asin( sin φ1 ⋅ cos δ + cos φ1 ⋅ sin δ ⋅ cos θ )
          λ2 = λ1 + atan2( sin θ ⋅ sin δ ⋅ cos φ1, cos δ − sin φ1 ⋅ sin φ2 )
@@ -115,17 +212,27 @@ public class EarthCalc {
          d being the distance travelled, R the earth’s radius
          */
 
-            val φ1 = toRadians(standPoint.latitude);
-            val λ1 = toRadians(standPoint.longitude);
+            val metrics = Metrics.installed();
+            val start = metrics.start(Metrics.Operation.GCD_POINT_AT);
+
+            val φ1 = toRadians(latitude);
+            val λ1 = toRadians(longitude);
             val θ = toRadians(bearing);
             val δ = distance / EARTH_RADIUS; // normalize linear distance to radian angle
 
-            val φ2 = asin(sin(φ1) * cos(δ) + cos(φ1) * sin(δ) * cos(θ));
-            val λ2 = λ1 + atan2(sin(θ) * sin(δ) * cos(φ1), cos(δ) - sin(φ1) * sin(φ2));
+            val sinφ1 = math.sin(φ1);
+            val cosφ1 = math.cos(φ1);
+            val sinδ = math.sin(δ);
+            val cosδ = math.cos(δ);
+
+            val φ2 = math.asin(sinφ1 * cosδ + cosφ1 * sinδ * math.cos(θ));
+            val λ2 = λ1 + math.atan2(math.sin(θ) * sinδ * cosφ1, cosδ - sinφ1 * math.sin(φ2));
 
             val λ2_harmonised = (λ2 + 3 * PI) % (2 * PI) - PI; // normalise to −180..+180°
 
-            return Point.at(Coordinate.fromRadians(φ2), Coordinate.fromRadians(λ2_harmonised));
+            into[offset] = toDegrees(φ2);
+            into[offset + 1] = toDegrees(λ2_harmonised);
+            metrics.stop(Metrics.Operation.GCD_POINT_AT, start);
         }
 
         /**
@@ -136,20 +243,253 @@ public class EarthCalc {
          * @return (azimuth) bearing, in decimal degrees
          */
         public static double bearing(Point standPoint, Point forePoint) {
+            return bearing(standPoint.latitude, standPoint.longitude, forePoint.latitude, forePoint.longitude);
+        }
+
+        /**
+         * Same as {@link #bearing(Point, Point)}, in decimal degrees.
+         */
+        public static double bearing(double latitude1, double longitude1, double latitude2, double longitude2) {
+            return bearing(MathKernel.DEFAULT, latitude1, longitude1, latitude2, longitude2);
+        }
+
+        /**
+         * Same as {@link #bearing(Point, Point)}, computed with the given trigonometric functions.
+         */
+        public static double bearing(MathKernel math, Point standPoint, Point forePoint) {
+            return bearing(math, standPoint.latitude, standPoint.longitude, forePoint.latitude, forePoint.longitude);
+        }
+
+        /**
+         * Same as {@link #bearing(double, double, double, double)}, computed with the given trigonometric functions.
+         */
+        public static double bearing(MathKernel math, double latitude1, double longitude1, double latitude2, double longitude2) {
             /*
              * Formula: θ = atan2( 	sin(Δlong).cos(lat2), cos(lat1).sin(lat2) − sin(lat1).cos(lat2).cos(Δlong) )
              */
 
-            val Δlong = toRadians(forePoint.longitude - standPoint.longitude);
-            val y = sin(Δlong) * cos(toRadians(forePoint.latitude));
-            val x = cos(toRadians(standPoint.latitude)) * sin(toRadians(forePoint.latitude))
-                    - sin(toRadians(standPoint.latitude)) * cos(toRadians(forePoint.latitude)) * cos(Δlong);
+            val metrics = Metrics.installed();
+            val start = metrics.start(Metrics.Operation.GCD_BEARING);
+
+            val Δlong = toRadians(longitude2 - longitude1);
+            val φ1 = toRadians(latitude1);
+            val φ2 = toRadians(latitude2);
+            val cosφ2 = math.cos(φ2);
+
+            val y = math.sin(Δlong) * cosφ2;
+            val x = math.cos(φ1) * math.sin(φ2) - math.sin(φ1) * cosφ2 * math.cos(Δlong);
 
-            val bearing = (atan2(y, x) + 2 * PI) % (2 * PI);
+            val bearing = (math.atan2(y, x) + 2 * PI) % (2 * PI);
+            metrics.stop(Metrics.Operation.GCD_BEARING, start);
 
             return toDegrees(bearing);
         }
 
+        /**
+         * Returns the distance from point to the great circle going through start and end.
+         *
+         * @param start Start of the path
+         * @param end   End of the path
+         * @param point The point
+         * @return distance in meters, negative when point is on the left of the path, positive on the right
+         * @see <a href="http://www.movable-type.co.uk/scripts/latlong.html"></a>
+         */
+        public static double crossTrackDistance(Point start, Point end, Point point) {
+            val δ13 = haversine.distance(start, point) / EARTH_RADIUS;
+            val Δθ = toRadians(bearing(start, point) - bearing(start, end));
+
+            return asin(sin(δ13) * sin(Δθ)) * EARTH_RADIUS;
+        }
+
+        /**
+         * Returns the distance from start to the closest point to point on the great circle going through start and end.
+         *
+         * @param start Start of the path
+         * @param end   End of the path
+         * @param point The point
+         * @return distance in meters, negative when the closest point is behind start
+         * @see <a href="http://www.movable-type.co.uk/scripts/latlong.html"></a>
+         */
+        public static double alongTrackDistance(Point start, Point end, Point point) {
+            val δ13 = haversine.distance(start, point) / EARTH_RADIUS;
+            val Δθ = toRadians(bearing(start, point) - bearing(start, end));
+
+            //tan δat = tan δ13 ⋅ cos Δθ, in the right spherical triangle start, point, closest point
+            return atan2(sin(δ13) * cos(Δθ), cos(δ13)) * EARTH_RADIUS;
+        }
+
+        /**
+         * Returns the point of the (shortest) great circle segment from start to end which is closest to point.
+         *
+         * @param start Start of the segment
+         * @param end   End of the segment
+         * @param point The point
+         * @return the closest point, start or end if point is beyond either of them
+         */
+        public static Point closestPoint(Point start, Point end, Point point) {
+            val into = new double[2];
+            closestPoint(start.latitude, start.longitude, end.latitude, end.longitude, point.latitude, point.longitude, into);
+
+            return new Point(into[0], into[1]);
+        }
+
+        /**
+         * Same as {@link #closestPoint(Point, Point, Point)}, in decimal degrees.
+         *
+         * @param into receives the latitude and longitude of the closest point, at index 0 and 1
+         * @return the distance from point to the closest point, in meters
+         */
+        public static double closestPoint(double latitude1, double longitude1, double latitude2, double longitude2,
+                                          double latitude, double longitude, double[] into) {
+            //same as closest(a, 0, b, 0, p, c), on scalars so that nothing is allocated
+            val φ1 = toRadians(latitude1);
+            val λ1 = toRadians(longitude1);
+            val cosφ1 = cos(φ1);
+            val ax = cosφ1 * cos(λ1);
+            val ay = cosφ1 * sin(λ1);
+            val az = sin(φ1);
+            val φ2 = toRadians(latitude2);
+            val λ2 = toRadians(longitude2);
+            val cosφ2 = cos(φ2);
+            val bx = cosφ2 * cos(λ2);
+            val by = cosφ2 * sin(λ2);
+            val bz = sin(φ2);
+            val φ = toRadians(latitude);
+            val λ = toRadians(longitude);
+            val cosφ = cos(φ);
+            val px = cosφ * cos(λ);
+            val py = cosφ * sin(λ);
+            val pz = sin(φ);
+
+            //normal to the plane of the great circle
+            val nx = ay * bz - az * by;
+            val ny = az * bx - ax * bz;
+            val nz = ax * by - ay * bx;
+            val n2 = nx * nx + ny * ny + nz * nz;
+
+            var cx = 0.0;
+            var cy = 0.0;
+            var cz = 0.0;
+            var within = false;
+            if (n2 > 1e-30) {
+                //projection of p on the plane, within the arc if it is on the same side of a and b as the arc
+                val pn = (px * nx + py * ny + pz * nz) / n2;
+                cx = px - pn * nx;
+                cy = py - pn * ny;
+                cz = pz - pn * nz;
+                val afterA = (ay * cz - az * cy) * nx + (az * cx - ax * cz) * ny + (ax * cy - ay * cx) * nz;
+                val beforeB = (cy * bz - cz * by) * nx + (cz * bx - cx * bz) * ny + (cx * by - cy * bx) * nz;
+                val c = sqrt(cx * cx + cy * cy + cz * cz);
+                within = afterA >= 0 && beforeB >= 0 && c > 0;
+                if (within) {
+                    cx = cx / c;
+                    cy = cy / c;
+                    cz = cz / c;
+                }
+            }
+            if (!within) {
+                val ca = (px - ax) * (px - ax) + (py - ay) * (py - ay) + (pz - az) * (pz - az);
+                val cb = (px - bx) * (px - bx) + (py - by) * (py - by) + (pz - bz) * (pz - bz);
+                cx = ca <= cb ? ax : bx;
+                cy = ca <= cb ? ay : by;
+                cz = ca <= cb ? az : bz;
+            }
+
+            //angle from p to the closest point, accurate at every distance
+            val ux = py * cz - pz * cy;
+            val uy = pz * cx - px * cz;
+            val uz = px * cy - py * cx;
+            val δ = atan2(sqrt(ux * ux + uy * uy + uz * uz), px * cx + py * cy + pz * cz);
+
+            into[0] = toDegrees(atan2(cz, hypot(cx, cy)));
+            into[1] = toDegrees(atan2(cy, cx));
+            return δ * EARTH_RADIUS;
+        }
+
+        static void toVector(double latitude, double longitude, double[] into) {
+            toVector(latitude, longitude, into, 0);
+        }
+
+        //unit vector of the point, written at offset
+        static void toVector(double latitude, double longitude, double[] into, int offset) {
+            val φ = toRadians(latitude);
+            val λ = toRadians(longitude);
+            val cosφ = cos(φ);
+            into[offset] = cosφ * cos(λ);
+            into[offset + 1] = cosφ * sin(λ);
+            into[offset + 2] = sin(φ);
+        }
+
+        /**
+         * Closest point to p on the arc from a to b, unit vectors of the 3D space, a and b being read at offset.
+         *
+         * @param into if not null, receives the unit vector of the closest point
+         * @return the angle from p to the closest point, in radians
+         */
+        static double closest(double[] a, int i, double[] b, int j, double[] p, double[] into) {
+            val c = into != null ? into : new double[3];
+            chord(a, i, b, j, p, c);
+            return angle(p, 0, c[0], c[1], c[2]);
+        }
+
+        /**
+         * Same as {@link #closest}, cheaper to compare, being free of trigonometric functions.
+         *
+         * @return the squared length of the chord from p to the closest point, growing with the angle
+         */
+        static double chord(double[] a, int i, double[] b, int j, double[] p, double[] into) {
+            //normal to the plane of the great circle
+            val nx = a[i + 1] * b[j + 2] - a[i + 2] * b[j + 1];
+            val ny = a[i + 2] * b[j] - a[i] * b[j + 2];
+            val nz = a[i] * b[j + 1] - a[i + 1] * b[j];
+            val n2 = nx * nx + ny * ny + nz * nz;
+
+            if (n2 > 1e-30) {
+                //projection of p on the plane, within the arc if it is on the same side of a and b as the arc
+                val pn = (p[0] * nx + p[1] * ny + p[2] * nz) / n2;
+                val cx = p[0] - pn * nx;
+                val cy = p[1] - pn * ny;
+                val cz = p[2] - pn * nz;
+                val afterA = (a[i + 1] * cz - a[i + 2] * cy) * nx + (a[i + 2] * cx - a[i] * cz) * ny + (a[i] * cy - a[i + 1] * cx) * nz;
+                val beforeB = (cy * b[j + 2] - cz * b[j + 1]) * nx + (cz * b[j] - cx * b[j + 2]) * ny + (cx * b[j + 1] - cy * b[j]) * nz;
+
+                if (afterA >= 0 && beforeB >= 0) {
+                    val c = sqrt(cx * cx + cy * cy + cz * cz);
+                    if (c > 0) {
+                        if (into != null) {
+                            into[0] = cx / c;
+                            into[1] = cy / c;
+                            into[2] = cz / c;
+                        }
+                        return chord(p, cx / c, cy / c, cz / c);
+                    }
+                }
+            }
+
+            val ca = chord(p, a[i], a[i + 1], a[i + 2]);
+            val cb = chord(p, b[j], b[j + 1], b[j + 2]);
+            val nearest = ca <= cb ? a : b;
+            val k = ca <= cb ? i : j;
+            if (into != null) {
+                into[0] = nearest[k];
+                into[1] = nearest[k + 1];
+                into[2] = nearest[k + 2];
+            }
+            return min(ca, cb);
+        }
+
+        private static double chord(double[] p, double x, double y, double z) {
+            return (p[0] - x) * (p[0] - x) + (p[1] - y) * (p[1] - y) + (p[2] - z) * (p[2] - z);
+        }
+
+        //angle between the unit vectors u and (x, y, z), accurate at every distance
+        static double angle(double[] u, int i, double x, double y, double z) {
+            val cx = u[i + 1] * z - u[i + 2] * y;
+            val cy = u[i + 2] * x - u[i] * z;
+            val cz = u[i] * y - u[i + 1] * x;
+            return atan2(sqrt(cx * cx + cy * cy + cz * cz), u[i] * x + u[i + 1] * y + u[i + 2] * z);
+        }
+
         /**
          * Returns an area around standPoint
          *
@@ -159,14 +499,24 @@ public class EarthCalc {
          * @see <a href="http://www.movable-type.co.uk/scripts/latlong.html"></a>
          */
         public static BoundingArea around(Point standPoint, double distance) {
+            val into = new double[4];
+            around(standPoint.latitude, standPoint.longitude, distance, into);
+
+            return BoundingArea.at(new Point(into[0], into[1]), new Point(into[2], into[3]));
+        }
 
+        /**
+         * Same as {@link #around(Point, double)}, in decimal degrees.
+         *
+         * @param into receives the latitude and longitude of the north east corner, at index 0 and 1,
+         *             then those of the south west corner, at index 2 and 3
+         */
+        public static void around(double latitude, double longitude, double distance, double[] into) {
             //45 degrees going north-east
-            val northEast = pointAt(standPoint, 45, distance);
+            pointAt(MathKernel.DEFAULT, latitude, longitude, 45, distance, into, 0);
 
             //225 degrees going south-west
-            val southWest = pointAt(standPoint, 225, distance);
-
-            return BoundingArea.at(northEast, southWest);
+            pointAt(MathKernel.DEFAULT, latitude, longitude, 225, distance, into, 2);
         }
     }
 
@@ -179,40 +529,187 @@ public class EarthCalc {
          * @return The distance, in meters
          */
         public static double distance(Point standPoint, Point forePoint) {
+            return distance(standPoint.latitude, standPoint.longitude, forePoint.latitude, forePoint.longitude);
+        }
+
+        /**
+         * Same as {@link #distance(Point, Point)}, in decimal degrees.
+         */
+        public static double distance(double latitude1, double longitude1, double latitude2, double longitude2) {
+            return distance(MathKernel.DEFAULT, latitude1, longitude1, latitude2, longitude2);
+        }
+
+        /**
+         * Same as {@link #distance(Point, Point)}, computed with the given trigonometric functions.
+         */
+        public static double distance(MathKernel math, Point standPoint, Point forePoint) {
+            return distance(math, standPoint.latitude, standPoint.longitude, forePoint.latitude, forePoint.longitude);
+        }
 
-            val Δλ = toRadians(abs(forePoint.longitude - standPoint.longitude));
-            val φ1 = toRadians(standPoint.latitude);
-            val φ2 = toRadians(forePoint.latitude);
+        /**
+         * Same as {@link #distance(double, double, double, double)}, computed with the given trigonometric functions.
+         */
+        public static double distance(MathKernel math, double latitude1, double longitude1, double latitude2, double longitude2) {
+            val metrics = Metrics.installed();
+            val start = metrics.start(Metrics.Operation.HAVERSINE_DISTANCE);
+
+            val Δλ = toRadians(abs(longitude2 - longitude1));
+            val φ1 = toRadians(latitude1);
+            val φ2 = toRadians(latitude2);
 
             // haversine formula
-            val Δφ = toRadians(abs(forePoint.latitude - standPoint.latitude));
-            val a = sin(Δφ / 2) * sin(Δφ / 2) + cos(φ1) * cos(φ2) * sin(Δλ / 2) * sin(Δλ / 2);
-            val c = 2 * atan2(sqrt(a), sqrt(1 - a)); //angular distance in radians
+            val Δφ = toRadians(abs(latitude2 - latitude1));
+            val sinΔφ = math.sin(Δφ / 2);
+            val sinΔλ = math.sin(Δλ / 2);
+            val a = sinΔφ * sinΔφ + math.cos(φ1) * math.cos(φ2) * sinΔλ * sinΔλ;
+            val c = 2 * math.atan2(sqrt(a), sqrt(1 - a)); //angular distance in radians
+            metrics.stop(Metrics.Operation.HAVERSINE_DISTANCE, start);
 
             return EARTH_RADIUS * c;
         }
+
+        /**
+         * Computes the distances between standPoint and each of the fore points, at Haversine formula.
+         * <p>
+         * Fore points are given as columns of decimal degrees, distances[i] being the distance to
+         * (latitudes[i], longitudes[i]). No object is created along the way.
+         *
+         * @param standPoint The stand point
+         * @param latitudes  Latitudes of the fore points
+         * @param longitudes Longitudes of the fore points
+         * @param distances  Receives the distances, in meters
+         */
+        public static void distances(Point standPoint, double[] latitudes, double[] longitudes, double[] distances) {
+            prepare(standPoint).haversine.distances(latitudes, longitudes, distances);
+        }
+    }
+
+    /**
+     * Fast approximation of distances, for ranking nearby points rather than measuring them.
+     * <p>
+     * The ellipsoid is flattened on a plane tangent at the mean latitude of both points,
+     * using the local radii of curvature of WGS84 (meridional and prime vertical). This costs a cosine
+     * and a couple of square roots, instead of the arc tangent of Haversine or the iterations of Vincenty.
+     * <p>
+     * Compared to {@link vincenty}, the relative error is below 0.05% up to 100 km, at latitudes within ±80°,
+     * which is better than the spherical formulas over such distances.
+     * It grows quickly beyond that: this is not meant for distances across continents.
+     */
+    public static class equirectangular {
+        private static final double e2 = vincenty.f * (2 - vincenty.f); // eccentricity squared
+
+        /**
+         * Returns the approximate distance between two points.
+         *
+         * @param standPoint The stand point
+         * @param forePoint  The fore point
+         * @return The distance, in meters
+         */
+        public static double distance(Point standPoint, Point forePoint) {
+            return distance(standPoint.latitude, standPoint.longitude, forePoint.latitude, forePoint.longitude);
+        }
+
+        /**
+         * Computes the approximate distances between standPoint and each of the fore points.
+         *
+         * @param standPoint The stand point
+         * @param latitudes  Latitudes of the fore points
+         * @param longitudes Longitudes of the fore points
+         * @param distances  Receives the distances, in meters
+         * @see gcd#distances(Point, double[], double[], double[])
+         */
+        public static void distances(Point standPoint, double[] latitudes, double[] longitudes, double[] distances) {
+            checkColumns(latitudes, longitudes, distances);
+            distances(standPoint.latitude, standPoint.longitude, latitudes, longitudes, 0, latitudes.length, distances, 0);
+        }
+
+        static void distances(double latitude, double longitude, double[] latitudes, double[] longitudes, int from, int to, double[] distances, int offset) {
+            for (int i = from; i < to; i++) {
+                distances[offset++] = distance(latitude, longitude, latitudes[i], longitudes[i]);
+            }
+        }
+
+        /**
+         * Same as {@link #distance(Point, Point)}, in decimal degrees.
+         */
+        public static double distance(double latitude1, double longitude1, double latitude2, double longitude2) {
+            return distance(MathKernel.DEFAULT, latitude1, longitude1, latitude2, longitude2);
+        }
+
+        /**
+         * Same as {@link #distance(Point, Point)}, computed with the given trigonometric functions.
+         */
+        public static double distance(MathKernel math, Point standPoint, Point forePoint) {
+            return distance(math, standPoint.latitude, standPoint.longitude, forePoint.latitude, forePoint.longitude);
+        }
+
+        /**
+         * Same as {@link #distance(double, double, double, double)}, computed with the given trigonometric functions.
+         */
+        public static double distance(MathKernel math, double latitude1, double longitude1, double latitude2, double longitude2) {
+            val metrics = Metrics.installed();
+            val start = metrics.start(Metrics.Operation.EQUIRECTANGULAR_DISTANCE);
+
+            var Δλ = toRadians(longitude2 - longitude1);
+            if (Δλ > PI) Δλ -= 2 * PI; // shortest way around, across the antimeridian
+            else if (Δλ < -PI) Δλ += 2 * PI;
+
+            val Δφ = toRadians(latitude2 - latitude1);
+            val cosφm = math.cos(toRadians((latitude1 + latitude2) / 2));
+
+            val W2 = 1 - e2 * (1 - cosφm * cosφm);
+            val N = vincenty.a / sqrt(W2); // prime vertical radius of curvature
+            val M = N * (1 - e2) / W2; // meridional radius of curvature
+
+            val x = N * cosφm * Δλ;
+            val y = M * Δφ;
+
+            metrics.stop(Metrics.Operation.EQUIRECTANGULAR_DISTANCE, start);
+            return sqrt(x * x + y * y);
+        }
     }
 
     public static class vincenty {
+        static final double a = 6_378_137D; // radius at equator
+        static final double b = EARTH_RADIUS; // Using b to keep close to academic formula.
+        static final double f = 1 / 298.257223563D; // flattening of the ellipsoid
+
         /**
-         * Calculate distance, (azimuth) bearing and final bearing between standPoint and forePoint.
+         * Calculate distance, (azimuth) bearing and final bearing between standPoint and forePoint, in one go.
+         * <p>
+         * Cheaper than calling distance, bearing and finalBearing one after the other, which would solve
+         * the same iterations three times.
          *
          * @param standPoint The stand point
          * @param forePoint  The fore point
-         * @return Vincenty object which holds all 3 values
+         * @return Vincenty object which holds all 3 values, and the number of iterations it took
+         * @throws IllegalStateException if the formula fails to converge
          */
-        private static Vincenty vincenty(Point standPoint, Point forePoint) {
-            val λ1 = toRadians(standPoint.longitude);
-            val λ2 = toRadians(forePoint.longitude);
+        public static Vincenty inverse(Point standPoint, Point forePoint) {
+            val solution = new double[3];
+            val distance = inverse(standPoint.latitude, standPoint.longitude, forePoint.latitude, forePoint.longitude, solution);
 
-            val φ1 = toRadians(standPoint.latitude);
-            val φ2 = toRadians(forePoint.latitude);
+            return new Vincenty(distance, solution[0], solution[1], (int) solution[2]);
+        }
 
-            val a = 6_378_137D; // radius at equator
-            val b = EARTH_RADIUS; // Using b to keep close to academic formula.
-            val f = 1 / 298.257223563D; // flattening of the ellipsoid
+        /**
+         * Same as {@link #inverse(Point, Point)}, in decimal degrees, writing into a caller-owned array.
+         *
+         * @param into receives the initial bearing, the final bearing and the number of iterations, at index 0, 1 and 2
+         * @return the distance, in meters
+         * @throws IllegalStateException if the formula fails to converge
+         */
+        public static double inverse(double latitude1, double longitude1, double latitude2, double longitude2, double[] into) {
+            return vincenty(latitude1, longitude1, latitude2, longitude2, into);
+        }
+
+        private static double vincenty(double latitude1, double longitude1, double latitude2, double longitude2, double[] solution) {
+            val λ1 = toRadians(longitude1);
+            val λ2 = toRadians(longitude2);
+
+            val φ1 = toRadians(latitude1);
+            val φ2 = toRadians(latitude2);
 
-            val L = λ2 - λ1;
             val tanU1 = (1 - f) * tan(φ1);
             val cosU1 = 1 / sqrt((1 + tanU1 * tanU1));
             val sinU1 = tanU1 * cosU1;
@@ -221,13 +718,35 @@ public class EarthCalc {
             val cosU2 = 1 / sqrt((1 + tanU2 * tanU2));
             val sinU2 = tanU2 * cosU2;
 
+            return inverse(λ2 - λ1, sinU1, cosU1, sinU2, cosU2, solution);
+        }
+
+        /**
+         * Solves the inverse problem on the reduced latitudes U1 and U2 of both points.
+         *
+         * @param L        Difference in longitude, in radians
+         * @param solution if not null, receives the initial and final bearings, in degrees, and the number of iterations
+         * @return The distance, in meters
+         */
+        static double inverse(double L, double sinU1, double cosU1, double sinU2, double cosU2, double[] solution) {
+            val metrics = Metrics.installed();
+            val start = metrics.start(Metrics.Operation.VINCENTY_INVERSE);
+
             double λ = L, λʹ, iterationLimit = 100, cosSqα, σ, cos2σM, cosσ, sinσ, sinλ, cosλ;
             do {
                 sinλ = sin(λ);
                 cosλ = cos(λ);
                 val sinSqσ = (cosU2 * sinλ) * (cosU2 * sinλ) + (cosU1 * sinU2 - sinU1 * cosU2 * cosλ) * (cosU1 * sinU2 - sinU1 * cosU2 * cosλ);
                 sinσ = sqrt(sinSqσ);
-                if (sinσ == 0) return Vincenty.CO_INCIDENT_POINTS;  // co-incident points
+                if (sinσ == 0) { // co-incident points
+                    if (solution != null) {
+                        solution[0] = solution[1] = 0;
+                        solution[2] = 101 - iterationLimit;
+                    }
+                    metrics.vincentyConverged((int) (101 - iterationLimit));
+                    metrics.stop(Metrics.Operation.VINCENTY_INVERSE, start);
+                    return 0;
+                }
                 cosσ = sinU1 * sinU2 + cosU1 * cosU2 * cosλ;
                 σ = atan2(sinσ, cosσ);
                 val sinα = cosU1 * cosU2 * sinλ / sinσ;
@@ -240,7 +759,11 @@ public class EarthCalc {
                 λ = L + (1 - C) * f * sinα * (σ + C * sinσ * (cos2σM + C * cosσ * (-1 + 2 * cos2σM * cos2σM)));
             } while (abs(λ - λʹ) > 1e-12 && --iterationLimit > 0);
 
-            if (iterationLimit == 0) throw new IllegalStateException("Formula failed to converge");
+            if (iterationLimit == 0) {
+                metrics.vincentyFailed();
+                throw new IllegalStateException("Formula failed to converge");
+            }
+            metrics.vincentyConverged((int) (101 - iterationLimit));
 
             val uSq = cosSqα * (a * a - b * b) / (b * b);
             val A = 1 + uSq / 16384 * (4096 + uSq * (-768 + uSq * (320 - 175 * uSq)));
@@ -248,19 +771,49 @@ public class EarthCalc {
             val Δσ = B * sinσ * (cos2σM + B / 4 * (cosσ * (-1 + 2 * cos2σM * cos2σM) -
                     B / 6 * cos2σM * (-3 + 4 * sinσ * sinσ) * (-3 + 4 * cos2σM * cos2σM)));
 
-            val distance = b * A * (σ - Δσ);
+            if (solution != null) {
+                var initialBearing = atan2(cosU2 * sinλ, cosU1 * sinU2 - sinU1 * cosU2 * cosλ);
+                initialBearing = (initialBearing + 2 * PI) % (2 * PI); //turning value to trigonometric direction
 
-            var initialBearing = atan2(cosU2 * sinλ, cosU1 * sinU2 - sinU1 * cosU2 * cosλ);
-            initialBearing = (initialBearing + 2 * PI) % (2 * PI); //turning value to trigonometric direction
+                var finalBearing = atan2(cosU1 * sinλ, -sinU1 * cosU2 + cosU1 * sinU2 * cosλ);
+                finalBearing = (finalBearing + 2 * PI) % (2 * PI);  //turning value to trigonometric direction
 
-            var finalBearing = atan2(cosU1 * sinλ, -sinU1 * cosU2 + cosU1 * sinU2 * cosλ);
-            finalBearing = (finalBearing + 2 * PI) % (2 * PI);  //turning value to trigonometric direction
+                solution[0] = toDegrees(initialBearing);
+                solution[1] = toDegrees(finalBearing);
+                solution[2] = 101 - iterationLimit;
+            }
 
-            return new Vincenty(distance, toDegrees(initialBearing), toDegrees(finalBearing));
+            metrics.stop(Metrics.Operation.VINCENTY_INVERSE, start);
+            return b * A * (σ - Δσ);
         }
 
         public static double distance(Point standPoint, Point forePoint) {
-            return vincenty(standPoint, forePoint).distance;
+            return vincenty(standPoint.latitude, standPoint.longitude, forePoint.latitude, forePoint.longitude, null);
+        }
+
+        /**
+         * Same as {@link #distance(Point, Point)}, in decimal degrees.
+         *
+         * @throws IllegalStateException if the formula fails to converge
+         */
+        public static double distance(double latitude1, double longitude1, double latitude2, double longitude2) {
+            return vincenty(latitude1, longitude1, latitude2, longitude2, null);
+        }
+
+        /**
+         * Computes the distances between standPoint and each of the fore points, at Vincenty formula.
+         * <p>
+         * Fore points are given as columns of decimal degrees, distances[i] being the distance to
+         * (latitudes[i], longitudes[i]). No object is created along the way.
+         *
+         * @param standPoint The stand point
+         * @param latitudes  Latitudes of the fore points
+         * @param longitudes Longitudes of the fore points
+         * @param distances  Receives the distances, in meters
+         * @throws IllegalStateException if the formula fails to converge for one of the fore points
+         */
+        public static void distances(Point standPoint, double[] latitudes, double[] longitudes, double[] distances) {
+            prepare(standPoint).vincenty.distances(latitudes, longitudes, distances);
         }
 
         /**
@@ -272,7 +825,7 @@ public class EarthCalc {
          * @see <a href="http://www.movable-type.co.uk/scripts/latlong.html"></a>
          */
         public static double bearing(Point standPoint, Point forePoint) {
-            return vincenty(standPoint, forePoint).initialBearing;
+            return inverse(standPoint, forePoint).initialBearing;
         }
 
         /**
@@ -284,19 +837,400 @@ public class EarthCalc {
          * @see <a href="http://www.movable-type.co.uk/scripts/latlong.html"></a>
          */
         public static double finalBearing(Point standPoint, Point forePoint) {
-            return vincenty(standPoint, forePoint).finalBearing;
+            return inverse(standPoint, forePoint).finalBearing;
         }
 
-        @AllArgsConstructor
-        private static class Vincenty {
-            final static Vincenty CO_INCIDENT_POINTS = new Vincenty(0, 0, 0);
+        /**
+         * Returns the coordinates of a point which is "distance" away from standPoint in the direction of "bearing",
+         * on the ellipsoid, at Vincenty formula for the direct problem. Within 0.1 mm of {@link karney#pointAt}
+         * up to 10,000 km.
+         *
+         * @param standPoint Origin
+         * @param bearing    Direction in degrees, clockwise from north
+         * @param distance   distance in meters
+         * @return forePoint coordinates
+         * @throws IllegalStateException if the formula fails to converge
+         * @see <a href="http://www.movable-type.co.uk/scripts/latlong-vincenty.html"></a>
+         */
+        public static Point pointAt(Point standPoint, double bearing, double distance) {
+            val into = new double[2];
+            pointAt(standPoint.latitude, standPoint.longitude, bearing, distance, into);
+
+            return new Point(into[0], into[1]);
+        }
+
+        /**
+         * Same as {@link #pointAt(Point, double, double)}, in decimal degrees.
+         *
+         * @param into receives the latitude and longitude of the fore point, at index 0 and 1
+         */
+        public static void pointAt(double latitude, double longitude, double bearing, double distance, double[] into) {
+            val tanU1 = (1 - f) * tan(toRadians(latitude));
+            val cosU1 = 1 / sqrt((1 + tanU1 * tanU1));
+
+            direct(longitude, tanU1 * cosU1, cosU1, bearing, distance, into, 0);
+        }
+
+        /**
+         * Computes the points at each of the given bearings and distances from standPoint, at Vincenty formula.
+         * No object is created along the way.
+         *
+         * @param standPoint The stand point
+         * @param bearings   Directions in degrees, clockwise from north
+         * @param distances  Distances, in meters
+         * @param latitudes  Receives the latitudes of the points, in decimal degrees
+         * @param longitudes Receives the longitudes of the points, in decimal degrees
+         * @throws IllegalStateException if the formula fails to converge for one of the points
+         */
+        public static void pointsAt(Point standPoint, double[] bearings, double[] distances, double[] latitudes, double[] longitudes) {
+            checkColumns(bearings, distances, latitudes);
+            checkColumns(bearings, distances, longitudes);
+
+            val tanU1 = (1 - f) * tan(toRadians(standPoint.latitude));
+            val cosU1 = 1 / sqrt((1 + tanU1 * tanU1));
+            val sinU1 = tanU1 * cosU1;
+
+            val into = new double[2];
+            for (int i = 0; i < bearings.length; i++) {
+                direct(standPoint.longitude, sinU1, cosU1, bearings[i], distances[i], into, 0);
+                latitudes[i] = into[0];
+                longitudes[i] = into[1];
+            }
+        }
+
+        /**
+         * Returns an area around standPoint, whose corners are "distance" away from it on the ellipsoid,
+         * as in {@link gcd#around(Point, double)}.
+         *
+         * @param standPoint The centre of the area
+         * @param distance   Distance around standPoint, in meters
+         * @return The area
+         * @see #enclosing(Point, double)
+         */
+        public static BoundingArea around(Point standPoint, double distance) {
+            val into = new double[4];
+            around(standPoint.latitude, standPoint.longitude, distance, into);
+
+            return BoundingArea.at(new Point(into[0], into[1]), new Point(into[2], into[3]));
+        }
+
+        /**
+         * Same as {@link #around(Point, double)}, in decimal degrees.
+         *
+         * @param into receives the latitude and longitude of the north east corner, at index 0 and 1,
+         *             then those of the south west corner, at index 2 and 3
+         */
+        public static void around(double latitude, double longitude, double distance, double[] into) {
+            val tanU1 = (1 - f) * tan(toRadians(latitude));
+            val cosU1 = 1 / sqrt((1 + tanU1 * tanU1));
+            val sinU1 = tanU1 * cosU1;
+
+            //45 degrees going north-east
+            direct(longitude, sinU1, cosU1, 45, distance, into, 0);
+
+            //225 degrees going south-west
+            direct(longitude, sinU1, cosU1, 225, distance, into, 2);
+        }
+
+        /**
+         * Returns the smallest area containing every point at most "distance" away from standPoint on the ellipsoid,
+         * to prefilter points before measuring their {@link #distance(Point, Point)}.
+         * <p>
+         * Unlike {@link #around(Point, double)}, whose corners are on the circle, the circle is within the area:
+         * its northernmost and southernmost points, and those furthest east and west, are on the edges.
+         * The area spans every longitude when a pole is within reach, and may go across the antimeridian.
+         *
+         * @param standPoint The centre of the circle
+         * @param distance   Radius of the circle, in meters
+         * @return The area
+         */
+        public static BoundingArea enclosing(Point standPoint, double distance) {
+            val latitude = standPoint.latitude;
+            val longitude = standPoint.longitude;
+            val tanU1 = (1 - f) * tan(toRadians(latitude));
+            val cosU1 = 1 / sqrt((1 + tanU1 * tanU1));
+            val sinU1 = tanU1 * cosU1;
+
+            val into = new double[2];
+            direct(longitude, sinU1, cosU1, 0, distance, into, 0);
+            val north = abs(longitudeDifference(longitude, into[1])) > 90 ? 90 : into[0]; //beyond the pole
+            direct(longitude, sinU1, cosU1, 180, distance, into, 0);
+            val south = abs(longitudeDifference(longitude, into[1])) > 90 ? -90 : into[0];
+
+            if (north == 90 || south == -90) {
+                return BoundingArea.at(new Point(north, 180), new Point(south, -180));
+            }
+
+            //bearing reaching furthest east, the circle being symmetric: as each meridian crosses the circle at most
+            //twice, the longitude grows then decreases from bearing 0 to 180, and golden section search narrows the
+            //bracket down however far the maximum is from a first guess
+            val ratio = (sqrt(5) - 1) / 2;
+            double from = 0, to = 180;
+            var left = to - ratio * (to - from);
+            var right = from + ratio * (to - from);
+            var atLeft = east(longitude, sinU1, cosU1, left, distance, into);
+            var atRight = east(longitude, sinU1, cosU1, right, distance, into);
+            var Δλ = max(atLeft, atRight);
+            while (to - from > 1e-9) {
+                if (atLeft < atRight) {
+                    from = left;
+                    left = right;
+                    atLeft = atRight;
+                    right = from + ratio * (to - from);
+                    atRight = east(longitude, sinU1, cosU1, right, distance, into);
+                    Δλ = max(Δλ, atRight);
+                } else {
+                    to = right;
+                    right = left;
+                    atRight = atLeft;
+                    left = to - ratio * (to - from);
+                    atLeft = east(longitude, sinU1, cosU1, left, distance, into);
+                    Δλ = max(Δλ, atLeft);
+                }
+            }
+
+            var east = longitude + Δλ;
+            var west = longitude - Δλ;
+            if (east > 180) east -= 360;
+            if (west < -180) west += 360;
+
+            return BoundingArea.at(new Point(north, east), new Point(south, west));
+        }
+
+        //longitude difference to the point at bearing and distance, east being positive
+        private static double east(double longitude, double sinU1, double cosU1, double bearing, double distance, double[] into) {
+            direct(longitude, sinU1, cosU1, bearing, distance, into, 0);
+            return longitudeDifference(longitude, into[1]);
+        }
+
+        //from longitude1 to longitude2, within [-180, 180]
+        private static double longitudeDifference(double longitude1, double longitude2) {
+            val Δλ = longitude2 - longitude1;
+            return Δλ > 180 ? Δλ - 360 : Δλ < -180 ? Δλ + 360 : Δλ;
+        }
+
+        /**
+         * Solves the direct problem from the reduced latitude U1 of the stand point.
+         *
+         * @param longitude Longitude of the stand point, in decimal degrees
+         * @param into      receives the latitude and longitude of the fore point, at index offset and offset + 1
+         */
+        private static void direct(double longitude, double sinU1, double cosU1, double bearing, double distance, double[] into, int offset) {
+            val metrics = Metrics.installed();
+            val start = metrics.start(Metrics.Operation.VINCENTY_DIRECT);
+
+            val α1 = toRadians(bearing);
+            val sinα1 = sin(α1);
+            val cosα1 = cos(α1);
+
+            val σ1 = atan2(sinU1, cosU1 * cosα1); // angular distance on the sphere from the equator to the stand point
+            val sinα = cosU1 * sinα1; // α = azimuth of the geodesic at the equator
+            val cosSqα = 1 - sinα * sinα;
+            val uSq = cosSqα * (a * a - b * b) / (b * b);
+            val A = 1 + uSq / 16384 * (4096 + uSq * (-768 + uSq * (320 - 175 * uSq)));
+            val B = uSq / 1024 * (256 + uSq * (-128 + uSq * (74 - 47 * uSq)));
+
+            double σ = distance / (b * A), σʹ, sinσ, cosσ, cos2σM, iterationLimit = 100;
+            do {
+                cos2σM = cos(2 * σ1 + σ);
+                sinσ = sin(σ);
+                cosσ = cos(σ);
+                val Δσ = B * sinσ * (cos2σM + B / 4 * (cosσ * (-1 + 2 * cos2σM * cos2σM) -
+                        B / 6 * cos2σM * (-3 + 4 * sinσ * sinσ) * (-3 + 4 * cos2σM * cos2σM)));
+                σʹ = σ;
+                σ = distance / (b * A) + Δσ;
+            } while (abs(σ - σʹ) > 1e-12 && --iterationLimit > 0);
+
+            if (iterationLimit == 0) throw new IllegalStateException("Formula failed to converge");
+
+            val x = sinU1 * sinσ - cosU1 * cosσ * cosα1;
+            val φ2 = atan2(sinU1 * cosσ + cosU1 * sinσ * cosα1, (1 - f) * sqrt(sinα * sinα + x * x));
+            val λ = atan2(sinσ * sinα1, cosU1 * cosσ - sinU1 * sinσ * cosα1);
+            val C = f / 16 * cosSqα * (4 + f * (4 - 3 * cosSqα));
+            val L = λ - (1 - C) * f * sinα * (σ + C * sinσ * (cos2σM + C * cosσ * (-1 + 2 * cos2σM * cos2σM)));
+
+            val λ2 = toRadians(longitude) + L;
+            val λ2_harmonised = (λ2 + 3 * PI) % (2 * PI) - PI; // normalise to −180..+180°
 
+            into[offset] = toDegrees(φ2);
+            into[offset + 1] = toDegrees(λ2_harmonised);
+            metrics.stop(Metrics.Operation.VINCENTY_DIRECT, start);
+        }
+
+        /**
+         * Solution of the inverse problem between two points, see {@link #inverse(Point, Point)}.
+         */
+        @AllArgsConstructor(access = AccessLevel.PACKAGE)
+        public static class Vincenty {
+            /**
+             * distance is the distance in meter
+             * initialBearing is the initial bearing, or forward azimuth (in reference to North point), in degrees
+             * finalBearing is the final bearing (in direction p1→p2), in degrees
+             */
+            public final double distance, initialBearing, finalBearing;
+
+            /**
+             * number of iterations the formula took to converge
+             */
+            public final int iterations;
+
+            @Override
+            public String toString() {
+                return "Vincenty{" + "distance=" + distance + ", initialBearing=" + initialBearing
+                        + ", finalBearing=" + finalBearing + ", iterations=" + iterations + '}';
+            }
+        }
+    }
+
+    /**
+     * Geodesics on the WGS84 ellipsoid, after Karney, "Algorithms for geodesics" (2013).
+     * <p>
+     * As accurate as {@link vincenty}, to a few nanometers, but converging for every pair of points in a small
+     * bounded number of steps: nearly antipodal points neither fail nor take longer than others.
+     *
+     * @see <a href="https://doi.org/10.1007/s00190-012-0578-z">Algorithms for geodesics</a>
+     */
+    public static class karney {
+        /**
+         * Calculate distance, (azimuth) bearing and final bearing between standPoint and forePoint, in one go.
+         *
+         * @param standPoint The stand point
+         * @param forePoint  The fore point
+         * @return Karney object which holds all 3 values, and the number of Newton iterations it took
+         */
+        public static Karney inverse(Point standPoint, Point forePoint) {
+            val geodesic = new Geodesic();
+            val distance = geodesic.inverse(standPoint.latitude, standPoint.longitude, forePoint.latitude, forePoint.longitude);
+
+            return new Karney(distance, bearing(geodesic.azi1), bearing(geodesic.azi2), geodesic.iterations);
+        }
+
+        /**
+         * Returns the distance between two points along the geodesic.
+         *
+         * @param standPoint The stand point
+         * @param forePoint  The fore point
+         * @return The distance, in meters
+         */
+        public static double distance(Point standPoint, Point forePoint) {
+            return new Geodesic().inverse(standPoint.latitude, standPoint.longitude, forePoint.latitude, forePoint.longitude);
+        }
+
+        /**
+         * Computes the distances between standPoint and each of the fore points, along the geodesics.
+         *
+         * @param standPoint The stand point
+         * @param latitudes  Latitudes of the fore points
+         * @param longitudes Longitudes of the fore points
+         * @param distances  Receives the distances, in meters
+         * @see gcd#distances(Point, double[], double[], double[])
+         */
+        public static void distances(Point standPoint, double[] latitudes, double[] longitudes, double[] distances) {
+            checkColumns(latitudes, longitudes, distances);
+            distances(standPoint.latitude, standPoint.longitude, latitudes, longitudes, 0, latitudes.length, distances, 0);
+        }
+
+        static void distances(double latitude, double longitude, double[] latitudes, double[] longitudes, int from, int to, double[] distances, int offset) {
+            val geodesic = new Geodesic();
+            for (int i = from; i < to; i++) {
+                distances[offset++] = geodesic.inverse(latitude, longitude, latitudes[i], longitudes[i]);
+            }
+        }
+
+        /**
+         * Returns (azimuth) bearing along the geodesic.
+         *
+         * @param standPoint The stand point
+         * @param forePoint  The fore point
+         * @return (azimuth) bearing in degrees to the North
+         */
+        public static double bearing(Point standPoint, Point forePoint) {
+            return inverse(standPoint, forePoint).initialBearing;
+        }
+
+        /**
+         * Returns final bearing in direction of standPoint→forePoint along the geodesic.
+         *
+         * @param standPoint The stand point
+         * @param forePoint  The fore point
+         * @return (azimuth) bearing in degrees to the North
+         */
+        public static double finalBearing(Point standPoint, Point forePoint) {
+            return inverse(standPoint, forePoint).finalBearing;
+        }
+
+        /**
+         * Returns the destination point along the geodesic, given a distance and bearing from the stand point.
+         *
+         * @param standPoint The stand point
+         * @param bearing    (azimuth) bearing in degrees to the North
+         * @param distance   in meters
+         * @return The destination point
+         */
+        public static Point pointAt(Point standPoint, double bearing, double distance) {
+            val geodesic = new Geodesic();
+            geodesic.direct(standPoint.latitude, standPoint.longitude, bearing, distance);
+
+            return new Point(geodesic.lat2, geodesic.lon2);
+        }
+
+        /**
+         * Returns an area around standPoint, whose corners are "distance" away from it along the geodesics,
+         * as in {@link gcd#around(Point, double)}.
+         *
+         * @param standPoint The centre of the area
+         * @param distance   Distance around standPoint, in meters
+         * @return The area
+         */
+        public static BoundingArea around(Point standPoint, double distance) {
+            val geodesic = new Geodesic();
+
+            //45 degrees going north-east
+            geodesic.direct(standPoint.latitude, standPoint.longitude, 45, distance);
+            val northEast = new Point(geodesic.lat2, geodesic.lon2);
+
+            //225 degrees going south-west
+            geodesic.direct(standPoint.latitude, standPoint.longitude, 225, distance);
+            val southWest = new Point(geodesic.lat2, geodesic.lon2);
+
+            return BoundingArea.at(northEast, southWest);
+        }
+
+        //[-180, 180] to [0, 360)
+        private static double bearing(double azimuth) {
+            val bearing = azimuth < 0 ? azimuth + 360 : azimuth + 0D;
+            return bearing == 360 ? 0 : bearing;
+        }
+
+        /**
+         * Solution of the inverse problem between two points, see {@link #inverse(Point, Point)}.
+         */
+        @AllArgsConstructor(access = AccessLevel.PACKAGE)
+        public static class Karney {
             /**
              * distance is the distance in meter
              * initialBearing is the initial bearing, or forward azimuth (in reference to North point), in degrees
              * finalBearing is the final bearing (in direction p1→p2), in degrees
              */
-            final double distance, initialBearing, finalBearing;
+            public final double distance, initialBearing, finalBearing;
+
+            /**
+             * number of Newton iterations, 0 for short, meridional and equatorial lines which are solved directly
+             */
+            public final int iterations;
+
+            @Override
+            public String toString() {
+                return "Karney{" + "distance=" + distance + ", initialBearing=" + initialBearing
+                        + ", finalBearing=" + finalBearing + ", iterations=" + iterations + '}';
+            }
+        }
+    }
+
+    static void checkColumns(double[] latitudes, double[] longitudes, double[] results) {
+        if (longitudes.length != latitudes.length || results.length < latitudes.length) {
+            throw new IllegalArgumentException("Expected " + latitudes.length + " longitudes and room for as many results, got "
+                    + longitudes.length + " and " + results.length);
         }
     }
 }
@@ -0,0 +1,829 @@
+/*
+ * BSD 3-Clause License
+ *
+ * Copyright (c) 2018, Grum Ltd (Romain Gallet)
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ *
+ * Neither the name of Geocalc nor the names of its
+ * contributors may be used to endorse or promote products derived from
+ * this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+/*
+ * This file is derived from GeographicLib for Java (Geodesic, GeodesicLine and GeoMath classes), whose notice
+ * follows.
+ *
+ * Copyright (c) Charles Karney (2013-2022) <karney@alum.mit.edu>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.grum.geocalc;
+
+import lombok.val;
+import lombok.var;
+
+import static java.lang.Math.*;
+
+/**
+ * Geodesics on the WGS84 ellipsoid, after C. F. F. Karney, "Algorithms for geodesics", J. Geodesy 87 (2013).
+ * <p>
+ * Ported from <a href="https://geographiclib.sourceforge.io/">GeographicLib</a>, by Charles Karney, under the
+ * MIT/X11 License: helper names ({@code A1m1f}, {@code C1f}, {@code A3x}, {@code sincosd}, ...) and the
+ * coefficients of the series are those of its Java implementation.
+ * <p>
+ * The inverse problem is solved by Newton's method on the azimuth at the first point, from a starting guess
+ * good enough for 2 or 3 steps, and kept within a bracket of the root, so that it converges for every pair of
+ * points, antipodal ones included. The direct problem is not iterative. Both are accurate to a few nanometers.
+ * <p>
+ * Instances hold scratch space and the last solution: they are cheap to create, and reusable, but not thread safe.
+ */
+final class Geodesic {
+    private static final int nC = 6; //order of the series, in the third flattening or in eps
+    private static final int maxit1 = 20, maxit2 = maxit1 + 53 + 10; //Newton steps, then bisection steps
+
+    private static final double tiny = sqrt(Double.MIN_NORMAL);
+    private static final double tol0 = ulp(1D), tol1 = 200 * tol0, tol2 = sqrt(tol0), tolb = tol0 * tol2;
+    private static final double xthresh = 1000 * tol2;
+
+    private static final double a = EarthCalc.vincenty.a, f = EarthCalc.vincenty.f;
+    private static final double f1 = 1 - f, b = a * f1;
+    private static final double e2 = f * (2 - f), ep2 = e2 / (f1 * f1), n = f / (2 - f);
+    private static final double etol2 = 0.1 * tol2 / sqrt(max(0.001, abs(f)) * min(1D, 1 - f / 2) / 2);
+
+    //coefficients of A3 and C3, as polynomials in eps, their own coefficients being evaluated for n
+    private static final double[] A3x = new double[nC], C3x = new double[nC * (nC - 1) / 2];
+
+    static {
+        final double[] A3 = {
+                -3, 128,
+                -2, -3, 64,
+                -1, -3, -1, 16,
+                3, -1, -2, 8,
+                1, -1, 2,
+                1, 1,
+        };
+        for (int j = nC - 1, o = 0, k = 0; j >= 0; j--) { //coefficient of eps^j
+            val m = min(nC - j - 1, j); //order of the polynomial in n
+            A3x[k++] = polyval(m, A3, o, n) / A3[o + m + 1];
+            o += m + 2;
+        }
+
+        final double[] C3 = {
+                3, 128,
+                2, 5, 128,
+                -1, 3, 3, 64,
+                -1, 0, 1, 8,
+                -1, 1, 4,
+                5, 256,
+                1, 3, 128,
+                -3, -2, 3, 64,
+                1, -3, 2, 32,
+                7, 512,
+                -10, 9, 384,
+                5, -9, 5, 192,
+                7, 512,
+                -14, 7, 512,
+                21, 2560,
+        };
+        for (int l = 1, o = 0, k = 0; l < nC; l++) { //C3[l]
+            for (int j = nC - 1; j >= l; j--) { //coefficient of eps^j
+                val m = min(nC - j - 1, j);
+                C3x[k++] = polyval(m, C3, o, n) / C3[o + m + 1];
+                o += m + 2;
+            }
+        }
+    }
+
+    //series coefficients, index 0 unused
+    private final double[] C1a = new double[nC + 1], C1pa = new double[nC + 1], C2a = new double[nC + 1];
+    private final double[] C3a = new double[nC];
+
+    //solution, lengths in meters and angles in decimal degrees, azimuths within [-180, 180]
+    double s12, azi1, azi2, lat2, lon2;
+    int iterations;
+
+    //intermediate results, to spare allocating pairs
+    private double sin, cos, t;
+    private double s12b, m12b, m0; //lengths, missing a factor b
+    private double salp1, calp1, salp2, calp2, sig12, dnm;
+    private double ssig1, csig1, ssig2, csig2, eps, dlam12;
+
+    /**
+     * Solves the inverse problem: shortest path from (lat1, lon1) to (lat2, lon2).
+     * Sets {@link #s12}, {@link #azi1}, {@link #azi2} and {@link #iterations}.
+     *
+     * @return the distance, in meters
+     */
+    double inverse(double lat1, double lon1, double lat2, double lon2) {
+        val metrics = Metrics.installed();
+        val start = metrics.start(Metrics.Operation.KARNEY_INVERSE);
+
+        iterations = 0;
+        lat1 = angRound(latFix(lat1));
+        lat2 = angRound(latFix(lat2));
+
+        //longitude difference, within [-180, 180], with its rounding error in t
+        var lon12 = angDiff(lon1, lon2);
+        var lon12s = t;
+
+        //make the longitude difference positive
+        var lonsign = lon12 >= 0 ? 1 : -1;
+        lon12 = lonsign * angRound(lon12);
+        lon12s = angRound((180 - lon12) - lonsign * lon12s);
+        val lam12 = toRadians(lon12);
+        sincosd(lon12 > 90 ? lon12s : lon12);
+        val slam12 = sin;
+        val clam12 = (lon12 > 90 ? -1 : 1) * cos;
+
+        //swap points so that point with higher (abs) latitude is point 1
+        val swapp = abs(lat1) < abs(lat2) ? -1 : 1;
+        if (swapp < 0) {
+            lonsign *= -1;
+            val swap = lat1;
+            lat1 = lat2;
+            lat2 = swap;
+        }
+
+        //make lat1 <= 0
+        val latsign = lat1 < 0 ? 1 : -1;
+        lat1 *= latsign;
+        lat2 *= latsign;
+
+        //now 0 <= lon12 <= 180, -90 <= lat1 <= 0 and lat1 <= lat2 <= -lat1
+
+        sincosd(lat1);
+        var sbet1 = f1 * sin;
+        var cbet1 = cos;
+        norm(sbet1, cbet1);
+        sbet1 = sin;
+        cbet1 = max(tiny, cos); //cbet1 = +epsilon at poles
+
+        sincosd(lat2);
+        var sbet2 = f1 * sin;
+        var cbet2 = cos;
+        norm(sbet2, cbet2);
+        sbet2 = sin;
+        cbet2 = max(tiny, cos);
+
+        //force bet2 = +/- bet1 exactly when these vanish
+        if (cbet1 < -sbet1) {
+            if (cbet2 == cbet1) sbet2 = sbet2 < 0 ? sbet1 : -sbet1;
+        } else {
+            if (abs(sbet2) == -sbet1) cbet2 = cbet1;
+        }
+
+        val dn1 = sqrt(1 + ep2 * sbet1 * sbet1);
+        val dn2 = sqrt(1 + ep2 * sbet2 * sbet2);
+
+        double s12x = Double.NaN, m12x = Double.NaN, salp1, calp1, salp2, calp2;
+        salp1 = calp1 = salp2 = calp2 = Double.NaN;
+
+        var meridian = lat1 == -90 || slam12 == 0;
+        if (meridian) {
+            //end points on a single full meridian, the geodesic might lie on it
+            calp1 = clam12; //head to the target longitude
+            salp1 = slam12;
+            calp2 = 1; //at the target, heading north
+            salp2 = 0;
+
+            //tan(bet) = tan(sig) * cos(alp)
+            val ssig1 = sbet1;
+            val csig1 = calp1 * cbet1;
+            val ssig2 = sbet2;
+            val csig2 = calp2 * cbet2;
+
+            val sig12 = atan2(max(0D, csig1 * ssig2 - ssig1 * csig2) + 0D, csig1 * csig2 + ssig1 * ssig2);
+            lengths(n, sig12, ssig1, csig1, dn1, ssig2, csig2, dn2);
+            s12x = s12b;
+            m12x = m12b;
+
+            //sig12 > pi/2 with m12 < 0 is not a shortest path
+            if (sig12 < 1 || m12x >= 0) {
+                if (sig12 < 3 * tiny || (sig12 < tol0 && (s12x < 0 || m12x < 0))) {
+                    s12x = 0;
+                }
+                s12x *= b;
+            } else {
+                meridian = false;
+            }
+        }
+
+        if (!meridian && sbet1 == 0 && (f <= 0 || lon12s >= f * 180)) { //and sbet2 == 0
+            //geodesic runs along the equator
+            calp1 = calp2 = 0;
+            salp1 = salp2 = 1;
+            s12x = a * lam12;
+        } else if (!meridian) {
+            //neither meridional nor equatorial, starting guess for Newton's method
+            inverseStart(sbet1, cbet1, sbet2, cbet2, lam12, slam12, clam12);
+            salp1 = this.salp1;
+            calp1 = this.calp1;
+
+            if (sig12 >= 0) {
+                //short line, already solved
+                s12x = sig12 * b * dnm;
+                salp2 = this.salp2;
+                calp2 = this.calp2;
+            } else {
+                //Newton's method on f(alp1) = lambda12(alp1) - lam12, with a single root in (0, pi) where the
+                //derivative is positive. The root is kept bracketed, and the midpoint of the bracket is used
+                //whenever Newton's step goes the wrong way
+                double salp1a = tiny, calp1a = 1, salp1b = tiny, calp1b = -1;
+                var tripn = false;
+                var tripb = false;
+                int numit = 0;
+                for (; numit < maxit2; numit++) {
+                    val v = lambda12(sbet1, cbet1, dn1, sbet2, cbet2, dn2, salp1, calp1, slam12, clam12, numit < maxit1);
+                    val dv = dlam12;
+
+                    //reversed test, to allow escape with NaNs
+                    if (tripb || !(abs(v) >= (tripn ? 8 : 1) * tol0)) break;
+
+                    //update the bracket
+                    if (v > 0 && (numit > maxit1 || calp1 / salp1 > calp1b / salp1b)) {
+                        salp1b = salp1;
+                        calp1b = calp1;
+                    } else if (v < 0 && (numit > maxit1 || calp1 / salp1 < calp1a / salp1a)) {
+                        salp1a = salp1;
+                        calp1a = calp1;
+                    }
+
+                    if (numit < maxit1 && dv > 0) {
+                        val dalp1 = -v / dv;
+                        val sdalp1 = sin(dalp1);
+                        val cdalp1 = cos(dalp1);
+                        val nsalp1 = salp1 * cdalp1 + calp1 * sdalp1;
+                        if (nsalp1 > 0 && abs(dalp1) < PI) {
+                            calp1 = calp1 * cdalp1 - salp1 * sdalp1;
+                            salp1 = nsalp1;
+                            norm(salp1, calp1);
+                            salp1 = sin;
+                            calp1 = cos;
+                            //where the slope vanishes, convergence is no longer quadratic
+                            tripn = abs(v) <= 16 * tol0;
+                            continue;
+                        }
+                    }
+
+                    //bisection
+                    norm((salp1a + salp1b) / 2, (calp1a + calp1b) / 2);
+                    salp1 = sin;
+                    calp1 = cos;
+                    tripn = false;
+                    tripb = abs(salp1a - salp1) + (calp1a - calp1) < tolb || abs(salp1 - salp1b) + (calp1 - calp1b) < tolb;
+                }
+                iterations = numit;
+
+                salp2 = this.salp2;
+                calp2 = this.calp2;
+                lengths(eps, sig12, ssig1, csig1, dn1, ssig2, csig2, dn2);
+                s12x = s12b * b;
+            }
+        }
+
+        //undo the canonical transformation
+        if (swapp < 0) {
+            var swap = salp1;
+            salp1 = salp2;
+            salp2 = swap;
+            swap = calp1;
+            calp1 = calp2;
+            calp2 = swap;
+        }
+        salp1 *= swapp * lonsign;
+        calp1 *= swapp * latsign;
+        salp2 *= swapp * lonsign;
+        calp2 *= swapp * latsign;
+
+        azi1 = atan2d(salp1, calp1);
+        azi2 = atan2d(salp2, calp2);
+        metrics.stop(Metrics.Operation.KARNEY_INVERSE, start);
+        return s12 = 0 + s12x; //-0 to 0
+    }
+
+    /**
+     * Solves the direct problem: point s12 meters away from (lat1, lon1) along azimuth azi1.
+     * Sets {@link #lat2}, {@link #lon2} and {@link #azi2}.
+     */
+    void direct(double lat1, double lon1, double azi1, double s12) {
+        val metrics = Metrics.installed();
+        val start = metrics.start(Metrics.Operation.KARNEY_DIRECT);
+
+        sincosd(angRound(angNormalize(azi1)));
+        val salp1 = sin;
+        val calp1 = cos;
+
+        sincosd(angRound(latFix(lat1)));
+        norm(f1 * sin, cos);
+        val sbet1 = sin;
+        val cbet1 = max(tiny, cos);
+
+        //sin(alp1) * cos(bet1) = sin(alp0)
+        val salp0 = salp1 * cbet1;
+        val calp0 = hypot(calp1, salp1 * sbet1);
+
+        //tan(bet1) = tan(sig1) * cos(alp1), tan(omg1) = sin(alp0) * tan(sig1)
+        val somg1 = salp0 * sbet1;
+        val comg1 = sbet1 != 0 || calp1 != 0 ? cbet1 * calp1 : 1;
+        norm(sbet1, comg1);
+        val ssig1 = sin;
+        val csig1 = cos;
+
+        val k2 = calp0 * calp0 * ep2;
+        val eps = k2 / (2 * (1 + sqrt(1 + k2)) + k2);
+
+        val A1 = 1 + A1m1f(eps);
+        C1f(eps, C1a);
+        C1pf(eps, C1pa);
+        val B11 = sinCosSeries(true, ssig1, csig1, C1a);
+        val sB11 = sin(B11);
+        val cB11 = cos(B11);
+        val stau1 = ssig1 * cB11 + csig1 * sB11; //tau1 = sig1 + B11
+        val ctau1 = csig1 * cB11 - ssig1 * sB11;
+
+        //tau2 = tau1 + tau12, sig12 from the reverted series
+        val tau12 = s12 / (b * A1);
+        val s = sin(tau12);
+        val c = cos(tau12);
+        val B12 = -sinCosSeries(true, stau1 * c + ctau1 * s, ctau1 * c - stau1 * s, C1pa);
+        val sig12 = tau12 - (B12 - B11);
+        val ssig12 = sin(sig12);
+        val csig12 = cos(sig12);
+
+        //sig2 = sig1 + sig12
+        val ssig2 = ssig1 * csig12 + csig1 * ssig12;
+        var csig2 = csig1 * csig12 - ssig1 * ssig12;
+
+        //sin(bet2) = cos(alp0) * sin(sig2)
+        val sbet2 = calp0 * ssig2;
+        var cbet2 = hypot(salp0, calp0 * csig2);
+        if (cbet2 == 0) cbet2 = csig2 = tiny; //salp0 = 0 and csig2 = 0
+
+        //tan(alp0) = cos(sig2) * tan(alp2)
+        val salp2 = salp0;
+        val calp2 = calp0 * csig2;
+
+        //tan(omg2) = sin(alp0) * tan(sig2)
+        val somg2 = salp0 * ssig2;
+        val comg2 = csig2;
+        val omg12 = atan2(somg2 * comg1 - comg2 * somg1, comg2 * comg1 + somg2 * somg1);
+
+        C3f(eps, C3a);
+        val A3c = -f * salp0 * A3f(eps);
+        val B31 = sinCosSeries(true, ssig1, csig1, C3a);
+        val lam12 = omg12 + A3c * (sig12 + (sinCosSeries(true, ssig2, csig2, C3a) - B31));
+
+        lat2 = atan2d(sbet2, f1 * cbet2);
+        lon2 = angNormalize(angNormalize(lon1) + angNormalize(toDegrees(lam12)));
+        azi2 = atan2d(salp2, calp2);
+        metrics.stop(Metrics.Operation.KARNEY_DIRECT, start);
+    }
+
+    /**
+     * Starting guess for Newton's method, in salp1 and calp1, sig12 being set to -1. Very short lines are solved
+     * right away instead: sig12 is then set, along with salp2, calp2 and dnm.
+     */
+    private void inverseStart(double sbet1, double cbet1, double sbet2, double cbet2, double lam12, double slam12, double clam12) {
+        sig12 = -1;
+
+        //bet12 = bet2 - bet1 in [0, pi), bet12a = bet2 + bet1 in (-pi, 0]
+        val sbet12 = sbet2 * cbet1 - cbet2 * sbet1;
+        val cbet12 = cbet2 * cbet1 + sbet2 * sbet1;
+        val sbet12a = sbet2 * cbet1 + cbet2 * sbet1;
+
+        val shortline = cbet12 >= 0 && sbet12 < 0.5 && cbet2 * lam12 < 0.5;
+        double somg12, comg12;
+        if (shortline) {
+            var sbetm2 = (sbet1 + sbet2) * (sbet1 + sbet2);
+            sbetm2 /= sbetm2 + (cbet1 + cbet2) * (cbet1 + cbet2); //sin((bet1 + bet2) / 2)^2
+            dnm = sqrt(1 + ep2 * sbetm2);
+            val omg12 = lam12 / (f1 * dnm);
+            somg12 = sin(omg12);
+            comg12 = cos(omg12);
+        } else {
+            somg12 = slam12;
+            comg12 = clam12;
+        }
+
+        var salp1 = cbet2 * somg12;
+        var calp1 = comg12 >= 0
+                ? sbet12 + cbet2 * sbet1 * somg12 * somg12 / (1 + comg12)
+                : sbet12a - cbet2 * sbet1 * somg12 * somg12 / (1 - comg12);
+
+        val ssig12 = hypot(salp1, calp1);
+        val csig12 = sbet1 * sbet2 + cbet1 * cbet2 * comg12;
+
+        if (shortline && ssig12 < etol2) {
+            //really short line
+            norm(cbet1 * somg12, sbet12 - cbet1 * sbet2 * (comg12 >= 0 ? somg12 * somg12 / (1 + comg12) : 1 - comg12));
+            salp2 = sin;
+            calp2 = cos;
+            sig12 = atan2(ssig12, csig12);
+        } else if (abs(n) > 0.1 || csig12 >= 0 || ssig12 >= 6 * abs(n) * PI * cbet1 * cbet1) {
+            //zeroth order spherical approximation is good enough
+        } else {
+            //nearly antipodal: scale lam12 and bet2 to coordinates where the antipode is at the origin
+            //and the singular point at y = 0, x = -1
+            val lam12x = atan2(-slam12, -clam12); //lam12 - pi
+            val k2 = sbet1 * sbet1 * ep2;
+            val eps = k2 / (2 * (1 + sqrt(1 + k2)) + k2);
+            val lamscale = f * cbet1 * A3f(eps) * PI;
+            val betscale = lamscale * cbet1;
+
+            val x = lam12x / lamscale;
+            val y = sbet12a / betscale;
+
+            if (y > -tol1 && x > -1 - xthresh) {
+                //strip near cut
+                salp1 = min(1D, -x);
+                calp1 = -sqrt(1 - salp1 * salp1);
+            } else {
+                //estimate omg12 by solving the astroid problem, then alp1 from the spherical formula
+                val k = astroid(x, y);
+                val omg12a = lamscale * (-x * k / (1 + k));
+                somg12 = sin(omg12a);
+                comg12 = -cos(omg12a);
+                salp1 = cbet2 * somg12;
+                calp1 = sbet12a - cbet2 * sbet1 * somg12 * somg12 / (1 - comg12);
+            }
+        }
+
+        //sanity check on the starting guess, backwards to let NaN through
+        if (!(salp1 <= 0)) {
+            norm(salp1, calp1);
+            this.salp1 = sin;
+            this.calp1 = cos;
+        } else {
+            this.salp1 = 1;
+            this.calp1 = 0;
+        }
+    }
+
+    /**
+     * Longitude difference reached with azimuth alp1 at the first point, minus the target lam12.
+     * Sets salp2, calp2, sig12, ssig1, csig1, ssig2, csig2 and eps, along with dlam12 if diffp.
+     */
+    private double lambda12(double sbet1, double cbet1, double dn1, double sbet2, double cbet2, double dn2,
+                            double salp1, double calp1, double slam120, double clam120, boolean diffp) {
+        if (sbet1 == 0 && calp1 == 0) calp1 = -tiny; //break the degeneracy of the equatorial line
+
+        //sin(alp1) * cos(bet1) = sin(alp0)
+        val salp0 = salp1 * cbet1;
+        val calp0 = hypot(calp1, salp1 * sbet1);
+
+        //tan(bet1) = tan(sig1) * cos(alp1), tan(omg1) = sin(alp0) * tan(sig1)
+        val somg1 = salp0 * sbet1;
+        val comg1 = calp1 * cbet1;
+        norm(sbet1, comg1);
+        ssig1 = sin;
+        csig1 = cos;
+
+        //enforce symmetries in the case abs(bet2) = -bet1
+        salp2 = cbet2 != cbet1 ? salp0 / cbet2 : salp1;
+        calp2 = cbet2 != cbet1 || abs(sbet2) != -sbet1
+                ? sqrt(calp1 * cbet1 * calp1 * cbet1 + (cbet1 < -sbet1 ? (cbet2 - cbet1) * (cbet1 + cbet2) : (sbet1 - sbet2) * (sbet1 + sbet2))) / cbet2
+                : abs(calp1);
+
+        //tan(bet2) = tan(sig2) * cos(alp2), tan(omg2) = sin(alp0) * tan(sig2)
+        val somg2 = salp0 * sbet2;
+        val comg2 = calp2 * cbet2;
+        norm(sbet2, comg2);
+        ssig2 = sin;
+        csig2 = cos;
+
+        //sig12 = sig2 - sig1, limited to [0, pi]
+        sig12 = atan2(max(0D, csig1 * ssig2 - ssig1 * csig2) + 0D, csig1 * csig2 + ssig1 * ssig2);
+
+        //omg12 = omg2 - omg1, limited to [0, pi], eta = omg12 - lam120
+        val somg12 = max(0D, comg1 * somg2 - somg1 * comg2) + 0D;
+        val comg12 = comg1 * comg2 + somg1 * somg2;
+        val eta = atan2(somg12 * clam120 - comg12 * slam120, comg12 * clam120 + somg12 * slam120);
+
+        val k2 = calp0 * calp0 * ep2;
+        eps = k2 / (2 * (1 + sqrt(1 + k2)) + k2);
+        C3f(eps, C3a);
+        val B312 = sinCosSeries(true, ssig2, csig2, C3a) - sinCosSeries(true, ssig1, csig1, C3a);
+        val lam12 = eta - f * A3f(eps) * salp0 * (sig12 + B312);
+
+        if (diffp) {
+            if (calp2 == 0) {
+                dlam12 = -2 * f1 * dn1 / sbet1;
+            } else {
+                lengths(eps, sig12, ssig1, csig1, dn1, ssig2, csig2, dn2);
+                dlam12 = m12b * f1 / (calp2 * cbet2);
+            }
+        }
+
+        return lam12;
+    }
+
+    /**
+     * Distance (s12b) and reduced length (m12b), missing a factor b.
+     */
+    private void lengths(double eps, double sig12, double ssig1, double csig1, double dn1,
+                         double ssig2, double csig2, double dn2) {
+        val A1m1 = A1m1f(eps);
+        C1f(eps, C1a);
+        val A2m1 = A2m1f(eps);
+        C2f(eps, C2a);
+        m0 = A1m1 - A2m1;
+        val A1 = 1 + A1m1;
+        val A2 = 1 + A2m1;
+
+        val B1 = sinCosSeries(true, ssig2, csig2, C1a) - sinCosSeries(true, ssig1, csig1, C1a);
+        s12b = A1 * (sig12 + B1);
+        val B2 = sinCosSeries(true, ssig2, csig2, C2a) - sinCosSeries(true, ssig1, csig1, C2a);
+        val J12 = m0 * sig12 + (A1 * B1 - A2 * B2);
+
+        //parentheses for accurate cancellation with coincident points
+        m12b = dn2 * (csig1 * ssig2) - dn1 * (ssig1 * csig2) - csig1 * csig2 * J12;
+    }
+
+    /**
+     * Positive root k of k^4 + 2 k^3 - (x^2 + y^2 - 1) k^2 - 2 y^2 k - y^2 = 0.
+     */
+    private static double astroid(double x, double y) {
+        val p = x * x;
+        val q = y * y;
+        val r = (p + q - 1) / 6;
+        if (q == 0 && r <= 0) {
+            //y = 0 with |x| <= 1
+            return 0;
+        }
+
+        val S = p * q / 4; //r^3 * s
+        val r2 = r * r;
+        val r3 = r * r2;
+        val disc = S * (S + 2 * r3); //discriminant of the quadratic equation for T3
+        var u = r;
+        if (disc >= 0) {
+            var T3 = S + r3;
+            T3 += T3 < 0 ? -sqrt(disc) : sqrt(disc); //sign maximizing abs(T3), for less cancellation
+            val T = cbrt(T3);
+            u += T + (T != 0 ? r2 / T : 0);
+        } else {
+            //T is complex, but u is real
+            val ang = atan2(sqrt(-disc), -(S + r3));
+            u += 2 * r * cos(ang / 3);
+        }
+
+        val v = sqrt(u * u + q);
+        val uv = u < 0 ? q / (v - u) : u + v; //u + v, guaranteed positive
+        val w = (uv - q) / (2 * v);
+        return uv / (sqrt(uv + w * w) + w);
+    }
+
+    //(1 - eps) * A1 - 1
+    private static double A1m1f(double eps) {
+        val eps2 = eps * eps;
+        val t = eps2 * (eps2 * (eps2 + 4) + 64) / 256;
+        return (t + eps) / (1 - eps);
+    }
+
+    private static final double[] C1 = {
+            -1, 6, -16, 32,
+            -9, 64, -128, 2048,
+            9, -16, 768,
+            3, -5, 512,
+            -7, 1280,
+            -7, 2048,
+    };
+
+    private static void C1f(double eps, double[] c) {
+        series(C1, eps, c);
+    }
+
+    private static final double[] C1p = {
+            205, -432, 768, 1536,
+            4005, -4736, 3840, 12288,
+            -225, 116, 384,
+            -7173, 2695, 7680,
+            3467, 7680,
+            38081, 61440,
+    };
+
+    private static void C1pf(double eps, double[] c) {
+        series(C1p, eps, c);
+    }
+
+    //(1 + eps) * A2 - 1
+    private static double A2m1f(double eps) {
+        val eps2 = eps * eps;
+        val t = eps2 * (eps2 * (-11 * eps2 - 28) - 192) / 256;
+        return (t - eps) / (1 + eps);
+    }
+
+    private static final double[] C2 = {
+            1, 2, 16, 32,
+            35, 64, 384, 2048,
+            15, 80, 768,
+            7, 35, 512,
+            63, 1280,
+            77, 2048,
+    };
+
+    private static void C2f(double eps, double[] c) {
+        series(C2, eps, c);
+    }
+
+    /**
+     * c[l] = eps^l * P(eps^2), for l in 1..6, P being polynomials of decreasing order, each followed by its divisor.
+     */
+    private static void series(double[] coefficients, double eps, double[] c) {
+        val eps2 = eps * eps;
+        var d = eps;
+        for (int l = 1, o = 0; l <= nC; l++) {
+            val m = (nC - l) / 2; //order of the polynomial in eps^2
+            c[l] = d * polyval(m, coefficients, o, eps2) / coefficients[o + m + 1];
+            o += m + 2;
+            d *= eps;
+        }
+    }
+
+    private static double A3f(double eps) {
+        return polyval(nC - 1, A3x, 0, eps);
+    }
+
+    private static void C3f(double eps, double[] c) {
+        var mult = 1D;
+        for (int l = 1, o = 0; l < nC; l++) {
+            val m = nC - l - 1; //order of the polynomial in eps
+            mult *= eps;
+            c[l] = mult * polyval(m, C3x, o, eps);
+            o += m + 1;
+        }
+    }
+
+    /**
+     * Clenshaw summation of sum(c[l] * sin(2 l x)), or of cos with cosine series, l starting at 1 for sine series.
+     */
+    private static double sinCosSeries(boolean sinp, double sinx, double cosx, double[] c) {
+        var k = c.length;
+        var n = k - (sinp ? 1 : 0);
+        val ar = 2 * (cosx - sinx) * (cosx + sinx); //2 cos(2x)
+        var y0 = (n & 1) != 0 ? c[--k] : 0;
+        var y1 = 0D;
+        n /= 2;
+        while (n-- != 0) {
+            y1 = ar * y0 - y1 + c[--k];
+            y0 = ar * y1 - y0 + c[--k];
+        }
+        return sinp ? 2 * sinx * cosx * y0 : cosx * (y0 - y1);
+    }
+
+    private static double polyval(int N, double[] p, int s, double x) {
+        var y = N < 0 ? 0 : p[s++];
+        while (--N >= 0) y = y * x + p[s++];
+        return y;
+    }
+
+    private static double latFix(double latitude) {
+        return abs(latitude) > 90 ? Double.NaN : latitude;
+    }
+
+    private static double angNormalize(double x) {
+        if (x > -180 && x <= 180) return x; //spares the remainder, slow on doubles
+        x = x % 360D;
+        return x <= -180 ? x + 360 : (x <= 180 ? x : x - 360);
+    }
+
+    /**
+     * Rounds tiny values, so that very close to the equator or to a meridian means on it.
+     */
+    private static double angRound(double x) {
+        val z = 1 / 16D;
+        if (x == 0) return 0;
+        var y = abs(x);
+        y = y < z ? z - (z - y) : y;
+        return x < 0 ? -y : y;
+    }
+
+    /**
+     * Exact difference y - x, reduced to [-180, 180], the rounding error being left in t.
+     */
+    private double angDiff(double x, double y) {
+        val d = angNormalize(sum(angNormalize(-x), angNormalize(y)));
+        return sum(d == 180 && t > 0 ? -180 : d, t);
+    }
+
+    //error-free sum, the rounding error being left in t
+    private double sum(double u, double v) {
+        val s = u + v;
+        var up = s - v;
+        var vpp = s - up;
+        up -= u;
+        vpp -= v;
+        t = -(up + vpp);
+        return s;
+    }
+
+    /**
+     * Sine and cosine of an angle in degrees, exact for multiples of 90, into sin and cos.
+     */
+    private void sincosd(double x) {
+        var r = abs(x) < 360 ? x : x % 360D;
+        val q = (int) round(r / 90);
+        r = toRadians(r - 90 * q);
+        val s = Math.sin(r);
+        val c = Math.cos(r);
+        switch (q & 3) {
+            case 0:
+                sin = s;
+                cos = c;
+                break;
+            case 1:
+                sin = c;
+                cos = -s;
+                break;
+            case 2:
+                sin = -s;
+                cos = -c;
+                break;
+            default:
+                sin = -c;
+                cos = s;
+                break;
+        }
+        if (x != 0) { //-0 to 0
+            sin += 0D;
+            cos += 0D;
+        }
+    }
+
+    /**
+     * atan2 in degrees, within [-180, 180], exact for multiples of 45.
+     */
+    private static double atan2d(double y, double x) {
+        var q = 0;
+        if (abs(y) > abs(x)) {
+            val swap = x;
+            x = y;
+            y = swap;
+            q = 2;
+        }
+        if (x < 0) {
+            x = -x;
+            q++;
+        }
+
+        val ang = toDegrees(atan2(y, x)); //within [-45, 45]
+        switch (q) {
+            case 1:
+                return (y >= 0 ? 180 : -180) - ang;
+            case 2:
+                return 90 - ang;
+            case 3:
+                return -90 + ang;
+            default:
+                return ang;
+        }
+    }
+
+    private void norm(double sinx, double cosx) {
+        val r = hypot(sinx, cosx);
+        sin = sinx / r;
+        cos = cosx / r;
+    }
+
+    private static double hypot(double x, double y) {
+        return sqrt(x * x + y * y); //no overflow within the range of sines and cosines, faster than Math.hypot
+    }
+}
@@ -0,0 +1,335 @@
+/*
+ * BSD 3-Clause License
+ *
+ * Copyright (c) 2018, Grum Ltd (Romain Gallet)
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ *
+ * Neither the name of Geocalc nor the names of its
+ * contributors may be used to endorse or promote products derived from
+ * this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.grum.geocalc;
+
+import lombok.val;
+import lombok.var;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static com.grum.geocalc.EarthCalc.EARTH_RADIUS;
+import static java.lang.Math.*;
+
+/**
+ * Registry of geofences, rectangles and circles, answering which of them contain a position.
+ * <p>
+ * Each fence is registered in the cells of a regular latitude/longitude grid it overlaps, so a lookup only
+ * checks the fences of a single cell:
+ * <pre>
+ *     GeofenceRegistry fences = GeofenceRegistry.withCellSize(0.1);
+ *     fences.add(1, EarthCalc.gcd.around(kew, 3000));
+ *     fences.addCircle(2, richmond, 500);
+ *
+ *     long[] ids = fences.fencesContaining(51.47, -0.29);
+ * </pre>
+ * Fences larger than {@value #MAX_CELLS} cells are kept aside and checked on every lookup: a cell about the size
+ * of the typical fence works well.
+ * <p>
+ * Fences can be added and removed while lookups go on, from any thread. Lookups never block: cells are
+ * replaced rather than modified, so a lookup sees each cell either before or after a change. A fence replaced by
+ * another with the same id is seen as either of them, never as neither nor as both.
+ */
+public class GeofenceRegistry {
+
+    private static final int MAX_CELLS = 1024;
+    private static final Fence[] NONE = new Fence[0];
+
+    private final double cellSize;
+    private final int rows, columns;
+
+    private final Map<Long, Fence[]> cells = new ConcurrentHashMap<>();
+    private final Map<Long, Fence> fences = new ConcurrentHashMap<>();
+    private volatile Fence[] large = NONE;
+
+    private GeofenceRegistry(double cellSize) {
+        this.cellSize = cellSize;
+        rows = (int) ceil(180 / cellSize);
+        columns = (int) ceil(360 / cellSize);
+    }
+
+    /**
+     * Create a new, empty, registry.
+     *
+     * @param cellSize width and height of the grid cells, in decimal degrees
+     * @return the registry
+     */
+    public static GeofenceRegistry withCellSize(double cellSize) {
+        if (!(cellSize > 0 && cellSize <= 180)) {
+            throw new IllegalArgumentException("Cell size must be within ]0, 180] degrees, got " + cellSize);
+        }
+        return new GeofenceRegistry(cellSize);
+    }
+
+    /**
+     * Registers a rectangular fence, replacing any fence with the same id.
+     *
+     * @param id   id of the fence, returned by lookups
+     * @param area the fence, which may go across the antimeridian
+     */
+    public void add(long id, BoundingArea area) {
+        add(new Rectangle(id, area));
+    }
+
+    /**
+     * Registers a circular fence, replacing any fence with the same id. Positions are checked at Haversine formula.
+     *
+     * @param id     id of the fence, returned by lookups
+     * @param centre centre of the fence
+     * @param radius in meters
+     */
+    public void addCircle(long id, Point centre, double radius) {
+        add(new Circle(id, centre, radius));
+    }
+
+    /**
+     * @param id id of the fence
+     * @return true if there was a fence with this id
+     */
+    public synchronized boolean remove(long id) {
+        val fence = fences.remove(id);
+        if (fence == null) {
+            return false;
+        }
+
+        if (isLarge(fence)) {
+            large = without(large, fence);
+        } else {
+            removeFromCells(fence);
+        }
+        return true;
+    }
+
+    //installs the fence first, swapping it for the one it replaces wherever both are, then drops what is left
+    //of the replaced one
+    private synchronized void add(Fence fence) {
+        val replaced = fences.put(fence.id, fence);
+
+        if (isLarge(fence)) {
+            large = with(replaced != null && isLarge(replaced) ? without(large, replaced) : large, fence);
+        } else {
+            forEachCell(fence, key -> cells.compute(key, (k, cell) ->
+                    cell == null ? new Fence[]{fence} : with(without(cell, replaced), fence)));
+        }
+
+        if (replaced != null) {
+            if (!isLarge(replaced)) {
+                removeFromCells(replaced);
+            } else if (!isLarge(fence)) {
+                large = without(large, replaced);
+            }
+        }
+    }
+
+    private void removeFromCells(Fence fence) {
+        forEachCell(fence, key -> cells.computeIfPresent(key, (k, cell) -> {
+            val remaining = without(cell, fence);
+            return remaining.length == 0 ? null : remaining;
+        }));
+    }
+
+    /**
+     * @return number of fences in the registry
+     */
+    public int size() {
+        return fences.size();
+    }
+
+    public long[] fencesContaining(Point point) {
+        return fencesContaining(point.latitude, point.longitude);
+    }
+
+    /**
+     * @param latitude  decimal degrees
+     * @param longitude decimal degrees, within [-180, 180]
+     * @return ids of the fences containing the position, in no particular order
+     */
+    public long[] fencesContaining(double latitude, double longitude) {
+        //large fences are read before and after the cell: a fence moving between them while being replaced is
+        //in one of the three
+        val before = large;
+        val cell = cells.getOrDefault(key(row(latitude), column(longitude)), NONE);
+        val after = large;
+
+        val ids = new long[before.length + cell.length + (after != before ? after.length : 0)];
+        var size = 0;
+        for (val fence : before) {
+            if (fence.contains(latitude, longitude)) ids[size++] = fence.id;
+        }
+        val larger = size;
+        for (val fence : cell) {
+            if (fence.contains(latitude, longitude) && !contains(ids, larger, fence.id)) ids[size++] = fence.id;
+        }
+        if (after != before) {
+            for (val fence : after) {
+                if (fence.contains(latitude, longitude) && !contains(ids, size, fence.id)) ids[size++] = fence.id;
+            }
+        }
+        return size == ids.length ? ids : Arrays.copyOf(ids, size);
+    }
+
+    private static boolean contains(long[] ids, int size, long id) {
+        for (int i = 0; i < size; i++) {
+            if (ids[i] == id) return true;
+        }
+        return false;
+    }
+
+    private boolean isLarge(Fence fence) {
+        return (long) (row(fence.north) - row(fence.south) + 1) * columns(fence) > MAX_CELLS;
+    }
+
+    private long columns(Fence fence) {
+        return fence.west > fence.east //going across the antimeridian
+                ? (columns - column(fence.west)) + column(fence.east) + 1
+                : column(fence.east) - column(fence.west) + 1;
+    }
+
+    private void forEachCell(Fence fence, CellAction action) {
+        if (fence.west > fence.east) {
+            forEachCell(fence.south, fence.north, fence.west, 180, action);
+            forEachCell(fence.south, fence.north, -180, fence.east, action);
+        } else {
+            forEachCell(fence.south, fence.north, fence.west, fence.east, action);
+        }
+    }
+
+    private void forEachCell(double south, double north, double west, double east, CellAction action) {
+        val lastRow = row(north);
+        val lastColumn = column(east);
+        for (int row = row(south); row <= lastRow; row++) {
+            for (int column = column(west); column <= lastColumn; column++) {
+                action.apply(key(row, column));
+            }
+        }
+    }
+
+    private static Fence[] with(Fence[] fences, Fence[] added) {
+        val result = Arrays.copyOf(fences, fences.length + added.length);
+        System.arraycopy(added, 0, result, fences.length, added.length);
+        return result;
+    }
+
+    private static Fence[] with(Fence[] fences, Fence added) {
+        return with(fences, new Fence[]{added});
+    }
+
+    private static Fence[] without(Fence[] fences, Fence removed) {
+        val result = new Fence[fences.length];
+        var size = 0;
+        for (val fence : fences) {
+            if (fence != removed) result[size++] = fence;
+        }
+        return size == fences.length ? fences : Arrays.copyOf(result, size);
+    }
+
+    private int row(double latitude) {
+        return max(0, min(rows - 1, (int) floor((latitude + 90) / cellSize)));
+    }
+
+    private int column(double longitude) {
+        return max(0, min(columns - 1, (int) floor((longitude + 180) / cellSize)));
+    }
+
+    private long key(int row, int column) {
+        return (long) row * columns + column;
+    }
+
+    @Override
+    public String toString() {
+        return "GeofenceRegistry{" + "cellSize=" + cellSize + ", size=" + fences.size() + ", cells=" + cells.size() + '}';
+    }
+
+    private interface CellAction {
+        void apply(long key);
+    }
+
+    /**
+     * A fence, along with the latitude/longitude box containing it.
+     */
+    private abstract static class Fence {
+        final long id;
+        double south, north, west, east;
+
+        Fence(long id) {
+            this.id = id;
+        }
+
+        abstract boolean contains(double latitude, double longitude);
+    }
+
+    private static class Rectangle extends Fence {
+        final BoundingArea area;
+
+        Rectangle(long id, BoundingArea area) {
+            super(id);
+            this.area = area;
+            south = area.southWest.latitude;
+            north = area.northEast.latitude;
+            west = area.southWest.longitude;
+            east = area.northEast.longitude;
+        }
+
+        @Override
+        boolean contains(double latitude, double longitude) {
+            return area.contains(latitude, longitude);
+        }
+    }
+
+    private static class Circle extends Fence {
+        final PreparedPoint centre;
+        final double threshold;
+
+        Circle(long id, Point centre, double radius) {
+            super(id);
+            this.centre = EarthCalc.prepare(centre);
+
+            val δ = radius / EARTH_RADIUS;
+            val sinδ = sin(min(δ, PI) / 2);
+            threshold = sinδ * sinδ;
+
+            val box = new double[4];
+            GridIndex.around(centre.latitude, centre.longitude, δ, box);
+            south = box[0];
+            north = box[1];
+            west = box[2];
+            east = box[3];
+        }
+
+        @Override
+        boolean contains(double latitude, double longitude) {
+            return centre.haversine.a(latitude, longitude) <= threshold;
+        }
+    }
+}
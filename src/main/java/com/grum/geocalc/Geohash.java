@@ -0,0 +1,310 @@
+/*
+ * BSD 3-Clause License
+ *
+ * Copyright (c) 2018, Grum Ltd (Romain Gallet)
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ *
+ * Neither the name of Geocalc nor the names of its
+ * contributors may be used to endorse or promote products derived from
+ * this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.grum.geocalc;
+
+import lombok.val;
+
+import java.util.Arrays;
+
+import static java.lang.Math.floor;
+
+/**
+ * Geohash encoding and decoding.
+ * <p>
+ * Geohashes are handled as longs holding 5 bits per character, right aligned, along with their precision
+ * (number of characters, up to 12). These are the allocation-free paths; base 32 strings are only built on demand:
+ * <pre>
+ *     long hash = Geohash.encode(57.64911, 10.40744, 11);
+ *     String text = Geohash.toBase32(hash, 11); // "u4pruydqqvj"
+ * </pre>
+ *
+ * @see <a href="https://en.wikipedia.org/wiki/Geohash"></a>
+ */
+public class Geohash {
+
+    public static final int MAX_PRECISION = 12;
+
+    private static final char[] BASE32 = "0123456789bcdefghjkmnpqrstuvwxyz".toCharArray();
+    private static final byte[] BASE32_INDEX = new byte[128];
+
+    static {
+        Arrays.fill(BASE32_INDEX, (byte) -1);
+        for (int i = 0; i < BASE32.length; i++) {
+            BASE32_INDEX[BASE32[i]] = (byte) i;
+        }
+    }
+
+    private Geohash() {
+    }
+
+    /**
+     * @param latitude  decimal degrees
+     * @param longitude decimal degrees
+     * @param precision number of characters, from 1 to 12
+     * @return the geohash
+     */
+    public static long encode(double latitude, double longitude, int precision) {
+        checkPrecision(precision);
+
+        val bits = 5 * precision;
+        val latitudeBits = bits / 2;
+        val longitudeBits = bits - latitudeBits;
+
+        val y = quantize(latitude + 90, 180, latitudeBits);
+        val x = quantize(longitude + 180, 360, longitudeBits);
+
+        return interleave(y, x, bits);
+    }
+
+    public static long encode(Point point, int precision) {
+        return encode(point.latitude, point.longitude, precision);
+    }
+
+    /**
+     * Encodes latitudes[i], longitudes[i] into hashes[i].
+     *
+     * @param latitudes  decimal degrees
+     * @param longitudes decimal degrees
+     * @param precision  number of characters, from 1 to 12
+     * @param hashes     receives the geohashes
+     */
+    public static void encode(double[] latitudes, double[] longitudes, int precision, long[] hashes) {
+        checkPrecision(precision);
+        if (longitudes.length != latitudes.length || hashes.length < latitudes.length) {
+            throw new IllegalArgumentException("Expected " + latitudes.length + " longitudes and room for as many hashes, got "
+                    + longitudes.length + " and " + hashes.length);
+        }
+
+        for (int i = 0; i < latitudes.length; i++) {
+            hashes[i] = encode(latitudes[i], longitudes[i], precision);
+        }
+    }
+
+    /**
+     * @param hash      the geohash
+     * @param precision number of characters, from 1 to 12
+     * @return centre of the geohash cell
+     */
+    public static Point decode(long hash, int precision) {
+        checkHash(hash, precision);
+        val latitudeSpan = latitudeSpan(precision);
+        val longitudeSpan = longitudeSpan(precision);
+
+        return new Point(-90 + (row(hash, precision) + .5) * latitudeSpan, -180 + (column(hash, precision) + .5) * longitudeSpan);
+    }
+
+    /**
+     * Decodes hashes[i] into the centre of its cell, latitudes[i], longitudes[i].
+     *
+     * @param hashes     the geohashes
+     * @param precision  number of characters, from 1 to 12
+     * @param latitudes  receives latitudes, in decimal degrees
+     * @param longitudes receives longitudes, in decimal degrees
+     */
+    public static void decode(long[] hashes, int precision, double[] latitudes, double[] longitudes) {
+        checkPrecision(precision);
+        if (latitudes.length < hashes.length || longitudes.length < hashes.length) {
+            throw new IllegalArgumentException("Expected room for " + hashes.length + " latitudes and longitudes, got "
+                    + latitudes.length + " and " + longitudes.length);
+        }
+
+        val latitudeSpan = latitudeSpan(precision);
+        val longitudeSpan = longitudeSpan(precision);
+
+        for (int i = 0; i < hashes.length; i++) {
+            checkHash(hashes[i], precision);
+            latitudes[i] = -90 + (row(hashes[i], precision) + .5) * latitudeSpan;
+            longitudes[i] = -180 + (column(hashes[i], precision) + .5) * longitudeSpan;
+        }
+    }
+
+    /**
+     * @param hash      the geohash
+     * @param precision number of characters, from 1 to 12
+     * @return the geohash cell
+     */
+    public static BoundingArea bounds(long hash, int precision) {
+        checkHash(hash, precision);
+        val latitudeSpan = latitudeSpan(precision);
+        val longitudeSpan = longitudeSpan(precision);
+        val south = -90 + row(hash, precision) * latitudeSpan;
+        val west = -180 + column(hash, precision) * longitudeSpan;
+
+        return BoundingArea.at(new Point(south + latitudeSpan, west + longitudeSpan), new Point(south, west));
+    }
+
+    /**
+     * Returns the cell rows north (negative for south) and columns east (negative for west) of hash.
+     * Columns wrap around the antimeridian.
+     *
+     * @param hash      the geohash
+     * @param precision number of characters, from 1 to 12
+     * @param north     number of rows to the north
+     * @param east      number of columns to the east
+     * @return the neighbour geohash, or -1 if it would be beyond a pole
+     */
+    public static long neighbour(long hash, int precision, int north, int east) {
+        checkHash(hash, precision);
+
+        val bits = 5 * precision;
+        val latitudeBits = bits / 2;
+        val longitudeBits = bits - latitudeBits;
+
+        val row = row(hash, precision) + north;
+        if (row < 0 || row >= 1L << latitudeBits) return -1;
+
+        val column = (column(hash, precision) + east) & ((1L << longitudeBits) - 1);
+
+        return interleave(row, column, bits);
+    }
+
+    /**
+     * Computes the 8 adjacent cells, in the order N, NE, E, SE, S, SW, W, NW.
+     *
+     * @param hash       the geohash
+     * @param precision  number of characters, from 1 to 12
+     * @param neighbours receives the neighbours, -1 for the ones beyond a pole
+     */
+    public static void neighbours(long hash, int precision, long[] neighbours) {
+        neighbours[0] = neighbour(hash, precision, 1, 0);
+        neighbours[1] = neighbour(hash, precision, 1, 1);
+        neighbours[2] = neighbour(hash, precision, 0, 1);
+        neighbours[3] = neighbour(hash, precision, -1, 1);
+        neighbours[4] = neighbour(hash, precision, -1, 0);
+        neighbours[5] = neighbour(hash, precision, -1, -1);
+        neighbours[6] = neighbour(hash, precision, 0, -1);
+        neighbours[7] = neighbour(hash, precision, 1, -1);
+    }
+
+    /**
+     * @param hash      the geohash
+     * @param precision number of characters, from 1 to 12
+     * @return the usual base 32 representation
+     */
+    public static String toBase32(long hash, int precision) {
+        checkPrecision(precision);
+
+        val chars = new char[precision];
+        for (int i = precision - 1; i >= 0; i--) {
+            chars[i] = BASE32[(int) (hash & 31)];
+            hash >>>= 5;
+        }
+        return new String(chars);
+    }
+
+    /**
+     * @param geohash base 32 geohash, its precision being its length
+     * @return the geohash
+     */
+    public static long fromBase32(CharSequence geohash) {
+        checkPrecision(geohash.length());
+
+        long hash = 0;
+        for (int i = 0; i < geohash.length(); i++) {
+            val c = geohash.charAt(i);
+            val value = c < 128 ? BASE32_INDEX[c] : -1;
+            if (value < 0) {
+                throw new IllegalArgumentException("Invalid geohash character '" + c + "' in " + geohash);
+            }
+            hash = hash << 5 | value;
+        }
+        return hash;
+    }
+
+    private static void checkPrecision(int precision) {
+        if (precision < 1 || precision > MAX_PRECISION) {
+            throw new IllegalArgumentException("Precision must be within [1, " + MAX_PRECISION + "], got " + precision);
+        }
+    }
+
+    //a hash with more bits than precision characters hold would decode into another cell
+    private static void checkHash(long hash, int precision) {
+        checkPrecision(precision);
+        if (hash >>> 5 * precision != 0) {
+            throw new IllegalArgumentException("Expected a geohash of " + precision + " characters, got " + Long.toHexString(hash));
+        }
+    }
+
+    private static double latitudeSpan(int precision) {
+        return 180d / (1L << (5 * precision / 2));
+    }
+
+    private static double longitudeSpan(int precision) {
+        return 360d / (1L << (5 * precision - 5 * precision / 2));
+    }
+
+    private static long quantize(double value, double range, int bits) {
+        val cells = 1L << bits;
+        val cell = (long) floor(value / range * cells);
+        return cell < 0 ? 0 : cell >= cells ? cells - 1 : cell;
+    }
+
+    /**
+     * Interleaves the bits of row (latitude) and column (longitude), most significant one being a column bit.
+     */
+    private static long interleave(long row, long column, int bits) {
+        return bits % 2 == 0 ? spread(column) << 1 | spread(row) : spread(row) << 1 | spread(column);
+    }
+
+    private static long row(long hash, int precision) {
+        val bits = 5 * precision;
+        return bits % 2 == 0 ? compact(hash) : compact(hash >>> 1);
+    }
+
+    private static long column(long hash, int precision) {
+        val bits = 5 * precision;
+        return bits % 2 == 0 ? compact(hash >>> 1) : compact(hash);
+    }
+
+    //puts the 32 lower bits of x on even positions
+    private static long spread(long x) {
+        x &= 0xFFFFFFFFL;
+        x = (x | x << 16) & 0x0000FFFF0000FFFFL;
+        x = (x | x << 8) & 0x00FF00FF00FF00FFL;
+        x = (x | x << 4) & 0x0F0F0F0F0F0F0F0FL;
+        x = (x | x << 2) & 0x3333333333333333L;
+        x = (x | x << 1) & 0x5555555555555555L;
+        return x;
+    }
+
+    //gathers the bits on even positions of x
+    private static long compact(long x) {
+        x &= 0x5555555555555555L;
+        x = (x | x >>> 1) & 0x3333333333333333L;
+        x = (x | x >>> 2) & 0x0F0F0F0F0F0F0F0FL;
+        x = (x | x >>> 4) & 0x00FF00FF00FF00FFL;
+        x = (x | x >>> 8) & 0x0000FFFF0000FFFFL;
+        x = (x | x >>> 16) & 0x00000000FFFFFFFFL;
+        return x;
+    }
+}
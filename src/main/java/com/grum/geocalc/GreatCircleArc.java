@@ -0,0 +1,286 @@
+/*
+ * BSD 3-Clause License
+ *
+ * Copyright (c) 2018, Grum Ltd (Romain Gallet)
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ *
+ * Neither the name of Geocalc nor the names of its
+ * contributors may be used to endorse or promote products derived from
+ * this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.grum.geocalc;
+
+import lombok.val;
+
+import java.util.Spliterator;
+import java.util.function.Consumer;
+
+import static com.grum.geocalc.EarthCalc.EARTH_RADIUS;
+import static java.lang.Math.*;
+
+/**
+ * The great circle path between 2 points, prepared to generate evenly spaced points along it, for instance
+ * to draw a flight path or to check how close it goes to places.
+ * <p>
+ * Points are the start rotated towards the end, one step after the other, so that each point costs a few
+ * multiplications and the conversion to latitude/longitude, instead of a {@link EarthCalc.gcd#pointAt} call:
+ * <pre>
+ *     GreatCircleArc arc = GreatCircleArc.between(heathrow, jfk);
+ *     int count = arc.count(10_000); //points at most 10 km apart, ends included
+ *
+ *     double[] latitudes = new double[count], longitudes = new double[count];
+ *     arc.fill(latitudes, longitudes);
+ *
+ *     Stream&lt;Point&gt; points = StreamSupport.stream(arc.spliterator(count), true);
+ * </pre>
+ * Distances are measured on the sphere, as {@link EarthCalc.gcd} does. An arc is immutable and can be used from
+ * several threads.
+ */
+public final class GreatCircleArc {
+
+    private final Point start, end;
+    //start, and the unit vector along the path from it, 90 degrees away
+    private final double ux, uy, uz;
+    private final double wx, wy, wz;
+    //angle between the ends, in radians
+    private final double δ;
+
+    private GreatCircleArc(Point start, Point end) {
+        this.start = start;
+        this.end = end;
+
+        val u = new double[3];
+        val v = new double[3];
+        EarthCalc.gcd.toVector(start.latitude, start.longitude, u);
+        EarthCalc.gcd.toVector(end.latitude, end.longitude, v);
+        ux = u[0];
+        uy = u[1];
+        uz = u[2];
+        δ = EarthCalc.gcd.angle(u, 0, v[0], v[1], v[2]);
+
+        //end, less its component along start
+        val cos = ux * v[0] + uy * v[1] + uz * v[2];
+        val x = v[0] - cos * ux;
+        val y = v[1] - cos * uy;
+        val z = v[2] - cos * uz;
+        //below, the direction is lost in rounding, the ends being within micrometers of each other or of antipodes
+        val norm = sqrt(x * x + y * y + z * z);
+        if (norm > 1e-12) {
+            wx = x / norm;
+            wy = y / norm;
+            wz = z / norm;
+        } else if (cos < 0) {
+            throw new IllegalArgumentException("Antipodal points have no single great circle path between them, got "
+                    + start + " and " + end);
+        } else { //same point, give or take micrometers
+            wx = wy = wz = 0;
+        }
+    }
+
+    /**
+     * @param start start of the path
+     * @param end   end of the path
+     * @return the shorter great circle path from start to end
+     * @throws IllegalArgumentException if the points are antipodal
+     */
+    public static GreatCircleArc between(Point start, Point end) {
+        return new GreatCircleArc(start, end);
+    }
+
+    /**
+     * @return length of the path, in meters
+     */
+    public double distance() {
+        return δ * EARTH_RADIUS;
+    }
+
+    /**
+     * @param step greatest distance between consecutive points, in meters
+     * @return the number of evenly spaced points, ends included, for consecutive points to be at most step apart
+     */
+    public int count(double step) {
+        if (!(step > 0)) {
+            throw new IllegalArgumentException("Step must be positive, got " + step);
+        }
+        val count = ceil(distance() / step) + 1;
+        if (count > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Step " + step + " needs more than " + Integer.MAX_VALUE + " points");
+        }
+        return max(2, (int) count);
+    }
+
+    /**
+     * @param fraction of the path, 0 being start and 1 end
+     * @param into     receives the latitude and longitude of the point, in decimal degrees
+     */
+    public void pointAt(double fraction, double[] into) {
+        val θ = fraction * δ;
+        write(cos(θ), sin(θ), into, 0, into, 1);
+    }
+
+    /**
+     * Fills the arrays with {@code latitudes.length} evenly spaced points, start first and end last.
+     *
+     * @param latitudes  receives the latitudes, in decimal degrees
+     * @param longitudes receives the longitudes, in decimal degrees
+     */
+    public void fill(double[] latitudes, double[] longitudes) {
+        fill(latitudes.length, 0, latitudes.length, latitudes, longitudes);
+    }
+
+    /**
+     * Fills the arrays with some of count evenly spaced points, start being point 0 and end point count - 1,
+     * so that parts of a long path can be filled by different threads.
+     *
+     * @param count      number of points along the whole path, at least 2
+     * @param from       first point to fill, inclusive
+     * @param to         last point to fill, exclusive
+     * @param latitudes  receives the latitude of point i at index i, in decimal degrees
+     * @param longitudes receives the longitude of point i at index i, in decimal degrees
+     */
+    public void fill(int count, int from, int to, double[] latitudes, double[] longitudes) {
+        if (count < 2) {
+            throw new IllegalArgumentException("Expected at least 2 points, got " + count);
+        }
+        if (from < 0 || to > count || from > to || latitudes.length < to || longitudes.length < to) {
+            throw new IllegalArgumentException("Expected points within [0, " + count + "] and arrays of at least "
+                    + to + " values, got [" + from + ", " + to + "[ and " + latitudes.length + " and " + longitudes.length);
+        }
+
+        val rotation = new Rotation(count, from);
+        for (int i = from; i < to; i++) {
+            rotation.next(i, latitudes, i, longitudes, i);
+        }
+    }
+
+    /**
+     * @param count number of points along the whole path, ends included, at least 2
+     * @return the points, from start to end, which can be split to be generated in parallel
+     */
+    public Spliterator<Point> spliterator(int count) {
+        if (count < 2) {
+            throw new IllegalArgumentException("Expected at least 2 points, got " + count);
+        }
+        return new Points(count, 0, count);
+    }
+
+    //point at the angle whose cosine and sine are given, the ends being given as they are
+    private void write(double cos, double sin, double[] latitudes, int i, double[] longitudes, int j) {
+        val x = ux * cos + wx * sin;
+        val y = uy * cos + wy * sin;
+        val z = uz * cos + wz * sin;
+        latitudes[i] = toDegrees(atan2(z, sqrt(x * x + y * y)));
+        longitudes[j] = toDegrees(atan2(y, x));
+    }
+
+    @Override
+    public String toString() {
+        return "GreatCircleArc{" + "start=" + start + ", end=" + end + ", distance=" + distance() + '}';
+    }
+
+    /**
+     * Angles of consecutive points, rotated by the step from an exact start rather than recomputed,
+     * the rounding errors staying below a millimetre over a million points.
+     */
+    private final class Rotation {
+        final int last;
+        final double cosΔ, sinΔ;
+        double cos, sin;
+
+        Rotation(int count, int from) {
+            last = count - 1;
+            val Δ = δ / last;
+            cosΔ = Math.cos(Δ);
+            sinΔ = Math.sin(Δ);
+            cos = Math.cos(from * Δ);
+            sin = Math.sin(from * Δ);
+        }
+
+        void next(int i, double[] latitudes, int j, double[] longitudes, int k) {
+            if (i == 0) {
+                latitudes[j] = start.latitude;
+                longitudes[k] = start.longitude;
+            } else if (i == last) {
+                latitudes[j] = end.latitude;
+                longitudes[k] = end.longitude;
+            } else {
+                write(cos, sin, latitudes, j, longitudes, k);
+            }
+
+            val cos = this.cos * cosΔ - this.sin * sinΔ;
+            sin = this.sin * cosΔ + this.cos * sinΔ;
+            this.cos = cos;
+        }
+    }
+
+    private final class Points implements Spliterator<Point> {
+        final int count;
+        final double[] point = new double[2];
+        int from, to;
+        Rotation rotation;
+
+        Points(int count, int from, int to) {
+            this.count = count;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super Point> action) {
+            if (from >= to) return false;
+            if (rotation == null) rotation = new Rotation(count, from);
+
+            rotation.next(from++, point, 0, point, 1);
+            action.accept(new Point(point[0], point[1]));
+            return true;
+        }
+
+        @Override
+        public void forEachRemaining(Consumer<? super Point> action) {
+            while (tryAdvance(action)) ;
+        }
+
+        @Override
+        public Spliterator<Point> trySplit() {
+            //only before starting, the rotation going on from where it is
+            if (rotation != null || to - from < 2) return null;
+
+            val middle = (from + to) >>> 1;
+            val prefix = new Points(count, from, middle);
+            from = middle;
+            return prefix;
+        }
+
+        @Override
+        public long estimateSize() {
+            return to - from;
+        }
+
+        @Override
+        public int characteristics() {
+            return ORDERED | SIZED | SUBSIZED | NONNULL | IMMUTABLE;
+        }
+    }
+}
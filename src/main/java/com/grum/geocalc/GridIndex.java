@@ -0,0 +1,305 @@
+/*
+ * BSD 3-Clause License
+ *
+ * Copyright (c) 2018, Grum Ltd (Romain Gallet)
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ *
+ * Neither the name of Geocalc nor the names of its
+ * contributors may be used to endorse or promote products derived from
+ * this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.grum.geocalc;
+
+import lombok.val;
+import lombok.var;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import static com.grum.geocalc.EarthCalc.EARTH_RADIUS;
+import static java.lang.Math.*;
+
+/**
+ * In-memory spatial index of points, bucketed in a regular latitude/longitude grid.
+ * <p>
+ * Queries only look at the cells overlapping the searched area, then check candidates exactly:
+ * <pre>
+ *     GridIndex index = GridIndex.withCellSize(0.05);
+ *     index.add(42, kew);
+ *
+ *     long[] ids = index.withinRadius(richmond, 3000);
+ * </pre>
+ * The cell size, in degrees, is a trade-off between the number of cells visited and the number of candidates
+ * checked per cell: a cell about the size of the typical search radius works well.
+ * <p>
+ * Adding points is not thread-safe. Once built, an index can be queried from several threads.
+ */
+public class GridIndex {
+
+    private final double cellSize;
+    private final int rows, columns;
+    private final Map<Long, Cell> cells = new HashMap<>();
+    private int size;
+
+    private GridIndex(double cellSize) {
+        this.cellSize = cellSize;
+        rows = (int) ceil(180 / cellSize);
+        columns = (int) ceil(360 / cellSize);
+    }
+
+    /**
+     * Create a new, empty, index.
+     *
+     * @param cellSize width and height of the grid cells, in decimal degrees
+     * @return the index
+     */
+    public static GridIndex withCellSize(double cellSize) {
+        if (!(cellSize > 0 && cellSize <= 180)) {
+            throw new IllegalArgumentException("Cell size must be within ]0, 180] degrees, got " + cellSize);
+        }
+        return new GridIndex(cellSize);
+    }
+
+    public void add(long id, Point point) {
+        add(id, point.latitude, point.longitude);
+    }
+
+    /**
+     * @param id        id of the point, returned by queries
+     * @param latitude  decimal degrees
+     * @param longitude decimal degrees, within [-180, 180]
+     */
+    public void add(long id, double latitude, double longitude) {
+        cells.computeIfAbsent(key(row(latitude), column(longitude)), key -> new Cell()).add(id, latitude, longitude);
+        size++;
+    }
+
+    /**
+     * @return number of points in the index
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @param area area to search, which may go across the antimeridian
+     * @return ids of the points contained within area
+     */
+    public long[] query(BoundingArea area) {
+        val ids = new Ids();
+        scan(area.southWest.latitude, area.northEast.latitude, area.southWest.longitude, area.northEast.longitude,
+                area::contains, ids);
+        return ids.toArray();
+    }
+
+    /**
+     * Points are checked at Haversine formula.
+     *
+     * @param centre centre of the search
+     * @param radius in meters
+     * @return ids of the points at most radius meters away from centre
+     */
+    public long[] withinRadius(Point centre, double radius) {
+        val prepared = EarthCalc.prepare(centre);
+        val δ = radius / EARTH_RADIUS;
+        val sinδ = sin(min(δ, PI) / 2);
+        val threshold = sinδ * sinδ;
+
+        val ids = new Ids();
+        around(centre, δ, (latitude, longitude) -> prepared.haversine.a(latitude, longitude) <= threshold, ids);
+        return ids.toArray();
+    }
+
+    /**
+     * Points are checked at Vincenty formula.
+     *
+     * @param centre centre of the search
+     * @param radius in meters
+     * @return ids of the points at most radius meters away from centre
+     * @throws IllegalStateException if Vincenty fails to converge for a candidate point
+     */
+    public long[] withinVincentyRadius(Point centre, double radius) {
+        val prepared = EarthCalc.prepare(centre);
+
+        /*
+         * On the ellipsoid, a degree of latitude is never shorter than b²/a meters per radian,
+         * so the box on the sphere of radius b needs to be a/b times larger.
+         */
+        val δ = radius * (EarthCalc.vincenty.a / EarthCalc.vincenty.b) / EARTH_RADIUS;
+
+        val ids = new Ids();
+        around(centre, δ, (latitude, longitude) -> prepared.vincenty.inverse(latitude, longitude, null) <= radius, ids);
+        return ids.toArray();
+    }
+
+    /**
+     * Scans the smallest latitude/longitude box containing every point at most δ radians away from centre.
+     */
+    private void around(Point centre, double δ, Filter filter, Ids ids) {
+        val box = new double[4];
+        around(centre.latitude, centre.longitude, δ, box);
+
+        scan(box[0], box[1], box[2], box[3], filter, ids);
+    }
+
+    /**
+     * Smallest latitude/longitude box containing every point at most δ radians away from (latitude, longitude),
+     * on the sphere.
+     *
+     * @param into receives south, north, west and east, west being greater than east across the antimeridian
+     */
+    static void around(double latitude, double longitude, double δ, double[] into) {
+        val Δφ = toDegrees(δ);
+        var south = latitude - Δφ;
+        var north = latitude + Δφ;
+        double west, east;
+
+        if (south <= -90 || north >= 90) { //a pole is within reach, so is every longitude
+            south = max(south, -90);
+            north = min(north, 90);
+            west = -180;
+            east = 180;
+        } else {
+            val Δλ = toDegrees(asin(sin(δ) / cos(toRadians(latitude))));
+            west = longitude - Δλ;
+            east = longitude + Δλ;
+
+            if (west < -180) west += 360;
+            if (east > 180) east -= 360;
+        }
+
+        into[0] = south;
+        into[1] = north;
+        into[2] = west;
+        into[3] = east;
+    }
+
+    private void scan(double south, double north, double west, double east, Filter filter, Ids ids) {
+        val firstRow = row(south);
+        val lastRow = row(north);
+        var firstColumn = column(west);
+        var lastColumn = column(east);
+
+        //going across the antimeridian, up to the last column then from the first one, unless both ends share
+        //a column and the box goes all around
+        var across = west > east;
+        if (across && lastColumn >= firstColumn) {
+            across = false;
+            firstColumn = 0;
+            lastColumn = columns - 1;
+        }
+        val width = across ? columns - firstColumn + lastColumn + 1 : lastColumn - firstColumn + 1;
+
+        if ((long) (lastRow - firstRow + 1) * width > cells.size()) {
+            //fewer cells in the index than in the area
+            for (val cell : cells.values()) {
+                cell.scan(filter, ids);
+            }
+            return;
+        }
+
+        for (int row = firstRow; row <= lastRow; row++) {
+            if (across) {
+                scan(row, firstColumn, columns - 1, filter, ids);
+                scan(row, 0, lastColumn, filter, ids);
+            } else {
+                scan(row, firstColumn, lastColumn, filter, ids);
+            }
+        }
+    }
+
+    private void scan(int row, int firstColumn, int lastColumn, Filter filter, Ids ids) {
+        for (int column = firstColumn; column <= lastColumn; column++) {
+            val cell = cells.get(key(row, column));
+            if (cell != null) {
+                cell.scan(filter, ids);
+            }
+        }
+    }
+
+    private int row(double latitude) {
+        return max(0, min(rows - 1, (int) floor((latitude + 90) / cellSize)));
+    }
+
+    private int column(double longitude) {
+        return max(0, min(columns - 1, (int) floor((longitude + 180) / cellSize)));
+    }
+
+    private long key(int row, int column) {
+        return (long) row * columns + column;
+    }
+
+    @Override
+    public String toString() {
+        return "GridIndex{" + "cellSize=" + cellSize + ", size=" + size + ", cells=" + cells.size() + '}';
+    }
+
+    private interface Filter {
+        boolean accept(double latitude, double longitude);
+    }
+
+    private static class Cell {
+        long[] ids = new long[4];
+        double[] latitudes = new double[4], longitudes = new double[4];
+        int size;
+
+        void add(long id, double latitude, double longitude) {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+                latitudes = Arrays.copyOf(latitudes, size * 2);
+                longitudes = Arrays.copyOf(longitudes, size * 2);
+            }
+            ids[size] = id;
+            latitudes[size] = latitude;
+            longitudes[size] = longitude;
+            size++;
+        }
+
+        void scan(Filter filter, Ids result) {
+            for (int i = 0; i < size; i++) {
+                if (filter.accept(latitudes[i], longitudes[i])) {
+                    result.add(ids[i]);
+                }
+            }
+        }
+    }
+
+    private static class Ids {
+        long[] ids = new long[16];
+        int size;
+
+        void add(long id) {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            ids[size++] = id;
+        }
+
+        long[] toArray() {
+            return Arrays.copyOf(ids, size);
+        }
+    }
+}
@@ -0,0 +1,322 @@
+/*
+ * BSD 3-Clause License
+ *
+ * Copyright (c) 2018, Grum Ltd (Romain Gallet)
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ *
+ * Neither the name of Geocalc nor the names of its
+ * contributors may be used to endorse or promote products derived from
+ * this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.grum.geocalc;
+
+import lombok.val;
+
+import static com.grum.geocalc.EarthCalc.EARTH_RADIUS;
+import static java.lang.Math.*;
+
+/**
+ * k-nearest-neighbour search over a fixed set of points.
+ * <p>
+ * Points are turned into unit vectors of the 3D space and organised as a KD-tree. The straight line distance
+ * between two unit vectors (chord) grows with the great circle distance between the points, so the tree answers
+ * great circle queries without any special case around the poles or the antimeridian.
+ * <pre>
+ *     KdTree tree = KdTree.build(latitudes, longitudes);
+ *     int[] nearest = tree.nearest(kew, 10); //indices within latitudes/longitudes, nearest first
+ * </pre>
+ * A tree is immutable once built and can be queried from several threads.
+ */
+public class KdTree {
+
+    private static final int LEAF_SIZE = 8;
+
+    //unit vectors, in tree order
+    private final double[] xs, ys, zs;
+    //index of each point within the arrays the tree was built from
+    private final int[] indices;
+    //split axis of each node, stored at the position of its median
+    private final byte[] axes;
+
+    private KdTree(double[] latitudes, double[] longitudes) {
+        val n = latitudes.length;
+        xs = new double[n];
+        ys = new double[n];
+        zs = new double[n];
+        indices = new int[n];
+        axes = new byte[n];
+
+        for (int i = 0; i < n; i++) {
+            val φ = toRadians(latitudes[i]);
+            val λ = toRadians(longitudes[i]);
+            xs[i] = cos(φ) * cos(λ);
+            ys[i] = cos(φ) * sin(λ);
+            zs[i] = sin(φ);
+            indices[i] = i;
+        }
+
+        build(0, n);
+    }
+
+    /**
+     * Builds a tree of the given points, in O(n log n).
+     *
+     * @param latitudes  decimal degrees
+     * @param longitudes decimal degrees
+     * @return the tree
+     */
+    public static KdTree build(double[] latitudes, double[] longitudes) {
+        if (latitudes.length != longitudes.length) {
+            throw new IllegalArgumentException("Expected as many longitudes as latitudes, got "
+                    + longitudes.length + " and " + latitudes.length);
+        }
+        return new KdTree(latitudes, longitudes);
+    }
+
+    /**
+     * @return number of points in the tree
+     */
+    public int size() {
+        return indices.length;
+    }
+
+    /**
+     * @param point the point to search around
+     * @param k     number of neighbours
+     * @return indices of the (at most) k nearest points, nearest first
+     */
+    public int[] nearest(Point point, int k) {
+        val found = new int[min(k, size())];
+        nearest(point.latitude, point.longitude, found, null);
+        return found;
+    }
+
+    /**
+     * Allocation-free variant, the number of neighbours being given by the size of indices.
+     *
+     * @param latitude  decimal degrees
+     * @param longitude decimal degrees
+     * @param indices   receives the indices of the nearest points, nearest first
+     * @param distances if not null, receives the great circle distances to these points, in meters
+     * @return number of neighbours found, less than indices.length only if the tree has fewer points
+     */
+    public int nearest(double latitude, double longitude, int[] indices, double[] distances) {
+        val k = min(indices.length, size());
+        if (distances != null && distances.length < k) {
+            throw new IllegalArgumentException("Expected room for " + k + " distances, got " + distances.length);
+        }
+        if (k == 0) return 0;
+
+        val φ = toRadians(latitude);
+        val λ = toRadians(longitude);
+        val heap = new Heap(indices, distances == null ? new double[k] : distances, k);
+
+        search(0, size(), cos(φ) * cos(λ), cos(φ) * sin(λ), sin(φ), heap);
+        heap.sort();
+
+        for (int i = 0; i < k; i++) {
+            indices[i] = this.indices[indices[i]];
+            if (distances != null) {
+                //chord length to great circle distance
+                distances[i] = 2 * EARTH_RADIUS * asin(min(1, sqrt(distances[i]) / 2));
+            }
+        }
+
+        return k;
+    }
+
+    private void search(int from, int to, double x, double y, double z, Heap heap) {
+        if (to - from <= LEAF_SIZE) {
+            for (int i = from; i < to; i++) {
+                heap.offer(i, squaredChord(i, x, y, z));
+            }
+            return;
+        }
+
+        val median = (from + to) >>> 1;
+        heap.offer(median, squaredChord(median, x, y, z));
+
+        val axis = axes[median];
+        val Δ = coordinate(axis, x, y, z) - coordinate(axis, median);
+
+        if (Δ < 0) {
+            search(from, median, x, y, z, heap);
+            if (Δ * Δ < heap.worst()) search(median + 1, to, x, y, z, heap);
+        } else {
+            search(median + 1, to, x, y, z, heap);
+            if (Δ * Δ < heap.worst()) search(from, median, x, y, z, heap);
+        }
+    }
+
+    private double squaredChord(int i, double x, double y, double z) {
+        val Δx = xs[i] - x;
+        val Δy = ys[i] - y;
+        val Δz = zs[i] - z;
+        return Δx * Δx + Δy * Δy + Δz * Δz;
+    }
+
+    private double coordinate(int axis, int i) {
+        return axis == 0 ? xs[i] : axis == 1 ? ys[i] : zs[i];
+    }
+
+    private static double coordinate(int axis, double x, double y, double z) {
+        return axis == 0 ? x : axis == 1 ? y : z;
+    }
+
+    private void build(int from, int to) {
+        if (to - from <= LEAF_SIZE) return;
+
+        //split along the widest axis
+        double minX = 1, maxX = -1, minY = 1, maxY = -1, minZ = 1, maxZ = -1;
+        for (int i = from; i < to; i++) {
+            minX = min(minX, xs[i]);
+            maxX = max(maxX, xs[i]);
+            minY = min(minY, ys[i]);
+            maxY = max(maxY, ys[i]);
+            minZ = min(minZ, zs[i]);
+            maxZ = max(maxZ, zs[i]);
+        }
+        val spreadX = maxX - minX;
+        val spreadY = maxY - minY;
+        val spreadZ = maxZ - minZ;
+        val axis = spreadX >= spreadY && spreadX >= spreadZ ? 0 : spreadY >= spreadZ ? 1 : 2;
+
+        val median = (from + to) >>> 1;
+        select(from, to - 1, median, axis);
+        axes[median] = (byte) axis;
+
+        build(from, median);
+        build(median + 1, to);
+    }
+
+    /**
+     * Quickselect, leaves at position k the point that would be there if [left, right] was sorted along axis,
+     * smaller ones before, greater ones after. Partitions three ways, for points sharing a coordinate, down to all
+     * of them, to be set aside at once rather than one per pass.
+     */
+    private void select(int left, int right, int k, int axis) {
+        while (left < right) {
+            val pivot = coordinate(axis, (left + right) >>> 1);
+
+            //[left, lower[ smaller than pivot, [lower, i[ equal, ]upper, right] greater
+            int lower = left, upper = right;
+            for (int i = left; i <= upper; ) {
+                val c = coordinate(axis, i);
+                if (c < pivot) swap(i++, lower++);
+                else if (c > pivot) swap(i, upper--);
+                else i++;
+            }
+
+            if (k < lower) right = lower - 1;
+            else if (k > upper) left = upper + 1;
+            else return;
+        }
+    }
+
+    private void swap(int i, int j) {
+        double t = xs[i];
+        xs[i] = xs[j];
+        xs[j] = t;
+        t = ys[i];
+        ys[i] = ys[j];
+        ys[j] = t;
+        t = zs[i];
+        zs[i] = zs[j];
+        zs[j] = t;
+
+        val index = indices[i];
+        indices[i] = indices[j];
+        indices[j] = index;
+    }
+
+    @Override
+    public String toString() {
+        return "KdTree{" + "size=" + size() + '}';
+    }
+
+    /**
+     * Bounded max-heap of the k nearest points found so far, keyed by squared chord length.
+     */
+    private static class Heap {
+        final int[] nodes;
+        final double[] keys;
+        final int capacity;
+        int size;
+
+        Heap(int[] nodes, double[] keys, int capacity) {
+            this.nodes = nodes;
+            this.keys = keys;
+            this.capacity = capacity;
+        }
+
+        double worst() {
+            return size < capacity ? Double.POSITIVE_INFINITY : keys[0];
+        }
+
+        void offer(int node, double key) {
+            if (size < capacity) {
+                int i = size++;
+                while (i > 0) { //sift up
+                    val parent = (i - 1) >>> 1;
+                    if (keys[parent] >= key) break;
+                    nodes[i] = nodes[parent];
+                    keys[i] = keys[parent];
+                    i = parent;
+                }
+                nodes[i] = node;
+                keys[i] = key;
+            } else if (key < keys[0]) {
+                siftDown(0, node, key, size);
+            }
+        }
+
+        private void siftDown(int i, int node, double key, int size) {
+            while (true) {
+                int child = 2 * i + 1;
+                if (child >= size) break;
+                if (child + 1 < size && keys[child + 1] > keys[child]) child++;
+                if (keys[child] <= key) break;
+                nodes[i] = nodes[child];
+                keys[i] = keys[child];
+                i = child;
+            }
+            nodes[i] = node;
+            keys[i] = key;
+        }
+
+        /**
+         * Sorts in place, nearest first.
+         */
+        void sort() {
+            for (int end = size - 1; end > 0; end--) {
+                val node = nodes[end];
+                val key = keys[end];
+                nodes[end] = nodes[0];
+                keys[end] = keys[0];
+                siftDown(0, node, key, end);
+            }
+        }
+    }
+}
@@ -0,0 +1,242 @@
+/*
+ * BSD 3-Clause License
+ *
+ * Copyright (c) 2018, Grum Ltd (Romain Gallet)
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ *
+ * Neither the name of Geocalc nor the names of its
+ * contributors may be used to endorse or promote products derived from
+ * this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.grum.geocalc;
+
+import static java.lang.Math.*;
+
+/**
+ * Trigonometric functions the closed form formulas of {@link EarthCalc} can be computed with.
+ * <p>
+ * {@link #DEFAULT} is {@link Math}, which is what the formulas use when no kernel is given:
+ * <pre>
+ *     double distance = EarthCalc.haversine.distance(MathKernel.FAST, kew, richmond);
+ * </pre>
+ * Iterative formulas, Vincenty and Karney, always use {@link Math}: their convergence tests are close to the
+ * precision of doubles.
+ */
+public enum MathKernel {
+
+    /**
+     * {@link StrictMath}, giving the same results bit for bit on every platform, usually a bit slower.
+     */
+    STRICT {
+        @Override
+        public double sin(double a) {
+            return StrictMath.sin(a);
+        }
+
+        @Override
+        public double cos(double a) {
+            return StrictMath.cos(a);
+        }
+
+        @Override
+        public double asin(double a) {
+            return StrictMath.asin(a);
+        }
+
+        @Override
+        public double acos(double a) {
+            return StrictMath.acos(a);
+        }
+
+        @Override
+        public double atan2(double y, double x) {
+            return StrictMath.atan2(y, x);
+        }
+    },
+    /**
+     * {@link Math}, within 1 ulp, using the intrinsics of the JVM.
+     */
+    DEFAULT {
+        @Override
+        public double sin(double a) {
+            return Math.sin(a);
+        }
+
+        @Override
+        public double cos(double a) {
+            return Math.cos(a);
+        }
+
+        @Override
+        public double asin(double a) {
+            return Math.asin(a);
+        }
+
+        @Override
+        public double acos(double a) {
+            return Math.acos(a);
+        }
+
+        @Override
+        public double atan2(double y, double x) {
+            return Math.atan2(y, x);
+        }
+    },
+    /**
+     * Polynomial and rational approximations, without the special cases of {@link Math}.
+     * <p>
+     * sin and cos are within 2E-16 of {@link StrictMath} for angles up to ±1E5 radians (beyond, they fall back to
+     * {@link Math}), asin and acos within 5E-16 radians and atan2 within 1E-15 radians, that is a few ulps.
+     * Formulas computed with it are as far from those computed with {@link Math} as these few ulps get magnified:
+     * within 1E-5 meter for distances at Haversine formula, which is ill conditioned for near-antipodal points,
+     * and for equirectangular distances, 0.02 meter at spherical law of cosines, ill conditioned for short
+     * distances, and 1E-8 degree for bearings.
+     */
+    FAST {
+        @Override
+        public double sin(double a) {
+            if (abs(a) > MAX_REDUCED) return Math.sin(a);
+
+            double k = rint(a * TWO_OVER_PI);
+            double r = a - k * PIO2_HI - k * PIO2_LO;
+            switch ((int) k & 3) {
+                case 0:
+                    return sinPolynomial(r);
+                case 1:
+                    return cosPolynomial(r);
+                case 2:
+                    return -sinPolynomial(r);
+                default:
+                    return -cosPolynomial(r);
+            }
+        }
+
+        @Override
+        public double cos(double a) {
+            if (abs(a) > MAX_REDUCED) return Math.cos(a);
+
+            double k = rint(a * TWO_OVER_PI);
+            double r = a - k * PIO2_HI - k * PIO2_LO;
+            switch ((int) k & 3) {
+                case 0:
+                    return cosPolynomial(r);
+                case 1:
+                    return -sinPolynomial(r);
+                case 2:
+                    return -cosPolynomial(r);
+                default:
+                    return sinPolynomial(r);
+            }
+        }
+
+        @Override
+        public double asin(double a) {
+            return atan2(a, sqrt((1 - a) * (1 + a)));
+        }
+
+        @Override
+        public double acos(double a) {
+            return atan2(sqrt((1 - a) * (1 + a)), a);
+        }
+
+        @Override
+        public double atan2(double y, double x) {
+            double ay = abs(y);
+            double ax = abs(x);
+            if (ax == 0 && ay == 0 || x != x || y != y) return Math.atan2(y, x);
+
+            //atan of the smaller over the larger, within [0, 1]
+            double θ = ay <= ax ? atan(ay / ax) : PI / 2 - atan(ax / ay);
+
+            if (x < 0) θ = PI - θ;
+            return y < 0 || y == 0 && 1 / y < 0 ? -θ : θ;
+        }
+    };
+
+    //|a| beyond which sin and cos are not reduced accurately enough by two parts of π/2
+    private static final double MAX_REDUCED = 1E5;
+    private static final double TWO_OVER_PI = 2 / PI;
+    private static final double PIO2_HI = 1.57079632673412561417e+00; //first 33 bits of π/2
+    private static final double PIO2_LO = 6.07710050650619224932e-11; //π/2 - PIO2_HI
+
+    /**
+     * @param a angle, in radians
+     * @return the sine of a
+     */
+    public abstract double sin(double a);
+
+    /**
+     * @param a angle, in radians
+     * @return the cosine of a
+     */
+    public abstract double cos(double a);
+
+    /**
+     * @param a within [-1, 1]
+     * @return the arc sine of a, in radians
+     */
+    public abstract double asin(double a);
+
+    /**
+     * @param a within [-1, 1]
+     * @return the arc cosine of a, in radians
+     */
+    public abstract double acos(double a);
+
+    /**
+     * @return the angle of (x, y), in radians within [-π, π]
+     */
+    public abstract double atan2(double y, double x);
+
+    //minimax polynomials over [-π/4, π/4], from fdlibm
+    private static double sinPolynomial(double r) {
+        double z = r * r;
+        return r + r * z * (-1.66666666666666324348e-01 + z * (8.33333333332248946124e-03 + z * (-1.98412698298579493134e-04
+                + z * (2.75573137070700676789e-06 + z * (-2.50507602534068634195e-08 + z * 1.58969099521155010221e-10)))));
+    }
+
+    private static double cosPolynomial(double r) {
+        double z = r * r;
+        return 1 - z / 2 + z * z * (4.16666666666666019037e-02 + z * (-1.38888888888741095749e-03 + z * (2.48015872894767294178e-05
+                + z * (-2.75573143513906633035e-07 + z * (2.08757232129817482790e-09 + z * -1.13596475577881948265e-11)))));
+    }
+
+    //arc tangent of x within [0, 1], as a rational function of x², from Cephes
+    private static double atan(double x) {
+        double offset = 0;
+        if (x > 0.66) { //atan(x) = π/4 + atan((x - 1) / (x + 1))
+            offset = PI / 4;
+            x = (x - 1) / (x + 1);
+        }
+
+        double z = x * x;
+        double p = (((-8.750608600031904122785e-01 * z - 1.615753718733365076637e+01) * z - 7.500855792314704667340e+01) * z
+                - 1.228866684490136173410e+02) * z - 6.485021904942025371773e+01;
+        double q = ((((z + 2.485846490142306297962e+01) * z + 1.650270098316988542046e+02) * z + 4.328810604912902668951e+02) * z
+                + 4.853903996359136964868e+02) * z + 1.945506571482613964425e+02;
+
+        return offset + (x + x * z * p / q);
+    }
+}
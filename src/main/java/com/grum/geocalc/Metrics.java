@@ -0,0 +1,159 @@
+/*
+ * BSD 3-Clause License
+ *
+ * Copyright (c) 2018, Grum Ltd (Romain Gallet)
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ *
+ * Neither the name of Geocalc nor the names of its
+ * contributors may be used to endorse or promote products derived from
+ * this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.grum.geocalc;
+
+import java.util.Objects;
+
+/**
+ * Hooks the {@link EarthCalc} calculators report to, for instance to watch how long Vincenty iterates in production.
+ * <p>
+ * Nothing is reported until an implementation is installed, and the calculators then only pay for reading a
+ * volatile field. {@link CountingMetrics} counts everything with {@link java.util.concurrent.atomic.LongAdder}s
+ * and exports it to any metrics backend:
+ * <pre>
+ *     CountingMetrics metrics = CountingMetrics.sampling(1000); //latency of 1 call in 1000
+ *     Metrics.install(metrics);
+ *     ...
+ *     metrics.export(exporter);
+ * </pre>
+ * Implementations are called from every thread computing with {@link EarthCalc}, and must be thread safe.
+ * Every hook does nothing by default.
+ */
+public abstract class Metrics {
+
+    /**
+     * Reports nothing, installed by default.
+     */
+    public static final Metrics NOOP = new Metrics() {
+    };
+
+    private static final long NOT_SAMPLED = Long.MIN_VALUE;
+
+    private static volatile Metrics installed = NOOP;
+
+    /**
+     * Replaces the metrics every calculator reports to.
+     *
+     * @param metrics the metrics, {@link #NOOP} to stop reporting
+     */
+    public static void install(Metrics metrics) {
+        installed = Objects.requireNonNull(metrics, "metrics");
+    }
+
+    /**
+     * @return the metrics calculators currently report to
+     */
+    public static Metrics installed() {
+        return installed;
+    }
+
+    /**
+     * Computations the calculators report.
+     */
+    public enum Operation {
+        GCD_DISTANCE("gcd.distance"),
+        GCD_BEARING("gcd.bearing"),
+        GCD_MID_POINT("gcd.midPoint"),
+        GCD_POINT_AT("gcd.pointAt"),
+        HAVERSINE_DISTANCE("haversine.distance"),
+        EQUIRECTANGULAR_DISTANCE("equirectangular.distance"),
+        /**
+         * Distance and bearings at Vincenty formula, whichever of them is asked for.
+         */
+        VINCENTY_INVERSE("vincenty.inverse"),
+        /**
+         * Point at a distance and bearing, at Vincenty formula, whose iterations are not reported.
+         */
+        VINCENTY_DIRECT("vincenty.direct"),
+        /**
+         * Distance and bearings along the geodesic, whichever of them is asked for.
+         */
+        KARNEY_INVERSE("karney.inverse"),
+        KARNEY_DIRECT("karney.direct");
+
+        /**
+         * Dotted name, calculator first.
+         */
+        public final String metricName;
+
+        Operation(String metricName) {
+            this.metricName = metricName;
+        }
+    }
+
+    /**
+     * Called once per computation, before it starts.
+     */
+    protected void called(Operation operation) {
+    }
+
+    /**
+     * @return true to have the latency of this computation measured and reported to {@link #latency}
+     */
+    protected boolean sampled(Operation operation) {
+        return false;
+    }
+
+    /**
+     * Called after a sampled computation completed normally.
+     *
+     * @param nanos elapsed time, in nanoseconds
+     */
+    protected void latency(Operation operation, long nanos) {
+    }
+
+    /**
+     * Called when Vincenty formula converged, including from {@link PreparedPoint} and {@link TrackAccumulator}.
+     *
+     * @param iterations number of iterations it took, within [1, 100]
+     */
+    protected void vincentyConverged(int iterations) {
+    }
+
+    /**
+     * Called when Vincenty formula failed to converge, right before the {@link IllegalStateException} is thrown.
+     */
+    protected void vincentyFailed() {
+    }
+
+    final long start(Operation operation) {
+        called(operation);
+        return sampled(operation) ? System.nanoTime() : NOT_SAMPLED;
+    }
+
+    final void stop(Operation operation, long start) {
+        if (start != NOT_SAMPLED) {
+            latency(operation, System.nanoTime() - start);
+        }
+    }
+}
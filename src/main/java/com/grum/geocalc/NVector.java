@@ -0,0 +1,266 @@
+/*
+ * BSD 3-Clause License
+ *
+ * Copyright (c) 2018, Grum Ltd (Romain Gallet)
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ *
+ * Neither the name of Geocalc nor the names of its
+ * contributors may be used to endorse or promote products derived from
+ * this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.grum.geocalc;
+
+import lombok.val;
+
+import java.util.Collection;
+
+import static com.grum.geocalc.EarthCalc.EARTH_RADIUS;
+import static java.lang.Math.*;
+
+/**
+ * A point as the unit vector normal to the sphere, from the centre of the Earth: x towards latitude and longitude 0,
+ * y towards longitude 90 and z towards the North Pole.
+ * <p>
+ * Points are converted once, after which distances, bearings and midpoints are dot and cross products and a single
+ * arc tangent, with no conversion to radians nor sine or cosine of the points, and accurate at every distance:
+ * <pre>
+ *     NVector kew = NVector.of(Point.at(51.4843774, -0.2912044));
+ *     NVector richmond = NVector.of(51.4613418, -0.3035466);
+ *     double distance = kew.distance(richmond); //in meters
+ * </pre>
+ * Many points can be converted at once into an array of vectors, x, y and z one after the other, for repeated
+ * work over the same points, such as every distance between them:
+ * <pre>
+ *     double[] vectors = NVector.toVectors(latitudes, longitudes);
+ *     double distance = NVector.distance(vectors, i, j);
+ * </pre>
+ * Distances are measured on the sphere, as {@link EarthCalc.gcd} does. Instances are immutable and can be used from
+ * several threads.
+ */
+public final class NVector {
+
+    public final double x, y, z;
+
+    private NVector(double x, double y, double z) {
+        this.x = x;
+        this.y = y;
+        this.z = z;
+    }
+
+    /**
+     * @param point the point to convert
+     * @return its vector
+     */
+    public static NVector of(Point point) {
+        return of(point.latitude, point.longitude);
+    }
+
+    /**
+     * @param latitude  in decimal degrees
+     * @param longitude in decimal degrees
+     * @return the vector of the point
+     */
+    public static NVector of(double latitude, double longitude) {
+        val vector = new double[3];
+        EarthCalc.gcd.toVector(latitude, longitude, vector);
+        return new NVector(vector[0], vector[1], vector[2]);
+    }
+
+    /**
+     * @param latitudes  Latitudes of the points, in decimal degrees
+     * @param longitudes Longitudes of the points, in decimal degrees
+     * @return the vectors of the points, x, y and z one after the other
+     */
+    public static double[] toVectors(double[] latitudes, double[] longitudes) {
+        val vectors = new double[3 * latitudes.length];
+        toVectors(latitudes, longitudes, vectors);
+        return vectors;
+    }
+
+    /**
+     * @param latitudes  Latitudes of the points, in decimal degrees
+     * @param longitudes Longitudes of the points, in decimal degrees
+     * @param vectors    receives the vectors of the points, x, y and z one after the other
+     */
+    public static void toVectors(double[] latitudes, double[] longitudes, double[] vectors) {
+        if (longitudes.length != latitudes.length || vectors.length < 3L * latitudes.length) {
+            throw new IllegalArgumentException("Expected " + latitudes.length + " longitudes and room for "
+                    + 3L * latitudes.length + " values, got " + longitudes.length + " and " + vectors.length);
+        }
+        for (int i = 0; i < latitudes.length; i++) {
+            EarthCalc.gcd.toVector(latitudes[i], longitudes[i], vectors, 3 * i);
+        }
+    }
+
+    /**
+     * @return the point, latitude within [-90, 90] and longitude within ]-180, 180] decimal degrees
+     */
+    public Point toPoint() {
+        return Point.at(toDegrees(atan2(z, sqrt(x * x + y * y))), toDegrees(atan2(y, x)));
+    }
+
+    /**
+     * @param other the fore point
+     * @return the distance along the great circle path, in meters
+     */
+    public double distance(NVector other) {
+        return distance(x, y, z, other.x, other.y, other.z);
+    }
+
+    /**
+     * @param other the fore point
+     * @return (azimuth) bearing along the great circle path, in decimal degrees within [0, 360[
+     */
+    public double bearing(NVector other) {
+        return bearing(x, y, z, other.x, other.y, other.z);
+    }
+
+    /**
+     * @param other the fore point
+     * @return the half-way point along the great circle path
+     * @throws IllegalArgumentException if the points are antipodal, every great circle going through both
+     */
+    public NVector midPoint(NVector other) {
+        val mid = normalise(x + other.x, y + other.y, z + other.z);
+        if (mid == null) {
+            throw new IllegalArgumentException("Antipodal points have no single midpoint, got " + this + " and " + other);
+        }
+        return mid;
+    }
+
+    /**
+     * The point closest to all others on average, the mean of the vectors brought back to the sphere.
+     *
+     * @param vectors points to average, at least one
+     * @return the centroid
+     * @throws IllegalArgumentException if the points are spread evenly around the Earth, such as 2 antipodal ones
+     */
+    public static NVector centroid(Collection<NVector> vectors) {
+        double x = 0, y = 0, z = 0;
+        for (val vector : vectors) {
+            x += vector.x;
+            y += vector.y;
+            z += vector.z;
+        }
+        val centroid = normalise(x, y, z);
+        if (centroid == null) {
+            throw new IllegalArgumentException("Points spread evenly around the Earth have no centroid, got " + vectors.size() + " points");
+        }
+        return centroid;
+    }
+
+    /**
+     * @param vectors vectors of the points, x, y and z one after the other
+     * @return the centroid
+     * @see #centroid(Collection)
+     */
+    public static NVector centroid(double[] vectors) {
+        checkVectors(vectors);
+        double x = 0, y = 0, z = 0;
+        for (int i = 0; i < vectors.length; i += 3) {
+            x += vectors[i];
+            y += vectors[i + 1];
+            z += vectors[i + 2];
+        }
+        val centroid = normalise(x, y, z);
+        if (centroid == null) {
+            throw new IllegalArgumentException("Points spread evenly around the Earth have no centroid, got " + vectors.length / 3 + " points");
+        }
+        return centroid;
+    }
+
+    /**
+     * @param vectors vectors of the points, x, y and z one after the other
+     * @param i       index of the stand point
+     * @param j       index of the fore point
+     * @return the distance along the great circle path, in meters
+     */
+    public static double distance(double[] vectors, int i, int j) {
+        return distance(vectors[3 * i], vectors[3 * i + 1], vectors[3 * i + 2], vectors[3 * j], vectors[3 * j + 1], vectors[3 * j + 2]);
+    }
+
+    /**
+     * @param vectors vectors of the points, x, y and z one after the other
+     * @param i       index of the stand point
+     * @param j       index of the fore point
+     * @return (azimuth) bearing along the great circle path, in decimal degrees within [0, 360[
+     */
+    public static double bearing(double[] vectors, int i, int j) {
+        return bearing(vectors[3 * i], vectors[3 * i + 1], vectors[3 * i + 2], vectors[3 * j], vectors[3 * j + 1], vectors[3 * j + 2]);
+    }
+
+    /**
+     * One row of the distances between every point, a few multiplications and an arc tangent each.
+     *
+     * @param vectors   vectors of the points, x, y and z one after the other
+     * @param i         index of the stand point
+     * @param distances receives the distance from the stand point to every point, in meters
+     */
+    public static void distances(double[] vectors, int i, double[] distances) {
+        checkVectors(vectors);
+        val n = vectors.length / 3;
+        if (distances.length < n) {
+            throw new IllegalArgumentException("Expected room for " + n + " distances, got " + distances.length);
+        }
+        val ax = vectors[3 * i];
+        val ay = vectors[3 * i + 1];
+        val az = vectors[3 * i + 2];
+        for (int j = 0, k = 0; j < n; j++, k += 3) {
+            distances[j] = distance(ax, ay, az, vectors[k], vectors[k + 1], vectors[k + 2]);
+        }
+    }
+
+    //atan2 of the sine and cosine of the angle, accurate at every distance unlike either alone
+    private static double distance(double ax, double ay, double az, double bx, double by, double bz) {
+        val cx = ay * bz - az * by;
+        val cy = az * bx - ax * bz;
+        val cz = ax * by - ay * bx;
+        return EARTH_RADIUS * atan2(sqrt(cx * cx + cy * cy + cz * cz), ax * bx + ay * by + az * bz);
+    }
+
+    //the fore point against the directions towards east, (-y, x, 0), and north, (-zx, -zy, x² + y²), both cos φ long
+    private static double bearing(double ax, double ay, double az, double bx, double by, double bz) {
+        val east = ax * by - ay * bx;
+        val north = (ax * ax + ay * ay) * bz - az * (ax * bx + ay * by);
+        return toDegrees((atan2(east, north) + 2 * PI) % (2 * PI));
+    }
+
+    private static void checkVectors(double[] vectors) {
+        if (vectors.length % 3 != 0) {
+            throw new IllegalArgumentException("Expected x, y and z for every point, got " + vectors.length + " values");
+        }
+    }
+
+    //null if the vector is too short to tell a direction
+    private static NVector normalise(double x, double y, double z) {
+        val norm = sqrt(x * x + y * y + z * z);
+        return norm > 1e-12 ? new NVector(x / norm, y / norm, z / norm) : null;
+    }
+
+    @Override
+    public String toString() {
+        return "NVector{" + "x=" + x + ", y=" + y + ", z=" + z + '}';
+    }
+}
@@ -63,6 +63,17 @@ public class Point implements Serializable {
         return new Point(latitude.degrees(), longitude.degrees());
     }
 
+    /**
+     * Create a new Point, without going through {@link Coordinate}.
+     *
+     * @param latitude  latitude, in decimal degrees
+     * @param longitude longitude, in decimal degrees
+     * @return the point
+     */
+    public static Point at(double latitude, double longitude) {
+        return new Point(latitude, longitude);
+    }
+
     @Override
     public String toString() {
         return "Point{" + "latitude=" + latitude + ", longitude=" + longitude + '}';
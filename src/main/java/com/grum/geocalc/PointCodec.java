@@ -0,0 +1,232 @@
+/*
+ * BSD 3-Clause License
+ *
+ * Copyright (c) 2018, Grum Ltd (Romain Gallet)
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ *
+ * Neither the name of Geocalc nor the names of its
+ * contributors may be used to endorse or promote products derived from
+ * this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.grum.geocalc;
+
+import lombok.val;
+import lombok.var;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Compact binary formats for points, bounding areas and tracks, read from and written to {@link ByteBuffer}s
+ * in the byte order of the buffer.
+ * <ul>
+ * <li>points as 2 doubles, latitude then longitude, in {@value #POINT_BYTES} bytes, as read by {@link PointFiles}</li>
+ * <li>points as 2 ints of 1e-7 degree (about a centimeter), in {@value #FIXED_POINT_BYTES} bytes</li>
+ * <li>bounding areas as their north east then south west corners, in {@value #AREA_BYTES} bytes</li>
+ * <li>tracks as a count followed by deltas of 1e-7 degree between consecutive points, zigzag and varint encoded,
+ * typically 4 to 6 bytes a point for GPS fixes a few seconds apart</li>
+ * </ul>
+ * Writing past the limit of a buffer throws {@link java.nio.BufferOverflowException}, reading past it
+ * {@link java.nio.BufferUnderflowException}, as with the buffer's own methods.
+ */
+public class PointCodec {
+
+    public static final int POINT_BYTES = 16;
+    public static final int FIXED_POINT_BYTES = 8;
+    public static final int AREA_BYTES = 32;
+
+    //fixed point unit, in degrees
+    private static final double SCALE = 1e7;
+    private static final long FULL_TURN = 360 * (long) SCALE, HALF_TURN = 180 * (long) SCALE;
+
+    private PointCodec() {
+    }
+
+    /**
+     * @param buffer receives the point, in {@value #POINT_BYTES} bytes
+     * @param point  point to write
+     */
+    public static void writePoint(ByteBuffer buffer, Point point) {
+        buffer.putDouble(point.latitude).putDouble(point.longitude);
+    }
+
+    /**
+     * @param buffer holds a point written by {@link #writePoint(ByteBuffer, Point)}
+     * @return the point
+     */
+    public static Point readPoint(ByteBuffer buffer) {
+        val latitude = buffer.getDouble();
+        return new Point(latitude, buffer.getDouble());
+    }
+
+    /**
+     * Writes a point to the nearest 1e-7 degree.
+     *
+     * @param buffer receives the point, in {@value #FIXED_POINT_BYTES} bytes
+     * @param point  point to write, longitude within [-180, 180]
+     */
+    public static void writeFixedPoint(ByteBuffer buffer, Point point) {
+        buffer.putInt(toFixed(point.latitude, 90)).putInt(toFixed(point.longitude, 180));
+    }
+
+    /**
+     * @param buffer holds a point written by {@link #writeFixedPoint(ByteBuffer, Point)}
+     * @return the point
+     */
+    public static Point readFixedPoint(ByteBuffer buffer) {
+        val latitude = buffer.getInt() / SCALE;
+        return new Point(latitude, buffer.getInt() / SCALE);
+    }
+
+    /**
+     * @param buffer receives the area, in {@value #AREA_BYTES} bytes
+     * @param area   area to write
+     */
+    public static void writeArea(ByteBuffer buffer, BoundingArea area) {
+        writePoint(buffer, area.northEast);
+        writePoint(buffer, area.southWest);
+    }
+
+    /**
+     * @param buffer holds an area written by {@link #writeArea(ByteBuffer, BoundingArea)}
+     * @return the area
+     */
+    public static BoundingArea readArea(ByteBuffer buffer) {
+        val northEast = readPoint(buffer);
+        return BoundingArea.at(northEast, readPoint(buffer));
+    }
+
+    /**
+     * Writes a track to the nearest 1e-7 degree, each point as its difference to the previous one.
+     * Longitude differences go the short way across the antimeridian, so that crossing it costs no more than
+     * any other step; a longitude of 180 may then be read back as -180, and conversely.
+     *
+     * @param buffer     receives the track, see {@link #maxTrackBytes(int)}
+     * @param latitudes  Latitudes of the points, in decimal degrees
+     * @param longitudes Longitudes of the points, in decimal degrees, within [-180, 180]
+     */
+    public static void writeTrack(ByteBuffer buffer, double[] latitudes, double[] longitudes) {
+        if (latitudes.length != longitudes.length) {
+            throw new IllegalArgumentException("Expected " + latitudes.length + " longitudes, got " + longitudes.length);
+        }
+
+        writeVarint(buffer, latitudes.length);
+
+        long latitude = 0, longitude = 0;
+        for (int i = 0; i < latitudes.length; i++) {
+            val nextLatitude = toFixed(latitudes[i], 90);
+            val nextLongitude = toFixed(longitudes[i], 180);
+
+            writeVarint(buffer, zigzag(nextLatitude - latitude));
+            writeVarint(buffer, zigzag(wrap(nextLongitude - longitude)));
+
+            latitude = nextLatitude;
+            longitude = nextLongitude;
+        }
+    }
+
+    /**
+     * @param buffer holds a track written by {@link #writeTrack(ByteBuffer, double[], double[])}, left untouched
+     * @return the number of points of the track
+     */
+    public static int trackLength(ByteBuffer buffer) {
+        return (int) readVarint(buffer.duplicate());
+    }
+
+    /**
+     * @param buffer     holds a track written by {@link #writeTrack(ByteBuffer, double[], double[])}
+     * @param latitudes  Receives the latitudes of the points, needs room for {@link #trackLength(ByteBuffer)} of them
+     * @param longitudes Receives the longitudes of the points, same length as latitudes
+     * @return the number of points read
+     */
+    public static int readTrack(ByteBuffer buffer, double[] latitudes, double[] longitudes) {
+        val length = trackLength(buffer);
+        if (latitudes.length < length || longitudes.length < length) {
+            throw new IllegalArgumentException("Expected room for " + length + " points, got " + latitudes.length
+                    + " latitudes and " + longitudes.length + " longitudes");
+        }
+        readVarint(buffer);
+
+        long latitude = 0, longitude = 0;
+        for (int i = 0; i < length; i++) {
+            latitude += unzigzag(readVarint(buffer));
+            longitude = wrap(longitude + unzigzag(readVarint(buffer)));
+
+            latitudes[i] = latitude / SCALE;
+            longitudes[i] = longitude / SCALE;
+        }
+        return length;
+    }
+
+    /**
+     * @param length number of points of a track
+     * @return the largest number of bytes the track can be written into
+     */
+    public static int maxTrackBytes(int length) {
+        return 5 + length * (5 + 5);
+    }
+
+    private static int toFixed(double degrees, int bound) {
+        if (!(degrees >= -bound && degrees <= bound)) {
+            throw new IllegalArgumentException("Expected decimal degrees within [-" + bound + ", " + bound + "], got " + degrees);
+        }
+        return (int) Math.round(degrees * SCALE);
+    }
+
+    //a longitude difference, going the short way around
+    private static long wrap(long Δλ) {
+        if (Δλ > HALF_TURN) return Δλ - FULL_TURN;
+        if (Δλ < -HALF_TURN) return Δλ + FULL_TURN;
+        return Δλ;
+    }
+
+    //small magnitudes to small unsigned values, whatever their sign
+    private static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unzigzag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private static void writeVarint(ByteBuffer buffer, long value) {
+        while ((value & ~0x7FL) != 0) {
+            buffer.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        buffer.put((byte) value);
+    }
+
+    private static long readVarint(ByteBuffer buffer) {
+        var value = 0L;
+        for (int shift = 0; shift < 64; shift += 7) {
+            val b = buffer.get();
+            value |= (long) (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("Malformed varint");
+    }
+}
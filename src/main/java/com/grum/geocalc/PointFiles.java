@@ -0,0 +1,325 @@
+/*
+ * BSD 3-Clause License
+ *
+ * Copyright (c) 2018, Grum Ltd (Romain Gallet)
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ *
+ * Neither the name of Geocalc nor the names of its
+ * contributors may be used to endorse or promote products derived from
+ * this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.grum.geocalc;
+
+import lombok.val;
+import lombok.var;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Streams points out of files, by chunks of latitude and longitude columns, without creating any {@link Point}.
+ * <p>
+ * Chunks can be handed over as they are to the columnar methods of the library, so files larger than the heap
+ * can be processed at disk speed:
+ * <pre>
+ *     PreparedPoint kew = EarthCalc.prepare(Point.at(...));
+ *     double[] distances = new double[4096];
+ *
+ *     PointFiles.readBinary(path, ByteOrder.BIG_ENDIAN, 4096, (latitudes, longitudes) -&gt; {
+ *         kew.haversine.distances(latitudes, longitudes, distances);
+ *         ...
+ *     });
+ * </pre>
+ * Chunk arrays are reused from one call to the next, apart from the last chunk which is sized to what is left.
+ */
+public class PointFiles {
+
+    //largest window mapped at once, a multiple of the record size
+    private static final long WINDOW_SIZE = 1L << 30;
+    private static final int RECORD_SIZE = 16;
+
+    //doubles made of at most that many digits, and a power of ten in the same range, are exact
+    private static final int EXACT_DIGITS = 15;
+    private static final double[] POWERS_OF_TEN = {1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10,
+            1e11, 1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22};
+
+    private PointFiles() {
+    }
+
+    /**
+     * Receives consecutive chunks of points, latitudes[i] and longitudes[i] being the coordinates of a point.
+     */
+    public interface ChunkConsumer {
+        void accept(double[] latitudes, double[] longitudes) throws IOException;
+    }
+
+    /**
+     * Reads a file of fixed-width records, each being the latitude then the longitude of a point,
+     * as 8 bytes IEEE 754 doubles in decimal degrees. The file is memory-mapped, 1GB at a time.
+     *
+     * @param file      the file
+     * @param order     byte order of the doubles, big-endian being the one of {@link java.io.DataOutputStream}
+     * @param chunkSize maximum number of points per chunk
+     * @param consumer  receives the chunks
+     * @return number of points read
+     * @throws IOException if the file cannot be read, or its size is not a multiple of 16 bytes
+     */
+    public static long readBinary(Path file, ByteOrder order, int chunkSize, ChunkConsumer consumer) throws IOException {
+        checkChunkSize(chunkSize);
+
+        try (val channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            val size = channel.size();
+            if (size % RECORD_SIZE != 0) {
+                throw new IOException("Size of " + file + " is not a multiple of " + RECORD_SIZE + " bytes: " + size);
+            }
+
+            val chunk = new Chunk(chunkSize, consumer);
+            for (long position = 0; position < size; position += WINDOW_SIZE) {
+                val window = channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(WINDOW_SIZE, size - position));
+                window.order(order);
+
+                for (int offset = 0; offset < window.limit(); offset += RECORD_SIZE) {
+                    chunk.add(window.getDouble(offset), window.getDouble(offset + 8));
+                }
+            }
+
+            return chunk.flush();
+        }
+    }
+
+    /**
+     * Reads a text file of one point per line, latitude first then longitude, in decimal degrees.
+     * Further columns are ignored, as are blank lines. Only US-ASCII numbers are understood,
+     * eg. -34.6099998 or 1.5E-3.
+     *
+     * @param file      the file
+     * @param separator column separator, eg. ',' or '\t'
+     * @param header    whether the first line is a header, to be skipped
+     * @param chunkSize maximum number of points per chunk
+     * @param consumer  receives the chunks
+     * @return number of points read
+     * @throws IOException if the file cannot be read, or a line is malformed
+     */
+    public static long readCsv(Path file, char separator, boolean header, int chunkSize, ChunkConsumer consumer) throws IOException {
+        checkChunkSize(chunkSize);
+
+        try (val channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            val buffer = ByteBuffer.allocate(1 << 20);
+            val bytes = buffer.array();
+            val chunk = new Chunk(chunkSize, consumer);
+            val parser = new LineParser(bytes, (byte) separator);
+
+            var skip = header;
+            var line = 0L;
+            var eof = false;
+
+            while (!eof) {
+                eof = channel.read(buffer) < 0;
+                val limit = buffer.position();
+
+                int start = 0;
+                for (int i = 0; i < limit; i++) {
+                    if (bytes[i] == '\n') {
+                        line++;
+                        if (!skip) parser.parse(start, i, line, chunk);
+                        skip = false;
+                        start = i + 1;
+                    }
+                }
+
+                if (eof) {
+                    if (start < limit && !skip) parser.parse(start, limit, line + 1, chunk);
+                } else if (start == 0 && limit == bytes.length) {
+                    throw new IOException("Line " + (line + 1) + " is longer than " + bytes.length + " bytes");
+                }
+
+                //keeps the incomplete line for the next read
+                System.arraycopy(bytes, start, bytes, 0, limit - start);
+                buffer.position(limit - start);
+            }
+
+            return chunk.flush();
+        }
+    }
+
+    private static void checkChunkSize(int chunkSize) {
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("Chunk size must be positive, got " + chunkSize);
+        }
+    }
+
+    private static class Chunk {
+        final ChunkConsumer consumer;
+        final double[] latitudes, longitudes;
+        int size;
+        long total;
+
+        Chunk(int chunkSize, ChunkConsumer consumer) {
+            this.consumer = consumer;
+            latitudes = new double[chunkSize];
+            longitudes = new double[chunkSize];
+        }
+
+        void add(double latitude, double longitude) throws IOException {
+            latitudes[size] = latitude;
+            longitudes[size] = longitude;
+
+            if (++size == latitudes.length) {
+                consumer.accept(latitudes, longitudes);
+                total += size;
+                size = 0;
+            }
+        }
+
+        long flush() throws IOException {
+            if (size > 0) {
+                consumer.accept(Arrays.copyOf(latitudes, size), Arrays.copyOf(longitudes, size));
+                total += size;
+                size = 0;
+            }
+            return total;
+        }
+    }
+
+    /**
+     * Parses the first two columns of a line straight from the bytes of the file.
+     */
+    private static class LineParser {
+        final byte[] bytes;
+        final byte separator;
+        int position;
+
+        LineParser(byte[] bytes, byte separator) {
+            this.bytes = bytes;
+            this.separator = separator;
+        }
+
+        void parse(int from, int to, long line, Chunk chunk) throws IOException {
+            if (to > from && bytes[to - 1] == '\r') to--;
+            if (isBlank(from, to)) return;
+
+            position = from;
+            val latitude = number(to, line);
+            if (position >= to || bytes[position] != separator) {
+                throw malformed(from, to, line);
+            }
+            position++;
+            val longitude = number(to, line);
+            if (position < to && bytes[position] != separator) {
+                throw malformed(from, to, line);
+            }
+
+            chunk.add(latitude, longitude);
+        }
+
+        private boolean isBlank(int from, int to) {
+            for (int i = from; i < to; i++) {
+                if (bytes[i] != ' ' && bytes[i] != '\t') return false;
+            }
+            return true;
+        }
+
+        /**
+         * Reads a number from position, up to the next separator or to.
+         */
+        private double number(int to, long line) throws IOException {
+            while (position < to && bytes[position] == ' ') position++;
+            val start = position;
+
+            var negative = false;
+            if (position < to && (bytes[position] == '-' || bytes[position] == '+')) {
+                negative = bytes[position++] == '-';
+            }
+
+            long mantissa = 0;
+            int digits = 0, scale = 0, exponent = 0;
+            var dot = false;
+            var anyDigit = false;
+            for (; position < to; position++) {
+                val b = bytes[position];
+                if (b >= '0' && b <= '9') {
+                    anyDigit = true;
+                    if (digits < 18) {
+                        mantissa = mantissa * 10 + (b - '0');
+                        if (mantissa != 0) digits++;
+                        if (dot) scale++;
+                    } else if (!dot) {
+                        exponent++; //drops digits beyond what a long holds
+                    }
+                } else if (b == '.' && !dot) {
+                    dot = true;
+                } else {
+                    break;
+                }
+            }
+
+            if (!anyDigit) throw malformed(start, to, line);
+
+            if (position < to && (bytes[position] == 'e' || bytes[position] == 'E')) {
+                position++;
+                var negativeExponent = false;
+                if (position < to && (bytes[position] == '-' || bytes[position] == '+')) {
+                    negativeExponent = bytes[position++] == '-';
+                }
+                int e = 0;
+                val exponentStart = position;
+                for (; position < to && bytes[position] >= '0' && bytes[position] <= '9'; position++) {
+                    e = Math.min(e * 10 + (bytes[position] - '0'), 1000);
+                }
+                if (position == exponentStart) throw malformed(start, to, line);
+                exponent += negativeExponent ? -e : e;
+            }
+
+            val end = position;
+            while (position < to && bytes[position] == ' ') position++;
+
+            double value;
+            val power = exponent - scale;
+            if (digits <= EXACT_DIGITS && power >= -22 && power <= 22) {
+                //both operands are exact, the result is correctly rounded
+                value = power < 0 ? mantissa / POWERS_OF_TEN[-power] : mantissa * POWERS_OF_TEN[power];
+            } else {
+                try {
+                    value = Double.parseDouble(new String(bytes, start, end - start, StandardCharsets.US_ASCII));
+                } catch (NumberFormatException e) {
+                    throw malformed(start, to, line);
+                }
+                return value;
+            }
+
+            return negative ? -value : value;
+        }
+
+        private IOException malformed(int from, int to, long line) {
+            return new IOException("Malformed coordinates at line " + line + ": " + new String(bytes, from, to - from, StandardCharsets.US_ASCII));
+        }
+    }
+}
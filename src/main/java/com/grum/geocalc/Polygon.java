@@ -0,0 +1,436 @@
+/*
+ * BSD 3-Clause License
+ *
+ * Copyright (c) 2018, Grum Ltd (Romain Gallet)
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ *
+ * Neither the name of Geocalc nor the names of its
+ * contributors may be used to endorse or promote products derived from
+ * this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.grum.geocalc;
+
+import lombok.val;
+import lombok.var;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.stream.IntStream;
+
+import static java.lang.Math.*;
+
+/**
+ * A polygon whose edges are great circle segments, prepared for repeated point in polygon checks, for instance
+ * assigning positions to delivery zones.
+ * <p>
+ * A point is inside when the meridian going from it to the North Pole crosses the edges an odd number of times.
+ * Edges are registered in longitude strips, so a check only looks at the edges of the strip of the point: those
+ * going across the whole strip are sorted by latitude, and the ones above the point are counted at once.
+ * <pre>
+ *     Polygon zone = Polygon.of(latitudes, longitudes);
+ *     boolean inside = zone.contains(51.47, -0.29);
+ * </pre>
+ * Edges go the shorter way, which may be across the antimeridian. A ring going around a pole contains the pole
+ * on its smaller side, either way round, and a ring may go through a pole, as polygons cut along the antimeridian
+ * do. Points right on an edge may be found either inside or outside.
+ * A polygon is immutable once built and can be checked from several threads.
+ */
+public class Polygon {
+
+    //margin around the strips and latitudes of edges, in decimal degrees
+    private static final double ε = 1e-9;
+
+    private final int vertices;
+    //normals to the planes of the great circles of the edges
+    private final double[] nx, ny, nz;
+    private final BoundingArea envelope;
+    //longitudes are taken eastwards from west, the first strip starting there
+    private final double west, width, stripWidth;
+    private final int strips;
+    private final boolean northPole;
+
+    //edges ending within each strip, along with their longitudes
+    private final int[] partialFrom, partialEdges;
+    private final double[] partialWest, partialEast;
+    //edges going across each strip, by lowest latitude within it, along with the highest latitude so far
+    private final int[] fullFrom, fullEdges;
+    private final double[] fullSouth, fullNorth;
+
+    private Polygon(double[] latitudes, double[] longitudes) {
+        vertices = latitudes.length;
+        nx = new double[vertices];
+        ny = new double[vertices];
+        nz = new double[vertices];
+
+        val vectors = NVector.toVectors(latitudes, longitudes);
+
+        var south = 90.0;
+        var north = -90.0;
+        //longitudes unwrapped along the ring, and how far they go round
+        var unwrapped = longitudes[0];
+        var westmost = unwrapped;
+        var eastmost = unwrapped;
+        var turn = 0.0;
+        var travel = 0.0;
+        var northward = 0.0;
+
+        val range = new double[2];
+        for (int i = 0; i < vertices; i++) {
+            val a = 3 * i;
+            val b = 3 * ((i + 1) % vertices);
+            nx[i] = vectors[a + 1] * vectors[b + 2] - vectors[a + 2] * vectors[b + 1];
+            ny[i] = vectors[a + 2] * vectors[b] - vectors[a] * vectors[b + 2];
+            nz[i] = vectors[a] * vectors[b + 1] - vectors[a + 1] * vectors[b];
+
+            val Δλ = longitudeDifference(longitudes[i], longitudes[(i + 1) % vertices]);
+            val φ1 = latitudes[i];
+            val φ2 = latitudes[(i + 1) % vertices];
+            south = min(south, min(φ1, φ2));
+            north = max(north, max(φ1, φ2));
+            if (Δλ != 0) {
+                latitudes(i, min(longitudes[i], longitudes[i] + Δλ), max(longitudes[i], longitudes[i] + Δλ), range);
+                south = min(south, range[0] + ε);
+                north = max(north, range[1] - ε);
+
+                //sine of the latitude along the edge, at Simpson's rule, for the area on either side of the ring
+                val φm = latitude(i, longitudes[i] + Δλ / 2);
+                northward += toRadians(Δλ) * (sin(toRadians(φ1)) + 4 * sin(toRadians(φm)) + sin(toRadians(φ2))) / 6;
+            }
+
+            unwrapped += Δλ;
+            westmost = min(westmost, unwrapped);
+            eastmost = max(eastmost, unwrapped);
+            turn += Δλ;
+            travel += abs(Δλ);
+        }
+
+        if (abs(turn) > 180) {
+            //going around a pole, the area north of the ring being 2π - signum(turn) * northward steradians
+            northPole = signum(turn) * northward > 0;
+            if (northPole) north = 90;
+            else south = -90;
+            west = -180;
+            width = 360;
+        } else if (eastmost - westmost >= 360) {
+            northPole = false;
+            west = -180;
+            width = 360;
+        } else {
+            northPole = false;
+            west = westmost - 360 * floor((westmost + 180) / 360);
+            width = eastmost - westmost;
+        }
+        val east = west + width > 180 ? west + width - 360 : west + width;
+        envelope = BoundingArea.at(new Point(north, east), new Point(south, west));
+
+        //about as many strips as vertices, fewer when edges go back and forth, for each edge to be registered
+        //in 2 strips on average
+        strips = (int) max(1, min(vertices, 2 * vertices * width / max(travel, 1e-300)));
+        stripWidth = width > 0 ? width / strips : 1;
+
+        val offsets = new double[vertices];
+        for (int i = 0; i < vertices; i++) {
+            offsets[i] = offset(longitudes[i]);
+        }
+
+        //counts edges per strip, then lays them out strip after strip
+        partialFrom = new int[strips + 1];
+        fullFrom = new int[strips + 1];
+        forEachPiece(offsets, (edge, strip, from, to, full) -> (full ? fullFrom : partialFrom)[strip + 1]++);
+        for (int strip = 0; strip < strips; strip++) {
+            partialFrom[strip + 1] += partialFrom[strip];
+            fullFrom[strip + 1] += fullFrom[strip];
+        }
+
+        partialEdges = new int[partialFrom[strips]];
+        partialWest = new double[partialEdges.length];
+        partialEast = new double[partialEdges.length];
+        fullEdges = new int[fullFrom[strips]];
+        fullSouth = new double[fullEdges.length];
+        fullNorth = new double[fullEdges.length];
+
+        val partialNext = Arrays.copyOf(partialFrom, strips);
+        val fullNext = Arrays.copyOf(fullFrom, strips);
+        forEachPiece(offsets, (edge, strip, from, to, full) -> {
+            if (full) {
+                val i = fullNext[strip]++;
+                latitudes(edge, west + strip * stripWidth - ε, west + (strip + 1) * stripWidth + ε, range);
+                fullEdges[i] = edge;
+                fullSouth[i] = range[0];
+                fullNorth[i] = range[1];
+            } else {
+                val i = partialNext[strip]++;
+                partialEdges[i] = edge;
+                partialWest[i] = from;
+                partialEast[i] = to;
+            }
+        });
+
+        for (int strip = 0; strip < strips; strip++) {
+            sortFull(fullFrom[strip], fullFrom[strip + 1]);
+        }
+    }
+
+    /**
+     * Prepares a polygon, in time proportional to the number of vertices, plus the number of strips long edges
+     * go across.
+     *
+     * @param latitudes  latitudes of the vertices, in decimal degrees, the ring being closed or not
+     * @param longitudes longitudes of the vertices, in decimal degrees
+     * @return the polygon
+     * @throws IllegalArgumentException if the ring has fewer than 3 vertices, or an edge spans 180 degrees of
+     *                                  longitude, going over either pole
+     */
+    public static Polygon of(double[] latitudes, double[] longitudes) {
+        if (latitudes.length != longitudes.length) {
+            throw new IllegalArgumentException("Expected as many longitudes as latitudes, got "
+                    + longitudes.length + " and " + latitudes.length);
+        }
+
+        var vertices = latitudes.length;
+        if (vertices > 1 && latitudes[0] == latitudes[vertices - 1] && longitudes[0] == longitudes[vertices - 1]) {
+            vertices--; //closed ring
+        }
+        if (vertices < 3) {
+            throw new IllegalArgumentException("Expected at least 3 vertices, got " + vertices);
+        }
+        for (int i = 0; i < vertices; i++) {
+            if (abs(longitudeDifference(longitudes[i], longitudes[(i + 1) % vertices])) == 180) {
+                throw new IllegalArgumentException("Edge from vertex " + i + " spans 180 degrees of longitude");
+            }
+        }
+        return new Polygon(Arrays.copyOf(latitudes, vertices), Arrays.copyOf(longitudes, vertices));
+    }
+
+    /**
+     * @return number of vertices, the ring being closed
+     */
+    public int vertices() {
+        return vertices;
+    }
+
+    /**
+     * @return the smallest latitude/longitude box containing the polygon
+     */
+    public BoundingArea envelope() {
+        return envelope;
+    }
+
+    public boolean contains(Point point) {
+        return contains(point.latitude, point.longitude);
+    }
+
+    /**
+     * @param latitude  decimal degrees
+     * @param longitude decimal degrees
+     * @return true if the position is inside the polygon
+     */
+    public boolean contains(double latitude, double longitude) {
+        if (!envelope.contains(latitude, longitude)) {
+            return false;
+        }
+        val t = offset(longitude);
+        if (t >= width) {
+            return false;
+        }
+        val strip = min(strips - 1, (int) (t / stripWidth));
+        //unit vector of the point, only computed when an edge needs checking
+        double[] point = null;
+
+        //edges going across the strip, all above the point from the first one whose lowest latitude is
+        var crossings = 0;
+        val from = fullFrom[strip];
+        val to = fullFrom[strip + 1];
+        var low = from;
+        var high = to;
+        while (low < high) {
+            val middle = (low + high) >>> 1;
+            if (fullSouth[middle] > latitude) high = middle;
+            else low = middle + 1;
+        }
+        crossings += to - low;
+        for (int i = low - 1; i >= from && fullNorth[i] > latitude; i--) {
+            if (point == null) point = vector(latitude, longitude);
+            if (above(fullEdges[i], point)) crossings++;
+        }
+
+        for (int i = partialFrom[strip]; i < partialFrom[strip + 1]; i++) {
+            if (partialWest[i] <= t && t < partialEast[i]) {
+                if (point == null) point = vector(latitude, longitude);
+                if (above(partialEdges[i], point)) crossings++;
+            }
+        }
+
+        return ((crossings & 1) == 1) != northPole;
+    }
+
+    /**
+     * Checks columns of points at once, for instance positions against a delivery zone.
+     *
+     * @param latitudes  Latitudes of the points, in decimal degrees
+     * @param longitudes Longitudes of the points, in decimal degrees
+     * @return a bitset, where bit {@code i % 64} of word {@code i / 64} is set when point i is inside the polygon,
+     * as read by {@link java.util.BitSet#valueOf(long[])}
+     */
+    public long[] contains(double[] latitudes, double[] longitudes) {
+        val bits = new long[(latitudes.length + 63) >>> 6];
+        contains(latitudes, longitudes, bits);
+        return bits;
+    }
+
+    /**
+     * Same as {@link #contains(double[], double[])}, writing into a reusable bitset.
+     *
+     * @param latitudes  Latitudes of the points, in decimal degrees
+     * @param longitudes Longitudes of the points, in decimal degrees
+     * @param bits       Receives the bitset, needs at least {@code (latitudes.length + 63) / 64} words, the
+     *                   following ones are left untouched
+     */
+    public void contains(double[] latitudes, double[] longitudes, long[] bits) {
+        val length = latitudes.length;
+        if (longitudes.length != length || bits.length < (length + 63) >>> 6) {
+            throw new IllegalArgumentException("Expected " + length + " longitudes and " + ((length + 63) >>> 6)
+                    + " words, got " + longitudes.length + " and " + bits.length);
+        }
+
+        for (int word = 0, from = 0; from < length; word++, from += 64) {
+            val to = min(from + 64, length);
+            var bitset = 0L;
+            for (int i = from; i < to; i++) {
+                bitset |= (contains(latitudes[i], longitudes[i]) ? 1L : 0L) << (i - from);
+            }
+            bits[word] = bitset;
+        }
+    }
+
+    //whether the edge goes across the meridian of the unit vector p north of it, given it spans its longitude
+    private boolean above(int edge, double[] p) {
+        val nz = this.nz[edge];
+        return (nx[edge] * p[0] + ny[edge] * p[1] + nz * p[2]) * nz < 0;
+    }
+
+    private static double[] vector(double latitude, double longitude) {
+        val vector = new double[3];
+        EarthCalc.gcd.toVector(latitude, longitude, vector);
+        return vector;
+    }
+
+    //lowest and highest latitudes of the great circle of the edge between 2 longitudes, within 180 degrees
+    private void latitudes(int edge, double from, double to, double[] into) {
+        var south = min(latitude(edge, from), latitude(edge, to));
+        var north = max(latitude(edge, from), latitude(edge, to));
+
+        //the great circle is the furthest from the equator at this longitude, and the opposite one
+        val extreme = toDegrees(atan2(ny[edge], nx[edge]));
+        for (val longitude : new double[]{extreme, extreme + 180}) {
+            val t = longitude - from - 360 * floor((longitude - from) / 360);
+            if (t <= to - from) {
+                south = min(south, latitude(edge, longitude));
+                north = max(north, latitude(edge, longitude));
+            }
+        }
+        into[0] = south - ε;
+        into[1] = north + ε;
+    }
+
+    //latitude of the great circle of the edge at a longitude
+    private double latitude(int edge, double longitude) {
+        val λ = toRadians(longitude);
+        val r = nx[edge] * cos(λ) + ny[edge] * sin(λ);
+        return toDegrees(atan2(-r * signum(nz[edge]), abs(nz[edge])));
+    }
+
+    //longitude eastwards from west, within [0, 360[
+    private double offset(double longitude) {
+        var t = longitude - west;
+        if (t < 0) t += 360;
+        else if (t >= 360) t -= 360;
+        return t;
+    }
+
+    //within [-180, 180[
+    private static double longitudeDifference(double from, double to) {
+        val Δλ = to - from;
+        return Δλ - 360 * floor((Δλ + 180) / 360);
+    }
+
+    private void forEachPiece(double[] offsets, PieceAction action) {
+        for (int edge = 0; edge < vertices; edge++) {
+            val t1 = offsets[edge];
+            val t2 = offsets[(edge + 1) % vertices];
+            if (t1 == t2) continue; //along a meridian, never crossing another
+
+            val west = min(t1, t2);
+            val east = max(t1, t2);
+            if (east - west > 180) { //going across the start of the strips, as around a pole
+                forEachPiece(edge, east, 360, action);
+                forEachPiece(edge, 0, west, action);
+            } else {
+                forEachPiece(edge, west, east, action);
+            }
+        }
+    }
+
+    private void forEachPiece(int edge, double west, double east, PieceAction action) {
+        val first = strip(west);
+        val last = strip(east);
+        for (int strip = first; strip <= last; strip++) {
+            val full = west <= strip * stripWidth - ε && east >= (strip + 1) * stripWidth + ε;
+            action.apply(edge, strip, west, east, full);
+        }
+    }
+
+    private int strip(double offset) {
+        return max(0, min(strips - 1, (int) floor(offset / stripWidth)));
+    }
+
+    private void sortFull(int from, int to) {
+        if (to - from < 2) return;
+
+        val order = IntStream.range(from, to).boxed()
+                .sorted(Comparator.comparingDouble(i -> fullSouth[i]))
+                .mapToInt(Integer::intValue).toArray();
+        val edges = new int[order.length];
+        val south = new double[order.length];
+        val north = new double[order.length];
+        for (int k = 0; k < order.length; k++) {
+            edges[k] = fullEdges[order[k]];
+            south[k] = fullSouth[order[k]];
+            north[k] = k == 0 ? fullNorth[order[k]] : max(north[k - 1], fullNorth[order[k]]);
+        }
+        System.arraycopy(edges, 0, fullEdges, from, order.length);
+        System.arraycopy(south, 0, fullSouth, from, order.length);
+        System.arraycopy(north, 0, fullNorth, from, order.length);
+    }
+
+    @Override
+    public String toString() {
+        return "Polygon{" + "vertices=" + vertices + ", envelope=" + envelope + '}';
+    }
+
+    private interface PieceAction {
+        void apply(int edge, int strip, double west, double east, boolean full);
+    }
+}
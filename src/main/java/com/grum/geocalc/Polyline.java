@@ -0,0 +1,334 @@
+/*
+ * BSD 3-Clause License
+ *
+ * Copyright (c) 2018, Grum Ltd (Romain Gallet)
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ *
+ * Neither the name of Geocalc nor the names of its
+ * contributors may be used to endorse or promote products derived from
+ * this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.grum.geocalc;
+
+import lombok.val;
+import lombok.var;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static com.grum.geocalc.EarthCalc.EARTH_RADIUS;
+import static java.lang.Math.*;
+
+/**
+ * A path of great circle segments, prepared to find the segment nearest to positions, for instance to snap
+ * GPS fixes to a road.
+ * <p>
+ * Segments are registered in the cells of a latitude/longitude grid their bounding box overlaps, as points are
+ * in a {@link GridIndex}, so a search only looks at the segments nearby:
+ * <pre>
+ *     Polyline road = Polyline.of(latitudes, longitudes, 0.01);
+ *     double[] snapped = new double[4];
+ *     int segment = road.nearestSegment(51.47, -0.29, snapped); //from vertex segment to vertex segment + 1
+ * </pre>
+ * Segments overlapping more than {@value #MAX_CELLS} cells are kept aside and checked by every search, and a search
+ * needing more cells than a few per segment checks every segment, as happens around the poles.
+ * Distances are measured on the sphere, as {@link EarthCalc.haversine} does.
+ * A polyline is immutable once built and can be queried from several threads.
+ */
+public class Polyline {
+
+    private static final int MAX_CELLS = 1024;
+
+    //unit vectors of the vertices, x, y and z one after the other
+    private final double[] vectors;
+    private final double cellSize;
+    private final int rows, columns;
+    //segments overlapping each non empty cell
+    private final Map<Long, int[]> cells = new HashMap<>();
+    //first row, first column and number of columns of the cells each segment overlaps
+    private final int[] firstRows, firstColumns, widths;
+    //segments overlapping more than MAX_CELLS cells, checked by every search
+    private final int[] large;
+
+    private Polyline(double[] latitudes, double[] longitudes, double cellSize) {
+        this.cellSize = cellSize;
+        rows = (int) ceil(180 / cellSize);
+        columns = (int) ceil(360 / cellSize);
+
+        vectors = NVector.toVectors(latitudes, longitudes);
+
+        firstRows = new int[segments()];
+        firstColumns = new int[segments()];
+        widths = new int[segments()];
+
+        val lists = new HashMap<Long, List<Integer>>();
+        val large = new ArrayList<Integer>();
+        val box = new double[4];
+        val range = new int[4];
+        for (int segment = 0; segment < segments(); segment++) {
+            bounds(segment, latitudes, longitudes, box);
+            cells(box, range);
+            firstRows[segment] = range[0];
+            firstColumns[segment] = range[2];
+            widths[segment] = range[3];
+
+            val id = segment;
+            if ((long) (range[1] - range[0] + 1) * range[3] > MAX_CELLS) {
+                large.add(id);
+            } else {
+                forEachCell(range, (row, column) -> lists.computeIfAbsent(key(row, column), k -> new ArrayList<>()).add(id));
+            }
+        }
+        lists.forEach((key, segments) -> cells.put(key, segments.stream().mapToInt(Integer::intValue).toArray()));
+        this.large = large.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    /**
+     * Prepares a polyline, in time proportional to the number of grid cells its segments overlap.
+     *
+     * @param latitudes  latitudes of the vertices, in decimal degrees
+     * @param longitudes longitudes of the vertices, in decimal degrees
+     * @param cellSize   width and height of the grid cells, in decimal degrees, best about the length of a segment
+     * @return the polyline
+     */
+    public static Polyline of(double[] latitudes, double[] longitudes, double cellSize) {
+        if (latitudes.length != longitudes.length) {
+            throw new IllegalArgumentException("Expected as many longitudes as latitudes, got "
+                    + longitudes.length + " and " + latitudes.length);
+        }
+        if (latitudes.length < 2) {
+            throw new IllegalArgumentException("Expected at least 2 vertices, got " + latitudes.length);
+        }
+        if (!(cellSize > 0 && cellSize <= 180)) {
+            throw new IllegalArgumentException("Cell size must be within ]0, 180] degrees, got " + cellSize);
+        }
+        return new Polyline(latitudes, longitudes, cellSize);
+    }
+
+    /**
+     * @return number of segments, one less than the number of vertices
+     */
+    public int segments() {
+        return vectors.length / 3 - 1;
+    }
+
+    public int nearestSegment(Point point) {
+        return nearestSegment(point.latitude, point.longitude);
+    }
+
+    /**
+     * @param latitude  decimal degrees
+     * @param longitude decimal degrees
+     * @return index of the segment nearest to the position, going from vertex index to vertex index + 1
+     */
+    public int nearestSegment(double latitude, double longitude) {
+        return nearestSegment(latitude, longitude, null);
+    }
+
+    /**
+     * Same as {@link #nearestSegment(double, double)}, also giving the closest point of the segment.
+     *
+     * @param into if not null, receives the latitude and longitude of the closest point, in decimal degrees,
+     *             the distance to it, and its distance from the start of the segment, in meters
+     * @return index of the segment nearest to the position, going from vertex index to vertex index + 1
+     */
+    public int nearestSegment(double latitude, double longitude, double[] into) {
+        val search = new Search(latitude, longitude);
+
+        //widens the search until the nearest segment found is within it, every segment within reach being seen
+        val box = new double[4];
+        var δ = toRadians(cellSize);
+        while (true) {
+            GridIndex.around(latitude, longitude, min(δ, PI), box);
+            if (!search.scan(box)) break; //every segment seen
+
+            if (search.nearest >= 0 && search.angle <= δ || δ >= PI) break;
+            δ = search.nearest >= 0 ? search.angle : 2 * δ;
+        }
+
+        val nearest = search.nearest;
+        if (into != null) {
+            val closest = new double[3];
+            EarthCalc.gcd.chord(vectors, 3 * nearest, vectors, 3 * nearest + 3, search.point, closest);
+            into[0] = toDegrees(atan2(closest[2], hypot(closest[0], closest[1])));
+            into[1] = toDegrees(atan2(closest[1], closest[0]));
+            into[2] = EarthCalc.gcd.angle(search.point, 0, closest[0], closest[1], closest[2]) * EARTH_RADIUS;
+            into[3] = EarthCalc.gcd.angle(vectors, 3 * nearest, closest[0], closest[1], closest[2]) * EARTH_RADIUS;
+        }
+        return nearest;
+    }
+
+    //latitude/longitude box of a segment, the great circle going beyond the latitudes of its ends
+    private void bounds(int segment, double[] latitudes, double[] longitudes, double[] box) {
+        val i = 3 * segment;
+        var south = min(latitudes[segment], latitudes[segment + 1]);
+        var north = max(latitudes[segment], latitudes[segment + 1]);
+
+        //highest point of the great circle, closest to the North Pole, and lowest
+        val pole = new double[]{0, 0, 1};
+        val vertex = new double[3];
+        EarthCalc.gcd.closest(vectors, i, vectors, i + 3, pole, vertex);
+        north = max(north, toDegrees(asin(min(1, vertex[2]))));
+        pole[2] = -1;
+        EarthCalc.gcd.closest(vectors, i, vectors, i + 3, pole, vertex);
+        south = min(south, toDegrees(asin(max(-1, vertex[2]))));
+
+        var west = longitudes[segment];
+        var east = longitudes[segment + 1];
+        var Δλ = east - west;
+        if (Δλ > 180) Δλ -= 360;
+        else if (Δλ < -180) Δλ += 360;
+        if (Δλ < 0) { //going west
+            val swap = west;
+            west = east;
+            east = swap;
+        }
+
+        if (north >= 90 - 1e-9 || south <= -90 + 1e-9) { //going over a pole
+            west = -180;
+            east = 180;
+        }
+        box[0] = south;
+        box[1] = north;
+        box[2] = west;
+        box[3] = east;
+    }
+
+    //cells overlapped by a box, as first row, last row, first column and number of columns, wrapping around
+    private void cells(double[] box, int[] into) {
+        into[0] = row(box[0]);
+        into[1] = row(box[1]);
+        into[2] = column(box[2]);
+        var width = column(box[3]) - into[2] + 1;
+        if (box[2] > box[3]) { //going across the antimeridian
+            width += columns;
+        }
+        into[3] = min(width, columns);
+    }
+
+    private void forEachCell(int[] range, CellAction action) {
+        for (int row = range[0]; row <= range[1]; row++) {
+            for (int k = 0; k < range[3]; k++) {
+                val column = range[2] + k;
+                action.apply(row, column < columns ? column : column - columns);
+            }
+        }
+    }
+
+    private boolean within(int[] range, int row, int column) {
+        return row >= range[0] && row <= range[1] && within(range[2], range[3], column);
+    }
+
+    private boolean within(int firstColumn, int width, int column) {
+        val k = column - firstColumn;
+        return (k < 0 ? k + columns : k) < width;
+    }
+
+    private int row(double latitude) {
+        return max(0, min(rows - 1, (int) floor((latitude + 90) / cellSize)));
+    }
+
+    private int column(double longitude) {
+        return max(0, min(columns - 1, (int) floor((longitude + 180) / cellSize)));
+    }
+
+    private long key(int row, int column) {
+        return (long) row * columns + column;
+    }
+
+    @Override
+    public String toString() {
+        return "Polyline{" + "segments=" + segments() + ", cellSize=" + cellSize + ", cells=" + cells.size() + '}';
+    }
+
+    private interface CellAction {
+        void apply(int row, int column);
+    }
+
+    /**
+     * Nearest segment found so far.
+     * <p>
+     * Each box scanned contains the previous one, whose cells are skipped, and a segment is only checked in
+     * the first of its cells within the box: a segment overlapping the previous box was checked then.
+     */
+    private class Search {
+        final double[] point = new double[3];
+        final int[] range = new int[4], previous = new int[4];
+        boolean widening;
+        int nearest = -1;
+        double chord = Double.POSITIVE_INFINITY, angle = Double.POSITIVE_INFINITY;
+
+        Search(double latitude, double longitude) {
+            EarthCalc.gcd.toVector(latitude, longitude, point);
+        }
+
+        /**
+         * @return false if every segment was checked, which costs less than looking up the cells of a box larger
+         * than a few cells per segment
+         */
+        boolean scan(double[] box) {
+            System.arraycopy(range, 0, previous, 0, 4);
+            cells(box, range);
+
+            if ((long) (range[1] - range[0] + 1) * range[3] > segments() / 8) {
+                for (int segment = 0; segment < segments(); segment++) {
+                    check(segment);
+                }
+                return false;
+            }
+            if (!widening) {
+                for (val segment : large) {
+                    check(segment);
+                }
+            }
+            forEachCell(range, this::visit);
+            widening = true;
+            return true;
+        }
+
+        void visit(int row, int column) {
+            if (widening && within(previous, row, column)) return;
+            val segments = cells.get(key(row, column));
+            if (segments == null) return;
+
+            for (val segment : segments) {
+                if (row != max(firstRows[segment], range[0])) continue;
+                if (column != range[2] && within(firstColumns[segment], widths[segment], column == 0 ? columns - 1 : column - 1)) continue;
+                check(segment);
+            }
+        }
+
+        void check(int segment) {
+            val chord = EarthCalc.gcd.chord(vectors, 3 * segment, vectors, 3 * segment + 3, point, null);
+            if (chord < this.chord || chord == this.chord && segment < nearest) {
+                this.chord = chord;
+                angle = 2 * asin(min(1, sqrt(chord) / 2));
+                nearest = segment;
+            }
+        }
+    }
+}
@@ -0,0 +1,303 @@
+/*
+ * BSD 3-Clause License
+ *
+ * Copyright (c) 2018, Grum Ltd (Romain Gallet)
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ *
+ * Neither the name of Geocalc nor the names of its
+ * contributors may be used to endorse or promote products derived from
+ * this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.grum.geocalc;
+
+import lombok.val;
+
+import static com.grum.geocalc.EarthCalc.EARTH_RADIUS;
+import static java.lang.Math.*;
+
+/**
+ * A stand point whose trigonometry has been computed once, for one-to-many calculations.
+ * <p>
+ * Each formula of {@link EarthCalc} is available under the same name:
+ * <pre>
+ *     PreparedPoint kew = EarthCalc.prepare(Point.at(...));
+ *     double distance = kew.haversine.distance(richmond);
+ * </pre>
+ * Results are the same as the {@link EarthCalc} ones, only the stand point is not converted over and over again.
+ * Instances are immutable and can be shared between threads.
+ */
+public class PreparedPoint {
+
+    public final Point point;
+
+    public final Gcd gcd = new Gcd();
+    public final Haversine haversine = new Haversine();
+    public final Vincenty vincenty = new Vincenty();
+
+    //radians, and their sines/cosines
+    final double φ, λ, sinφ, cosφ;
+
+    //reduced latitude, Vincenty formula
+    final double sinU, cosU;
+
+    PreparedPoint(Point point) {
+        this.point = point;
+
+        φ = toRadians(point.latitude);
+        λ = toRadians(point.longitude);
+        sinφ = sin(φ);
+        cosφ = cos(φ);
+
+        val tanU = (1 - EarthCalc.vincenty.f) * tan(φ);
+        cosU = 1 / sqrt((1 + tanU * tanU));
+        sinU = tanU * cosU;
+    }
+
+    /**
+     * Returns the (azimuth) bearing, in decimal degrees, along the great circle path.
+     */
+    private double bearing(double latitude, double longitude) {
+        val Δλ = toRadians(longitude - point.longitude);
+        val φ2 = toRadians(latitude);
+        val cosφ2 = cos(φ2);
+
+        val y = sin(Δλ) * cosφ2;
+        val x = cosφ * sin(φ2) - sinφ * cosφ2 * cos(Δλ);
+
+        return toDegrees((atan2(y, x) + 2 * PI) % (2 * PI));
+    }
+
+    @Override
+    public String toString() {
+        return "PreparedPoint{" + "point=" + point + '}';
+    }
+
+    /**
+     * Spherical law of cosines, see {@link EarthCalc.gcd}.
+     */
+    public class Gcd {
+        private Gcd() {
+        }
+
+        private double sphereCos(double latitude, double longitude) {
+            val Δλ = toRadians(longitude - point.longitude);
+            val φ2 = toRadians(latitude);
+
+            return (sinφ * sin(φ2)) + (cosφ * cos(φ2) * cos(Δλ));
+        }
+
+        /**
+         * @param forePoint The fore point
+         * @return The distance, in meters
+         */
+        public double distance(Point forePoint) {
+            return EARTH_RADIUS * acos(max(min(sphereCos(forePoint.latitude, forePoint.longitude), 1d), -1d));
+        }
+
+        /**
+         * @param forePoint The fore point
+         * @return (azimuth) bearing, in decimal degrees
+         */
+        public double bearing(Point forePoint) {
+            return PreparedPoint.this.bearing(forePoint.latitude, forePoint.longitude);
+        }
+
+        /**
+         * Compares cosines rather than distances, sparing the arc cosine.
+         *
+         * @param forePoint The fore point
+         * @param radius    in meters
+         * @return true if forePoint is at most radius meters away
+         */
+        public boolean isWithin(Point forePoint, double radius) {
+            val δ = radius / EARTH_RADIUS;
+            return δ >= PI || sphereCos(forePoint.latitude, forePoint.longitude) >= cos(δ);
+        }
+
+        /**
+         * @param latitudes  Latitudes of the fore points
+         * @param longitudes Longitudes of the fore points
+         * @param distances  Receives the distances, in meters
+         * @see EarthCalc.gcd#distances(Point, double[], double[], double[])
+         */
+        public void distances(double[] latitudes, double[] longitudes, double[] distances) {
+            EarthCalc.checkColumns(latitudes, longitudes, distances);
+
+            distances(latitudes, longitudes, 0, latitudes.length, distances, 0);
+        }
+
+        void distances(double[] latitudes, double[] longitudes, int from, int to, double[] distances, int offset) {
+            for (int i = from; i < to; i++) {
+                distances[offset++] = EARTH_RADIUS * acos(max(min(sphereCos(latitudes[i], longitudes[i]), 1d), -1d));
+            }
+        }
+    }
+
+    /**
+     * Haversine formula, see {@link EarthCalc.haversine}.
+     */
+    public class Haversine {
+        private Haversine() {
+        }
+
+        //square of half the chord length between the points
+        double a(double latitude, double longitude) {
+            val sinΔλ = sin(toRadians(longitude - point.longitude) / 2);
+            val sinΔφ = sin(toRadians(latitude - point.latitude) / 2);
+
+            return sinΔφ * sinΔφ + cosφ * cos(toRadians(latitude)) * sinΔλ * sinΔλ;
+        }
+
+        /**
+         * @param forePoint The fore point
+         * @return The distance, in meters
+         */
+        public double distance(Point forePoint) {
+            val a = a(forePoint.latitude, forePoint.longitude);
+            return EARTH_RADIUS * 2 * atan2(sqrt(a), sqrt(1 - a));
+        }
+
+        /**
+         * @param forePoint The fore point
+         * @return (azimuth) bearing, in decimal degrees
+         */
+        public double bearing(Point forePoint) {
+            return PreparedPoint.this.bearing(forePoint.latitude, forePoint.longitude);
+        }
+
+        /**
+         * Compares half chord lengths rather than distances, sparing the arc tangent and square roots.
+         *
+         * @param forePoint The fore point
+         * @param radius    in meters
+         * @return true if forePoint is at most radius meters away
+         */
+        public boolean isWithin(Point forePoint, double radius) {
+            val δ = radius / EARTH_RADIUS;
+            if (δ >= PI) return true;
+
+            val sinδ = sin(δ / 2);
+            return a(forePoint.latitude, forePoint.longitude) <= sinδ * sinδ;
+        }
+
+        /**
+         * @param latitudes  Latitudes of the fore points
+         * @param longitudes Longitudes of the fore points
+         * @param distances  Receives the distances, in meters
+         * @see EarthCalc.haversine#distances(Point, double[], double[], double[])
+         */
+        public void distances(double[] latitudes, double[] longitudes, double[] distances) {
+            EarthCalc.checkColumns(latitudes, longitudes, distances);
+
+            distances(latitudes, longitudes, 0, latitudes.length, distances, 0);
+        }
+
+        void distances(double[] latitudes, double[] longitudes, int from, int to, double[] distances, int offset) {
+            for (int i = from; i < to; i++) {
+                val a = a(latitudes[i], longitudes[i]);
+                distances[offset++] = EARTH_RADIUS * 2 * atan2(sqrt(a), sqrt(1 - a));
+            }
+        }
+    }
+
+    /**
+     * Vincenty formula, see {@link EarthCalc.vincenty}.
+     */
+    public class Vincenty {
+        private Vincenty() {
+        }
+
+        double inverse(double latitude, double longitude, double[] solution) {
+            val tanU2 = (1 - EarthCalc.vincenty.f) * tan(toRadians(latitude));
+            val cosU2 = 1 / sqrt((1 + tanU2 * tanU2));
+            val sinU2 = tanU2 * cosU2;
+
+            return EarthCalc.vincenty.inverse(toRadians(longitude) - λ, sinU, cosU, sinU2, cosU2, solution);
+        }
+
+        /**
+         * @param forePoint The fore point
+         * @return The distance, in meters
+         */
+        public double distance(Point forePoint) {
+            return inverse(forePoint.latitude, forePoint.longitude, null);
+        }
+
+        /**
+         * @param forePoint The fore point
+         * @return (azimuth) bearing in degrees to the North
+         */
+        public double bearing(Point forePoint) {
+            return inverse(forePoint).initialBearing;
+        }
+
+        /**
+         * @param forePoint The fore point
+         * @return final bearing in direction of point→forePoint, in degrees to the North
+         */
+        public double finalBearing(Point forePoint) {
+            return inverse(forePoint).finalBearing;
+        }
+
+        /**
+         * @param forePoint The fore point
+         * @return distance, initial and final bearings, from a single solve
+         * @see EarthCalc.vincenty#inverse(Point, Point)
+         */
+        public EarthCalc.vincenty.Vincenty inverse(Point forePoint) {
+            val solution = new double[3];
+            val distance = inverse(forePoint.latitude, forePoint.longitude, solution);
+
+            return new EarthCalc.vincenty.Vincenty(distance, solution[0], solution[1], (int) solution[2]);
+        }
+
+        /**
+         * @param forePoint The fore point
+         * @param radius    in meters
+         * @return true if forePoint is at most radius meters away
+         */
+        public boolean isWithin(Point forePoint, double radius) {
+            return distance(forePoint) <= radius;
+        }
+
+        /**
+         * @param latitudes  Latitudes of the fore points
+         * @param longitudes Longitudes of the fore points
+         * @param distances  Receives the distances, in meters
+         * @see EarthCalc.vincenty#distances(Point, double[], double[], double[])
+         */
+        public void distances(double[] latitudes, double[] longitudes, double[] distances) {
+            EarthCalc.checkColumns(latitudes, longitudes, distances);
+
+            distances(latitudes, longitudes, 0, latitudes.length, distances, 0);
+        }
+
+        void distances(double[] latitudes, double[] longitudes, int from, int to, double[] distances, int offset) {
+            for (int i = from; i < to; i++) {
+                distances[offset++] = inverse(latitudes[i], longitudes[i], null);
+            }
+        }
+    }
+}
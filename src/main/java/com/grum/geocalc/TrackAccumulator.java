@@ -0,0 +1,267 @@
+/*
+ * BSD 3-Clause License
+ *
+ * Copyright (c) 2018, Grum Ltd (Romain Gallet)
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ *
+ * Neither the name of Geocalc nor the names of its
+ * contributors may be used to endorse or promote products derived from
+ * this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.grum.geocalc;
+
+import lombok.val;
+
+import static com.grum.geocalc.EarthCalc.EARTH_RADIUS;
+import static java.lang.Math.*;
+
+/**
+ * Running length of a track, fed one fix at a time, for instance from a GPS stream.
+ * <p>
+ * The trigonometry of the last fix is kept from one update to the next, so each update costs a single
+ * segment calculation and creates no object:
+ * <pre>
+ *     TrackAccumulator track = TrackAccumulator.haversine();
+ *     track.add(51.4843774, -0.2912044);
+ *     track.add(51.4613418, -0.3035466);
+ *     double length = track.totalLength(); //in meters
+ * </pre>
+ * Instances are not thread safe.
+ */
+public abstract class TrackAccumulator {
+
+    private int size;
+    private double totalLength, lastSegmentLength = Double.NaN;
+
+    //last fix, in decimal degrees
+    double latitude, longitude;
+
+    TrackAccumulator() {
+    }
+
+    /**
+     * @return an accumulator measuring segments at Haversine formula
+     */
+    public static TrackAccumulator haversine() {
+        return new Haversine();
+    }
+
+    /**
+     * @return an accumulator measuring segments at Vincenty formula
+     */
+    public static TrackAccumulator vincenty() {
+        return new Vincenty();
+    }
+
+    /**
+     * Appends a fix to the track.
+     * <p>
+     * With {@link #vincenty()}, an {@link IllegalStateException} is thrown if the formula does not converge
+     * for the new segment, in which case the fix is not added.
+     *
+     * @param latitude  in decimal degrees
+     * @param longitude in decimal degrees
+     * @return the length of the new segment, in meters, 0 for the first fix
+     */
+    public double add(double latitude, double longitude) {
+        if (size == 0) {
+            first(latitude, longitude);
+            size++;
+            return 0;
+        }
+
+        val segment = next(latitude, longitude);
+        this.latitude = latitude;
+        this.longitude = longitude;
+
+        size++;
+        totalLength += segment;
+        lastSegmentLength = segment;
+        return segment;
+    }
+
+    /**
+     * @param point fix to append
+     * @return the length of the new segment, in meters, 0 for the first fix
+     * @see #add(double, double)
+     */
+    public double add(Point point) {
+        return add(point.latitude, point.longitude);
+    }
+
+    /**
+     * Appends all the fixes of a track, given as columns of decimal degrees.
+     *
+     * @param latitudes  Latitudes of the fixes
+     * @param longitudes Longitudes of the fixes
+     * @return the total length, in meters
+     */
+    public double add(double[] latitudes, double[] longitudes) {
+        if (latitudes.length != longitudes.length) {
+            throw new IllegalArgumentException("Expected " + latitudes.length + " longitudes, got " + longitudes.length);
+        }
+
+        for (int i = 0; i < latitudes.length; i++) {
+            add(latitudes[i], longitudes[i]);
+        }
+        return totalLength;
+    }
+
+    /**
+     * @return the number of fixes added since creation or last reset
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return the sum of all segments, in meters
+     */
+    public double totalLength() {
+        return totalLength;
+    }
+
+    /**
+     * @return the length of the last segment, in meters, NaN with less than 2 fixes
+     */
+    public double lastSegmentLength() {
+        return lastSegmentLength;
+    }
+
+    /**
+     * @return the (azimuth) bearing from the fix before last to the last one, in decimal degrees,
+     * NaN with less than 2 fixes
+     */
+    public double lastBearing() {
+        return size < 2 ? Double.NaN : bearing();
+    }
+
+    /**
+     * Forgets all fixes, to start another track.
+     */
+    public void reset() {
+        size = 0;
+        totalLength = 0;
+        lastSegmentLength = Double.NaN;
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + "{" + "size=" + size + ", totalLength=" + totalLength + '}';
+    }
+
+    abstract void first(double latitude, double longitude);
+
+    /**
+     * Measures the segment from the last fix, and makes the given one the last fix. Must not change anything if throwing.
+     */
+    abstract double next(double latitude, double longitude);
+
+    abstract double bearing();
+
+    private static final class Haversine extends TrackAccumulator {
+        //last fix and the one before, radians and their sines/cosines
+        private double φ, sinφ, cosφ;
+        private double previousSinφ, previousCosφ, Δλ;
+
+        @Override
+        void first(double latitude, double longitude) {
+            φ = toRadians(latitude);
+            sinφ = sin(φ);
+            cosφ = cos(φ);
+            this.latitude = latitude;
+            this.longitude = longitude;
+        }
+
+        @Override
+        double next(double latitude, double longitude) {
+            val φ2 = toRadians(latitude);
+            val cosφ2 = cos(φ2);
+            val Δλ = toRadians(longitude - this.longitude);
+
+            val sinΔφ = sin((φ2 - φ) / 2);
+            val sinΔλ = sin(Δλ / 2);
+            val a = sinΔφ * sinΔφ + cosφ * cosφ2 * sinΔλ * sinΔλ;
+
+            previousSinφ = sinφ;
+            previousCosφ = cosφ;
+            this.Δλ = Δλ;
+            φ = φ2;
+            sinφ = sin(φ2);
+            cosφ = cosφ2;
+
+            return EARTH_RADIUS * 2 * atan2(sqrt(a), sqrt(1 - a));
+        }
+
+        @Override
+        double bearing() {
+            val y = sin(Δλ) * cosφ;
+            val x = previousCosφ * sinφ - previousSinφ * cosφ * cos(Δλ);
+
+            return toDegrees((atan2(y, x) + 2 * PI) % (2 * PI));
+        }
+    }
+
+    private static final class Vincenty extends TrackAccumulator {
+        //reduced latitude of the last fix
+        private double sinU, cosU;
+
+        //initial bearing, final bearing and iterations of the last segment
+        private final double[] solution = new double[3];
+
+        @Override
+        void first(double latitude, double longitude) {
+            reduce(latitude);
+            this.latitude = latitude;
+            this.longitude = longitude;
+        }
+
+        @Override
+        double next(double latitude, double longitude) {
+            val sinU1 = sinU;
+            val cosU1 = cosU;
+            reduce(latitude);
+
+            try {
+                return EarthCalc.vincenty.inverse(toRadians(longitude - this.longitude), sinU1, cosU1, sinU, cosU, solution);
+            } catch (IllegalStateException e) {
+                sinU = sinU1;
+                cosU = cosU1;
+                throw e;
+            }
+        }
+
+        private void reduce(double latitude) {
+            val tanU = (1 - EarthCalc.vincenty.f) * tan(toRadians(latitude));
+            cosU = 1 / sqrt((1 + tanU * tanU));
+            sinU = tanU * cosU;
+        }
+
+        @Override
+        double bearing() {
+            return solution[0];
+        }
+    }
+}
@@ -0,0 +1,525 @@
+/*
+ * BSD 3-Clause License
+ *
+ * Copyright (c) 2018, Grum Ltd (Romain Gallet)
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ *
+ * Neither the name of Geocalc nor the names of its
+ * contributors may be used to endorse or promote products derived from
+ * this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.grum.geocalc;
+
+import lombok.val;
+import lombok.var;
+
+import java.util.Arrays;
+
+import static com.grum.geocalc.EarthCalc.EARTH_RADIUS;
+import static java.lang.Math.*;
+
+/**
+ * Simplifies tracks, keeping the fixes needed for the track to stay within a tolerance, for instance before
+ * storing them.
+ * <p>
+ * Whole tracks are simplified at Douglas-Peucker, within a distance, or Visvalingam-Whyatt, above an area,
+ * giving the indices of the fixes to keep:
+ * <pre>
+ *     int[] kept = TrackSimplifier.douglasPeucker(latitudes, longitudes, 5); //within 5 meters
+ * </pre>
+ * Unbounded feeds are simplified as fixes come, in constant memory, each kept fix being handed to a sink as soon
+ * as it is known to be needed:
+ * <pre>
+ *     TrackSimplifier simplifier = TrackSimplifier.withTolerance(5, (index, latitude, longitude) -> store(...));
+ *     simplifier.add(51.4843774, -0.2912044);
+ *     ...
+ *     simplifier.finish(); //keeps the last fix
+ * </pre>
+ * Distances and areas are measured on the sphere, as {@link EarthCalc.haversine} does. Streaming instances are
+ * not thread safe.
+ */
+public final class TrackSimplifier {
+
+    private final Sink sink;
+    //tolerance, in radians, and its sine
+    private final double δ, sinδ;
+
+    private long size;
+    //anchor, the last kept fix: unit vector, and unit vectors pointing north and east from it
+    private double ax, ay, az, nx, ny, nz, ex, ey;
+    //last fix, not kept yet
+    private long previous;
+    private double previousLatitude, previousLongitude;
+    private boolean previousKept;
+    //bearings from the anchor keeping the fixes since within tolerance, relative to reference, in radians
+    private boolean constrained;
+    private double reference, lowest, highest;
+    //furthest fix from the anchor, beyond tolerance, in radians
+    private double furthest;
+    //last fix: unit vector, sine and cosine of the angle from the anchor, angle and bearing from it in radians
+    private final double[] fix = new double[3];
+    private double sine, cosine, distance, bearing;
+
+    private TrackSimplifier(double tolerance, Sink sink) {
+        this.sink = sink;
+        δ = tolerance / EARTH_RADIUS;
+        sinδ = sin(δ);
+    }
+
+    /**
+     * Receives the fixes to keep, in order.
+     */
+    public interface Sink {
+        /**
+         * @param index     index of the fix among those added since creation or last finish
+         * @param latitude  in decimal degrees
+         * @param longitude in decimal degrees
+         */
+        void keep(long index, double latitude, double longitude);
+    }
+
+    /**
+     * Creates a streaming simplifier, sleeve fitting: the range of bearings from the last kept fix keeping the
+     * fixes since within tolerance is narrowed down fix after fix, the fix before the first one out of range
+     * being kept. Every fix left out is within tolerance of the segment between the kept fixes around it,
+     * usually keeping a few more fixes than {@link #douglasPeucker} does.
+     *
+     * @param tolerance greatest distance from a fix left out to the simplified track, in meters
+     * @param sink      receives the fixes to keep
+     * @return the simplifier
+     */
+    public static TrackSimplifier withTolerance(double tolerance, Sink sink) {
+        checkTolerance(tolerance);
+        return new TrackSimplifier(tolerance, sink);
+    }
+
+    /**
+     * Keeps the first and last fixes, and the fixes further than tolerance from the segment between the kept
+     * fixes around them, the furthest first.
+     *
+     * @param latitudes  Latitudes of the fixes, in decimal degrees
+     * @param longitudes Longitudes of the fixes, in decimal degrees
+     * @param tolerance  greatest distance from a fix left out to the simplified track, in meters
+     * @return indices of the fixes to keep, in order
+     */
+    public static int[] douglasPeucker(double[] latitudes, double[] longitudes, double tolerance) {
+        checkLengths(latitudes, longitudes);
+        checkTolerance(tolerance);
+        val n = latitudes.length;
+        if (n < 3) {
+            return indices(n);
+        }
+
+        val vectors = NVector.toVectors(latitudes, longitudes);
+        //compared as squared chords rather than angles
+        val threshold = 4 * pow(sin(min(tolerance / EARTH_RADIUS, PI) / 2), 2);
+
+        val keep = new boolean[n];
+        keep[0] = keep[n - 1] = true;
+        //ranges left to check, first and last fixes one after the other
+        var ranges = new int[64];
+        ranges[0] = 0;
+        ranges[1] = n - 1;
+        var top = 2;
+        while (top > 0) {
+            val last = ranges[--top];
+            val first = ranges[--top];
+            val furthest = furthest(vectors, first, last, threshold);
+
+            if (furthest >= 0) {
+                keep[furthest] = true;
+                if (top + 4 > ranges.length) {
+                    ranges = Arrays.copyOf(ranges, 2 * ranges.length);
+                }
+                if (furthest - first > 1) {
+                    ranges[top++] = first;
+                    ranges[top++] = furthest;
+                }
+                if (last - furthest > 1) {
+                    ranges[top++] = furthest;
+                    ranges[top++] = last;
+                }
+            }
+        }
+        return kept(keep);
+    }
+
+    /**
+     * Removes the fix making the smallest triangle with its neighbours, one after the other, as long as the
+     * triangle is smaller than area, the neighbours' triangles never getting smaller than a removed one.
+     * The first and last fixes are kept.
+     *
+     * @param latitudes  Latitudes of the fixes, in decimal degrees
+     * @param longitudes Longitudes of the fixes, in decimal degrees
+     * @param area       smallest triangle kept, in square meters
+     * @return indices of the fixes to keep, in order
+     */
+    public static int[] visvalingam(double[] latitudes, double[] longitudes, double area) {
+        checkLengths(latitudes, longitudes);
+        if (!(area >= 0)) {
+            throw new IllegalArgumentException("Area must be positive, got " + area);
+        }
+        val n = latitudes.length;
+        if (n < 3) {
+            return indices(n);
+        }
+
+        val vectors = NVector.toVectors(latitudes, longitudes);
+        val threshold = area / (EARTH_RADIUS * EARTH_RADIUS);
+
+        val before = new int[n];
+        val after = new int[n];
+        val areas = new double[n];
+        val heap = new Heap(n, areas);
+        for (int i = 0; i < n; i++) {
+            before[i] = i - 1;
+            after[i] = i + 1;
+        }
+        for (int i = 1; i < n - 1; i++) {
+            areas[i] = triangle(vectors, i - 1, i, i + 1);
+            heap.add(i);
+        }
+
+        val keep = new boolean[n];
+        Arrays.fill(keep, true);
+        while (heap.size > 0 && areas[heap.peek()] < threshold) {
+            val i = heap.poll();
+            keep[i] = false;
+
+            val b = before[i];
+            val a = after[i];
+            after[b] = a;
+            before[a] = b;
+            if (b > 0) {
+                areas[b] = max(areas[i], triangle(vectors, before[b], b, a));
+                heap.update(b);
+            }
+            if (a < n - 1) {
+                areas[a] = max(areas[i], triangle(vectors, b, a, after[a]));
+                heap.update(a);
+            }
+        }
+        return kept(keep);
+    }
+
+    /**
+     * Appends a fix, handing the fix before it to the sink if it needs to be kept. The first fix is always kept.
+     *
+     * @param latitude  in decimal degrees
+     * @param longitude in decimal degrees
+     */
+    public void add(double latitude, double longitude) {
+        val index = size++;
+        if (index == 0) {
+            anchor(latitude, longitude);
+            sink.keep(0, latitude, longitude);
+            previousKept = true;
+        } else {
+            EarthCalc.gcd.toVector(latitude, longitude, fix);
+            if (!fits()) {
+                if (!previousKept) {
+                    sink.keep(previous, previousLatitude, previousLongitude);
+                }
+                anchor(previousLatitude, previousLongitude);
+                fits();
+            }
+            narrow();
+            previousKept = false;
+        }
+        previous = index;
+        previousLatitude = latitude;
+        previousLongitude = longitude;
+    }
+
+    /**
+     * @param point fix to append
+     * @see #add(double, double)
+     */
+    public void add(Point point) {
+        add(point.latitude, point.longitude);
+    }
+
+    /**
+     * Hands the last fix to the sink, if not yet, and forgets all fixes, to start another track.
+     */
+    public void finish() {
+        if (size > 0 && !previousKept) {
+            sink.keep(previous, previousLatitude, previousLongitude);
+        }
+        size = 0;
+    }
+
+    /**
+     * @return the number of fixes added since creation or last finish
+     */
+    public long size() {
+        return size;
+    }
+
+    @Override
+    public String toString() {
+        return "TrackSimplifier{" + "tolerance=" + δ * EARTH_RADIUS + ", size=" + size + '}';
+    }
+
+    private void anchor(double latitude, double longitude) {
+        val φ = toRadians(latitude);
+        val λ = toRadians(longitude);
+        ax = cos(φ) * cos(λ);
+        ay = cos(φ) * sin(λ);
+        az = sin(φ);
+        nx = -sin(φ) * cos(λ);
+        ny = -sin(φ) * sin(λ);
+        nz = cos(φ);
+        ex = -sin(λ);
+        ey = cos(λ);
+        constrained = false;
+        furthest = 0;
+    }
+
+    //whether the segment from the anchor to the last fix keeps the fixes since within tolerance, measuring the fix from it
+    private boolean fits() {
+        val x = ay * fix[2] - az * fix[1];
+        val y = az * fix[0] - ax * fix[2];
+        val z = ax * fix[1] - ay * fix[0];
+        sine = sqrt(x * x + y * y + z * z);
+        cosine = ax * fix[0] + ay * fix[1] + az * fix[2];
+        distance = atan2(sine, cosine);
+        bearing = atan2(ex * fix[0] + ey * fix[1], nx * fix[0] + ny * fix[1] + nz * fix[2]);
+        if (distance < furthest) {
+            //a fix further away would be beyond the end of the segment
+            return false;
+        }
+        return !constrained || within(relative(bearing));
+    }
+
+    //narrows the bearings down for the last fix to stay within tolerance of the next segment from the anchor
+    private void narrow() {
+        if (cosine > 0 && sine <= sinδ) {
+            return; //within tolerance of the anchor
+        }
+
+        furthest = max(furthest, distance);
+        if (cosine <= 0) {
+            //90 degrees away or more, bearings do not tell the distance to the segment anymore
+            constrained = true;
+            lowest = 1;
+            highest = -1;
+            return;
+        }
+
+        val width = asin(sinδ / sine);
+        if (!constrained) {
+            constrained = true;
+            reference = bearing;
+            lowest = -width;
+            highest = width;
+        } else {
+            val relative = relative(bearing);
+            lowest = max(lowest, relative - width);
+            highest = min(highest, relative + width);
+        }
+    }
+
+    private boolean within(double bearing) {
+        return bearing >= lowest && bearing <= highest;
+    }
+
+    //within [-π, π[ around reference
+    private double relative(double bearing) {
+        val θ = bearing - reference;
+        return θ - 2 * PI * floor((θ + PI) / (2 * PI));
+    }
+
+    /**
+     * Same as {@link EarthCalc.gcd#chord} for every fix between first and last, the arc being set up once.
+     *
+     * @return the fix with the longest squared chord to the arc, above threshold, -1 if none
+     */
+    private static int furthest(double[] vectors, int first, int last, double threshold) {
+        val i = 3 * first;
+        val j = 3 * last;
+        val ax = vectors[i];
+        val ay = vectors[i + 1];
+        val az = vectors[i + 2];
+        val bx = vectors[j];
+        val by = vectors[j + 1];
+        val bz = vectors[j + 2];
+        //normal to the plane of the great circle
+        val nx = ay * bz - az * by;
+        val ny = az * bx - ax * bz;
+        val nz = ax * by - ay * bx;
+        val n2 = nx * nx + ny * ny + nz * nz;
+        //the projection of p on the plane is within the arc if p is on the positive side of n × a and b × n
+        val arc = n2 > 1e-30;
+        val ux = ny * az - nz * ay;
+        val uy = nz * ax - nx * az;
+        val uz = nx * ay - ny * ax;
+        val vx = by * nz - bz * ny;
+        val vy = bz * nx - bx * nz;
+        val vz = bx * ny - by * nx;
+
+        var furthest = -1;
+        var longest = threshold;
+        for (int k = 3 * first + 3, f = first + 1; f < last; k += 3, f++) {
+            val px = vectors[k];
+            val py = vectors[k + 1];
+            val pz = vectors[k + 2];
+            double chord;
+            if (arc && px * ux + py * uy + pz * uz >= 0 && px * vx + py * vy + pz * vz >= 0) {
+                //from p to its normalised projection, of length the cosine of the cross-track angle
+                val pn = px * nx + py * ny + pz * nz;
+                chord = 2 - 2 * sqrt(max(0, 1 - pn * pn / n2));
+            } else {
+                chord = 2 - 2 * max(px * ax + py * ay + pz * az, px * bx + py * by + pz * bz);
+            }
+            if (chord > longest) {
+                longest = chord;
+                furthest = f;
+            }
+        }
+        return furthest;
+    }
+
+    //area of the spherical triangle, in steradians
+    private static double triangle(double[] vectors, int a, int b, int c) {
+        val i = 3 * a;
+        val j = 3 * b;
+        val k = 3 * c;
+        //a · (b × c)
+        val triple = vectors[i] * (vectors[j + 1] * vectors[k + 2] - vectors[j + 2] * vectors[k + 1])
+                + vectors[i + 1] * (vectors[j + 2] * vectors[k] - vectors[j] * vectors[k + 2])
+                + vectors[i + 2] * (vectors[j] * vectors[k + 1] - vectors[j + 1] * vectors[k]);
+        val ab = vectors[i] * vectors[j] + vectors[i + 1] * vectors[j + 1] + vectors[i + 2] * vectors[j + 2];
+        val bc = vectors[j] * vectors[k] + vectors[j + 1] * vectors[k + 1] + vectors[j + 2] * vectors[k + 2];
+        val ca = vectors[k] * vectors[i] + vectors[k + 1] * vectors[i + 1] + vectors[k + 2] * vectors[i + 2];
+        return 2 * atan2(abs(triple), 1 + ab + bc + ca);
+    }
+
+    private static int[] kept(boolean[] keep) {
+        var count = 0;
+        for (val k : keep) {
+            if (k) count++;
+        }
+        val indices = new int[count];
+        for (int i = 0, j = 0; i < keep.length; i++) {
+            if (keep[i]) indices[j++] = i;
+        }
+        return indices;
+    }
+
+    private static int[] indices(int n) {
+        val indices = new int[n];
+        for (int i = 0; i < n; i++) {
+            indices[i] = i;
+        }
+        return indices;
+    }
+
+    private static void checkLengths(double[] latitudes, double[] longitudes) {
+        if (latitudes.length != longitudes.length) {
+            throw new IllegalArgumentException("Expected as many longitudes as latitudes, got "
+                    + longitudes.length + " and " + latitudes.length);
+        }
+    }
+
+    private static void checkTolerance(double tolerance) {
+        if (!(tolerance >= 0)) {
+            throw new IllegalArgumentException("Tolerance must be positive, got " + tolerance);
+        }
+    }
+
+    /**
+     * Binary heap of fixes by area, knowing where each fix is to update it.
+     */
+    private static final class Heap {
+        final int[] fixes, positions;
+        final double[] areas;
+        int size;
+
+        Heap(int capacity, double[] areas) {
+            fixes = new int[capacity];
+            positions = new int[capacity];
+            this.areas = areas;
+        }
+
+        void add(int fix) {
+            fixes[size] = fix;
+            positions[fix] = size;
+            up(size++);
+        }
+
+        int peek() {
+            return fixes[0];
+        }
+
+        int poll() {
+            val fix = fixes[0];
+            fixes[0] = fixes[--size];
+            positions[fixes[0]] = 0;
+            down(0);
+            return fix;
+        }
+
+        void update(int fix) {
+            up(positions[fix]);
+            down(positions[fix]);
+        }
+
+        private void up(int position) {
+            while (position > 0) {
+                val parent = (position - 1) >>> 1;
+                if (!less(position, parent)) break;
+                swap(position, parent);
+                position = parent;
+            }
+        }
+
+        private void down(int position) {
+            while (true) {
+                val left = 2 * position + 1;
+                if (left >= size) break;
+                val child = left + 1 < size && less(left + 1, left) ? left + 1 : left;
+                if (!less(child, position)) break;
+                swap(position, child);
+                position = child;
+            }
+        }
+
+        //by area, then by index for ties to be broken the same way every time
+        private boolean less(int i, int j) {
+            val a = areas[fixes[i]];
+            val b = areas[fixes[j]];
+            return a < b || a == b && fixes[i] < fixes[j];
+        }
+
+        private void swap(int i, int j) {
+            val fix = fixes[i];
+            fixes[i] = fixes[j];
+            fixes[j] = fix;
+            positions[fixes[i]] = i;
+            positions[fixes[j]] = j;
+        }
+    }
+}
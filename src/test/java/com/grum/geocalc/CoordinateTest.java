@@ -18,6 +18,9 @@ import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.junit.runners.JUnit4;
 
+import java.util.BitSet;
+import java.util.Random;
+
 import static org.junit.Assert.*;
 
 /**
@@ -157,6 +160,49 @@ public class CoordinateTest {
         assertTrue(boundingArea.contains(point13));
     }
 
+    @Test
+    public void testContainsColumns() {
+        val areas = new BoundingArea[]{
+                BoundingArea.at(Point.at(Coordinate.fromDegrees(70), Coordinate.fromDegrees(145)),
+                        Point.at(Coordinate.fromDegrees(50), Coordinate.fromDegrees(110))),
+                //across the antimeridian
+                BoundingArea.at(Point.at(Coordinate.fromDegrees(10), Coordinate.fromDegrees(-165)),
+                        Point.at(Coordinate.fromDegrees(-30), Coordinate.fromDegrees(170)))
+        };
+
+        val random = new Random(7);
+        val latitudes = new double[1000];
+        val longitudes = new double[1000];
+        for (int i = 0; i < latitudes.length; i++) {
+            latitudes[i] = random.nextDouble() * 180 - 90;
+            longitudes[i] = random.nextDouble() * 360 - 180;
+        }
+        latitudes[0] = 60; //on the edges
+        longitudes[0] = 145;
+        latitudes[1] = 0;
+        longitudes[1] = 180;
+
+        for (val area : areas) {
+            val bits = BitSet.valueOf(area.contains(latitudes, longitudes));
+            assertTrue(bits.cardinality() > 0);
+            for (int i = 0; i < latitudes.length; i++) {
+                val point = Point.at(Coordinate.fromDegrees(latitudes[i]), Coordinate.fromDegrees(longitudes[i]));
+                assertEquals(area.contains(point), bits.get(i));
+            }
+        }
+
+        val reused = new long[]{-1, -1};
+        areas[0].contains(new double[]{60, 0}, new double[]{120, 0}, reused);
+        assertArrayEquals(new long[]{1, -1}, reused);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testContainsColumnsTooFewWords() {
+        val area = BoundingArea.at(Point.at(Coordinate.fromDegrees(70), Coordinate.fromDegrees(145)),
+                Point.at(Coordinate.fromDegrees(50), Coordinate.fromDegrees(110)));
+        area.contains(new double[65], new double[65], new long[1]);
+    }
+
     @Test
     public void testConvertingToSelf() {
         val gpsCoordinate = Coordinate.fromGPS(89, 60);
@@ -0,0 +1,168 @@
+/*
+ * BSD 3-Clause License
+ *
+ * Copyright (c) 2018, Grum Ltd (Romain Gallet)
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ *
+ * Neither the name of Geocalc nor the names of its
+ * contributors may be used to endorse or promote products derived from
+ * this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.grum.geocalc;
+
+import lombok.val;
+import org.junit.Test;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.Assert.*;
+
+public class DbscanTest {
+
+    private final Random random = new Random(5);
+
+    @Test
+    public void testAgainstBruteForce() {
+        val n = 3_000;
+        val latitudes = new double[n];
+        val longitudes = new double[n];
+        for (int i = 0; i < n; i++) {
+            if (i % 10 == 0) { //background noise
+                latitudes[i] = 51 + random.nextDouble();
+                longitudes[i] = -1 + random.nextDouble();
+            } else { //blobs of a few hundred meters
+                val blob = i % 7;
+                latitudes[i] = 51.1 + blob * 0.1 + random.nextGaussian() * 0.002;
+                longitudes[i] = -0.9 + blob * 0.1 + random.nextGaussian() * 0.003;
+            }
+        }
+
+        assertClusters(latitudes, longitudes, 100, 5);
+        assertClusters(latitudes, longitudes, 30, 3);
+        assertClusters(latitudes, longitudes, 1_000, 20);
+        assertClusters(latitudes, longitudes, 50, 1);
+    }
+
+    @Test
+    public void testAntimeridianAndPole() {
+        val latitudes = new double[400];
+        val longitudes = new double[400];
+        for (int i = 0; i < 200; i++) {
+            latitudes[i] = -10 + random.nextGaussian() * 0.001;
+            longitudes[i] = wrap(180 + random.nextGaussian() * 0.001);
+            latitudes[200 + i] = 89.999 + random.nextDouble() * 0.001;
+            longitudes[200 + i] = random.nextDouble() * 360 - 180;
+        }
+
+        val labels = assertClusters(latitudes, longitudes, 200, 4);
+        for (int i = 0; i < 400; i++) {
+            assertEquals(i < 200 ? 0 : 1, labels[i]);
+        }
+    }
+
+    private static double wrap(double longitude) {
+        return longitude > 180 ? longitude - 360 : longitude;
+    }
+
+    @Test
+    public void testEmpty() {
+        assertArrayEquals(new int[0], Dbscan.cluster(new double[0], new double[0], 10, 3));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidEpsilon() {
+        Dbscan.cluster(new double[1], new double[1], 0, 3);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testMismatchedLengths() {
+        Dbscan.cluster(new double[2], new double[1], 10, 3);
+    }
+
+    private int[] assertClusters(double[] latitudes, double[] longitudes, double epsilon, int minPoints) {
+        val n = latitudes.length;
+        val neighbours = new boolean[n][n];
+        val core = new boolean[n];
+        for (int i = 0; i < n; i++) {
+            int count = 0;
+            for (int j = 0; j < n; j++) {
+                neighbours[i][j] = distance(latitudes, longitudes, i, j) <= epsilon;
+                if (neighbours[i][j]) count++;
+            }
+            core[i] = count >= minPoints;
+        }
+
+        //classic DBSCAN, expanding clusters from core points
+        val expected = new int[n];
+        Arrays.fill(expected, Dbscan.NOISE);
+        int clusters = 0;
+        for (int i = 0; i < n; i++) {
+            if (!core[i] || expected[i] != Dbscan.NOISE) continue;
+            val stack = new ArrayDeque<Integer>();
+            expected[i] = clusters;
+            stack.push(i);
+            while (!stack.isEmpty()) {
+                val p = stack.pop();
+                for (int q = 0; q < n; q++) {
+                    if (neighbours[p][q] && core[q] && expected[q] == Dbscan.NOISE) {
+                        expected[q] = clusters;
+                        stack.push(q);
+                    }
+                }
+            }
+            clusters++;
+        }
+
+        val actual = Dbscan.cluster(latitudes, longitudes, epsilon, minPoints, new ForkJoinPool(4));
+
+        //core points: same partition, numbered by first appearance on both sides
+        val mapping = new HashMap<Integer, Integer>();
+        for (int i = 0; i < n; i++) {
+            if (core[i]) {
+                assertEquals(expected[i], (int) mapping.computeIfAbsent(actual[i], label -> mapping.size()));
+            }
+        }
+        assertEquals(clusters, mapping.size());
+
+        //border points: in the cluster of one of their core neighbours, noise otherwise
+        for (int i = 0; i < n; i++) {
+            if (core[i]) continue;
+            boolean found = false;
+            for (int j = 0; j < n; j++) {
+                found |= core[j] && neighbours[i][j] && actual[j] == actual[i];
+            }
+            assertEquals(found, actual[i] != Dbscan.NOISE);
+        }
+        return actual;
+    }
+
+    private static double distance(double[] latitudes, double[] longitudes, int i, int j) {
+        return EarthCalc.haversine.distance(Point.at(latitudes[i], longitudes[i]), Point.at(latitudes[j], longitudes[j]));
+    }
+}
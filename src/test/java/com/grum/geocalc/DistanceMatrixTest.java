@@ -0,0 +1,118 @@
+/*
+ * BSD 3-Clause License
+ *
+ * Copyright (c) 2018, Grum Ltd (Romain Gallet)
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ *
+ * Neither the name of Geocalc nor the names of its
+ * contributors may be used to endorse or promote products derived from
+ * this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.grum.geocalc;
+
+import lombok.val;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.Assert.assertEquals;
+
+public class DistanceMatrixTest {
+
+    private final Random random = new Random(5);
+
+    private double[] random(int n, double range) {
+        val values = new double[n];
+        for (int i = 0; i < n; i++) {
+            values[i] = random.nextDouble() * 2 * range - range;
+        }
+        return values;
+    }
+
+    @Test
+    public void testCompute() {
+        //large enough to be split in several tiles, over Europe where Vincenty always converges
+        val originLatitudes = random(300, 10);
+        val originLongitudes = random(300, 10);
+        val destinationLatitudes = random(200, 10);
+        val destinationLongitudes = random(200, 10);
+
+        val matrix = DistanceMatrix.between(originLatitudes, originLongitudes, destinationLatitudes, destinationLongitudes);
+        assertEquals(300, matrix.rows());
+        assertEquals(200, matrix.columns());
+
+        val gcd = new double[300 * 200];
+        matrix.compute(DistanceMatrix.Formula.GCD, gcd);
+        val haversine = new double[300 * 200];
+        matrix.compute(DistanceMatrix.Formula.HAVERSINE, haversine, new ForkJoinPool(3));
+        val vincenty = new float[300 * 200];
+        matrix.compute(DistanceMatrix.Formula.VINCENTY, vincenty);
+        val buffer = ByteBuffer.allocateDirect(300 * 200 * 8).asDoubleBuffer();
+        matrix.compute(DistanceMatrix.Formula.HAVERSINE, buffer);
+        val equirectangular = new double[300 * 200];
+        matrix.compute(DistanceMatrix.Formula.EQUIRECTANGULAR, equirectangular);
+        val karney = new double[300 * 200];
+        matrix.compute(DistanceMatrix.Formula.KARNEY, karney);
+
+        for (int i = 0; i < 300; i += 7) {
+            val origin = Point.at(Coordinate.fromDegrees(originLatitudes[i]), Coordinate.fromDegrees(originLongitudes[i]));
+            for (int j = 0; j < 200; j++) {
+                val destination = Point.at(Coordinate.fromDegrees(destinationLatitudes[j]), Coordinate.fromDegrees(destinationLongitudes[j]));
+
+                assertEquals(EarthCalc.gcd.distance(origin, destination), gcd[i * 200 + j], 1E-6);
+                assertEquals(EarthCalc.haversine.distance(origin, destination), haversine[i * 200 + j], 1E-6);
+                assertEquals(EarthCalc.haversine.distance(origin, destination), buffer.get(i * 200 + j), 1E-6);
+                assertEquals(EarthCalc.vincenty.distance(origin, destination), vincenty[i * 200 + j], 1);
+                assertEquals(EarthCalc.equirectangular.distance(origin, destination), equirectangular[i * 200 + j], 1E-6);
+                assertEquals(EarthCalc.karney.distance(origin, destination), karney[i * 200 + j], 1E-6);
+            }
+        }
+    }
+
+    @Test
+    public void testSingleRow() {
+        val destinationLatitudes = random(50_000, 80);
+        val destinationLongitudes = random(50_000, 180);
+
+        val matrix = DistanceMatrix.between(new double[]{51.4843774}, new double[]{-0.2912044}, destinationLatitudes, destinationLongitudes);
+        val distances = new double[50_000];
+        matrix.compute(DistanceMatrix.Formula.HAVERSINE, distances);
+
+        val expected = new double[50_000];
+        EarthCalc.haversine.distances(Point.at(Coordinate.fromDegrees(51.4843774), Coordinate.fromDegrees(-0.2912044)),
+                destinationLatitudes, destinationLongitudes, expected);
+        for (int j = 0; j < expected.length; j++) {
+            assertEquals(expected[j], distances[j], 0);
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testTooSmall() {
+        DistanceMatrix.between(new double[2], new double[2], new double[3], new double[3])
+                .compute(DistanceMatrix.Formula.GCD, new double[5]);
+    }
+}
@@ -17,7 +17,10 @@ import lombok.val;
 import lombok.var;
 import org.junit.Test;
 
+import java.util.Random;
+
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 
 @Slf4j
 public class DistanceTest {
@@ -325,6 +328,29 @@ public class DistanceTest {
         assertEquals(EarthCalc.vincenty.finalBearing(kew, richmond), Coordinate.fromDMS(198, 29, 44.82).degrees(), 10E-5);
     }
 
+    @Test
+    public void testVincentyInverse() {
+        //Kew
+        val kew = Point.at(Coordinate.fromDegrees(51.4843774), Coordinate.fromDegrees(-0.2912044));
+
+        //Richmond, London
+        val richmond = Point.at(Coordinate.fromDegrees(51.4613418), Coordinate.fromDegrees(-0.3035466));
+
+        val vincenty = EarthCalc.vincenty.inverse(kew, richmond);
+        assertEquals(EarthCalc.vincenty.distance(kew, richmond), vincenty.distance, 0);
+        assertEquals(EarthCalc.vincenty.bearing(kew, richmond), vincenty.initialBearing, 0);
+        assertEquals(EarthCalc.vincenty.finalBearing(kew, richmond), vincenty.finalBearing, 0);
+        assertEquals(3, vincenty.iterations);
+
+        val same = EarthCalc.vincenty.inverse(kew, kew);
+        assertEquals(0, same.distance, 0);
+        assertEquals(1, same.iterations);
+
+        val prepared = EarthCalc.prepare(kew).vincenty.inverse(richmond);
+        assertEquals(vincenty.distance, prepared.distance, 1E-6);
+        assertEquals(vincenty.iterations, prepared.iterations);
+    }
+
     @Test
     public void testMidPoint() {
         //Kew
@@ -340,4 +366,293 @@ public class DistanceTest {
         //comparing to results from http://www.movable-type.co.uk/scripts/latlong.html
         assertEquals(EarthCalc.gcd.midPoint(richmond, kew), Point.at(Coordinate.fromDegrees(51.47285976194266), Coordinate.fromDegrees(-0.2973770580524634)));
     }
+
+    @Test
+    public void testBatchDistances() {
+        //Kew
+        val kew = Point.at(Coordinate.fromDegrees(51.4843774), Coordinate.fromDegrees(-0.2912044));
+
+        //Richmond, Buenos Aires, Kew itself, and across the antimeridian
+        val latitudes = new double[]{51.4613418, -34.6099998, 51.4843774, -16.5};
+        val longitudes = new double[]{-0.3035466, -58.3699998, -0.2912044, 179.5};
+        val distances = new double[latitudes.length];
+
+        EarthCalc.gcd.distances(kew, latitudes, longitudes, distances);
+        for (int i = 0; i < latitudes.length; i++) {
+            val forePoint = Point.at(Coordinate.fromDegrees(latitudes[i]), Coordinate.fromDegrees(longitudes[i]));
+            assertEquals(EarthCalc.gcd.distance(kew, forePoint), distances[i], 1E-6);
+        }
+
+        EarthCalc.haversine.distances(kew, latitudes, longitudes, distances);
+        for (int i = 0; i < latitudes.length; i++) {
+            val forePoint = Point.at(Coordinate.fromDegrees(latitudes[i]), Coordinate.fromDegrees(longitudes[i]));
+            assertEquals(EarthCalc.haversine.distance(kew, forePoint), distances[i], 1E-6);
+        }
+
+        EarthCalc.vincenty.distances(kew, latitudes, longitudes, distances);
+        for (int i = 0; i < latitudes.length; i++) {
+            val forePoint = Point.at(Coordinate.fromDegrees(latitudes[i]), Coordinate.fromDegrees(longitudes[i]));
+            assertEquals(EarthCalc.vincenty.distance(kew, forePoint), distances[i], 1E-6);
+        }
+    }
+
+    @Test
+    public void testPrimitiveOverloads() {
+        //Kew and Buenos Aires
+        val kew = Point.at(51.4843774, -0.2912044);
+        val buenosAires = Point.at(-34.6099998, -58.3699998);
+        assertEquals(Point.at(Coordinate.fromDegrees(51.4843774), Coordinate.fromDegrees(-0.2912044)), kew);
+
+        val lat1 = kew.latitude;
+        val lon1 = kew.longitude;
+        val lat2 = buenosAires.latitude;
+        val lon2 = buenosAires.longitude;
+
+        assertEquals(EarthCalc.gcd.distance(kew, buenosAires), EarthCalc.gcd.distance(lat1, lon1, lat2, lon2), 0);
+        assertEquals(EarthCalc.gcd.bearing(kew, buenosAires), EarthCalc.gcd.bearing(lat1, lon1, lat2, lon2), 0);
+        assertEquals(EarthCalc.haversine.distance(kew, buenosAires), EarthCalc.haversine.distance(lat1, lon1, lat2, lon2), 0);
+        assertEquals(EarthCalc.equirectangular.distance(kew, buenosAires), EarthCalc.equirectangular.distance(lat1, lon1, lat2, lon2), 0);
+        assertEquals(EarthCalc.vincenty.distance(kew, buenosAires), EarthCalc.vincenty.distance(lat1, lon1, lat2, lon2), 0);
+
+        val into = new double[4];
+        val inverse = EarthCalc.vincenty.inverse(kew, buenosAires);
+        assertEquals(inverse.distance, EarthCalc.vincenty.inverse(lat1, lon1, lat2, lon2, into), 0);
+        assertEquals(inverse.initialBearing, into[0], 0);
+        assertEquals(inverse.finalBearing, into[1], 0);
+        assertEquals(inverse.iterations, (int) into[2]);
+
+        EarthCalc.gcd.midPoint(lat1, lon1, lat2, lon2, into);
+        assertEquals(EarthCalc.gcd.midPoint(kew, buenosAires), Point.at(into[0], into[1]));
+
+        EarthCalc.gcd.pointAt(lat1, lon1, 123, 4567, into);
+        assertEquals(EarthCalc.gcd.pointAt(kew, 123, 4567), Point.at(into[0], into[1]));
+
+        EarthCalc.gcd.around(lat1, lon1, 3000, into);
+        val area = EarthCalc.gcd.around(kew, 3000);
+        assertEquals(area.northEast, Point.at(into[0], into[1]));
+        assertEquals(area.southWest, Point.at(into[2], into[3]));
+    }
+
+    @Test
+    public void testEquirectangularErrorBound() {
+        val random = new Random(42);
+        for (int i = 0; i < 10_000; ) {
+            //both points within ±80°, as documented
+            val standPoint = Point.at(Coordinate.fromDegrees(random.nextDouble() * 160 - 80), Coordinate.fromDegrees(random.nextDouble() * 360 - 180));
+            val forePoint = EarthCalc.gcd.pointAt(standPoint, random.nextDouble() * 360, 1 + random.nextDouble() * 100_000);
+            if (Math.abs(forePoint.latitude) > 80) continue;
+            i++;
+
+            val expected = EarthCalc.vincenty.distance(standPoint, forePoint);
+            assertEquals(expected, EarthCalc.equirectangular.distance(standPoint, forePoint), expected * 5E-4);
+        }
+
+        //100 km every way from the edge of the range, where the approximation is worst
+        for (int bearing = 0; bearing < 360; bearing += 15) {
+            for (val latitude : new double[]{79.1, -79.1}) {
+                val standPoint = Point.at(latitude, 0);
+                val forePoint = EarthCalc.gcd.pointAt(standPoint, bearing, 100_000);
+                if (Math.abs(forePoint.latitude) > 80) continue;
+
+                val expected = EarthCalc.vincenty.distance(standPoint, forePoint);
+                assertEquals(expected, EarthCalc.equirectangular.distance(standPoint, forePoint), expected * 5E-4);
+            }
+        }
+    }
+
+    @Test
+    public void testEquirectangularDistance() {
+        //Kew and Richmond, London
+        val kew = Point.at(Coordinate.fromDegrees(51.4843774), Coordinate.fromDegrees(-0.2912044));
+        val richmond = Point.at(Coordinate.fromDegrees(51.4613418), Coordinate.fromDegrees(-0.3035466));
+        assertEquals(EarthCalc.vincenty.distance(kew, richmond), EarthCalc.equirectangular.distance(kew, richmond), 1);
+        assertEquals(0, EarthCalc.equirectangular.distance(kew, kew), 0);
+
+        //Fiji, across the antimeridian
+        val west = Point.at(Coordinate.fromDegrees(-16.5), Coordinate.fromDegrees(179.9));
+        val east = Point.at(Coordinate.fromDegrees(-16.5), Coordinate.fromDegrees(-179.9));
+        assertEquals(EarthCalc.vincenty.distance(west, east), EarthCalc.equirectangular.distance(west, east), 1);
+
+        val distances = new double[1];
+        EarthCalc.equirectangular.distances(west, new double[]{-16.5}, new double[]{-179.9}, distances);
+        assertEquals(EarthCalc.equirectangular.distance(west, east), distances[0], 0);
+    }
+
+    @Test
+    public void testVincentyPointAt() {
+        val random = new Random(13);
+        for (int i = 0; i < 10_000; i++) {
+            val standPoint = Point.at(random.nextDouble() * 178 - 89, random.nextDouble() * 360 - 180);
+            val bearing = random.nextDouble() * 360;
+            val distance = random.nextDouble() * 10_000_000;
+
+            val forePoint = EarthCalc.vincenty.pointAt(standPoint, bearing, distance);
+            val karney = EarthCalc.karney.pointAt(standPoint, bearing, distance);
+            assertEquals(0, EarthCalc.karney.distance(forePoint, karney), 1E-4);
+
+            val inverse = EarthCalc.vincenty.inverse(standPoint, forePoint);
+            assertEquals(distance, inverse.distance, 1E-5);
+        }
+
+        //Kew to Richmond and back
+        val kew = Point.at(51.4843774, -0.2912044);
+        val richmond = Point.at(51.4613418, -0.3035466);
+        val inverse = EarthCalc.vincenty.inverse(kew, richmond);
+        val allegedRichmond = EarthCalc.vincenty.pointAt(kew, inverse.initialBearing, inverse.distance);
+        assertEquals(richmond.latitude, allegedRichmond.latitude, 1E-10);
+        assertEquals(richmond.longitude, allegedRichmond.longitude, 1E-10);
+
+        val sameKew = EarthCalc.vincenty.pointAt(kew, 45, 0);
+        assertEquals(kew.latitude, sameKew.latitude, 1E-12);
+        assertEquals(kew.longitude, sameKew.longitude, 1E-12);
+    }
+
+    @Test
+    public void testVincentyPointsAt() {
+        val kew = Point.at(51.4843774, -0.2912044);
+        val bearings = new double[]{0, 90, 200.5, 359};
+        val distances = new double[]{1000, 15_000_000, 250, 40_000};
+        val latitudes = new double[4];
+        val longitudes = new double[4];
+        EarthCalc.vincenty.pointsAt(kew, bearings, distances, latitudes, longitudes);
+
+        val into = new double[2];
+        for (int i = 0; i < bearings.length; i++) {
+            EarthCalc.vincenty.pointAt(kew.latitude, kew.longitude, bearings[i], distances[i], into);
+            assertEquals(into[0], latitudes[i], 0);
+            assertEquals(into[1], longitudes[i], 0);
+        }
+    }
+
+    @Test
+    public void testEllipsoidalAround() {
+        val kew = Point.at(51.4843774, -0.2912044);
+        for (val area : new BoundingArea[]{EarthCalc.vincenty.around(kew, 3000), EarthCalc.karney.around(kew, 3000)}) {
+            assertEquals(3000, EarthCalc.vincenty.distance(kew, area.northEast), 1E-5);
+            assertEquals(3000, EarthCalc.vincenty.distance(kew, area.southWest), 1E-5);
+            assertEquals(45, EarthCalc.vincenty.bearing(kew, area.northEast), 1E-9);
+            assertEquals(225, EarthCalc.vincenty.bearing(kew, area.southWest), 1E-9);
+        }
+
+        val into = new double[4];
+        EarthCalc.vincenty.around(kew.latitude, kew.longitude, 3000, into);
+        assertEquals(EarthCalc.vincenty.around(kew, 3000).northEast.latitude, into[0], 0);
+        assertEquals(EarthCalc.vincenty.around(kew, 3000).southWest.longitude, into[3], 0);
+    }
+
+    @Test
+    public void testVincentyEnclosing() {
+        val random = new Random(17);
+        val centres = new Point[]{Point.at(51.4843774, -0.2912044), Point.at(-16.5, 179.9), Point.at(0, 0),
+                Point.at(-70, -20), Point.at(88, 120)};
+        for (val centre : centres) {
+            for (val radius : new double[]{100, 50_000, 1_000_000}) {
+                val area = EarthCalc.vincenty.enclosing(centre, radius);
+
+                var east = 0d;
+                for (int i = 0; i < 2_000; i++) {
+                    val bearing = random.nextDouble() * 360;
+                    val point = EarthCalc.vincenty.pointAt(centre, bearing, radius * (i % 2 == 0 ? 1 : random.nextDouble()));
+                    assertEquals(true, area.contains(point));
+                    if (i % 2 == 0 && bearing < 180) {
+                        east = Math.max(east, (point.longitude - centre.longitude + 360) % 360);
+                    }
+                }
+
+                //tight: the edges are reached by the circle
+                val north = EarthCalc.vincenty.pointAt(centre, 0, radius);
+                if (area.northEast.latitude < 90) {
+                    assertEquals(north.latitude, area.northEast.latitude, 1E-12);
+                    assertEquals(east, (area.northEast.longitude - centre.longitude + 360) % 360, 1E-3 * east);
+                } else {
+                    assertEquals(-180, area.southWest.longitude, 0);
+                    assertEquals(180, area.northEast.longitude, 0);
+                }
+                assertEquals(EarthCalc.vincenty.pointAt(centre, 180, radius).latitude, area.southWest.latitude, 1E-12);
+            }
+        }
+    }
+
+    @Test
+    public void testVincentyEnclosingNearPoles() {
+        //circles passing close to a pole, where the bearing furthest east is far from the spherical one
+        assertEnclosing(Point.at(69.3618, 42.6129), 2_300_693.55, 7_200);
+        assertEnclosing(Point.at(-70.706, 137.89), 2_036_801, 7_200);
+
+        val random = new Random(29);
+        for (int i = 0; i < 300; i++) {
+            val latitude = (60 + random.nextDouble() * 29.5) * (random.nextBoolean() ? 1 : -1);
+            val centre = Point.at(latitude, random.nextDouble() * 360 - 180);
+            //up to a little beyond the pole
+            val toPole = EarthCalc.vincenty.distance(centre, Point.at(Math.signum(latitude) * 90, centre.longitude));
+            assertEnclosing(centre, toPole * (0.5 + random.nextDouble() * 0.6), 720);
+        }
+    }
+
+    private static void assertEnclosing(Point centre, double radius, int bearings) {
+        val area = EarthCalc.vincenty.enclosing(centre, radius);
+        for (int i = 0; i < bearings; i++) {
+            val point = EarthCalc.vincenty.pointAt(centre, 360d * i / bearings, radius);
+            assertTrue(centre + ", " + radius + ": " + point + " outside " + area, area.contains(point));
+        }
+    }
+
+    @Test
+    public void testCrossTrackDistance() {
+        //movable-type example, scaled from a 6371 km radius
+        val start = Point.at(53.3206, -1.7297);
+        val end = Point.at(53.1887, 0.1334);
+        val point = Point.at(53.2611, -0.7972);
+        val scale = EarthCalc.EARTH_RADIUS / 6_371_000;
+
+        assertEquals(-307.5 * scale, EarthCalc.gcd.crossTrackDistance(start, end, point), 0.1);
+        assertEquals(62_331 * scale, EarthCalc.gcd.alongTrackDistance(start, end, point), 1);
+        assertEquals(307.5 * scale, EarthCalc.gcd.crossTrackDistance(end, start, point), 0.1);
+
+        //behind the start, closest to the start of the segment
+        val behind = EarthCalc.gcd.pointAt(start, EarthCalc.gcd.bearing(start, end) + 180, 1000);
+        assertEquals(-1000, EarthCalc.gcd.alongTrackDistance(start, end, behind), 1E-6);
+        val closest = EarthCalc.gcd.closestPoint(start, end, behind);
+        assertEquals(start.latitude, closest.latitude, 1E-12);
+        assertEquals(start.longitude, closest.longitude, 1E-12);
+
+        //on the segment, at the foot of the perpendicular
+        val foot = EarthCalc.gcd.closestPoint(start, end, point);
+        assertEquals(0, EarthCalc.gcd.crossTrackDistance(start, end, foot), 1E-6);
+        assertEquals(EarthCalc.gcd.alongTrackDistance(start, end, point), EarthCalc.haversine.distance(start, foot), 1E-6);
+        assertEquals(Math.abs(EarthCalc.gcd.crossTrackDistance(start, end, point)), EarthCalc.haversine.distance(point, foot), 1E-6);
+    }
+
+    @Test
+    public void testClosestPointOnVectors() {
+        //the degree overload matches the closest point of the unit vectors, within the arc, past either end, or degenerate
+        val random = new Random(31);
+        val a = new double[3];
+        val b = new double[3];
+        val p = new double[3];
+        val c = new double[3];
+        val into = new double[2];
+        for (int i = 0; i < 10_000; i++) {
+            val latitude1 = random.nextDouble() * 180 - 90;
+            val longitude1 = random.nextDouble() * 360 - 180;
+            val latitude2 = i % 100 == 0 ? latitude1 : random.nextDouble() * 180 - 90;
+            val longitude2 = i % 100 == 0 ? longitude1 : random.nextDouble() * 360 - 180;
+            val latitude = random.nextDouble() * 180 - 90;
+            val longitude = random.nextDouble() * 360 - 180;
+            EarthCalc.gcd.toVector(latitude1, longitude1, a);
+            EarthCalc.gcd.toVector(latitude2, longitude2, b);
+            EarthCalc.gcd.toVector(latitude, longitude, p);
+
+            val δ = EarthCalc.gcd.closest(a, 0, b, 0, p, c);
+            assertEquals(δ * EarthCalc.EARTH_RADIUS, EarthCalc.gcd.closestPoint(latitude1, longitude1, latitude2, longitude2, latitude, longitude, into), 0);
+            assertEquals(Math.toDegrees(Math.atan2(c[2], Math.hypot(c[0], c[1]))), into[0], 0);
+            assertEquals(Math.toDegrees(Math.atan2(c[1], c[0])), into[1], 0);
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testBatchDistancesMismatchingColumns() {
+        val kew = Point.at(Coordinate.fromDegrees(51.4843774), Coordinate.fromDegrees(-0.2912044));
+        EarthCalc.haversine.distances(kew, new double[2], new double[1], new double[2]);
+    }
 }
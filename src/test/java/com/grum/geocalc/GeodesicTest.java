@@ -0,0 +1,166 @@
+/*
+ * BSD 3-Clause License
+ *
+ * Copyright (c) 2018, Grum Ltd (Romain Gallet)
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ *
+ * Neither the name of Geocalc nor the names of its
+ * contributors may be used to endorse or promote products derived from
+ * this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.grum.geocalc;
+import lombok.val;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class GeodesicTest {
+
+    private static Point point(double latitude, double longitude) {
+        return Point.at(Coordinate.fromDegrees(latitude), Coordinate.fromDegrees(longitude));
+    }
+
+    private static double angle(double bearing1, double bearing2) {
+        val difference = Math.abs(bearing1 - bearing2);
+        return Math.min(difference, 360 - difference);
+    }
+
+    @Test
+    public void testReferenceInverse() {
+        //JFK to Paris CDG, from GeographicLib's own tests
+        val inverse = EarthCalc.karney.inverse(point(40.6, -73.8), point(49.01666667, 2.55));
+        assertEquals(5853226, inverse.distance, 0.5);
+        assertEquals(53.47022, inverse.initialBearing, 0.5E-5);
+        assertEquals(111.59367, inverse.finalBearing, 0.5E-5);
+
+        //along the equator, then over the poles
+        assertEquals(19926189, EarthCalc.karney.distance(point(0, 0), point(0, 179)), 0.5);
+        assertEquals(19980862, EarthCalc.karney.distance(point(0, 0), point(0, 179.5)), 0.5);
+        assertEquals(20003931, EarthCalc.karney.distance(point(0, 0), point(0, 180)), 0.5);
+        assertEquals(19893357, EarthCalc.karney.distance(point(0, 0), point(1, 180)), 0.5);
+
+        //very short
+        assertEquals(0.072, EarthCalc.karney.distance(point(36.493349428792, 0), point(36.49334942879201, .0000008)), 0.5E-3);
+    }
+
+    @Test
+    public void testReferenceNearlyAntipodal() {
+        //cases which used to need special care in GeographicLib
+        assertEquals(20003898.214, EarthCalc.karney.distance(point(88.202499451857, 0), point(-88.202499451857, 179.981022032992859592)), 0.5E-3);
+        assertEquals(20003925.854, EarthCalc.karney.distance(point(-89.262080389218, 0), point(89.262080389218, 179.992207982775375662)), 0.5E-3);
+        assertEquals(19993558.287, EarthCalc.karney.distance(point(56.320923501171, 0), point(-56.320923501171, 179.664747671772880215)), 0.5E-3);
+        assertEquals(19991596.095, EarthCalc.karney.distance(point(52.784459512564, 0), point(-52.784459512563990912, 179.634407464943777557)), 0.5E-3);
+        assertEquals(19989144.774, EarthCalc.karney.distance(point(48.522876735459, 0), point(-48.52287673545898293, 179.599720456223079643)), 0.5E-3);
+    }
+
+    @Test
+    public void testReferenceDirect() {
+        val point = EarthCalc.karney.pointAt(point(40.63972222, -73.77888889), 53.5, 5850e3);
+        assertEquals(49.01467, point.latitude, 0.5E-5);
+        assertEquals(2.56106, point.longitude, 0.5E-5);
+    }
+
+    @Test
+    public void testAgainstVincenty() {
+        val random = new Random(3);
+        for (int i = 0; i < 10_000; i++) {
+            val standPoint = point(Math.toDegrees(Math.asin(2 * random.nextDouble() - 1)), random.nextDouble() * 360 - 180);
+            val forePoint = point(Math.toDegrees(Math.asin(2 * random.nextDouble() - 1)), random.nextDouble() * 360 - 180);
+
+            val karney = EarthCalc.karney.inverse(standPoint, forePoint);
+            assertTrue(karney.iterations < 10);
+
+            EarthCalc.vincenty.Vincenty vincenty;
+            try {
+                vincenty = EarthCalc.vincenty.inverse(standPoint, forePoint);
+            } catch (IllegalStateException e) {
+                continue;
+            }
+            assertEquals(vincenty.distance, karney.distance, 1E-3);
+            assertEquals(0, angle(vincenty.initialBearing, karney.initialBearing), 1E-6);
+            assertEquals(0, angle(vincenty.finalBearing, karney.finalBearing), 1E-6);
+        }
+    }
+
+    @Test
+    public void testConvergesWhereVincentyDoesNot() {
+        val standPoint = point(0, 0);
+        val forePoint = point(0.5, 179.5);
+        try {
+            EarthCalc.vincenty.distance(standPoint, forePoint);
+            fail();
+        } catch (IllegalStateException e) {
+            //expected
+        }
+
+        val karney = EarthCalc.karney.inverse(standPoint, forePoint);
+        assertTrue(karney.iterations < 20);
+
+        val back = EarthCalc.karney.pointAt(standPoint, karney.initialBearing, karney.distance);
+        assertEquals(0, EarthCalc.karney.distance(forePoint, back), 1E-6);
+    }
+
+    @Test
+    public void testDirectInverseRoundTrip() {
+        val random = new Random(5);
+        for (int i = 0; i < 10_000; i++) {
+            val standPoint = point(random.nextDouble() * 180 - 90, random.nextDouble() * 360 - 180);
+            val bearing = random.nextDouble() * 360;
+            val distance = random.nextDouble() * 19_000_000;
+
+            val forePoint = EarthCalc.karney.pointAt(standPoint, bearing, distance);
+            val inverse = EarthCalc.karney.inverse(standPoint, forePoint);
+            assertEquals(distance, inverse.distance, 1E-6);
+            if (Math.abs(standPoint.latitude) < 89) { //bearings are meaningless at the poles
+                assertEquals(0, angle(bearing, inverse.initialBearing), 1E-9);
+            }
+        }
+    }
+
+    @Test
+    public void testZeroDistance() {
+        val kew = point(51.4843774, -0.2912044);
+        assertEquals(0, EarthCalc.karney.distance(kew, kew), 0);
+
+        val pointAt = EarthCalc.karney.pointAt(kew, 42, 0);
+        assertEquals(kew.latitude, pointAt.latitude, 1E-12);
+        assertEquals(kew.longitude, pointAt.longitude, 1E-12);
+    }
+
+    @Test
+    public void testBatchDistances() {
+        val kew = point(51.4843774, -0.2912044);
+        val latitudes = new double[]{51.4613418, -34.6099998, 51.4843774, -51.4843774};
+        val longitudes = new double[]{-0.3035466, -58.3699998, -0.2912044, 179.7};
+        val distances = new double[latitudes.length];
+
+        EarthCalc.karney.distances(kew, latitudes, longitudes, distances);
+        for (int i = 0; i < latitudes.length; i++) {
+            assertEquals(EarthCalc.karney.distance(kew, point(latitudes[i], longitudes[i])), distances[i], 0);
+        }
+    }
+}
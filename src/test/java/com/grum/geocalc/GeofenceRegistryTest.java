@@ -0,0 +1,222 @@
+/*
+ * BSD 3-Clause License
+ *
+ * Copyright (c) 2018, Grum Ltd (Romain Gallet)
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ *
+ * Neither the name of Geocalc nor the names of its
+ * contributors may be used to endorse or promote products derived from
+ * this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.grum.geocalc;
+
+import lombok.val;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.LongStream;
+
+import static org.junit.Assert.*;
+
+public class GeofenceRegistryTest {
+
+    private final Random random = new Random(11);
+    private final GeofenceRegistry registry = GeofenceRegistry.withCellSize(1);
+    private final BoundingArea[] areas = new BoundingArea[500];
+    private final Point[] centres = new Point[500];
+    private final double[] radii = new double[500];
+
+    {
+        for (int i = 0; i < areas.length; i++) {
+            val centre = randomPoint();
+            areas[i] = EarthCalc.gcd.around(centre, 1_000 + random.nextDouble() * 300_000);
+            registry.add(i, areas[i]);
+
+            centres[i] = randomPoint();
+            radii[i] = 1_000 + random.nextDouble() * 300_000;
+            registry.addCircle(areas.length + i, centres[i], radii[i]);
+        }
+
+        //larger than the grid is meant for, and going across the antimeridian
+        registry.add(-1, BoundingArea.at(Point.at(60, -150), Point.at(-60, 150)));
+        registry.addCircle(-2, Point.at(80, 0), 3_000_000);
+    }
+
+    private Point randomPoint() {
+        return Point.at(random.nextDouble() * 180 - 90, random.nextDouble() * 360 - 180);
+    }
+
+    @Test
+    public void testFencesContaining() {
+        assertEquals(2 * areas.length + 2, registry.size());
+
+        for (int i = 0; i < 2_000; i++) {
+            assertFencesContaining(randomPoint());
+        }
+        for (int i = 0; i < areas.length; i++) {
+            assertFencesContaining(centres[i]);
+            assertFencesContaining(areas[i].northEast);
+            assertFencesContaining(areas[i].southWest);
+        }
+
+        assertFencesContaining(Point.at(0, 180));
+        assertFencesContaining(Point.at(0, -180));
+        assertFencesContaining(Point.at(90, 0));
+    }
+
+    private void assertFencesContaining(Point point) {
+        val expected = LongStream.concat(
+                LongStream.range(0, areas.length).filter(i -> areas[(int) i].contains(point)),
+                LongStream.range(0, areas.length).filter(i -> EarthCalc.haversine.distance(centres[(int) i], point) <= radii[(int) i] * (1 - 1E-9)).map(i -> areas.length + i));
+        val expectedLarge = LongStream.concat(
+                point.latitude >= -60 && point.latitude <= 60 && (point.longitude >= 150 || point.longitude <= -150) ? LongStream.of(-1) : LongStream.empty(),
+                EarthCalc.haversine.distance(Point.at(80, 0), point) <= 3_000_000 ? LongStream.of(-2) : LongStream.empty());
+
+        val actual = registry.fencesContaining(point);
+        Arrays.sort(actual);
+
+        //circles right on the edge may go either way
+        val exact = LongStream.concat(expected, expectedLarge).sorted().toArray();
+        for (val id : exact) {
+            assertTrue(point + " should be within " + id, Arrays.binarySearch(actual, id) >= 0);
+        }
+        for (val id : actual) {
+            if (Arrays.binarySearch(exact, id) < 0) {
+                assertTrue(id >= areas.length);
+                val i = (int) (id - areas.length);
+                assertEquals(radii[i], EarthCalc.haversine.distance(centres[i], point), 1E-3);
+            }
+        }
+    }
+
+    @Test
+    public void testRemove() {
+        val point = areas[3].northEast;
+        assertTrue(LongStream.of(registry.fencesContaining(point)).anyMatch(id -> id == 3));
+
+        assertTrue(registry.remove(3));
+        assertFalse(registry.remove(3));
+        assertTrue(LongStream.of(registry.fencesContaining(point)).noneMatch(id -> id == 3));
+        assertTrue(LongStream.of(registry.fencesContaining(Point.at(0, 179))).anyMatch(id -> id == -1));
+
+        assertTrue(registry.remove(-1));
+        assertTrue(LongStream.of(registry.fencesContaining(Point.at(0, 179))).noneMatch(id -> id == -1));
+        assertEquals(2 * areas.length, registry.size());
+    }
+
+    @Test
+    public void testReplace() {
+        registry.addCircle(3, Point.at(-45, 100), 1000);
+
+        assertTrue(LongStream.of(registry.fencesContaining(Point.at(-45, 100))).anyMatch(id -> id == 3));
+        assertTrue(LongStream.of(registry.fencesContaining(areas[3].northEast)).noneMatch(id -> id == 3));
+        assertEquals(2 * areas.length + 2, registry.size());
+    }
+
+    @Test
+    public void testConcurrentChanges() throws InterruptedException {
+        val point = Point.at(10, 10);
+        registry.add(42_000, EarthCalc.gcd.around(point, 100));
+
+        val done = new CountDownLatch(1);
+        val failure = new AtomicReference<Throwable>();
+        val writer = new Thread(() -> {
+            try {
+                for (int i = 0; i < 10_000; i++) {
+                    registry.addCircle(43_000 + i % 10, point, 1_000 + i);
+                    registry.remove(43_000 + (i + 5) % 10);
+                }
+            } catch (Throwable e) {
+                failure.set(e);
+            } finally {
+                done.countDown();
+            }
+        });
+        writer.start();
+
+        while (done.getCount() > 0) {
+            //the fence that never changes is always found
+            assertTrue(LongStream.of(registry.fencesContaining(point)).anyMatch(id -> id == 42_000));
+        }
+        writer.join();
+
+        assertNull(failure.get());
+        assertEquals(2 * areas.length + 3 + 5, registry.size());
+    }
+
+    @Test
+    public void testConcurrentReplace() throws InterruptedException {
+        val point = Point.at(-20, 60);
+        val small = EarthCalc.gcd.around(point, 100);
+        val large = EarthCalc.gcd.around(point, 2_000_000);
+        registry.add(44_000, small);
+
+        val done = new CountDownLatch(1);
+        val failure = new AtomicReference<Throwable>();
+        val writer = new Thread(() -> {
+            try {
+                //between cells and large fences, both ways
+                for (int i = 0; i < 20_000; i++) {
+                    switch (i % 4) {
+                        case 0:
+                            registry.addCircle(44_000, point, 1_000);
+                            break;
+                        case 1:
+                            registry.add(44_000, large);
+                            break;
+                        case 2:
+                            registry.addCircle(44_000, point, 3_000_000);
+                            break;
+                        default:
+                            registry.add(44_000, small);
+                    }
+                }
+            } catch (Throwable e) {
+                failure.set(e);
+            } finally {
+                done.countDown();
+            }
+        });
+        writer.start();
+
+        while (done.getCount() > 0) {
+            //the old fence or the new one, once
+            assertEquals(1, LongStream.of(registry.fencesContaining(point)).filter(id -> id == 44_000).count());
+        }
+        writer.join();
+
+        assertNull(failure.get());
+        assertEquals(1, LongStream.of(registry.fencesContaining(point)).filter(id -> id == 44_000).count());
+        assertEquals(2 * areas.length + 3, registry.size());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidCellSize() {
+        GeofenceRegistry.withCellSize(-1);
+    }
+}
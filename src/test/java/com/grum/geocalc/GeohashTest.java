@@ -0,0 +1,155 @@
+/*
+ * BSD 3-Clause License
+ *
+ * Copyright (c) 2018, Grum Ltd (Romain Gallet)
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ *
+ * Neither the name of Geocalc nor the names of its
+ * contributors may be used to endorse or promote products derived from
+ * this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.grum.geocalc;
+
+import lombok.val;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class GeohashTest {
+
+    @Test
+    public void testEncode() {
+        //https://en.wikipedia.org/wiki/Geohash
+        assertEquals("u4pruydqqvj", Geohash.toBase32(Geohash.encode(57.64911, 10.40744, 11), 11));
+        assertEquals("ezs42", Geohash.toBase32(Geohash.encode(42.6, -5.6, 5), 5));
+        assertEquals(Geohash.encode(57.64911, 10.40744, 11), Geohash.encode(Point.at(Coordinate.fromDegrees(57.64911), Coordinate.fromDegrees(10.40744)), 11));
+
+        assertEquals(Geohash.encode(42.6, -5.6, 5), Geohash.fromBase32("ezs42"));
+    }
+
+    @Test
+    public void testDecode() {
+        val hash = Geohash.fromBase32("ezs42");
+
+        val centre = Geohash.decode(hash, 5);
+        assertEquals(42.605, centre.latitude, 1E-3);
+        assertEquals(-5.603, centre.longitude, 1E-3);
+
+        val cell = Geohash.bounds(hash, 5);
+        assertTrue(cell.contains(centre));
+        assertEquals(42.583, cell.southWest.latitude, 1E-3);
+        assertEquals(42.627, cell.northEast.latitude, 1E-3);
+        assertEquals(-5.625, cell.southWest.longitude, 1E-3);
+        assertEquals(-5.581, cell.northEast.longitude, 1E-3);
+    }
+
+    @Test
+    public void testRoundTrip() {
+        val random = new Random(3);
+        val latitudes = new double[1000];
+        val longitudes = new double[latitudes.length];
+        for (int i = 0; i < latitudes.length; i++) {
+            latitudes[i] = random.nextDouble() * 180 - 90;
+            longitudes[i] = random.nextDouble() * 360 - 180;
+        }
+
+        for (int precision = 1; precision <= Geohash.MAX_PRECISION; precision++) {
+            val hashes = new long[latitudes.length];
+            Geohash.encode(latitudes, longitudes, precision, hashes);
+
+            val decodedLatitudes = new double[latitudes.length];
+            val decodedLongitudes = new double[latitudes.length];
+            Geohash.decode(hashes, precision, decodedLatitudes, decodedLongitudes);
+
+            for (int i = 0; i < latitudes.length; i++) {
+                val point = Point.at(Coordinate.fromDegrees(latitudes[i]), Coordinate.fromDegrees(longitudes[i]));
+                assertTrue(Geohash.bounds(hashes[i], precision).contains(point));
+                assertEquals(Geohash.decode(hashes[i], precision), Point.at(Coordinate.fromDegrees(decodedLatitudes[i]), Coordinate.fromDegrees(decodedLongitudes[i])));
+                assertEquals(hashes[i], Geohash.fromBase32(Geohash.toBase32(hashes[i], precision)));
+            }
+        }
+    }
+
+    @Test
+    public void testNeighbours() {
+        val hash = Geohash.fromBase32("gcpuvx");
+        val cell = Geohash.bounds(hash, 6);
+
+        val neighbours = new long[8];
+        Geohash.neighbours(hash, 6, neighbours);
+
+        val north = Geohash.bounds(neighbours[0], 6);
+        assertEquals(cell.northEast.latitude, north.southWest.latitude, 1E-12);
+        assertEquals(cell.southWest.longitude, north.southWest.longitude, 1E-12);
+
+        val southWest = Geohash.bounds(neighbours[5], 6);
+        assertEquals(cell.southWest.latitude, southWest.northEast.latitude, 1E-12);
+        assertEquals(cell.southWest.longitude, southWest.northEast.longitude, 1E-12);
+
+        //wrapping around the antimeridian
+        val eastmost = Geohash.encode(10, 179.99, 6);
+        val east = Geohash.bounds(Geohash.neighbour(eastmost, 6, 0, 1), 6);
+        assertEquals(-180, east.southWest.longitude, 0);
+
+        //nothing beyond the poles
+        assertEquals(-1, Geohash.neighbour(Geohash.encode(89.999, 0, 6), 6, 1, 0));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidCharacter() {
+        Geohash.fromBase32("ezs4a");
+    }
+
+    @Test
+    public void testInvalidPrecision() {
+        val hash = Geohash.fromBase32("gcpuvxr");
+        try {
+            Geohash.decode(hash, 6); //one character too many
+            fail();
+        } catch (IllegalArgumentException e) {
+            assertEquals("Expected a geohash of 6 characters, got " + Long.toHexString(hash), e.getMessage());
+        }
+        try {
+            Geohash.neighbour(hash, 6, 1, 0);
+            fail();
+        } catch (IllegalArgumentException e) {
+            assertEquals("Expected a geohash of 6 characters, got " + Long.toHexString(hash), e.getMessage());
+        }
+        try {
+            Geohash.decode(new long[]{hash}, 13, new double[1], new double[1]);
+            fail();
+        } catch (IllegalArgumentException e) {
+            assertEquals("Precision must be within [1, 12], got 13", e.getMessage());
+        }
+        try {
+            Geohash.bounds(0, 0);
+            fail();
+        } catch (IllegalArgumentException e) {
+            assertEquals("Precision must be within [1, 12], got 0", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,157 @@
+/*
+ * BSD 3-Clause License
+ *
+ * Copyright (c) 2018, Grum Ltd (Romain Gallet)
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ *
+ * Neither the name of Geocalc nor the names of its
+ * contributors may be used to endorse or promote products derived from
+ * this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.grum.geocalc;
+
+import lombok.val;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.StreamSupport;
+
+import static org.junit.Assert.*;
+
+public class GreatCircleArcTest {
+
+    private final Point london = Point.at(51.5074, -0.1278);
+    private final Point newYork = Point.at(40.7128, -74.0060);
+
+    @Test
+    public void testFill() {
+        val arc = GreatCircleArc.between(london, newYork);
+        assertEquals(EarthCalc.gcd.distance(london, newYork), arc.distance(), 1E-6);
+
+        val latitudes = new double[1001];
+        val longitudes = new double[1001];
+        arc.fill(latitudes, longitudes);
+        assertEquals(london.latitude, latitudes[0], 0);
+        assertEquals(london.longitude, longitudes[0], 0);
+        assertEquals(newYork.latitude, latitudes[1000], 0);
+        assertEquals(newYork.longitude, longitudes[1000], 0);
+
+        val bearing = EarthCalc.gcd.bearing(london, newYork);
+        val into = new double[2];
+        for (int i = 0; i <= 1000; i++) {
+            val expected = EarthCalc.gcd.pointAt(london, bearing, arc.distance() * i / 1000);
+            assertEquals(0, EarthCalc.haversine.distance(expected, Point.at(latitudes[i], longitudes[i])), 1E-6);
+
+            arc.pointAt(i / 1000.0, into);
+            assertEquals(latitudes[i], into[0], 1E-9);
+            assertEquals(longitudes[i], into[1], 1E-9);
+        }
+    }
+
+    @Test
+    public void testStep() {
+        val arc = GreatCircleArc.between(london, newYork);
+        val count = arc.count(10_000);
+        assertEquals((int) Math.ceil(arc.distance() / 10_000) + 1, count);
+        assertEquals(2, GreatCircleArc.between(london, london).count(10_000));
+
+        val latitudes = new double[count];
+        val longitudes = new double[count];
+        arc.fill(latitudes, longitudes);
+        for (int i = 1; i < count; i++) {
+            val step = EarthCalc.haversine.distance(Point.at(latitudes[i - 1], longitudes[i - 1]), Point.at(latitudes[i], longitudes[i]));
+            assertTrue(step <= 10_000);
+            assertTrue(step > 9_900);
+        }
+    }
+
+    @Test
+    public void testMillionPoints() {
+        //across the antimeridian, the rotation going on from the start
+        val arc = GreatCircleArc.between(Point.at(35.6762, 139.6503), Point.at(37.7749, -122.4194));
+        val latitudes = new double[1_000_000];
+        val longitudes = new double[1_000_000];
+        arc.fill(latitudes, longitudes);
+
+        val into = new double[2];
+        for (val i : new int[]{1, 250_000, 500_000, 999_998}) {
+            arc.pointAt(i / 999_999.0, into);
+            assertEquals(0, EarthCalc.haversine.distance(Point.at(into[0], into[1]), Point.at(latitudes[i], longitudes[i])), 1E-3);
+        }
+        for (int i = 0; i < longitudes.length; i++) {
+            assertTrue(longitudes[i] >= -180 && longitudes[i] <= 180);
+        }
+    }
+
+    @Test
+    public void testSpliterator() {
+        val arc = GreatCircleArc.between(london, newYork);
+        val latitudes = new double[10_000];
+        val longitudes = new double[10_000];
+        arc.fill(latitudes, longitudes);
+
+        assertEquals(10_000, arc.spliterator(10_000).getExactSizeIfKnown());
+        for (val parallel : new boolean[]{false, true}) {
+            List<Point> points = StreamSupport.stream(arc.spliterator(10_000), parallel).collect(Collectors.toList());
+            assertEquals(10_000, points.size());
+            for (int i = 0; i < points.size(); i++) {
+                assertEquals(latitudes[i], points.get(i).latitude, 1E-9);
+                assertEquals(longitudes[i], points.get(i).longitude, 1E-9);
+            }
+        }
+
+        //parts filled separately match the whole
+        val part = new double[10_000];
+        val partLongitudes = new double[10_000];
+        arc.fill(10_000, 0, 4_000, part, partLongitudes);
+        arc.fill(10_000, 4_000, 10_000, part, partLongitudes);
+        for (int i = 0; i < part.length; i++) {
+            assertEquals(latitudes[i], part[i], 1E-9);
+            assertEquals(longitudes[i], partLongitudes[i], 1E-9);
+        }
+    }
+
+    @Test
+    public void testSamePoint() {
+        val arc = GreatCircleArc.between(london, london);
+        val latitudes = new double[3];
+        val longitudes = new double[3];
+        arc.fill(latitudes, longitudes);
+        assertEquals(0, arc.distance(), 0);
+        assertEquals(london.latitude, latitudes[1], 1E-12);
+        assertEquals(london.longitude, longitudes[1], 1E-12);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testAntipodal() {
+        GreatCircleArc.between(Point.at(10, 20), Point.at(-10, -160));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testSinglePoint() {
+        GreatCircleArc.between(london, newYork).fill(new double[1], new double[1]);
+    }
+}
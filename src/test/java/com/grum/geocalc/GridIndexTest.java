@@ -0,0 +1,127 @@
+/*
+ * BSD 3-Clause License
+ *
+ * Copyright (c) 2018, Grum Ltd (Romain Gallet)
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ *
+ * Neither the name of Geocalc nor the names of its
+ * contributors may be used to endorse or promote products derived from
+ * this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.grum.geocalc;
+
+import lombok.val;
+import lombok.var;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.stream.LongStream;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public class GridIndexTest {
+
+    private final Random random = new Random(7);
+    private final Point[] points = new Point[20_000];
+    private final GridIndex index = GridIndex.withCellSize(1);
+
+    {
+        for (int i = 0; i < points.length; i++) {
+            points[i] = Point.at(Coordinate.fromDegrees(random.nextDouble() * 180 - 90), Coordinate.fromDegrees(random.nextDouble() * 360 - 180));
+            index.add(i, points[i]);
+        }
+    }
+
+    @Test
+    public void testQuery() {
+        assertEquals(points.length, index.size());
+
+        val europe = BoundingArea.at(Point.at(Coordinate.fromDegrees(70), Coordinate.fromDegrees(45)),
+                Point.at(Coordinate.fromDegrees(35), Coordinate.fromDegrees(-10)));
+        assertQuery(europe);
+
+        val pacific = BoundingArea.at(Point.at(Coordinate.fromDegrees(10), Coordinate.fromDegrees(-165)),
+                Point.at(Coordinate.fromDegrees(-30), Coordinate.fromDegrees(170)));
+        assertQuery(pacific);
+    }
+
+    private void assertQuery(BoundingArea area) {
+        val expected = LongStream.range(0, points.length).filter(i -> area.contains(points[(int) i])).toArray();
+        val actual = index.query(area);
+        Arrays.sort(actual);
+
+        assertArrayEquals(expected, actual);
+    }
+
+    @Test
+    public void testWithinRadius() {
+        for (int i = 0; i < 50; i++) {
+            assertWithinRadius(points[i], 10_000 + random.nextDouble() * 1_000_000);
+        }
+
+        //North Pole, and the antimeridian
+        assertWithinRadius(Point.at(Coordinate.fromDegrees(89.5), Coordinate.fromDegrees(12)), 300_000);
+        assertWithinRadius(Point.at(Coordinate.fromDegrees(-16.5), Coordinate.fromDegrees(179.5)), 500_000);
+        assertWithinRadius(Point.at(Coordinate.fromDegrees(0), Coordinate.fromDegrees(-180)), 500_000);
+    }
+
+    private void assertWithinRadius(Point centre, double radius) {
+        var expected = LongStream.range(0, points.length).filter(i -> EarthCalc.haversine.distance(centre, points[(int) i]) <= radius).toArray();
+        var actual = index.withinRadius(centre, radius);
+        Arrays.sort(actual);
+        assertArrayEquals(expected, actual);
+
+        //Vincenty does not converge for some far away points, which are not candidates anyway
+        expected = LongStream.range(0, points.length)
+                .filter(i -> EarthCalc.haversine.distance(centre, points[(int) i]) <= radius * 1.1)
+                .filter(i -> EarthCalc.vincenty.distance(centre, points[(int) i]) <= radius).toArray();
+        actual = index.withinVincentyRadius(centre, radius);
+        Arrays.sort(actual);
+        assertArrayEquals(expected, actual);
+    }
+
+    @Test
+    public void testSparseAcrossAntimeridian() {
+        //fewer cells in the index than on either side of the antimeridian: each point is found once
+        val sparse = GridIndex.withCellSize(1);
+        sparse.add(7, -16.5, 179.9);
+
+        val fiji = BoundingArea.at(Point.at(-10, -170), Point.at(-25, 170));
+        assertArrayEquals(new long[]{7}, sparse.query(fiji));
+        assertArrayEquals(new long[]{7}, sparse.withinRadius(Point.at(-16.5, -179.9), 100_000));
+        assertArrayEquals(new long[]{7}, sparse.withinVincentyRadius(Point.at(-16.5, -179.9), 100_000));
+
+        //both ends in the same column, all around
+        assertArrayEquals(new long[]{7}, sparse.query(BoundingArea.at(Point.at(-10, -163.2), Point.at(-25, -163.1))));
+        assertQuery(BoundingArea.at(Point.at(-10, 10.1), Point.at(-25, 10.2)));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidCellSize() {
+        GridIndex.withCellSize(0);
+    }
+}
@@ -0,0 +1,149 @@
+/*
+ * BSD 3-Clause License
+ *
+ * Copyright (c) 2018, Grum Ltd (Romain Gallet)
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ *
+ * Neither the name of Geocalc nor the names of its
+ * contributors may be used to endorse or promote products derived from
+ * this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.grum.geocalc;
+
+import lombok.val;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public class KdTreeTest {
+
+    private final Random random = new Random(11);
+    private final double[] latitudes = new double[5_000];
+    private final double[] longitudes = new double[latitudes.length];
+    private final KdTree tree;
+
+    {
+        for (int i = 0; i < latitudes.length; i++) {
+            latitudes[i] = random.nextDouble() * 180 - 90;
+            longitudes[i] = random.nextDouble() * 360 - 180;
+        }
+        tree = KdTree.build(latitudes, longitudes);
+    }
+
+    @Test
+    public void testNearest() {
+        for (int i = 0; i < 50; i++) {
+            assertNearest(Point.at(Coordinate.fromDegrees(random.nextDouble() * 180 - 90), Coordinate.fromDegrees(random.nextDouble() * 360 - 180)), 10);
+        }
+
+        //poles and antimeridian
+        assertNearest(Point.at(Coordinate.fromDegrees(90), Coordinate.fromDegrees(0)), 10);
+        assertNearest(Point.at(Coordinate.fromDegrees(-89.9), Coordinate.fromDegrees(-45)), 10);
+        assertNearest(Point.at(Coordinate.fromDegrees(12), Coordinate.fromDegrees(180)), 25);
+        assertNearest(Point.at(Coordinate.fromDegrees(-3), Coordinate.fromDegrees(-179.99)), 1);
+    }
+
+    private void assertNearest(Point point, int k) {
+        val expected = IntStream.range(0, latitudes.length).boxed()
+                .sorted(Comparator.comparingDouble(i -> EarthCalc.haversine.distance(point, at(i))))
+                .limit(k).mapToInt(i -> i).toArray();
+
+        assertArrayEquals(expected, tree.nearest(point, k));
+
+        val indices = new int[k];
+        val distances = new double[k];
+        assertEquals(k, tree.nearest(point.latitude, point.longitude, indices, distances));
+        for (int i = 0; i < k; i++) {
+            assertEquals(EarthCalc.haversine.distance(point, at(indices[i])), distances[i], 1E-3);
+        }
+    }
+
+    private Point at(int i) {
+        return Point.at(Coordinate.fromDegrees(latitudes[i]), Coordinate.fromDegrees(longitudes[i]));
+    }
+
+    @Test(timeout = 10_000)
+    public void testSamePoint() {
+        //a stopped vehicle: the spread is 0 along every axis
+        val n = 200_000;
+        val latitudes = new double[n];
+        val longitudes = new double[n];
+        Arrays.fill(latitudes, 48.8566);
+        Arrays.fill(longitudes, 2.3522);
+        val same = KdTree.build(latitudes, longitudes);
+
+        val indices = new int[10];
+        val distances = new double[indices.length];
+        assertEquals(10, same.nearest(48.86, 2.35, indices, distances));
+        val expected = EarthCalc.haversine.distance(Point.at(48.86, 2.35), Point.at(48.8566, 2.3522));
+        for (int i = 0; i < indices.length; i++) {
+            assertEquals(expected, distances[i], 1E-3);
+        }
+        assertEquals(10, IntStream.of(indices).distinct().count());
+    }
+
+    @Test(timeout = 10_000)
+    public void testDuplicates() {
+        //200,000 fixes on 20 spots
+        val n = 200_000;
+        val latitudes = new double[n];
+        val longitudes = new double[n];
+        for (int i = 0; i < n; i++) {
+            val spot = random.nextInt(20);
+            latitudes[i] = spot * 4 - 40;
+            longitudes[i] = spot % 5 * 10;
+        }
+        val duplicated = KdTree.build(latitudes, longitudes);
+
+        val indices = new int[100];
+        val distances = new double[indices.length];
+        for (int q = 0; q < 20; q++) {
+            val point = Point.at(random.nextDouble() * 120 - 60, random.nextDouble() * 80 - 20);
+            assertEquals(100, duplicated.nearest(point.latitude, point.longitude, indices, distances));
+
+            //as many points on the nearest spot as asked for, ties broken any way
+            val nearest = IntStream.range(0, 20).mapToDouble(spot -> EarthCalc.haversine.distance(point,
+                    Point.at(spot * 4 - 40, spot % 5 * 10))).min().getAsDouble();
+            for (int i = 0; i < indices.length; i++) {
+                assertEquals(nearest, distances[i], 1E-3);
+                assertEquals(nearest, EarthCalc.haversine.distance(point, Point.at(latitudes[indices[i]], longitudes[indices[i]])), 1E-3);
+            }
+            assertEquals(100, IntStream.of(indices).distinct().count());
+        }
+    }
+
+    @Test
+    public void testFewerPointsThanAsked() {
+        val small = KdTree.build(new double[]{1, 2}, new double[]{1, 2});
+        assertArrayEquals(new int[]{1, 0}, small.nearest(Point.at(Coordinate.fromDegrees(3), Coordinate.fromDegrees(3)), 5));
+        assertEquals(0, KdTree.build(new double[0], new double[0]).nearest(0, 0, new int[3], null));
+    }
+}
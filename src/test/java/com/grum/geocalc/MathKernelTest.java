@@ -0,0 +1,129 @@
+/*
+ * BSD 3-Clause License
+ *
+ * Copyright (c) 2018, Grum Ltd (Romain Gallet)
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ *
+ * Neither the name of Geocalc nor the names of its
+ * contributors may be used to endorse or promote products derived from
+ * this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.grum.geocalc;
+
+import lombok.val;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+public class MathKernelTest {
+
+    private final Random random = new Random(3);
+
+    @Test
+    public void testFastFunctions() {
+        val fast = MathKernel.FAST;
+        for (int i = 0; i < 1_000_000; i++) {
+            val a = (random.nextDouble() * 2 - 1) * (i % 2 == 0 ? 7 : 1E5);
+            assertEquals(StrictMath.sin(a), fast.sin(a), 2E-16);
+            assertEquals(StrictMath.cos(a), fast.cos(a), 2E-16);
+
+            val y = random.nextGaussian();
+            val x = random.nextGaussian();
+            assertEquals(StrictMath.atan2(y, x), fast.atan2(y, x), 1E-15);
+
+            val u = i % 4 == 0 ? 1 - random.nextDouble() * 1E-6 : random.nextDouble() * 2 - 1;
+            assertEquals(StrictMath.asin(u), fast.asin(u), 5E-16);
+            assertEquals(StrictMath.acos(u), fast.acos(u), 5E-16);
+            assertEquals(StrictMath.acos(-u), fast.acos(-u), 5E-16);
+        }
+
+        //beyond the reduced range
+        assertEquals(Math.sin(1E10), fast.sin(1E10), 0);
+    }
+
+    @Test
+    public void testFastSpecialValues() {
+        val fast = MathKernel.FAST;
+        assertEquals(0, fast.sin(0), 0);
+        assertEquals(1, fast.cos(0), 0);
+        assertEquals(Math.PI, fast.atan2(0, -1), 0);
+        assertEquals(-Math.PI, fast.atan2(-0.0, -1), 0);
+        assertEquals(Math.PI / 2, fast.atan2(1, 0), 0);
+        assertEquals(0, fast.atan2(0, 0), 0);
+        assertEquals(0, fast.acos(1), 0);
+        assertEquals(Math.PI, fast.acos(-1), 0);
+        assertEquals(Math.PI / 2, fast.asin(1), 0);
+        assertEquals(Double.NaN, fast.sin(Double.NaN), 0);
+        assertEquals(Double.NaN, fast.atan2(Double.NaN, 1), 0);
+    }
+
+    @Test
+    public void testFormulas() {
+        val into = new double[2];
+        val expected = new double[2];
+        for (val math : MathKernel.values()) {
+            for (int i = 0; i < 100_000; i++) {
+                val latitude1 = random.nextDouble() * 180 - 90;
+                val longitude1 = random.nextDouble() * 360 - 180;
+                val latitude2 = i % 2 == 0 ? latitude1 + random.nextGaussian() * 0.01 : random.nextDouble() * 180 - 90;
+                val longitude2 = i % 2 == 0 ? longitude1 + random.nextGaussian() * 0.01 : random.nextDouble() * 360 - 180;
+
+                //the Haversine formula magnifies errors for near-antipodal points
+                assertEquals(EarthCalc.haversine.distance(latitude1, longitude1, latitude2, longitude2),
+                        EarthCalc.haversine.distance(math, latitude1, longitude1, latitude2, longitude2), 1E-5);
+                assertEquals(EarthCalc.equirectangular.distance(latitude1, longitude1, latitude2, longitude2),
+                        EarthCalc.equirectangular.distance(math, latitude1, longitude1, latitude2, longitude2), 1E-7);
+                //the spherical law of cosines magnifies errors close to 0
+                assertEquals(EarthCalc.gcd.distance(latitude1, longitude1, latitude2, longitude2),
+                        EarthCalc.gcd.distance(math, latitude1, longitude1, latitude2, longitude2), 2E-2);
+                assertEquals(0, angle(EarthCalc.gcd.bearing(latitude1, longitude1, latitude2, longitude2),
+                        EarthCalc.gcd.bearing(math, latitude1, longitude1, latitude2, longitude2)), 1E-8);
+
+                val bearing = random.nextDouble() * 360;
+                val distance = random.nextDouble() * 1E6;
+                EarthCalc.gcd.pointAt(latitude1, longitude1, bearing, distance, expected);
+                EarthCalc.gcd.pointAt(math, latitude1, longitude1, bearing, distance, into);
+                //longitudes are ill conditioned close to the poles, positions are not
+                assertEquals(0, EarthCalc.haversine.distance(expected[0], expected[1], into[0], into[1]), 1E-5);
+            }
+        }
+    }
+
+    private static double angle(double bearing1, double bearing2) {
+        val Δ = Math.abs(bearing1 - bearing2);
+        return Math.min(Δ, 360 - Δ);
+    }
+
+    @Test
+    public void testPoints() {
+        val kew = Point.at(51.4843774, -0.2912044);
+        val richmond = Point.at(51.4613418, -0.3035466);
+
+        assertEquals(EarthCalc.haversine.distance(kew, richmond), EarthCalc.haversine.distance(MathKernel.FAST, kew, richmond), 1E-7);
+        assertEquals(EarthCalc.gcd.bearing(kew, richmond), EarthCalc.gcd.bearing(MathKernel.STRICT, kew, richmond), 1E-12);
+    }
+}
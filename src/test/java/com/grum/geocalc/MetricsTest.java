@@ -0,0 +1,195 @@
+/*
+ * BSD 3-Clause License
+ *
+ * Copyright (c) 2018, Grum Ltd (Romain Gallet)
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ *
+ * Neither the name of Geocalc nor the names of its
+ * contributors may be used to endorse or promote products derived from
+ * this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.grum.geocalc;
+
+import lombok.val;
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static com.grum.geocalc.Metrics.Operation.*;
+import static org.junit.Assert.*;
+
+public class MetricsTest {
+
+    private final Point kew = Point.at(51.4843774, -0.2912044);
+    private final Point richmond = Point.at(51.4613418, -0.3035466);
+
+    @After
+    public void uninstall() {
+        Metrics.install(Metrics.NOOP);
+    }
+
+    @Test
+    public void testNothingInstalled() {
+        assertSame(Metrics.NOOP, Metrics.installed());
+        assertEquals(2702, EarthCalc.vincenty.distance(richmond, kew), 1);
+    }
+
+    @Test
+    public void testCalls() {
+        val metrics = CountingMetrics.sampling(1);
+        Metrics.install(metrics);
+
+        EarthCalc.gcd.distance(kew, richmond);
+        EarthCalc.gcd.bearing(kew, richmond);
+        EarthCalc.gcd.midPoint(kew, richmond);
+        EarthCalc.gcd.around(kew, 1000);
+        EarthCalc.haversine.distance(MathKernel.FAST, kew, richmond);
+        EarthCalc.equirectangular.distance(kew, richmond);
+        EarthCalc.vincenty.inverse(kew, richmond);
+        EarthCalc.prepare(kew).vincenty.distance(richmond);
+        EarthCalc.karney.distance(kew, richmond);
+        EarthCalc.karney.pointAt(kew, 45, 1000);
+
+        assertEquals(1, metrics.calls(GCD_DISTANCE));
+        assertEquals(1, metrics.calls(GCD_BEARING));
+        assertEquals(1, metrics.calls(GCD_MID_POINT));
+        assertEquals(2, metrics.calls(GCD_POINT_AT));
+        assertEquals(1, metrics.calls(HAVERSINE_DISTANCE));
+        assertEquals(1, metrics.calls(EQUIRECTANGULAR_DISTANCE));
+        assertEquals(2, metrics.calls(VINCENTY_INVERSE));
+        assertEquals(1, metrics.calls(KARNEY_INVERSE));
+        assertEquals(1, metrics.calls(KARNEY_DIRECT));
+
+        //every call sampled, in some bucket
+        for (val operation : Metrics.Operation.values()) {
+            assertEquals(metrics.calls(operation), sum(metrics.latencies(operation)));
+        }
+    }
+
+    @Test
+    public void testVincenty() {
+        val metrics = CountingMetrics.sampling(1000);
+        Metrics.install(metrics);
+
+        val iterations = EarthCalc.vincenty.inverse(kew, richmond).iterations;
+        EarthCalc.vincenty.distance(kew, kew);
+        try {
+            EarthCalc.vincenty.distance(Point.at(0, 0), Point.at(0.5, 179.5));
+            fail();
+        } catch (IllegalStateException e) {
+            //expected
+        }
+
+        assertEquals(3, metrics.calls(VINCENTY_INVERSE));
+        assertEquals(1, metrics.vincentyFailures());
+
+        val histogram = metrics.vincentyIterations();
+        assertEquals(101, histogram.length);
+        assertEquals(2, sum(histogram));
+        assertEquals(1, histogram[1]); //co-incident points
+        assertEquals(1, histogram[iterations]);
+    }
+
+    @Test
+    public void testExport() {
+        val metrics = CountingMetrics.sampling(1);
+        Metrics.install(metrics);
+        EarthCalc.haversine.distance(kew, richmond);
+        EarthCalc.haversine.distance(richmond, kew);
+        EarthCalc.vincenty.distance(kew, richmond);
+
+        val counters = new HashMap<String, Long>();
+        val histograms = new HashMap<String, long[]>();
+        metrics.export(new CountingMetrics.Exporter() {
+            @Override
+            public void counter(String name, long count) {
+                counters.put(name, count);
+            }
+
+            @Override
+            public void histogram(String name, long[] upperBounds, long[] counts) {
+                assertEquals(upperBounds.length, counts.length);
+                for (int i = 1; i < upperBounds.length; i++) {
+                    assertTrue(upperBounds[i] > upperBounds[i - 1]);
+                }
+                histograms.put(name, counts);
+            }
+        });
+
+        assertEquals(Metrics.Operation.values().length + 1, counters.size());
+        assertEquals(2, (long) counters.get("geocalc.haversine.distance.calls"));
+        assertEquals(0, (long) counters.get("geocalc.karney.inverse.calls"));
+        assertEquals(0, (long) counters.get("geocalc.vincenty.failures"));
+
+        assertEquals(2, sum(histograms.get("geocalc.haversine.distance.latency")));
+        assertEquals(1, sum(histograms.get("geocalc.vincenty.iterations")));
+        assertFalse(histograms.containsKey("geocalc.karney.inverse.latency"));
+    }
+
+    @Test
+    public void testCustomMetrics() {
+        final List<Metrics.Operation> calls = new ArrayList<>();
+        final Map<Metrics.Operation, Long> latencies = new HashMap<>();
+        Metrics.install(new Metrics() {
+            @Override
+            protected void called(Operation operation) {
+                calls.add(operation);
+            }
+
+            @Override
+            protected boolean sampled(Operation operation) {
+                return operation == KARNEY_INVERSE;
+            }
+
+            @Override
+            protected void latency(Operation operation, long nanos) {
+                latencies.put(operation, nanos);
+            }
+        });
+
+        EarthCalc.haversine.distance(kew, richmond);
+        EarthCalc.karney.distance(kew, richmond);
+
+        assertEquals(2, calls.size());
+        assertEquals(HAVERSINE_DISTANCE, calls.get(0));
+        assertEquals(1, latencies.size());
+        assertTrue(latencies.get(KARNEY_INVERSE) >= 0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidSamplingInterval() {
+        CountingMetrics.sampling(0);
+    }
+
+    private static long sum(long[] counts) {
+        long sum = 0;
+        for (val count : counts) sum += count;
+        return sum;
+    }
+}
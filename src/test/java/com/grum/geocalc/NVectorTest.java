@@ -0,0 +1,206 @@
+/*
+ * BSD 3-Clause License
+ *
+ * Copyright (c) 2018, Grum Ltd (Romain Gallet)
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ *
+ * Neither the name of Geocalc nor the names of its
+ * contributors may be used to endorse or promote products derived from
+ * this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.grum.geocalc;
+
+import lombok.val;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class NVectorTest {
+
+    private static double[][] points() {
+        //random points, with the poles, the antimeridian, and pairs close together or almost antipodal
+        val random = new Random(23);
+        val latitudes = new double[200];
+        val longitudes = new double[latitudes.length];
+        for (int i = 0; i < latitudes.length; i++) {
+            latitudes[i] = Math.toDegrees(Math.asin(random.nextDouble() * 2 - 1));
+            longitudes[i] = random.nextDouble() * 360 - 180;
+        }
+        latitudes[0] = 90;
+        latitudes[1] = -90;
+        longitudes[2] = 180;
+        longitudes[3] = -179.9999;
+        latitudes[4] = latitudes[5] + 1e-5;
+        longitudes[4] = longitudes[5];
+        latitudes[6] = -latitudes[7] + 1e-3;
+        longitudes[6] = longitudes[7] + 180;
+        return new double[][]{latitudes, longitudes};
+    }
+
+    @Test
+    public void testDistance() {
+        val points = points();
+        val vectors = NVector.toVectors(points[0], points[1]);
+        val distances = new double[points[0].length];
+        for (int i = 0; i < points[0].length; i++) {
+            val a = Point.at(points[0][i], points[1][i]);
+            NVector.distances(vectors, i, distances);
+            for (int j = 0; j < points[0].length; j++) {
+                val b = Point.at(points[0][j], points[1][j]);
+                //haversine loses a few digits close to antipodal points
+                val expected = EarthCalc.haversine.distance(a, b);
+                assertEquals(expected, NVector.of(a).distance(NVector.of(b)), 1e-4);
+                assertEquals(expected, NVector.distance(vectors, i, j), 1e-4);
+                assertEquals(expected, distances[j], 1e-4);
+            }
+        }
+    }
+
+    @Test
+    public void testBearing() {
+        val points = points();
+        val vectors = NVector.toVectors(points[0], points[1]);
+        //bearings from the poles depend on the longitude taken there
+        for (int i = 2; i < points[0].length; i++) {
+            val a = Point.at(points[0][i], points[1][i]);
+            for (int j = 0; j < points[0].length; j++) {
+                val b = Point.at(points[0][j], points[1][j]);
+                if (i == j || EarthCalc.haversine.distance(a, b) < 10) continue;
+
+                val expected = EarthCalc.gcd.bearing(a, b);
+                val bearing = NVector.of(a).bearing(NVector.of(b));
+                assertTrue(bearing >= 0 && bearing < 360);
+                assertEquals(0, angle(expected, bearing), 1e-7);
+                assertEquals(bearing, NVector.bearing(vectors, i, j), 0);
+            }
+        }
+
+        //from the pole, everything is south
+        val north = NVector.of(90, 0);
+        assertEquals(180, north.bearing(NVector.of(10, 0)), 1e-9);
+    }
+
+    private static double angle(double a, double b) {
+        val d = Math.abs(a - b) % 360;
+        return Math.min(d, 360 - d);
+    }
+
+    @Test
+    public void testMidPoint() {
+        val points = points();
+        for (int i = 2; i + 1 < points[0].length; i += 2) {
+            if (i == 6) continue; //almost antipodal
+            val a = Point.at(points[0][i], points[1][i]);
+            val b = Point.at(points[0][i + 1], points[1][i + 1]);
+            val expected = EarthCalc.gcd.midPoint(a, b);
+            val mid = NVector.of(a).midPoint(NVector.of(b));
+
+            assertEquals(0, EarthCalc.haversine.distance(expected, mid.toPoint()), 1e-6);
+            assertEquals(mid.distance(NVector.of(a)), mid.distance(NVector.of(b)), 1e-6);
+        }
+
+        try {
+            NVector.of(10, 20).midPoint(NVector.of(-10, -160));
+            fail();
+        } catch (IllegalArgumentException e) {
+            assertTrue(e.getMessage().startsWith("Antipodal points have no single midpoint"));
+        }
+    }
+
+    @Test
+    public void testCentroid() {
+        //the centroid of a ring is its centre
+        val ring = new double[3 * 36];
+        val centre = Point.at(48.8566, 2.3522);
+        val vectors = NVector.toVectors(new double[]{centre.latitude}, new double[]{centre.longitude});
+        val points = new NVector[36];
+        for (int i = 0; i < points.length; i++) {
+            val point = EarthCalc.gcd.pointAt(centre, i * 10, 500_000);
+            points[i] = NVector.of(point);
+            ring[3 * i] = points[i].x;
+            ring[3 * i + 1] = points[i].y;
+            ring[3 * i + 2] = points[i].z;
+        }
+        assertEquals(0, NVector.centroid(Arrays.asList(points)).distance(NVector.of(centre)), 1e-6);
+        assertEquals(0, NVector.centroid(ring).distance(NVector.of(centre)), 1e-6);
+        assertEquals(0, NVector.centroid(vectors).distance(NVector.of(centre)), 1e-6);
+
+        //across the antimeridian, unlike averaging longitudes
+        val centroid = NVector.centroid(Arrays.asList(NVector.of(0, 179), NVector.of(0, -179))).toPoint();
+        assertEquals(0, centroid.latitude, 1e-9);
+        assertEquals(180, Math.abs(centroid.longitude), 1e-9);
+
+        try {
+            NVector.centroid(Arrays.asList(NVector.of(90, 0), NVector.of(-90, 0)));
+            fail();
+        } catch (IllegalArgumentException e) {
+            assertEquals("Points spread evenly around the Earth have no centroid, got 2 points", e.getMessage());
+        }
+        try {
+            NVector.centroid(Collections.emptyList());
+            fail();
+        } catch (IllegalArgumentException e) {
+            assertEquals("Points spread evenly around the Earth have no centroid, got 0 points", e.getMessage());
+        }
+    }
+
+    @Test
+    public void testToPoint() {
+        val points = points();
+        for (int i = 0; i < points[0].length; i++) {
+            val point = NVector.of(points[0][i], points[1][i]).toPoint();
+            assertEquals(points[0][i], point.latitude, 1e-9);
+            if (Math.abs(points[0][i]) < 90) {
+                assertEquals(0, angle(points[1][i], point.longitude), 1e-9);
+            }
+        }
+    }
+
+    @Test
+    public void testInvalid() {
+        try {
+            NVector.toVectors(new double[2], new double[2], new double[5]);
+            fail();
+        } catch (IllegalArgumentException e) {
+            assertEquals("Expected 2 longitudes and room for 6 values, got 2 and 5", e.getMessage());
+        }
+        try {
+            NVector.distances(new double[6], 0, new double[1]);
+            fail();
+        } catch (IllegalArgumentException e) {
+            assertEquals("Expected room for 2 distances, got 1", e.getMessage());
+        }
+        try {
+            NVector.centroid(new double[]{0, 0, 1, 0});
+            fail();
+        } catch (IllegalArgumentException e) {
+            assertEquals("Expected x, y and z for every point, got 4 values", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,180 @@
+/*
+ * BSD 3-Clause License
+ *
+ * Copyright (c) 2018, Grum Ltd (Romain Gallet)
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ *
+ * Neither the name of Geocalc nor the names of its
+ * contributors may be used to endorse or promote products derived from
+ * this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.grum.geocalc;
+import lombok.val;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class PointCodecTest {
+
+    @Test
+    public void testPoint() {
+        val kew = Point.at(51.4843774, -0.2912044);
+        val buffer = ByteBuffer.allocate(PointCodec.POINT_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+
+        PointCodec.writePoint(buffer, kew);
+        assertFalse(buffer.hasRemaining());
+        buffer.flip();
+        assertEquals(kew, PointCodec.readPoint(buffer));
+    }
+
+    @Test
+    public void testFixedPoint() {
+        val kew = Point.at(51.48437745, -0.29120444);
+        val buffer = ByteBuffer.allocate(PointCodec.FIXED_POINT_BYTES * 3);
+
+        PointCodec.writeFixedPoint(buffer, kew);
+        PointCodec.writeFixedPoint(buffer, Point.at(90, 180));
+        PointCodec.writeFixedPoint(buffer, Point.at(-90, -180));
+        buffer.flip();
+
+        val point = PointCodec.readFixedPoint(buffer);
+        assertEquals(kew.latitude, point.latitude, 0.5E-7);
+        assertEquals(kew.longitude, point.longitude, 0.5E-7);
+        assertEquals(Point.at(90, 180), PointCodec.readFixedPoint(buffer));
+        assertEquals(Point.at(-90, -180), PointCodec.readFixedPoint(buffer));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testFixedPointOutOfRange() {
+        PointCodec.writeFixedPoint(ByteBuffer.allocate(PointCodec.FIXED_POINT_BYTES), Point.at(0, 200));
+    }
+
+    @Test
+    public void testArea() {
+        val area = EarthCalc.gcd.around(Point.at(51.4843774, -0.2912044), 3000);
+        val buffer = ByteBuffer.allocate(PointCodec.AREA_BYTES);
+
+        PointCodec.writeArea(buffer, area);
+        buffer.flip();
+        assertEquals(area, PointCodec.readArea(buffer));
+    }
+
+    @Test
+    public void testTrack() {
+        //a fix every second or so, at driving speed, going across the antimeridian
+        val random = new Random(13);
+        val latitudes = new double[10_000];
+        val longitudes = new double[latitudes.length];
+        latitudes[0] = -16.5;
+        longitudes[0] = 179.9;
+        for (int i = 1; i < latitudes.length; i++) {
+            latitudes[i] = latitudes[i - 1] + (random.nextDouble() - .5) * 4E-4;
+            val longitude = longitudes[i - 1] + random.nextDouble() * 4E-4;
+            longitudes[i] = longitude > 180 ? longitude - 360 : longitude;
+        }
+
+        val buffer = ByteBuffer.allocate(PointCodec.maxTrackBytes(latitudes.length));
+        PointCodec.writeTrack(buffer, latitudes, longitudes);
+        assertTrue(buffer.position() < latitudes.length * 6); //against 16 bytes a point
+        buffer.flip();
+
+        assertEquals(latitudes.length, PointCodec.trackLength(buffer));
+        assertEquals(0, buffer.position());
+
+        val decodedLatitudes = new double[latitudes.length];
+        val decodedLongitudes = new double[latitudes.length];
+        assertEquals(latitudes.length, PointCodec.readTrack(buffer, decodedLatitudes, decodedLongitudes));
+        assertFalse(buffer.hasRemaining());
+        for (int i = 0; i < latitudes.length; i++) {
+            assertEquals(latitudes[i], decodedLatitudes[i], 0.5E-7);
+            assertEquals(longitudes[i], decodedLongitudes[i], 0.5E-7);
+        }
+    }
+
+    @Test
+    public void testSizes() throws IOException {
+        //the track of PointCodecBenchmark
+        val random = new Random(42);
+        val points = new Point[1024];
+        val latitudes = new double[points.length];
+        val longitudes = new double[points.length];
+        latitudes[0] = 51.4843774;
+        longitudes[0] = -0.2912044;
+        for (int i = 0; i < points.length; i++) {
+            if (i > 0) {
+                latitudes[i] = latitudes[i - 1] + (random.nextDouble() - .5) * 4E-4;
+                longitudes[i] = longitudes[i - 1] + (random.nextDouble() - .5) * 4E-4;
+            }
+            points[i] = Point.at(latitudes[i], longitudes[i]);
+        }
+
+        val bytes = new ByteArrayOutputStream();
+        try (val out = new ObjectOutputStream(bytes)) {
+            out.writeObject(points);
+        }
+        val serialized = bytes.size();
+
+        val buffer = ByteBuffer.allocate(PointCodec.maxTrackBytes(points.length));
+        PointCodec.writeTrack(buffer, latitudes, longitudes);
+        val track = buffer.position();
+
+        //about 22 bytes a point serialized, 16 as points and under 5 as a track
+        assertTrue(serialized + " bytes", serialized > PointCodec.POINT_BYTES * points.length);
+        assertTrue(track + " bytes", track < 5 * points.length);
+    }
+
+    @Test
+    public void testEmptyTrack() {
+        val buffer = ByteBuffer.allocate(PointCodec.maxTrackBytes(0));
+        PointCodec.writeTrack(buffer, new double[0], new double[0]);
+        buffer.flip();
+        assertEquals(0, PointCodec.readTrack(buffer, new double[0], new double[0]));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testTrackTooLong() {
+        val buffer = ByteBuffer.allocate(PointCodec.maxTrackBytes(2));
+        PointCodec.writeTrack(buffer, new double[2], new double[2]);
+        buffer.flip();
+        PointCodec.readTrack(buffer, new double[1], new double[1]);
+    }
+
+    @Test(expected = BufferUnderflowException.class)
+    public void testTruncatedTrack() {
+        val buffer = ByteBuffer.allocate(PointCodec.maxTrackBytes(2));
+        PointCodec.writeTrack(buffer, new double[]{51.4843774, 51.4613418}, new double[]{-0.2912044, -0.3035466});
+        buffer.flip();
+        buffer.limit(buffer.limit() - 1);
+        PointCodec.readTrack(buffer, new double[2], new double[2]);
+    }
+}
@@ -0,0 +1,151 @@
+/*
+ * BSD 3-Clause License
+ *
+ * Copyright (c) 2018, Grum Ltd (Romain Gallet)
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ *
+ * Neither the name of Geocalc nor the names of its
+ * contributors may be used to endorse or promote products derived from
+ * this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.grum.geocalc;
+
+import lombok.val;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.*;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+public class PointFilesTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private final Random random = new Random(13);
+    private final double[] latitudes = new double[10_000];
+    private final double[] longitudes = new double[latitudes.length];
+
+    {
+        for (int i = 0; i < latitudes.length; i++) {
+            latitudes[i] = random.nextDouble() * 180 - 90;
+            longitudes[i] = random.nextDouble() * 360 - 180;
+        }
+    }
+
+    @Test
+    public void testReadBinary() throws IOException {
+        val file = folder.newFile().toPath();
+        try (val out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file)))) {
+            for (int i = 0; i < latitudes.length; i++) {
+                out.writeDouble(latitudes[i]);
+                out.writeDouble(longitudes[i]);
+            }
+        }
+
+        val chunks = new ArrayList<double[][]>();
+        val count = PointFiles.readBinary(file, ByteOrder.BIG_ENDIAN, 3000, (latitudes, longitudes) -> chunks.add(new double[][]{latitudes.clone(), longitudes.clone()}));
+
+        assertEquals(latitudes.length, count);
+        assertEquals(4, chunks.size());
+        assertEquals(1000, chunks.get(3)[0].length);
+        assertChunks(chunks);
+    }
+
+    @Test(expected = IOException.class)
+    public void testReadTruncatedBinary() throws IOException {
+        val file = folder.newFile().toPath();
+        Files.write(file, new byte[17]);
+        PointFiles.readBinary(file, ByteOrder.BIG_ENDIAN, 10, (latitudes, longitudes) -> {
+        });
+    }
+
+    @Test
+    public void testReadCsv() throws IOException {
+        val file = folder.newFile().toPath();
+        try (val out = new PrintWriter(Files.newBufferedWriter(file, StandardCharsets.US_ASCII))) {
+            out.print("lat;lon;name\r\n");
+            for (int i = 0; i < latitudes.length; i++) {
+                out.print(latitudes[i] + ";" + longitudes[i] + (i % 3 == 0 ? ";depot " + i : "") + (i % 2 == 0 ? "\n" : "\r\n"));
+                if (i % 1000 == 0) out.print("\n");
+            }
+        }
+
+        val chunks = new ArrayList<double[][]>();
+        val count = PointFiles.readCsv(file, ';', true, 4096, (latitudes, longitudes) -> chunks.add(new double[][]{latitudes.clone(), longitudes.clone()}));
+
+        assertEquals(latitudes.length, count);
+        assertChunks(chunks);
+    }
+
+    @Test
+    public void testReadCsvNumbers() throws IOException {
+        val file = folder.newFile().toPath();
+        Files.write(file, "51.4843774,-0.2912044\n-34.6099998, +58.3699998\n  1.5E-3 ,12\n0.12345678901234567890,-180".getBytes(StandardCharsets.US_ASCII));
+
+        val values = new double[8];
+        PointFiles.readCsv(file, ',', false, 10, (latitudes, longitudes) -> {
+            for (int i = 0; i < latitudes.length; i++) {
+                values[2 * i] = latitudes[i];
+                values[2 * i + 1] = longitudes[i];
+            }
+        });
+
+        assertEquals(51.4843774, values[0], 0);
+        assertEquals(-0.2912044, values[1], 0);
+        assertEquals(-34.6099998, values[2], 0);
+        assertEquals(58.3699998, values[3], 0);
+        assertEquals(1.5E-3, values[4], 0);
+        assertEquals(12, values[5], 0);
+        assertEquals(0.12345678901234567890, values[6], 0);
+        assertEquals(-180, values[7], 0);
+    }
+
+    @Test(expected = IOException.class)
+    public void testReadMalformedCsv() throws IOException {
+        val file = folder.newFile().toPath();
+        Files.write(file, "51.4843774,-0.2912044\n-34.6099998;-58.3699998\n".getBytes(StandardCharsets.US_ASCII));
+        PointFiles.readCsv(file, ',', false, 10, (latitudes, longitudes) -> {
+        });
+    }
+
+    private void assertChunks(ArrayList<double[][]> chunks) {
+        int i = 0;
+        for (val chunk : chunks) {
+            for (int j = 0; j < chunk[0].length; j++, i++) {
+                assertEquals(latitudes[i], chunk[0][j], 0);
+                assertEquals(longitudes[i], chunk[1][j], 0);
+            }
+        }
+        assertEquals(latitudes.length, i);
+    }
+}
@@ -0,0 +1,253 @@
+/*
+ * BSD 3-Clause License
+ *
+ * Copyright (c) 2018, Grum Ltd (Romain Gallet)
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ *
+ * Neither the name of Geocalc nor the names of its
+ * contributors may be used to endorse or promote products derived from
+ * this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.grum.geocalc;
+
+import lombok.val;
+import lombok.var;
+import org.junit.Test;
+
+import java.util.BitSet;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class PolygonTest {
+
+    private final Random random = new Random(22);
+
+    @Test
+    public void testContains() {
+        //around Kew Gardens
+        val zone = Polygon.of(new double[]{51.4900, 51.4900, 51.4700, 51.4700}, new double[]{-0.3000, -0.2850, -0.2850, -0.3000});
+        assertEquals(4, zone.vertices());
+        assertTrue(zone.contains(Point.at(51.4843774, -0.2912044)));
+        assertFalse(zone.contains(Point.at(51.4613418, -0.3035466)));
+        assertFalse(zone.contains(51.4800, -0.2800));
+        assertFalse(zone.contains(-51.4800, -0.2900));
+    }
+
+    @Test
+    public void testGreatCircleEdges() {
+        //the southern edge bulges north up to 67.2 degrees, the northern one up to 79.7
+        val zone = Polygon.of(new double[]{50, 50, 70, 70}, new double[]{-60, 60, 60, -60});
+        assertFalse(zone.contains(60, 0));
+        assertTrue(zone.contains(67.5, 0));
+        assertTrue(zone.contains(75, 0));
+        assertFalse(zone.contains(80, 0));
+        assertTrue(zone.contains(55, 59));
+        assertEquals(50, zone.envelope().southWest.latitude, 1E-9);
+        assertEquals(79.7, zone.envelope().northEast.latitude, 0.05);
+    }
+
+    @Test
+    public void testAntimeridian() {
+        val zone = Polygon.of(new double[]{-16, -16, -18, -18, -16}, new double[]{179, -179, -179, 179, 179});
+        assertEquals(4, zone.vertices());
+        assertTrue(zone.contains(-17, 180));
+        assertTrue(zone.contains(-17, -180));
+        assertTrue(zone.contains(-17, 179.5));
+        assertTrue(zone.contains(-17, -179.5));
+        assertFalse(zone.contains(-17, 178.5));
+        assertFalse(zone.contains(-17, 0));
+        assertEquals(179, zone.envelope().southWest.longitude, 1E-9);
+        assertEquals(-179, zone.envelope().northEast.longitude, 1E-9);
+    }
+
+    @Test
+    public void testPoles() {
+        //around the North Pole, either way round
+        val latitudes = new double[12];
+        val longitudes = new double[12];
+        for (int i = 0; i < 12; i++) {
+            latitudes[i] = 80;
+            longitudes[i] = -180 + 30 * i;
+        }
+        for (val cap : new Polygon[]{Polygon.of(latitudes, longitudes), Polygon.of(latitudes, reversed(longitudes))}) {
+            assertTrue(cap.contains(90, 0));
+            assertTrue(cap.contains(85, 45));
+            assertTrue(cap.contains(80.5, -180));
+            assertFalse(cap.contains(79.5, 180));
+            assertFalse(cap.contains(-90, 0));
+            assertEquals(90, cap.envelope().northEast.latitude, 0);
+        }
+
+        //Antarctica-like, cut along the antimeridian and going through the South Pole
+        val antarctica = Polygon.of(new double[]{-70, -70, -70, -70, -70, -90, -90}, new double[]{180, 90, 0, -90, -180, -180, 180});
+        assertTrue(antarctica.contains(-90, 0));
+        assertTrue(antarctica.contains(-80, 10));
+        assertTrue(antarctica.contains(-70.5, 179.9));
+        assertFalse(antarctica.contains(-60, 10));
+        assertFalse(antarctica.contains(90, 0));
+    }
+
+    @Test
+    public void testRandomPolygons() {
+        assertContains(51.5, -0.1, 0.05, 5);
+        assertContains(51.5, -0.1, 0.05, 1_000);
+        assertContains(-17, 179.8, 2, 50);
+        assertContains(-17, 179.8, 2, 1_000);
+        assertContains(0, 0, 40, 50);
+        assertContains(85, 30, 10, 200);
+        assertContains(-85, 30, 10, 200);
+    }
+
+    @Test
+    public void testSelfIntersecting() {
+        //vertices in random order, the polygon being the areas within an odd number of turns of the ring
+        assertContains(51.5, -0.1, 0.05, 10, true);
+        assertContains(51.5, -0.1, 0.05, 200, true);
+        assertContains(-17, 179.8, 2, 200, true);
+    }
+
+    @Test
+    public void testBulkContains() {
+        val zone = star(-17, 179.8, 2, 200);
+        val latitudes = new double[1000];
+        val longitudes = new double[1000];
+        for (int i = 0; i < latitudes.length; i++) {
+            latitudes[i] = -20 + random.nextDouble() * 6;
+            longitudes[i] = 176 + random.nextDouble() * 8;
+            if (longitudes[i] > 180) longitudes[i] -= 360;
+        }
+
+        val bits = BitSet.valueOf(zone.contains(latitudes, longitudes));
+        for (int i = 0; i < latitudes.length; i++) {
+            assertEquals(zone.contains(latitudes[i], longitudes[i]), bits.get(i));
+        }
+        assertTrue(bits.cardinality() > 0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testTooFewVertices() {
+        Polygon.of(new double[]{1, 2, 1}, new double[]{1, 2, 1});
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testEdgeOverPole() {
+        Polygon.of(new double[]{80, 80, 70}, new double[]{0, 180, 90});
+    }
+
+    private void assertContains(double latitude, double longitude, double radius, int vertices) {
+        assertContains(latitude, longitude, radius, vertices, false);
+    }
+
+    /**
+     * Random polygon around a centre: a point is inside when the arc to it from a point beyond the polygon crosses
+     * the edges an odd number of times.
+     */
+    private void assertContains(double latitude, double longitude, double radius, int vertices, boolean scrambled) {
+        val bearings = new double[vertices];
+        val distances = new double[vertices];
+        val zone = star(latitude, longitude, radius, vertices, scrambled, bearings, distances);
+        val ring = new double[3 * vertices];
+        val into = new double[2];
+        val vector = new double[3];
+        for (int i = 0; i < vertices; i++) {
+            EarthCalc.gcd.pointAt(latitude, longitude, bearings[i], distances[i], into);
+            EarthCalc.gcd.toVector(into[0], into[1], vector);
+            System.arraycopy(vector, 0, ring, 3 * i, 3);
+        }
+        val outside = new double[3];
+        EarthCalc.gcd.pointAt(latitude, longitude, 0, 2 * radius * 111_000, into);
+        EarthCalc.gcd.toVector(into[0], into[1], outside);
+
+        val point = new double[3];
+        var inside = 0;
+        for (int k = 0; k < 20_000; k++) {
+            //around the polygon, within 1.2 times its radius
+            EarthCalc.gcd.pointAt(latitude, longitude, random.nextDouble() * 360,
+                    1.2 * radius * 111_000 * Math.sqrt(random.nextDouble()), into);
+            EarthCalc.gcd.toVector(into[0], into[1], point);
+
+            var crossings = 0;
+            for (int i = 0; i < vertices; i++) {
+                if (crosses(outside, point, ring, 3 * i, 3 * ((i + 1) % vertices))) crossings++;
+            }
+            val expected = crossings % 2 == 1;
+            assertEquals(into[0] + ", " + into[1], expected, zone.contains(into[0], into[1]));
+            if (expected) inside++;
+        }
+        assertTrue(inside > 500);
+    }
+
+    private Polygon star(double latitude, double longitude, double radius, int vertices) {
+        return star(latitude, longitude, radius, vertices, false, new double[vertices], new double[vertices]);
+    }
+
+    private Polygon star(double latitude, double longitude, double radius, int vertices, boolean scrambled,
+                         double[] bearings, double[] distances) {
+        val latitudes = new double[vertices];
+        val longitudes = new double[vertices];
+        val into = new double[2];
+        val clockwise = random.nextBoolean();
+        for (int i = 0; i < vertices; i++) {
+            bearings[i] = scrambled ? random.nextDouble() * 360 : (clockwise ? i : -i) * 360.0 / vertices;
+            distances[i] = radius * 111_000 * (0.3 + 0.7 * random.nextDouble());
+            EarthCalc.gcd.pointAt(latitude, longitude, bearings[i], distances[i], into);
+            latitudes[i] = into[0];
+            longitudes[i] = into[1];
+        }
+        return Polygon.of(latitudes, longitudes);
+    }
+
+    //whether the arc from p to q crosses the one from a to b, read at offsets i and j
+    private static boolean crosses(double[] p, double[] q, double[] ring, int i, int j) {
+        val a = new double[]{ring[i], ring[i + 1], ring[i + 2]};
+        val b = new double[]{ring[j], ring[j + 1], ring[j + 2]};
+        val ab = cross(a, b);
+        val pq = cross(p, q);
+        if (Math.signum(dot(ab, p)) == Math.signum(dot(ab, q)) || Math.signum(dot(pq, a)) == Math.signum(dot(pq, b))) {
+            return false;
+        }
+        //the great circles meet at x and -x, the arcs at the one on the side of both
+        val x = cross(ab, pq);
+        val side = dot(x, new double[]{p[0] + q[0], p[1] + q[1], p[2] + q[2]});
+        return side > 0 == dot(x, new double[]{a[0] + b[0], a[1] + b[1], a[2] + b[2]}) > 0;
+    }
+
+    private static double[] cross(double[] u, double[] v) {
+        return new double[]{u[1] * v[2] - u[2] * v[1], u[2] * v[0] - u[0] * v[2], u[0] * v[1] - u[1] * v[0]};
+    }
+
+    private static double dot(double[] u, double[] v) {
+        return u[0] * v[0] + u[1] * v[1] + u[2] * v[2];
+    }
+
+    private static double[] reversed(double[] values) {
+        val reversed = new double[values.length];
+        for (int i = 0; i < values.length; i++) {
+            reversed[i] = values[values.length - 1 - i];
+        }
+        return reversed;
+    }
+}
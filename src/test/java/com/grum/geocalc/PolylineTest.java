@@ -0,0 +1,141 @@
+/*
+ * BSD 3-Clause License
+ *
+ * Copyright (c) 2018, Grum Ltd (Romain Gallet)
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ *
+ * Neither the name of Geocalc nor the names of its
+ * contributors may be used to endorse or promote products derived from
+ * this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.grum.geocalc;
+
+import lombok.val;
+import lombok.var;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+public class PolylineTest {
+
+    private final Random random = new Random(23);
+
+    @Test
+    public void testNearestSegment() {
+        //a winding road of about 250 km
+        assertNearestSegments(walk(51.5, -0.1, 5_000, 0.01), 0.01);
+        //across the antimeridian, and around the North Pole
+        assertNearestSegments(walk(-16.5, 179.5, 2_000, 0.05), 0.1);
+        assertNearestSegments(walk(89.5, 0, 2_000, 0.05), 0.5);
+    }
+
+    @Test
+    public void testLongSegments() {
+        //a few segments spanning continents, one of them going over the North Pole
+        val latitudes = new double[]{51.5, 40.7, -33.9, 35.7, 80, 80};
+        val longitudes = new double[]{-0.1, -74, 151.2, 139.7, -100, 80};
+        val polyline = Polyline.of(latitudes, longitudes, 1);
+        assertNearestSegments(polyline, latitudes, longitudes, 1_000, 90);
+    }
+
+    @Test
+    public void testLargeSegments() {
+        //segments of up to 110 km, a lot wider than cells near the North Pole
+        val walk = walk(60, 170, 10_000, 1);
+        assertNearestSegments(Polyline.of(walk[0], walk[1], 0.2), walk[0], walk[1], 200, 2);
+    }
+
+    @Test
+    public void testSnap() {
+        val latitudes = new double[]{51.4843774, 51.4613418};
+        val longitudes = new double[]{-0.2912044, -0.3035466};
+        val polyline = Polyline.of(latitudes, longitudes, 0.01);
+
+        val start = Point.at(latitudes[0], longitudes[0]);
+        val end = Point.at(latitudes[1], longitudes[1]);
+        val midPoint = EarthCalc.gcd.midPoint(start, end);
+        val point = EarthCalc.gcd.pointAt(midPoint, EarthCalc.gcd.bearing(midPoint, end) + 90, 100);
+
+        val into = new double[4];
+        assertEquals(0, polyline.nearestSegment(point.latitude, point.longitude, into));
+        val closest = EarthCalc.gcd.closestPoint(start, end, point);
+        assertEquals(closest.latitude, into[0], 1E-12);
+        assertEquals(closest.longitude, into[1], 1E-12);
+        assertEquals(Math.abs(EarthCalc.gcd.crossTrackDistance(start, end, point)), into[2], 1E-6);
+        assertEquals(EarthCalc.gcd.alongTrackDistance(start, end, point), into[3], 1E-6);
+        assertEquals(EarthCalc.haversine.distance(start, end) / 2, into[3], 1E-3);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testSingleVertex() {
+        Polyline.of(new double[1], new double[1], 0.01);
+    }
+
+    private double[][] walk(double latitude, double longitude, int vertices, double step) {
+        val latitudes = new double[vertices];
+        val longitudes = new double[vertices];
+        var heading = random.nextDouble() * 360;
+        val into = new double[2];
+        latitudes[0] = latitude;
+        longitudes[0] = longitude;
+        for (int i = 1; i < vertices; i++) {
+            heading += random.nextGaussian() * 20;
+            EarthCalc.gcd.pointAt(latitudes[i - 1], longitudes[i - 1], heading, step * 111_000 * random.nextDouble(), into);
+            latitudes[i] = into[0];
+            longitudes[i] = into[1];
+        }
+        return new double[][]{latitudes, longitudes};
+    }
+
+    private void assertNearestSegments(double[][] walk, double cellSize) {
+        assertNearestSegments(Polyline.of(walk[0], walk[1], cellSize), walk[0], walk[1], 500, cellSize * 5);
+    }
+
+    private void assertNearestSegments(Polyline polyline, double[] latitudes, double[] longitudes, int queries, double spread) {
+        assertEquals(latitudes.length - 1, polyline.segments());
+
+        val into = new double[2];
+        val snapped = new double[4];
+        for (int q = 0; q < queries; q++) {
+            val vertex = random.nextInt(latitudes.length);
+            double latitude = Math.max(-90, Math.min(90, latitudes[vertex] + random.nextGaussian() * spread));
+            double longitude = longitudes[vertex] + random.nextGaussian() * spread;
+            longitude = longitude > 180 ? longitude - 360 : longitude < -180 ? longitude + 360 : longitude;
+
+            var expected = Double.POSITIVE_INFINITY;
+            for (int i = 0; i + 1 < latitudes.length; i++) {
+                expected = Math.min(expected, EarthCalc.gcd.closestPoint(latitudes[i], longitudes[i], latitudes[i + 1], longitudes[i + 1], latitude, longitude, into));
+            }
+
+            int segment = polyline.nearestSegment(latitude, longitude, snapped);
+            assertEquals(expected, snapped[2], 1E-6);
+            assertEquals(expected, EarthCalc.gcd.closestPoint(latitudes[segment], longitudes[segment],
+                    latitudes[segment + 1], longitudes[segment + 1], latitude, longitude, into), 1E-6);
+            assertEquals(segment, polyline.nearestSegment(latitude, longitude));
+        }
+    }
+}
@@ -0,0 +1,92 @@
+/*
+ * BSD 3-Clause License
+ *
+ * Copyright (c) 2018, Grum Ltd (Romain Gallet)
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ *
+ * Neither the name of Geocalc nor the names of its
+ * contributors may be used to endorse or promote products derived from
+ * this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.grum.geocalc;
+
+import lombok.val;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class PreparedPointTest {
+
+    //Kew
+    private final Point kew = Point.at(Coordinate.fromDegrees(51.4843774), Coordinate.fromDegrees(-0.2912044));
+
+    //Richmond, Buenos Aires, Kew itself, the North Pole and across the antimeridian
+    private final Point[] forePoints = {
+            Point.at(Coordinate.fromDegrees(51.4613418), Coordinate.fromDegrees(-0.3035466)),
+            Point.at(Coordinate.fromDMS(-34, 36, 35.9994), Coordinate.fromDMS(-58, 22, 11.9994)),
+            kew,
+            Point.at(Coordinate.fromDegrees(90), Coordinate.fromDegrees(0)),
+            Point.at(Coordinate.fromDegrees(-16.5), Coordinate.fromDegrees(179.5))
+    };
+
+    @Test
+    public void testSameResultsAsEarthCalc() {
+        val prepared = EarthCalc.prepare(kew);
+
+        for (val forePoint : forePoints) {
+            assertEquals(EarthCalc.gcd.distance(kew, forePoint), prepared.gcd.distance(forePoint), 1E-6);
+            assertEquals(EarthCalc.gcd.bearing(kew, forePoint), prepared.gcd.bearing(forePoint), 1E-10);
+
+            assertEquals(EarthCalc.haversine.distance(kew, forePoint), prepared.haversine.distance(forePoint), 1E-6);
+            assertEquals(EarthCalc.gcd.bearing(kew, forePoint), prepared.haversine.bearing(forePoint), 1E-10);
+
+            assertEquals(EarthCalc.vincenty.distance(kew, forePoint), prepared.vincenty.distance(forePoint), 1E-6);
+            assertEquals(EarthCalc.vincenty.bearing(kew, forePoint), prepared.vincenty.bearing(forePoint), 1E-10);
+            assertEquals(EarthCalc.vincenty.finalBearing(kew, forePoint), prepared.vincenty.finalBearing(forePoint), 1E-10);
+        }
+    }
+
+    @Test
+    public void testIsWithin() {
+        val prepared = EarthCalc.prepare(kew);
+        val richmond = forePoints[0];
+        val distance = EarthCalc.haversine.distance(kew, richmond); // ~2.7km
+
+        assertTrue(prepared.gcd.isWithin(richmond, distance + 1));
+        assertFalse(prepared.gcd.isWithin(richmond, distance - 1));
+
+        assertTrue(prepared.haversine.isWithin(richmond, distance + 1E-3));
+        assertFalse(prepared.haversine.isWithin(richmond, distance - 1E-3));
+        assertTrue(prepared.haversine.isWithin(kew, 0));
+
+        val vincentyDistance = EarthCalc.vincenty.distance(kew, richmond);
+        assertTrue(prepared.vincenty.isWithin(richmond, vincentyDistance));
+        assertFalse(prepared.vincenty.isWithin(richmond, vincentyDistance - 1E-3));
+
+        //the whole Earth
+        assertTrue(prepared.gcd.isWithin(forePoints[4], 30_000_000));
+        assertTrue(prepared.haversine.isWithin(forePoints[4], 30_000_000));
+    }
+}
@@ -0,0 +1,157 @@
+/*
+ * BSD 3-Clause License
+ *
+ * Copyright (c) 2018, Grum Ltd (Romain Gallet)
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ *
+ * Neither the name of Geocalc nor the names of its
+ * contributors may be used to endorse or promote products derived from
+ * this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.grum.geocalc;
+import lombok.val;
+import lombok.var;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class TrackAccumulatorTest {
+
+    private static double[][] track() {
+        //a random walk of 1000 fixes of about a kilometer, going across the antimeridian
+        val random = new Random(11);
+        val latitudes = new double[1000];
+        val longitudes = new double[latitudes.length];
+        latitudes[0] = -16.5;
+        longitudes[0] = 178;
+        for (int i = 1; i < latitudes.length; i++) {
+            latitudes[i] = latitudes[i - 1] + random.nextDouble() * .02 - .01;
+            val longitude = longitudes[i - 1] + random.nextDouble() * .02 - .005;
+            longitudes[i] = longitude > 180 ? longitude - 360 : longitude;
+        }
+        return new double[][]{latitudes, longitudes};
+    }
+
+    @Test
+    public void testHaversine() {
+        val track = track();
+        val accumulator = TrackAccumulator.haversine();
+
+        var expected = 0d;
+        for (int i = 0; i < track[0].length; i++) {
+            val segment = accumulator.add(track[0][i], track[1][i]);
+            if (i == 0) {
+                assertEquals(0, segment, 0);
+                assertTrue(Double.isNaN(accumulator.lastSegmentLength()));
+                assertTrue(Double.isNaN(accumulator.lastBearing()));
+                continue;
+            }
+
+            val from = Point.at(Coordinate.fromDegrees(track[0][i - 1]), Coordinate.fromDegrees(track[1][i - 1]));
+            val to = Point.at(Coordinate.fromDegrees(track[0][i]), Coordinate.fromDegrees(track[1][i]));
+            val distance = EarthCalc.haversine.distance(from, to);
+            expected += distance;
+
+            assertEquals(distance, segment, 1E-6);
+            assertEquals(distance, accumulator.lastSegmentLength(), 1E-6);
+            assertEquals(EarthCalc.gcd.bearing(from, to), accumulator.lastBearing(), 1E-9);
+        }
+
+        assertEquals(track[0].length, accumulator.size());
+        assertEquals(expected, accumulator.totalLength(), 1E-3);
+    }
+
+    @Test
+    public void testVincenty() {
+        val track = track();
+        val accumulator = TrackAccumulator.vincenty();
+
+        var expected = 0d;
+        for (int i = 0; i < track[0].length; i++) {
+            accumulator.add(track[0][i], track[1][i]);
+            if (i > 0) {
+                val from = Point.at(Coordinate.fromDegrees(track[0][i - 1]), Coordinate.fromDegrees(track[1][i - 1]));
+                val to = Point.at(Coordinate.fromDegrees(track[0][i]), Coordinate.fromDegrees(track[1][i]));
+                expected += EarthCalc.vincenty.distance(from, to);
+
+                assertEquals(EarthCalc.vincenty.distance(from, to), accumulator.lastSegmentLength(), 1E-6);
+                assertEquals(EarthCalc.vincenty.bearing(from, to), accumulator.lastBearing(), 1E-6);
+            }
+        }
+
+        assertEquals(expected, accumulator.totalLength(), 1E-3);
+    }
+
+    @Test
+    public void testBulkAndReset() {
+        val track = track();
+
+        val oneByOne = TrackAccumulator.haversine();
+        for (int i = 0; i < track[0].length; i++) {
+            oneByOne.add(Point.at(Coordinate.fromDegrees(track[0][i]), Coordinate.fromDegrees(track[1][i])));
+        }
+
+        val bulk = TrackAccumulator.haversine();
+        bulk.add(track[0][0], track[1][0]);
+        bulk.add(track[0][0], track[1][0]); //standing still
+        assertEquals(0, bulk.totalLength(), 0);
+        bulk.reset();
+        assertEquals(0, bulk.size());
+        assertTrue(Double.isNaN(bulk.lastSegmentLength()));
+
+        assertEquals(oneByOne.totalLength(), bulk.add(track[0], track[1]), 1E-6);
+        assertEquals(oneByOne.lastBearing(), bulk.lastBearing(), 0);
+    }
+
+    @Test
+    public void testVincentyFailureKeepsTrack() {
+        val accumulator = TrackAccumulator.vincenty();
+        accumulator.add(0, 0);
+        accumulator.add(0, 1);
+        val length = accumulator.totalLength();
+        val bearing = accumulator.lastBearing();
+
+        try {
+            accumulator.add(0.5, -179.5); //nearly antipodal to the last fix, Vincenty does not converge
+            fail();
+        } catch (IllegalStateException e) {
+            assertEquals(2, accumulator.size());
+            assertEquals(length, accumulator.totalLength(), 0);
+            assertEquals(bearing, accumulator.lastBearing(), 0);
+        }
+
+        //still going on from the last fix
+        val segment = accumulator.add(0, 2);
+        assertEquals(EarthCalc.vincenty.distance(Point.at(Coordinate.fromDegrees(0), Coordinate.fromDegrees(1)),
+                Point.at(Coordinate.fromDegrees(0), Coordinate.fromDegrees(2))), segment, 1E-6);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testBulkMismatchingColumns() {
+        TrackAccumulator.haversine().add(new double[3], new double[2]);
+    }
+}
@@ -0,0 +1,272 @@
+/*
+ * BSD 3-Clause License
+ *
+ * Copyright (c) 2018, Grum Ltd (Romain Gallet)
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ *
+ * Neither the name of Geocalc nor the names of its
+ * contributors may be used to endorse or promote products derived from
+ * this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.grum.geocalc;
+
+import lombok.val;
+import lombok.var;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class TrackSimplifierTest {
+
+    private static double[][] track() {
+        //a noisy drive of 5000 fixes, 10 meters apart, wandering across the antimeridian,
+        //with a u-turn and a stop
+        val random = new Random(17);
+        val latitudes = new double[5000];
+        val longitudes = new double[latitudes.length];
+        var point = Point.at(Coordinate.fromDegrees(-16.5), Coordinate.fromDegrees(179.9));
+        var bearing = 80d;
+        for (int i = 0; i < latitudes.length; i++) {
+            if (i == 2000) {
+                bearing += 180;
+            }
+            bearing += random.nextGaussian() * 2;
+            val step = i >= 3000 && i < 3200 ? 0 : 10;
+            point = EarthCalc.gcd.pointAt(point, bearing, step);
+            latitudes[i] = point.latitude + random.nextGaussian() * 2e-6;
+            longitudes[i] = point.longitude + random.nextGaussian() * 2e-6;
+        }
+        return new double[][]{latitudes, longitudes};
+    }
+
+    //every fix left out is within tolerance of the segment between the kept fixes around it
+    private static void assertWithin(double[] latitudes, double[] longitudes, int[] kept, double tolerance) {
+        assertEquals(0, kept[0]);
+        assertEquals(latitudes.length - 1, kept[kept.length - 1]);
+        for (int k = 1; k < kept.length; k++) {
+            assertTrue(kept[k - 1] < kept[k]);
+            for (int i = kept[k - 1] + 1; i < kept[k]; i++) {
+                val distance = EarthCalc.gcd.closestPoint(latitudes[kept[k - 1]], longitudes[kept[k - 1]],
+                        latitudes[kept[k]], longitudes[kept[k]], latitudes[i], longitudes[i], new double[2]);
+                assertTrue(i + ": " + distance, distance <= tolerance + 1e-6);
+            }
+        }
+    }
+
+    private static int[] stream(double[] latitudes, double[] longitudes, double tolerance) {
+        val kept = new ArrayList<Long>();
+        val simplifier = TrackSimplifier.withTolerance(tolerance, (index, latitude, longitude) -> {
+            assertEquals(latitudes[(int) index], latitude, 0);
+            assertEquals(longitudes[(int) index], longitude, 0);
+            kept.add(index);
+        });
+        for (int i = 0; i < latitudes.length; i++) {
+            simplifier.add(latitudes[i], longitudes[i]);
+        }
+        assertEquals(latitudes.length, simplifier.size());
+        simplifier.finish();
+        assertEquals(0, simplifier.size());
+        return kept.stream().mapToInt(Long::intValue).toArray();
+    }
+
+    @Test
+    public void testDouglasPeucker() {
+        val track = track();
+        for (val tolerance : new double[]{2, 5, 20, 100}) {
+            val kept = TrackSimplifier.douglasPeucker(track[0], track[1], tolerance);
+            assertWithin(track[0], track[1], kept, tolerance);
+            assertTrue(kept.length < track[0].length / 2);
+        }
+    }
+
+    @Test
+    public void testStraight() {
+        val latitudes = new double[100];
+        val longitudes = new double[latitudes.length];
+        for (int i = 0; i < latitudes.length; i++) {
+            latitudes[i] = i * .01;
+            longitudes[i] = 3;
+        }
+        assertArrayEquals(new int[]{0, 99}, TrackSimplifier.douglasPeucker(latitudes, longitudes, .001));
+        assertArrayEquals(new int[]{0, 99}, TrackSimplifier.visvalingam(latitudes, longitudes, .001));
+        assertArrayEquals(new int[]{0, 99}, stream(latitudes, longitudes, .001));
+    }
+
+    @Test
+    public void testUTurn() {
+        //the u-turn is kept, though in line with the way out and back
+        val latitudes = new double[150];
+        val longitudes = new double[latitudes.length];
+        for (int i = 0; i < latitudes.length; i++) {
+            latitudes[i] = (i < 100 ? i : 198 - i) * .001;
+            longitudes[i] = 3;
+        }
+        assertArrayEquals(new int[]{0, 99, 149}, TrackSimplifier.douglasPeucker(latitudes, longitudes, 10));
+        assertArrayEquals(new int[]{0, 99, 149}, stream(latitudes, longitudes, 10));
+    }
+
+    @Test
+    public void testVisvalingam() {
+        val track = track();
+        val latitudes = Arrays.copyOf(track[0], 500);
+        val longitudes = Arrays.copyOf(track[1], 500);
+        for (val area : new double[]{1, 100, 1e4}) {
+            val kept = TrackSimplifier.visvalingam(latitudes, longitudes, area);
+            assertArrayEquals(visvalingam(latitudes, longitudes, area), kept);
+            assertTrue(kept.length < latitudes.length);
+        }
+        assertArrayEquals(new int[]{0, 499}, TrackSimplifier.visvalingam(latitudes, longitudes, 1e12));
+    }
+
+    //removes the smallest triangle, one after the other, looking for it every time
+    private static int[] visvalingam(double[] latitudes, double[] longitudes, double area) {
+        val kept = new ArrayList<Integer>();
+        for (int i = 0; i < latitudes.length; i++) {
+            kept.add(i);
+        }
+        val areas = new double[latitudes.length];
+        for (int i = 1; i < kept.size() - 1; i++) {
+            areas[i] = triangle(latitudes, longitudes, i - 1, i, i + 1);
+        }
+        while (kept.size() > 2) {
+            var smallest = 1;
+            for (int k = 2; k < kept.size() - 1; k++) {
+                if (areas[kept.get(k)] < areas[kept.get(smallest)]) {
+                    smallest = k;
+                }
+            }
+            val removed = areas[kept.get(smallest)];
+            if (removed >= area) {
+                break;
+            }
+            kept.remove(smallest);
+            if (smallest > 1) {
+                val i = kept.get(smallest - 1);
+                areas[i] = Math.max(removed, triangle(latitudes, longitudes, kept.get(smallest - 2), i, kept.get(smallest)));
+            }
+            if (smallest < kept.size() - 1) {
+                val i = kept.get(smallest);
+                areas[i] = Math.max(removed, triangle(latitudes, longitudes, kept.get(smallest - 1), i, kept.get(smallest + 1)));
+            }
+        }
+        return kept.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    //a · (b × c) over 1 + a · b + b · c + c · a, in square meters
+    private static double triangle(double[] latitudes, double[] longitudes, int i, int j, int k) {
+        val a = vector(latitudes[i], longitudes[i]);
+        val b = vector(latitudes[j], longitudes[j]);
+        val c = vector(latitudes[k], longitudes[k]);
+        val triple = a[0] * (b[1] * c[2] - b[2] * c[1]) + a[1] * (b[2] * c[0] - b[0] * c[2]) + a[2] * (b[0] * c[1] - b[1] * c[0]);
+        val ab = a[0] * b[0] + a[1] * b[1] + a[2] * b[2];
+        val bc = b[0] * c[0] + b[1] * c[1] + b[2] * c[2];
+        val ca = c[0] * a[0] + c[1] * a[1] + c[2] * a[2];
+        return 2 * Math.atan2(Math.abs(triple), 1 + ab + bc + ca) * EarthCalc.EARTH_RADIUS * EarthCalc.EARTH_RADIUS;
+    }
+
+    private static double[] vector(double latitude, double longitude) {
+        val φ = Math.toRadians(latitude);
+        val λ = Math.toRadians(longitude);
+        return new double[]{Math.cos(φ) * Math.cos(λ), Math.cos(φ) * Math.sin(λ), Math.sin(φ)};
+    }
+
+    @Test
+    public void testStreaming() {
+        val track = track();
+        for (val tolerance : new double[]{2, 5, 20, 100}) {
+            val kept = stream(track[0], track[1], tolerance);
+            assertWithin(track[0], track[1], kept, tolerance);
+            assertTrue(kept.length < track[0].length / 2);
+            assertTrue(kept.length <= 3 * TrackSimplifier.douglasPeucker(track[0], track[1], tolerance).length);
+        }
+    }
+
+    @Test
+    public void testStreamingTracks() {
+        val kept = new ArrayList<Long>();
+        val simplifier = TrackSimplifier.withTolerance(10, (index, latitude, longitude) -> kept.add(index));
+        simplifier.add(Point.at(Coordinate.fromDegrees(1), Coordinate.fromDegrees(2)));
+        assertEquals(Arrays.asList(0L), kept);
+        simplifier.finish();
+        assertEquals(Arrays.asList(0L), kept);
+
+        //fixes are numbered again for the next track
+        simplifier.add(1, 2);
+        simplifier.add(1, 2.0001);
+        simplifier.add(1, 2.0002);
+        simplifier.finish();
+        assertEquals(Arrays.asList(0L, 0L, 2L), kept);
+        simplifier.finish();
+        assertEquals(3, kept.size());
+    }
+
+    @Test
+    public void testFarApart() {
+        //fixes further apart than a quarter of the Earth
+        val latitudes = new double[]{0, 0, 0, 0, 0};
+        val longitudes = new double[]{0, 60, 120, 180, -120};
+        assertWithin(latitudes, longitudes, stream(latitudes, longitudes, 1000), 1000);
+        assertWithin(latitudes, longitudes, TrackSimplifier.douglasPeucker(latitudes, longitudes, 1000), 1000);
+    }
+
+    @Test
+    public void testFewFixes() {
+        val none = new double[0];
+        assertArrayEquals(new int[0], TrackSimplifier.douglasPeucker(none, none, 10));
+        assertArrayEquals(new int[0], TrackSimplifier.visvalingam(none, none, 10));
+        assertArrayEquals(new int[0], stream(none, none, 10));
+
+        val two = new double[]{1, 2};
+        assertArrayEquals(new int[]{0, 1}, TrackSimplifier.douglasPeucker(two, two, 1e9));
+        assertArrayEquals(new int[]{0, 1}, TrackSimplifier.visvalingam(two, two, 1e15));
+        assertArrayEquals(new int[]{0, 1}, stream(two, two, 1e9));
+    }
+
+    @Test
+    public void testInvalid() {
+        try {
+            TrackSimplifier.douglasPeucker(new double[2], new double[3], 10);
+            fail();
+        } catch (IllegalArgumentException e) {
+            assertEquals("Expected as many longitudes as latitudes, got 3 and 2", e.getMessage());
+        }
+        try {
+            TrackSimplifier.visvalingam(new double[2], new double[2], -1);
+            fail();
+        } catch (IllegalArgumentException e) {
+            assertEquals("Area must be positive, got -1.0", e.getMessage());
+        }
+        try {
+            TrackSimplifier.withTolerance(Double.NaN, (index, latitude, longitude) -> {});
+            fail();
+        } catch (IllegalArgumentException e) {
+            assertEquals("Tolerance must be positive, got NaN", e.getMessage());
+        }
+    }
+}